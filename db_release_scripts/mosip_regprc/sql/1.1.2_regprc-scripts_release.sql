@@ -0,0 +1,47 @@
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_regprc
+-- Release Version 	: 1.1.2
+-- Purpose    		: Database Alter scripts for the release for Registration Processor DB.       
+-- Create By   		: MOSIP
+-- Created Date		: 17-Oct-2026
+-- 
+-- Modified Date        Modified By         Comments / Remarks
+-- -------------------------------------------------------------------------------------------------
+
+\c mosip_regprc sysadmin
+
+CREATE TABLE regprc.individual_demographic_dedup_key(
+	blocking_key character varying(256) NOT NULL,
+	lang_code character varying(3) NOT NULL,
+	reg_id character varying(39) NOT NULL,
+	cr_by character varying(256) NOT NULL,
+	cr_dtimes timestamp NOT NULL,
+	CONSTRAINT pk_idemdkey_id PRIMARY KEY (blocking_key,lang_code,reg_id)
+);
+
+create index idx_idemdkey_reg_id on regprc.individual_demographic_dedup_key (reg_id);
+
+ALTER TABLE regprc.individual_demographic_dedup_key ADD CONSTRAINT fk_idemdkey_idemogd FOREIGN KEY (reg_id,lang_code)
+REFERENCES regprc.individual_demographic_dedup (reg_id,lang_code) MATCH SIMPLE
+ON DELETE NO ACTION ON UPDATE NO ACTION;
+
+GRANT SELECT,INSERT,UPDATE,DELETE,TRUNCATE,REFERENCES ON regprc.individual_demographic_dedup_key TO regprcuser;
+
+GRANT SELECT,INSERT,UPDATE,DELETE,TRUNCATE,REFERENCES ON regprc.individual_demographic_dedup_key TO appadmin;
+
+CREATE TABLE regprc.uin_reservation(
+	uin character varying(36) NOT NULL,
+	status_code character varying(36) NOT NULL,
+	reg_id character varying(39),
+	cr_by character varying(256) NOT NULL,
+	cr_dtimes timestamp NOT NULL,
+	upd_dtimes timestamp,
+	CONSTRAINT pk_uinres_id PRIMARY KEY (uin)
+);
+
+create index idx_uinres_status on regprc.uin_reservation (status_code);
+
+GRANT SELECT,INSERT,UPDATE,DELETE,TRUNCATE,REFERENCES ON regprc.uin_reservation TO regprcuser;
+
+GRANT SELECT,INSERT,UPDATE,DELETE,TRUNCATE,REFERENCES ON regprc.uin_reservation TO appadmin;
+----------------------------------------------------------------------------------------------------
@@ -0,0 +1,17 @@
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_regprc
+-- Release Version 	: 1.1.2
+-- Purpose    		: Revoking Database Alter deployement done for release in Registration ProcessorDB.       
+-- Create By   		: MOSIP
+-- Created Date		: 17-Oct-2026
+-- 
+-- Modified Date        Modified By         Comments / Remarks
+-- -------------------------------------------------------------------------------------------------
+
+\c mosip_regprc sysadmin
+
+DROP TABLE IF EXISTS regprc.individual_demographic_dedup_key;
+
+DROP TABLE IF EXISTS regprc.uin_reservation;
+
+----------------------------------------------------------------------------------------------------
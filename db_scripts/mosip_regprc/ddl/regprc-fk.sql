@@ -34,6 +34,13 @@ REFERENCES regprc.registration (id) MATCH SIMPLE
 ON DELETE NO ACTION ON UPDATE NO ACTION;
 -- ddl-end --
 
+-- object: fk_idemdkey_idemogd | type: CONSTRAINT --
+-- ALTER TABLE regprc.individual_demographic_dedup_key DROP CONSTRAINT IF EXISTS fk_idemdkey_idemogd CASCADE;
+ALTER TABLE regprc.individual_demographic_dedup_key ADD CONSTRAINT fk_idemdkey_idemogd FOREIGN KEY (reg_id,lang_code)
+REFERENCES regprc.individual_demographic_dedup (reg_id,lang_code) MATCH SIMPLE
+ON DELETE NO ACTION ON UPDATE NO ACTION;
+-- ddl-end --
+
 -- object: fk_rmnlver_reg | type: CONSTRAINT --
 -- ALTER TABLE regprc.reg_manual_verification DROP CONSTRAINT IF EXISTS fk_rmnlver_reg CASCADE;
 ALTER TABLE regprc.reg_manual_verification ADD CONSTRAINT fk_rmnlver_reg FOREIGN KEY (reg_id)
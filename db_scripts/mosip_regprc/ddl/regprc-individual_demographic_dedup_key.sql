@@ -0,0 +1,41 @@
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_regprc
+-- Table Name 	: regprc.individual_demographic_dedup_key
+-- Purpose    	: Individual Demographic Dedupe Key: Table stores the hashed blocking keys of an applicant, used to narrow down the demographic dedupe candidates to the individuals sharing a key.
+--           
+-- Create By   	: MOSIP
+-- Created Date	: 17-Oct-2026
+-- 
+-- Modified Date        Modified By         Comments / Remarks
+-- ------------------------------------------------------------------------------------------
+-- 
+-- ------------------------------------------------------------------------------------------
+
+-- object: regprc.individual_demographic_dedup_key | type: TABLE --
+-- DROP TABLE IF EXISTS regprc.individual_demographic_dedup_key CASCADE;
+CREATE TABLE regprc.individual_demographic_dedup_key(
+	blocking_key character varying(256) NOT NULL,
+	lang_code character varying(3) NOT NULL,
+	reg_id character varying(39) NOT NULL,
+	cr_by character varying(256) NOT NULL,
+	cr_dtimes timestamp NOT NULL,
+	CONSTRAINT pk_idemdkey_id PRIMARY KEY (blocking_key,lang_code,reg_id)
+
+);
+
+-- indexes section -------------------------------------------------
+create index idx_idemdkey_reg_id on regprc.individual_demographic_dedup_key (reg_id);
+
+-- ddl-end --
+COMMENT ON TABLE regprc.individual_demographic_dedup_key IS 'Individual Demographic Dedupe Key: Table stores the hashed blocking keys of an applicant, used to narrow down the demographic dedupe candidates to the individuals sharing a key.';
+-- ddl-end --
+COMMENT ON COLUMN regprc.individual_demographic_dedup_key.blocking_key IS 'Blocking Key: Hash of the phonetic name code combined with the year of birth and gender of an individual';
+-- ddl-end --
+COMMENT ON COLUMN regprc.individual_demographic_dedup_key.lang_code IS 'Language Code : For multilanguage implementation this attribute Refers master.language.code. The value of some of the attributes in current record is stored in this respective language.';
+-- ddl-end --
+COMMENT ON COLUMN regprc.individual_demographic_dedup_key.reg_id IS 'Registration id of applicant';
+-- ddl-end --
+COMMENT ON COLUMN regprc.individual_demographic_dedup_key.cr_by IS 'Created By : ID or name of the user who create / insert record.';
+-- ddl-end --
+COMMENT ON COLUMN regprc.individual_demographic_dedup_key.cr_dtimes IS 'Created DateTimestamp : Date and Timestamp when the record is created/inserted';
+-- ddl-end --
@@ -0,0 +1,44 @@
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_regprc
+-- Table Name 	: regprc.uin_reservation
+-- Purpose    	: UIN Reservation: Table stores the UINs fetched ahead of time from the UIN generator, while they are reserved, taken by a registration or waiting for their status to be acknowledged to the UIN generator.
+--           
+-- Create By   	: MOSIP
+-- Created Date	: 17-Oct-2026
+-- 
+-- Modified Date        Modified By         Comments / Remarks
+-- ------------------------------------------------------------------------------------------
+-- 
+-- ------------------------------------------------------------------------------------------
+
+-- object: regprc.uin_reservation | type: TABLE --
+-- DROP TABLE IF EXISTS regprc.uin_reservation CASCADE;
+CREATE TABLE regprc.uin_reservation(
+	uin character varying(36) NOT NULL,
+	status_code character varying(36) NOT NULL,
+	reg_id character varying(39),
+	cr_by character varying(256) NOT NULL,
+	cr_dtimes timestamp NOT NULL,
+	upd_dtimes timestamp,
+	CONSTRAINT pk_uinres_id PRIMARY KEY (uin)
+
+);
+
+-- indexes section -------------------------------------------------
+create index idx_uinres_status on regprc.uin_reservation (status_code);
+
+-- ddl-end --
+COMMENT ON TABLE regprc.uin_reservation IS 'UIN Reservation: Table stores the UINs fetched ahead of time from the UIN generator, while they are reserved, taken by a registration or waiting for their status to be acknowledged to the UIN generator.';
+-- ddl-end --
+COMMENT ON COLUMN regprc.uin_reservation.uin IS 'UIN: Unique identification number fetched from the UIN generator';
+-- ddl-end --
+COMMENT ON COLUMN regprc.uin_reservation.status_code IS 'Status Code: RESERVED once fetched, TAKEN once handed to a registration, ASSIGNED or UNASSIGNED while the status is to be acknowledged to the UIN generator';
+-- ddl-end --
+COMMENT ON COLUMN regprc.uin_reservation.reg_id IS 'Registration ID: Registration id the UIN is taken for';
+-- ddl-end --
+COMMENT ON COLUMN regprc.uin_reservation.cr_by IS 'Created By : ID or name of the user who create / insert record.';
+-- ddl-end --
+COMMENT ON COLUMN regprc.uin_reservation.cr_dtimes IS 'Created DateTimestamp : Date and Timestamp when the record is created/inserted';
+-- ddl-end --
+COMMENT ON COLUMN regprc.uin_reservation.upd_dtimes IS 'Updated DateTimestamp : Date and Timestamp when any of the fields in the record is updated with new values.';
+-- ddl-end --
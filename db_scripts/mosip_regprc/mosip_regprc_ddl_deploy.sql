@@ -1,6 +1,7 @@
 \c mosip_regprc sysadmin
 
 \ir ddl/regprc-individual_demographic_dedup.sql
+\ir ddl/regprc-individual_demographic_dedup_key.sql
 \ir ddl/regprc-registration.sql
 \ir ddl/regprc-registration_list.sql
 \ir ddl/regprc-registration_transaction.sql
@@ -16,5 +17,6 @@
 \ir ddl/regprc-abis_response_det.sql
 
 \ir ddl/regprc-reg_lost_uin_det.sql
+\ir ddl/regprc-uin_reservation.sql
 
 \ir ddl/regprc-fk.sql
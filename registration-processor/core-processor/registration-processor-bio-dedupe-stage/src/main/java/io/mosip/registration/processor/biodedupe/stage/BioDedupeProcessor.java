@@ -275,6 +275,7 @@ public class BioDedupeProcessor {
 			object.setInternalError(Boolean.TRUE);
 			object.setIsValid(Boolean.FALSE);
 		} finally {
+			packetManagerService.evictPacket(registrationId);
 			registrationStatusDto
 					.setLatestTransactionTypeCode(RegistrationTransactionTypeCode.BIOGRAPHIC_VERIFICATION.toString());
 			String moduleId = isTransactionSuccessful ? PlatformSuccessMessages.RPR_BIO_DEDUPE_SUCCESS.getCode()
@@ -588,6 +589,7 @@ public class BioDedupeProcessor {
 
 	private boolean compareDemoDedupe(String id, String source, String process, Map<String, String> matchedAttribute) throws ApisResourceAccessException, IOException, PacketManagerException, JsonProcessingException {
 		boolean isMatch = false;
+		packetManagerService.prefetchFields(id, matchedAttribute.keySet(), source, process);
 
 		for (String key : matchedAttribute.keySet()) {
 			String value = packetManagerService.getField(id, key, source, process);
@@ -1,9 +1,13 @@
 package io.mosip.registration.processor.stages.demodedupe;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
@@ -38,6 +42,13 @@ public class DemoDedupe {
 	@Autowired
 	private PacketInfoDao packetInfoDao;
 
+	/**
+	 * Also look up candidates sharing a phonetic blocking key (name sound, year of
+	 * birth and gender), on top of the exact name, gender and dob matches.
+	 */
+	@Value("${registration.processor.demodedupe.blocking-key.enabled:false}")
+	private boolean blockingKeyEnabled;
+
 	/**
 	 * Perform dedupe.
 	 *
@@ -56,6 +67,17 @@ public class DemoDedupe {
 			infoDtos.addAll(packetInfoDao.getAllDemographicInfoDtos(demoDto.getName(), demoDto.getGenderCode(),
 					demoDto.getDob(), demoDto.getLangCode()));
 		}
+		if (blockingKeyEnabled) {
+			Set<String> exactMatches = infoDtos.stream().map(dto -> dto.getRegId() + dto.getLangCode())
+					.collect(Collectors.toSet());
+			for (DemographicInfoDto demoDto : applicantDemoDto) {
+				for (DemographicInfoDto dto : packetInfoDao.getDemographicInfoDtosByBlockingKeys(refId,
+						demoDto.getLangCode())) {
+					if (exactMatches.add(dto.getRegId() + dto.getLangCode()))
+						infoDtos.add(dto);
+				}
+			}
+		}
 		demographicInfoDtos = getAllDemographicInfoDtosWithUin(infoDtos);
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REFFERENCEID.toString(), refId,
 				"DemoDedupe::performDedupe()::exit");
@@ -65,8 +87,13 @@ public class DemoDedupe {
 	private List<DemographicInfoDto> getAllDemographicInfoDtosWithUin(
 			List<DemographicInfoDto> duplicateDemographicDtos) {
 		List<DemographicInfoDto> demographicInfoDtosWithUin = new ArrayList<>();
+		if (duplicateDemographicDtos.isEmpty())
+			return demographicInfoDtosWithUin;
+		List<String> rids = duplicateDemographicDtos.stream().map(DemographicInfoDto::getRegId).distinct()
+				.collect(Collectors.toList());
+		Set<String> ridsWithUin = new HashSet<>(registrationStatusService.getRidsWithUinAvailable(rids));
 		for (DemographicInfoDto demographicDto : duplicateDemographicDtos) {
-			if (registrationStatusService.checkUinAvailabilityForRid(demographicDto.getRegId())) {
+			if (ridsWithUin.contains(demographicDto.getRegId())) {
 				demographicInfoDtosWithUin.add(demographicDto);
 			}
 
@@ -74,5 +101,4 @@ public class DemoDedupe {
 		return demographicInfoDtosWithUin;
 	}
 
-
 }
@@ -19,6 +19,7 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 import org.springframework.core.env.Environment;
 
 import io.mosip.kernel.core.util.HMACUtils;
@@ -105,7 +106,8 @@ public class DemoDedupeTest {
 		// Mockito.when(packetInfoManager.getApplicantIrisImageNameById(anyString())).thenReturn(iris);
 
 
-		Mockito.when(registrationStatusService.checkUinAvailabilityForRid(any())).thenReturn(true);
+		Mockito.when(registrationStatusService.getRidsWithUinAvailable(any()))
+				.thenAnswer(invocation -> invocation.getArguments()[0]);
 
 		byte[] data = "1234567890".getBytes();
 		PowerMockito.mockStatic(IOUtils.class);
@@ -137,6 +139,50 @@ public class DemoDedupeTest {
 		assertEquals("Test for Dedupe Duplicate found", false, duplicates.isEmpty());
 	}
 
+	/**
+	 * Test dedupe with blocking keys, where a candidate sharing a blocking key is
+	 * added and only the candidates with uin are returned.
+	 */
+	@Test
+	public void testDedupeWithBlockingKeys() {
+		String regId = "1234567890";
+		Whitebox.setInternalState(demoDedupe, "blockingKeyEnabled", true);
+
+		DemographicInfoDto applicant = demographicInfoDto(regId);
+		DemographicInfoDto exactMatch = demographicInfoDto("1001");
+		DemographicInfoDto phoneticMatch = demographicInfoDto("1002");
+		DemographicInfoDto withoutUin = demographicInfoDto("1003");
+		List<DemographicInfoDto> applicantDtos = new ArrayList<>();
+		applicantDtos.add(applicant);
+		List<DemographicInfoDto> exactDtos = new ArrayList<>();
+		exactDtos.add(exactMatch);
+		List<DemographicInfoDto> blockingKeyDtos = new ArrayList<>();
+		blockingKeyDtos.add(exactMatch);
+		blockingKeyDtos.add(phoneticMatch);
+		blockingKeyDtos.add(withoutUin);
+		List<String> ridsWithUin = new ArrayList<>();
+		ridsWithUin.add("1001");
+		ridsWithUin.add("1002");
+
+		Mockito.when(packetInfoDao.findDemoById(regId)).thenReturn(applicantDtos);
+		Mockito.when(packetInfoDao.getAllDemographicInfoDtos(any(), any(), any(), any())).thenReturn(exactDtos);
+		Mockito.when(packetInfoDao.getDemographicInfoDtosByBlockingKeys(regId, "eng")).thenReturn(blockingKeyDtos);
+		Mockito.when(registrationStatusService.getRidsWithUinAvailable(any())).thenReturn(ridsWithUin);
+
+		List<DemographicInfoDto> duplicates = demoDedupe.performDedupe(regId);
+		assertEquals(2, duplicates.size());
+		assertEquals("1001", duplicates.get(0).getRegId());
+		assertEquals("1002", duplicates.get(1).getRegId());
+		Mockito.verify(registrationStatusService, Mockito.times(1)).getRidsWithUinAvailable(any());
+	}
+
+	private DemographicInfoDto demographicInfoDto(String regId) {
+		DemographicInfoDto dto = new DemographicInfoDto();
+		dto.setRegId(regId);
+		dto.setLangCode("eng");
+		return dto;
+	}
+
 	/**
 	 * Test demodedupe empty.
 	 */
@@ -1,7 +1,10 @@
 package io.mosip.registration.processor.reprocessor.stage;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -205,7 +208,6 @@ public class ReprocessorStage extends MosipVerticleAPIManager {
 	 */
 	@Override
 	public MessageDTO process(MessageDTO object) {
-		List<InternalRegistrationStatusDto> dtolist = null;
 		LogDescription description = new LogDescription();
 		List<String> statusList = new ArrayList<>();
 		statusList.add(RegistrationTransactionStatusCode.SUCCESS.toString());
@@ -217,71 +219,21 @@ public class ReprocessorStage extends MosipVerticleAPIManager {
 			Integer totalUnprocessesPackets = registrationStatusService.getUnProcessedPacketsCount(elapseTime,
 					reprocessCount, statusList);
 
-			while (totalUnprocessesPackets > 0) {
-				dtolist = registrationStatusService.getUnProcessedPackets(fetchSize, elapseTime, reprocessCount,
-						statusList);
-				if (!(dtolist.isEmpty())) {
-					dtolist.forEach(dto -> {
-						this.registrationId = dto.getRegistrationId();
-						if (reprocessCount.equals(dto.getReProcessRetryCount())) {
-							dto.setLatestTransactionStatusCode(
-									RegistrationTransactionStatusCode.REPROCESS_FAILED.toString());
-							dto.setLatestTransactionTypeCode(
-									RegistrationTransactionTypeCode.PACKET_REPROCESS.toString());
-							dto.setStatusComment(StatusUtil.RE_PROCESS_FAILED.getMessage());
-							dto.setStatusCode(RegistrationStatusCode.REPROCESS_FAILED.toString());
-							dto.setSubStatusCode(StatusUtil.RE_PROCESS_FAILED.getCode());
-							object.setRid(registrationId);
-							object.setIsValid(false);
-							object.setReg_type(RegistrationType.valueOf(dto.getRegistrationType()));
-							description.setMessage(PlatformSuccessMessages.RPR_RE_PROCESS_FAILED.getMessage());
-							description.setCode(PlatformSuccessMessages.RPR_RE_PROCESS_FAILED.getCode());
-
-						} else {
-							object.setRid(registrationId);
-							object.setIsValid(true);
-							object.setReg_type(RegistrationType.valueOf(dto.getRegistrationType()));
-							isTransactionSuccessful = true;
-							String stageName = MessageBusUtil.getMessageBusAdress(dto.getRegistrationStageName());
-							if (RegistrationTransactionStatusCode.SUCCESS.name()
-									.equalsIgnoreCase(dto.getLatestTransactionStatusCode())) {
-								stageName = stageName.concat(ReprocessorConstants.BUS_OUT);
-							} else {
-								stageName = stageName.concat(ReprocessorConstants.BUS_IN);
-							}
-							MessageBusAddress address = new MessageBusAddress(stageName);
-							sendMessage(object, address);
-							dto.setUpdatedBy(ReprocessorConstants.USER);
-							Integer reprocessRetryCount = dto.getReProcessRetryCount() != null
-									? dto.getReProcessRetryCount() + 1
-									: 1;
-							dto.setReProcessRetryCount(reprocessRetryCount);
-							dto.setLatestTransactionStatusCode(RegistrationTransactionStatusCode.SUCCESS.toString());
-							dto.setLatestTransactionTypeCode(
-									RegistrationTransactionTypeCode.PACKET_REPROCESS.toString());
-							dto.setStatusComment(StatusUtil.RE_PROCESS_COMPLETED.getMessage());
-							dto.setSubStatusCode(StatusUtil.RE_PROCESS_COMPLETED.getCode());
-							description.setMessage(PlatformSuccessMessages.RPR_SENT_TO_REPROCESS_SUCCESS.getMessage());
-							description.setCode(PlatformSuccessMessages.RPR_SENT_TO_REPROCESS_SUCCESS.getCode());
-						}
-						regProcLogger.info(LoggerFileConstant.SESSIONID.toString(),
-								LoggerFileConstant.REGISTRATIONID.toString(), registrationId, description.getMessage());
-
-						/** Module-Id can be Both Success/Error code */
-						String moduleId = PlatformSuccessMessages.RPR_SENT_TO_REPROCESS_SUCCESS.getCode();
-						String moduleName = ModuleName.RE_PROCESSOR.toString();
-						registrationStatusService.updateRegistrationStatus(dto, moduleId, moduleName);
-						String eventId = EventId.RPR_402.toString();
-						String eventName = EventName.UPDATE.toString();
-						String eventType = EventType.BUSINESS.toString();
-
-						auditLogRequestBuilder.createAuditRequestBuilder(description.getMessage(), eventId, eventName,
-								eventType, moduleId, moduleName, registrationId);
-					});
-
-					totalUnprocessesPackets = totalUnprocessesPackets - fetchSize;
-				}
-
+			if (totalUnprocessesPackets > 0) {
+				regProcLogger.info(LoggerFileConstant.SESSIONID.toString(),
+						LoggerFileConstant.REGISTRATIONID.toString(), "",
+						"ReprocessorStage::process()::" + totalUnprocessesPackets + " packets to reprocess");
+				LocalDateTime timeDifference = LocalDateTime.now().minusSeconds(elapseTime);
+				String lastRegistrationId = "";
+				List<InternalRegistrationStatusDto> dtolist;
+				do {
+					dtolist = registrationStatusService.getUnProcessedPackets(lastRegistrationId, fetchSize,
+							timeDifference, reprocessCount, statusList);
+					if (!dtolist.isEmpty()) {
+						processPage(dtolist, object, description);
+						lastRegistrationId = dtolist.get(dtolist.size() - 1).getRegistrationId();
+					}
+				} while (dtolist.size() == fetchSize);
 			}
 
 		} catch (TablenotAccessibleException e) {
@@ -323,4 +275,82 @@ public class ReprocessorStage extends MosipVerticleAPIManager {
 
 		return object;
 	}
+
+	/**
+	 * Marks one page of packets for reprocess or as reprocess failed, updates
+	 * their status in a single transaction and then sends the packets back to
+	 * their stage.
+	 *
+	 * @param dtolist
+	 *            the page of packets
+	 * @param object
+	 *            the message dto, left with the values of the last packet
+	 * @param description
+	 *            the description
+	 */
+	private void processPage(List<InternalRegistrationStatusDto> dtolist, MessageDTO object,
+			LogDescription description) {
+		Map<MessageDTO, MessageBusAddress> messages = new LinkedHashMap<>();
+		List<String> descriptions = new ArrayList<>(dtolist.size());
+		for (InternalRegistrationStatusDto dto : dtolist) {
+			this.registrationId = dto.getRegistrationId();
+			if (reprocessCount.equals(dto.getReProcessRetryCount())) {
+				dto.setLatestTransactionStatusCode(RegistrationTransactionStatusCode.REPROCESS_FAILED.toString());
+				dto.setLatestTransactionTypeCode(RegistrationTransactionTypeCode.PACKET_REPROCESS.toString());
+				dto.setStatusComment(StatusUtil.RE_PROCESS_FAILED.getMessage());
+				dto.setStatusCode(RegistrationStatusCode.REPROCESS_FAILED.toString());
+				dto.setSubStatusCode(StatusUtil.RE_PROCESS_FAILED.getCode());
+				object.setRid(registrationId);
+				object.setIsValid(false);
+				object.setReg_type(RegistrationType.valueOf(dto.getRegistrationType()));
+				description.setMessage(PlatformSuccessMessages.RPR_RE_PROCESS_FAILED.getMessage());
+				description.setCode(PlatformSuccessMessages.RPR_RE_PROCESS_FAILED.getCode());
+			} else {
+				object.setRid(registrationId);
+				object.setIsValid(true);
+				object.setReg_type(RegistrationType.valueOf(dto.getRegistrationType()));
+				isTransactionSuccessful = true;
+				String stageName = MessageBusUtil.getMessageBusAdress(dto.getRegistrationStageName());
+				if (RegistrationTransactionStatusCode.SUCCESS.name()
+						.equalsIgnoreCase(dto.getLatestTransactionStatusCode())) {
+					stageName = stageName.concat(ReprocessorConstants.BUS_OUT);
+				} else {
+					stageName = stageName.concat(ReprocessorConstants.BUS_IN);
+				}
+				MessageDTO message = new MessageDTO();
+				message.setRid(registrationId);
+				message.setIsValid(true);
+				message.setReg_type(object.getReg_type());
+				messages.put(message, new MessageBusAddress(stageName));
+				dto.setUpdatedBy(ReprocessorConstants.USER);
+				Integer reprocessRetryCount = dto.getReProcessRetryCount() != null ? dto.getReProcessRetryCount() + 1
+						: 1;
+				dto.setReProcessRetryCount(reprocessRetryCount);
+				dto.setLatestTransactionStatusCode(RegistrationTransactionStatusCode.SUCCESS.toString());
+				dto.setLatestTransactionTypeCode(RegistrationTransactionTypeCode.PACKET_REPROCESS.toString());
+				dto.setStatusComment(StatusUtil.RE_PROCESS_COMPLETED.getMessage());
+				dto.setSubStatusCode(StatusUtil.RE_PROCESS_COMPLETED.getCode());
+				description.setMessage(PlatformSuccessMessages.RPR_SENT_TO_REPROCESS_SUCCESS.getMessage());
+				description.setCode(PlatformSuccessMessages.RPR_SENT_TO_REPROCESS_SUCCESS.getCode());
+			}
+			descriptions.add(description.getMessage());
+		}
+
+		/** Module-Id can be Both Success/Error code */
+		String moduleId = PlatformSuccessMessages.RPR_SENT_TO_REPROCESS_SUCCESS.getCode();
+		String moduleName = ModuleName.RE_PROCESSOR.toString();
+		registrationStatusService.updateRegistrationStatuses(dtolist, moduleId, moduleName);
+		messages.forEach(this::sendMessage);
+
+		String eventId = EventId.RPR_402.toString();
+		String eventName = EventName.UPDATE.toString();
+		String eventType = EventType.BUSINESS.toString();
+		for (int i = 0; i < dtolist.size(); i++) {
+			String rid = dtolist.get(i).getRegistrationId();
+			regProcLogger.info(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					rid, descriptions.get(i));
+			auditLogRequestBuilder.createAuditRequestBuilder(descriptions.get(i), eventId, eventName, eventType,
+					moduleId, moduleName, rid);
+		}
+	}
 }
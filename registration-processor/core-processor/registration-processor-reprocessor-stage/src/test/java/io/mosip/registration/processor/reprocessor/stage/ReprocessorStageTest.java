@@ -3,9 +3,11 @@ package io.mosip.registration.processor.reprocessor.stage;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -113,8 +115,8 @@ public class ReprocessorStageTest {
 		dtolist.add(registrationStatusDto1);
 		Mockito.when(registrationStatusService.getUnProcessedPacketsCount(anyLong(), anyInt(), anyList()))
 				.thenReturn(1);
-		Mockito.when(registrationStatusService.getUnProcessedPackets(anyInt(), anyLong(), anyInt(), anyList()))
-				.thenReturn(dtolist);
+		Mockito.when(registrationStatusService.getUnProcessedPackets(anyString(), anyInt(), any(), anyInt(), anyList()))
+				.thenReturn(dtolist, new ArrayList<>());
 		dto = reprocessorStage.process(dto);
 		assertTrue(dto.getIsValid());
 	}
@@ -141,10 +143,14 @@ public class ReprocessorStageTest {
 		dtolist.add(registrationStatusDto1);
 		Mockito.when(registrationStatusService.getUnProcessedPacketsCount(anyLong(), anyInt(), anyList()))
 				.thenReturn(1);
-		Mockito.when(registrationStatusService.getUnProcessedPackets(anyInt(), anyLong(), anyInt(), anyList()))
-				.thenReturn(dtolist);
+		Mockito.when(registrationStatusService.getUnProcessedPackets(anyString(), anyInt(), any(), anyInt(), anyList()))
+				.thenReturn(dtolist, new ArrayList<>());
 		dto = reprocessorStage.process(dto);
 		assertFalse(dto.getIsValid());
+		Mockito.verify(registrationStatusService, Mockito.times(1)).updateRegistrationStatuses(Mockito.eq(dtolist),
+				anyString(), anyString());
+		Mockito.verify(registrationStatusService).getUnProcessedPackets(Mockito.eq("2018701130000410092018110734"),
+				anyInt(), any(), anyInt(), anyList());
 	}
 
 	/**
@@ -1,9 +1,16 @@
 package io.mosip.registration.processor.stages.uingenerator.config;
 
 import io.mosip.registration.processor.packet.storage.utils.IdSchemaUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.packet.storage.entity.UinReservationEntity;
+import io.mosip.registration.processor.packet.storage.repository.BasePacketRepository;
 import io.mosip.registration.processor.stages.uingenerator.stage.UinGeneratorStage;
+import io.mosip.registration.processor.stages.uingenerator.util.UinReservationPool;
 
 @Configuration
 public class UINBeanConfig {
@@ -17,4 +24,18 @@ public class UINBeanConfig {
 	public IdSchemaUtil idSchemaUtil() {
 		return new IdSchemaUtil();
 	}
+
+	@Bean(initMethod = "start", destroyMethod = "shutdown")
+	@ConditionalOnProperty(name = "registration.processor.uin.pool.enabled", havingValue = "true")
+	public UinReservationPool getUinReservationPool(
+			RegistrationProcessorRestClientService<Object> registrationProcessorRestClientService,
+			BasePacketRepository<UinReservationEntity, String> uinReservationRepository,
+			@Value("${registration.processor.uin.pool.low-watermark:20}") int lowWatermark,
+			@Value("${registration.processor.uin.pool.high-watermark:100}") int highWatermark,
+			@Value("${registration.processor.uin.pool.fetch-threads:4}") int fetchThreads,
+			@Value("${registration.processor.uin.pool.ack-batch-size:50}") int ackBatchSize,
+			@Value("${registration.processor.uin.pool.ack-flush-interval-millis:1000}") long ackFlushIntervalMillis) {
+		return new UinReservationPool(registrationProcessorRestClientService, uinReservationRepository, lowWatermark,
+				highWatermark, fetchThreads, ackBatchSize, ackFlushIntervalMillis);
+	}
 }
@@ -36,5 +36,11 @@ public class UINConstants {
 
 	/** The Constant UIN_UNASSIGNED. */
 	public static final String UIN_UNASSIGNED = "UNASSIGNED";
+
+	/** The Constant UIN_RESERVED. */
+	public static final String UIN_RESERVED = "RESERVED";
+
+	/** The Constant UIN_TAKEN. */
+	public static final String UIN_TAKEN = "TAKEN";
 	
 }
@@ -81,6 +81,7 @@ import io.mosip.registration.processor.stages.uingenerator.exception.VidCreation
 import io.mosip.registration.processor.stages.uingenerator.idrepo.dto.IdRequestDto;
 import io.mosip.registration.processor.stages.uingenerator.idrepo.dto.IdResponseDTO;
 import io.mosip.registration.processor.stages.uingenerator.idrepo.dto.RequestDto;
+import io.mosip.registration.processor.stages.uingenerator.util.UinReservationPool;
 import io.mosip.registration.processor.stages.uingenerator.util.UinStatusMessage;
 import io.mosip.registration.processor.status.code.RegistrationStatusCode;
 import io.mosip.registration.processor.status.code.RegistrationType;
@@ -179,6 +180,10 @@ public class UinGeneratorStage extends MosipVerticleAPIManager {
 	@Autowired
 	private IdSchemaUtil idSchemaUtil;
 
+	/** The uin reservation pool, present when uin pre-fetching is enabled. */
+	@Autowired(required = false)
+	private UinReservationPool uinReservationPool;
+
 	private TrimExceptionMessage trimExceptionMessage = new TrimExceptionMessage();
 
 	/*
@@ -230,13 +235,17 @@ public class UinGeneratorStage extends MosipVerticleAPIManager {
 
 				if (StringUtils.isEmpty(uinField) || uinField.equalsIgnoreCase("null") ) {
 
-					String test = (String) registrationProcessorRestClientService.getApi(ApiName.UINGENERATOR, null, "",
-							"", String.class);
+					if (uinReservationPool != null) {
+						uinField = uinReservationPool.take(registrationId);
+					} else {
+						String test = (String) registrationProcessorRestClientService.getApi(ApiName.UINGENERATOR,
+								null, "", "", String.class);
 
-					Gson gsonObj = new Gson();
-					uinResponseDto = gsonObj.fromJson(test, UinGenResponseDto.class);
+						Gson gsonObj = new Gson();
+						uinResponseDto = gsonObj.fromJson(test, UinGenResponseDto.class);
 
-					uinField = uinResponseDto.getResponse().getUin();
+						uinField = uinResponseDto.getResponse().getUin();
+					}
 					demographicIdentity.put("UIN", uinField);
 
 					idResponseDTO = sendIdRepoWithUin(registrationId, source, registrationStatusDto.getRegistrationType(), demographicIdentity,
@@ -245,12 +254,11 @@ public class UinGeneratorStage extends MosipVerticleAPIManager {
 					boolean isUinAlreadyPresent = isUinAlreadyPresent(idResponseDTO, registrationId);
 
 					if (isIdResponseNotNull(idResponseDTO) || isUinAlreadyPresent) {
-						generateVid(registrationId, uinResponseDto.getResponse().getUin(), isUinAlreadyPresent);
+						generateVid(registrationId, uinField, isUinAlreadyPresent);
 						registrationStatusDto.setStatusComment(StatusUtil.UIN_GENERATED_SUCCESS.getMessage());
 						registrationStatusDto.setSubStatusCode(StatusUtil.UIN_GENERATED_SUCCESS.getCode());
 						String uinStatus = isUinAlreadyPresent ? UINConstants.UIN_UNASSIGNED : UINConstants.UIN_ASSIGNED;
-						sendResponseToUinGenerator(registrationId, uinResponseDto.getResponse().getUin(),
-								uinStatus);
+						sendResponseToUinGenerator(registrationId, uinField, uinStatus);
 						isTransactionSuccessful = true;
 						registrationStatusDto.setStatusCode(RegistrationStatusCode.PROCESSED.toString());
 						description.setMessage(PlatformSuccessMessages.RPR_UIN_GENERATOR_STAGE_SUCCESS.getMessage());
@@ -269,8 +277,7 @@ public class UinGeneratorStage extends MosipVerticleAPIManager {
 						registrationStatusDto.setStatusCode(RegistrationStatusCode.REJECTED.toString());
 						registrationStatusDto.setLatestTransactionStatusCode(registrationStatusMapperUtil
 								.getStatusCode(RegistrationExceptionTypeCode.PACKET_UIN_GENERATION_FAILED));
-						sendResponseToUinGenerator(registrationId, uinResponseDto.getResponse().getUin(),
-								UINConstants.UIN_UNASSIGNED);
+						sendResponseToUinGenerator(registrationId, uinField, UINConstants.UIN_UNASSIGNED);
 						isTransactionSuccessful = false;
 						description.setMessage(PlatformErrorMessages.RPR_UGS_UIN_UPDATE_FAILURE.getMessage());
 						description.setCode(PlatformErrorMessages.RPR_UGS_UIN_UPDATE_FAILURE.getCode());
@@ -382,6 +389,7 @@ public class UinGeneratorStage extends MosipVerticleAPIManager {
 			description.setMessage(PlatformErrorMessages.RPR_BDD_UNKNOWN_EXCEPTION.getMessage());
 			description.setCode(PlatformErrorMessages.RPR_BDD_UNKNOWN_EXCEPTION.getCode());
 		} finally {
+			packetManagerService.evictPacket(registrationId);
 			if (description.getStatusComment() != null)
 				registrationStatusDto.setStatusComment(description.getStatusComment());
 			if (description.getStatusCode() != null)
@@ -922,7 +930,8 @@ public class UinGeneratorStage extends MosipVerticleAPIManager {
 	}
 
 	/**
-	 * Send response to uin generator.
+	 * Send response to uin generator. When the uin pool is enabled the status is
+	 * queued and sent with the next acknowledgement batch.
 	 *
 	 * @param uin
 	 *            the uin
@@ -934,6 +943,10 @@ public class UinGeneratorStage extends MosipVerticleAPIManager {
 	 */
 	private void sendResponseToUinGenerator(String registrationId, String uin, String uinStatus)
 			throws ApisResourceAccessException, IOException {
+		if (uinReservationPool != null) {
+			uinReservationPool.acknowledge(registrationId, uin, uinStatus);
+			return;
+		}
 		UinRequestDto uinRequest = new UinRequestDto();
 		UinResponseDto uinDto = new UinResponseDto();
 		uinDto.setUin(uin);
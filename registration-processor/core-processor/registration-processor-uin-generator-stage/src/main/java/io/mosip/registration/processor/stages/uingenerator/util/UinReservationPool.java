@@ -0,0 +1,367 @@
+package io.mosip.registration.processor.stages.uingenerator.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.MediaType;
+
+import com.google.gson.Gson;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.code.ApiName;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.packet.storage.entity.UinReservationEntity;
+import io.mosip.registration.processor.packet.storage.entity.UinReservationPKEntity;
+import io.mosip.registration.processor.packet.storage.repository.BasePacketRepository;
+import io.mosip.registration.processor.stages.uingenerator.constants.UINConstants;
+import io.mosip.registration.processor.stages.uingenerator.dto.UinDto;
+import io.mosip.registration.processor.stages.uingenerator.dto.UinGenResponseDto;
+import io.mosip.registration.processor.stages.uingenerator.dto.UinRequestDto;
+import io.mosip.registration.processor.stages.uingenerator.dto.UinResponseDto;
+
+/**
+ * Keeps UINs fetched ahead of time from the UIN generator so that a packet does
+ * not wait on the UIN generator before and after the id repo calls.
+ * <p>
+ * When the pool drops below the low watermark it is refilled up to the high
+ * watermark in the background. Every fetched UIN is stored in the
+ * uin_reservation table first, so reserved UINs survive a restart. A UIN is
+ * handed out only after its reservation is moved from RESERVED to TAKEN, which
+ * keeps a UIN from being used twice when several stage instances recover the
+ * same reservations. The ASSIGNED / UNASSIGNED status is acknowledged to the UIN
+ * generator in batches from the background thread, and the reservation is
+ * removed once acknowledged.
+ */
+public class UinReservationPool {
+
+	/** The reg proc logger. */
+	private static Logger regProcLogger = RegProcessorLogger.getLogger(UinReservationPool.class);
+
+	private final RegistrationProcessorRestClientService<Object> registrationProcessorRestClientService;
+
+	private final BasePacketRepository<UinReservationEntity, String> uinReservationRepository;
+
+	private final int lowWatermark;
+
+	private final int highWatermark;
+
+	private final int ackBatchSize;
+
+	private final long ackFlushIntervalMillis;
+
+	private final BlockingQueue<String> reserved = new LinkedBlockingQueue<>();
+
+	private final BlockingQueue<UinResponseDto> acknowledgements = new LinkedBlockingQueue<>();
+
+	private final AtomicBoolean refilling = new AtomicBoolean();
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "uin-reservation-pool");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ExecutorService fetchExecutor;
+
+	private final Gson gson = new Gson();
+
+	private final AtomicLong fetchedCount = new AtomicLong();
+
+	private final AtomicLong acknowledgedCount = new AtomicLong();
+
+	private final AtomicLong directFetchCount = new AtomicLong();
+
+	/**
+	 * Instantiates a new uin reservation pool.
+	 *
+	 * @param registrationProcessorRestClientService
+	 *            the rest client used to call the UIN generator
+	 * @param uinReservationRepository
+	 *            the uin reservation repository
+	 * @param lowWatermark
+	 *            the pool size which triggers a refill
+	 * @param highWatermark
+	 *            the pool size a refill stops at
+	 * @param fetchThreads
+	 *            the parallel UIN generator calls during a refill
+	 * @param ackBatchSize
+	 *            the acknowledgements sent per flush
+	 * @param ackFlushIntervalMillis
+	 *            the delay between two acknowledgement flushes
+	 */
+	public UinReservationPool(RegistrationProcessorRestClientService<Object> registrationProcessorRestClientService,
+			BasePacketRepository<UinReservationEntity, String> uinReservationRepository, int lowWatermark,
+			int highWatermark, int fetchThreads, int ackBatchSize, long ackFlushIntervalMillis) {
+		this.registrationProcessorRestClientService = registrationProcessorRestClientService;
+		this.uinReservationRepository = uinReservationRepository;
+		this.lowWatermark = lowWatermark;
+		this.highWatermark = Math.max(highWatermark, lowWatermark + 1);
+		this.ackBatchSize = ackBatchSize;
+		this.ackFlushIntervalMillis = ackFlushIntervalMillis;
+		this.fetchExecutor = Executors.newFixedThreadPool(fetchThreads, r -> {
+			Thread thread = new Thread(r, "uin-reservation-fetch");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Recovers the reservations left by a previous run, then fills the pool up to
+	 * the high watermark and starts the periodic acknowledgement flush.
+	 */
+	public void start() {
+		for (UinReservationEntity entity : uinReservationRepository
+				.getUinReservationsByStatus(UINConstants.UIN_RESERVED)) {
+			reserved.offer(entity.getId().getUin());
+		}
+		for (String status : new String[] { UINConstants.UIN_ASSIGNED, UINConstants.UIN_UNASSIGNED }) {
+			for (UinReservationEntity entity : uinReservationRepository.getUinReservationsByStatus(status)) {
+				acknowledgements.offer(new UinResponseDto(entity.getId().getUin(), status));
+			}
+		}
+		int taken = uinReservationRepository.getUinReservationsByStatus(UINConstants.UIN_TAKEN).size();
+		if (taken > 0) {
+			regProcLogger.info(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+					"UinReservationPool::start()::" + taken
+							+ " uins were taken but never acknowledged, left for reconciliation");
+		}
+		regProcLogger.info(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+				"UinReservationPool::start()::recovered " + reserved.size() + " reserved uins and "
+						+ acknowledgements.size() + " pending acknowledgements");
+		scheduler.scheduleWithFixedDelay(this::flush, ackFlushIntervalMillis, ackFlushIntervalMillis,
+				TimeUnit.MILLISECONDS);
+		scheduleRefill();
+	}
+
+	/**
+	 * Takes a UIN for the registration. Falls back to calling the UIN generator
+	 * directly when the pool is empty.
+	 *
+	 * @param registrationId
+	 *            the registration id
+	 * @return the uin
+	 * @throws ApisResourceAccessException
+	 *             if the pool is empty and the UIN generator can not be reached
+	 */
+	public String take(String registrationId) throws ApisResourceAccessException {
+		String uin;
+		try {
+			while ((uin = reserved.poll()) != null) {
+				if (uinReservationRepository.updateUinReservationStatus(uin, UINConstants.UIN_RESERVED,
+						UINConstants.UIN_TAKEN, registrationId, now()) == 1)
+					return uin;
+			}
+			directFetchCount.incrementAndGet();
+			uin = fetchUin();
+			UinReservationEntity entity = reservation(uin, UINConstants.UIN_TAKEN);
+			entity.setRegId(registrationId);
+			uinReservationRepository.save(entity);
+			return uin;
+		} finally {
+			refillIfNeeded();
+		}
+	}
+
+	/**
+	 * Queues the ASSIGNED or UNASSIGNED status of a taken UIN for the UIN
+	 * generator.
+	 *
+	 * @param registrationId
+	 *            the registration id
+	 * @param uin
+	 *            the uin
+	 * @param status
+	 *            the uin status
+	 */
+	public void acknowledge(String registrationId, String uin, String status) {
+		uinReservationRepository.updateUinReservationStatus(uin, UINConstants.UIN_TAKEN, status, registrationId,
+				now());
+		acknowledgements.offer(new UinResponseDto(uin, status));
+		if (acknowledgements.size() >= ackBatchSize && !scheduler.isShutdown())
+			scheduler.execute(this::flush);
+	}
+
+	/**
+	 * Sends the queued acknowledgements, one batch at a time, until the queue is
+	 * empty or the UIN generator fails. Failed acknowledgements are kept for the
+	 * next flush.
+	 */
+	public synchronized void flush() {
+		try {
+			while (!acknowledgements.isEmpty()) {
+				List<UinResponseDto> batch = new ArrayList<>(ackBatchSize);
+				acknowledgements.drainTo(batch, ackBatchSize);
+				List<String> acknowledged = new ArrayList<>(batch.size());
+				for (UinResponseDto uinDto : batch) {
+					if (!send(uinDto))
+						break;
+					acknowledged.add(uinDto.getUin());
+				}
+				if (!acknowledged.isEmpty()) {
+					uinReservationRepository.deleteUinReservations(acknowledged);
+					acknowledgedCount.addAndGet(acknowledged.size());
+				}
+				if (acknowledged.size() < batch.size()) {
+					acknowledgements.addAll(batch.subList(acknowledged.size(), batch.size()));
+					return;
+				}
+			}
+		} catch (RuntimeException e) {
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+					"UinReservationPool::flush()::" + e.getMessage());
+		}
+	}
+
+	/**
+	 * Stops the background threads after a last acknowledgement flush. Reserved
+	 * UINs stay in the table for the next start.
+	 */
+	public void shutdown() {
+		scheduler.shutdown();
+		fetchExecutor.shutdown();
+		try {
+			scheduler.awaitTermination(ackFlushIntervalMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+
+	private void refillIfNeeded() {
+		if (reserved.size() < lowWatermark)
+			scheduleRefill();
+	}
+
+	private void scheduleRefill() {
+		if (!scheduler.isShutdown() && refilling.compareAndSet(false, true)) {
+			try {
+				scheduler.execute(this::refill);
+			} catch (RuntimeException e) {
+				refilling.set(false);
+				throw e;
+			}
+		}
+	}
+
+	private void refill() {
+		try {
+			int missing;
+			while ((missing = highWatermark - reserved.size()) > 0) {
+				List<CompletableFuture<String>> fetches = new ArrayList<>(missing);
+				for (int i = 0; i < missing; i++)
+					fetches.add(CompletableFuture.supplyAsync(this::fetchUinQuietly, fetchExecutor));
+				List<UinReservationEntity> entities = new ArrayList<>(missing);
+				for (CompletableFuture<String> fetch : fetches) {
+					String uin = fetch.join();
+					if (uin != null)
+						entities.add(reservation(uin, UINConstants.UIN_RESERVED));
+				}
+				if (entities.isEmpty())
+					return;
+				uinReservationRepository.saveAll(entities);
+				for (UinReservationEntity entity : entities)
+					reserved.offer(entity.getId().getUin());
+				fetchedCount.addAndGet(entities.size());
+				if (entities.size() < missing)
+					return;
+			}
+		} catch (RuntimeException e) {
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+					"UinReservationPool::refill()::" + e.getMessage());
+		} finally {
+			refilling.set(false);
+		}
+	}
+
+	private String fetchUinQuietly() {
+		try {
+			return fetchUin();
+		} catch (ApisResourceAccessException | RuntimeException e) {
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+					"UinReservationPool::fetchUin()::" + e.getMessage());
+			return null;
+		}
+	}
+
+	private String fetchUin() throws ApisResourceAccessException {
+		String response = (String) registrationProcessorRestClientService.getApi(ApiName.UINGENERATOR, null, "", "",
+				String.class);
+		UinGenResponseDto uinResponseDto = gson.fromJson(response, UinGenResponseDto.class);
+		if (uinResponseDto == null || uinResponseDto.getResponse() == null
+				|| uinResponseDto.getResponse().getUin() == null)
+			throw new ApisResourceAccessException("No uin in uin generator response : " + response);
+		return uinResponseDto.getResponse().getUin();
+	}
+
+	private boolean send(UinResponseDto uinDto) {
+		UinRequestDto uinRequest = new UinRequestDto();
+		uinRequest.setRequest(uinDto);
+		try {
+			String response = (String) registrationProcessorRestClientService.putApi(ApiName.UINGENERATOR, null, "",
+					"", gson.toJson(uinRequest), String.class, MediaType.APPLICATION_JSON);
+			UinDto uinResponse = gson.fromJson(response, UinDto.class);
+			if (uinResponse == null || uinResponse.getResponse() == null) {
+				regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+						"UinReservationPool::send()::uin status " + uinDto.getStatus()
+								+ " not accepted by uin generator : " + response);
+			}
+			return true;
+		} catch (ApisResourceAccessException e) {
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+					"UinReservationPool::send()::" + e.getMessage());
+			return false;
+		}
+	}
+
+	private static UinReservationEntity reservation(String uin, String statusCode) {
+		UinReservationEntity entity = new UinReservationEntity();
+		entity.setId(new UinReservationPKEntity(uin));
+		entity.setStatusCode(statusCode);
+		entity.setCrDtimes(now());
+		entity.setUpdDtimes(entity.getCrDtimes());
+		return entity;
+	}
+
+	private static LocalDateTime now() {
+		return LocalDateTime.now(ZoneId.of("UTC"));
+	}
+
+	public int getReservedCount() {
+		return reserved.size();
+	}
+
+	public int getPendingAcknowledgementCount() {
+		return acknowledgements.size();
+	}
+
+	public long getFetchedCount() {
+		return fetchedCount.get();
+	}
+
+	public long getAcknowledgedCount() {
+		return acknowledgedCount.get();
+	}
+
+	public long getDirectFetchCount() {
+		return directFetchCount.get();
+	}
+
+	public boolean isRefilling() {
+		return refilling.get();
+	}
+
+}
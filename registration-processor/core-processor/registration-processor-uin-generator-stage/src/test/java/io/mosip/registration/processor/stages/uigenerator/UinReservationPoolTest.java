@@ -0,0 +1,229 @@
+package io.mosip.registration.processor.stages.uigenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.code.ApiName;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.packet.storage.entity.UinReservationEntity;
+import io.mosip.registration.processor.packet.storage.entity.UinReservationPKEntity;
+import io.mosip.registration.processor.packet.storage.repository.BasePacketRepository;
+import io.mosip.registration.processor.stages.uingenerator.constants.UINConstants;
+import io.mosip.registration.processor.stages.uingenerator.util.UinReservationPool;
+
+/**
+ * Runs the uin reservation pool against a stub UIN generator that answers after
+ * a fixed delay, with the uin_reservation table kept in memory.
+ */
+public class UinReservationPoolTest {
+
+	private static final long UIN_GENERATOR_LATENCY_MILLIS = 5;
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(UinReservationPoolTest.class);
+
+	private final Map<String, String> table = new ConcurrentHashMap<>();
+
+	private final AtomicInteger nextUin = new AtomicInteger(1000);
+
+	private final AtomicInteger uinGeneratorGets = new AtomicInteger();
+
+	private final AtomicInteger uinGeneratorPuts = new AtomicInteger();
+
+	private final AtomicInteger deletes = new AtomicInteger();
+
+	private RegistrationProcessorRestClientService<Object> uinGenerator;
+
+	private BasePacketRepository<UinReservationEntity, String> repository;
+
+	private UinReservationPool pool;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() throws Exception {
+		uinGenerator = Mockito.mock(RegistrationProcessorRestClientService.class);
+		Mockito.when(uinGenerator.getApi(Mockito.eq(ApiName.UINGENERATOR), any(), anyString(), anyString(), any()))
+				.thenAnswer(invocation -> {
+					Thread.sleep(UIN_GENERATOR_LATENCY_MILLIS);
+					uinGeneratorGets.incrementAndGet();
+					return "{\"response\":{\"uin\":\"" + nextUin.incrementAndGet() + "\"}}";
+				});
+		Mockito.when(uinGenerator.putApi(Mockito.eq(ApiName.UINGENERATOR), any(), anyString(), anyString(), any(),
+				any(), any())).thenAnswer(invocation -> {
+					Thread.sleep(UIN_GENERATOR_LATENCY_MILLIS);
+					uinGeneratorPuts.incrementAndGet();
+					return "{\"response\":{\"status\":\"ASSIGNED\"}}";
+				});
+
+		repository = Mockito.mock(BasePacketRepository.class);
+		Mockito.when(repository.saveAll(any())).thenAnswer(invocation -> {
+			for (UinReservationEntity entity : (Iterable<UinReservationEntity>) invocation.getArguments()[0])
+				table.put(entity.getId().getUin(), entity.getStatusCode());
+			return invocation.getArguments()[0];
+		});
+		Mockito.when(repository.save(any())).thenAnswer(invocation -> {
+			UinReservationEntity entity = (UinReservationEntity) invocation.getArguments()[0];
+			table.put(entity.getId().getUin(), entity.getStatusCode());
+			return entity;
+		});
+		Mockito.when(repository.updateUinReservationStatus(anyString(), anyString(), anyString(), any(), any()))
+				.thenAnswer(invocation -> {
+					Object[] args = invocation.getArguments();
+					return table.replace((String) args[0], (String) args[1], (String) args[2]) ? 1 : 0;
+				});
+		Mockito.doAnswer(invocation -> {
+			deletes.incrementAndGet();
+			for (String uin : (List<String>) invocation.getArguments()[0])
+				table.remove(uin);
+			return null;
+		}).when(repository).deleteUinReservations(any());
+		Mockito.when(repository.getUinReservationsByStatus(anyString())).thenAnswer(invocation -> {
+			List<UinReservationEntity> entities = new ArrayList<>();
+			table.forEach((uin, status) -> {
+				if (status.equals(invocation.getArguments()[0])) {
+					UinReservationEntity entity = new UinReservationEntity();
+					entity.setId(new UinReservationPKEntity(uin));
+					entity.setStatusCode(status);
+					entities.add(entity);
+				}
+			});
+			return entities;
+		});
+	}
+
+	@After
+	public void tearDown() {
+		if (pool != null)
+			pool.shutdown();
+	}
+
+	@Test
+	public void refillBetweenWatermarksTest() throws Exception {
+		pool = pool(5, 20, 10);
+		pool.start();
+		await(() -> pool.getReservedCount() == 20);
+
+		Set<String> uins = new HashSet<>();
+		for (int i = 0; i < 16; i++)
+			uins.add(pool.take("rid" + i));
+
+		assertEquals(16, uins.size());
+		assertEquals(0, pool.getDirectFetchCount());
+		await(() -> pool.getReservedCount() == 20);
+		assertEquals(36, pool.getFetchedCount());
+		assertEquals(16, table.values().stream().filter(UINConstants.UIN_TAKEN::equals).count());
+	}
+
+	@Test
+	public void batchedAcknowledgementTest() throws Exception {
+		pool = pool(0, 30, 10);
+		pool.start();
+		await(() -> pool.getReservedCount() == 30);
+
+		for (int i = 0; i < 25; i++)
+			pool.acknowledge("rid" + i, pool.take("rid" + i), UINConstants.UIN_ASSIGNED);
+		pool.flush();
+
+		assertEquals(25, uinGeneratorPuts.get());
+		assertEquals(25, pool.getAcknowledgedCount());
+		assertTrue(deletes.get() >= 3 && deletes.get() < 25);
+		assertEquals(5, table.size());
+	}
+
+	@Test
+	public void recoveryTest() throws Exception {
+		table.put("1", UINConstants.UIN_RESERVED);
+		table.put("2", UINConstants.UIN_RESERVED);
+		table.put("3", UINConstants.UIN_ASSIGNED);
+		table.put("4", UINConstants.UIN_UNASSIGNED);
+		table.put("5", UINConstants.UIN_TAKEN);
+		pool = pool(0, 1, 10);
+		pool.start();
+		await(() -> !pool.isRefilling());
+
+		Set<String> uins = new HashSet<>();
+		uins.add(pool.take("rid1"));
+		uins.add(pool.take("rid2"));
+		pool.flush();
+
+		assertTrue(uins.contains("1") && uins.contains("2"));
+		assertEquals(0, uinGeneratorGets.get());
+		assertEquals(2, uinGeneratorPuts.get());
+		assertEquals(UINConstants.UIN_TAKEN, table.get("5"));
+		assertEquals(3, table.size());
+	}
+
+	@Test
+	public void reservationTakenByOtherInstanceTest() throws Exception {
+		table.put("1", UINConstants.UIN_RESERVED);
+		pool = pool(0, 1, 10);
+		pool.start();
+		await(() -> !pool.isRefilling());
+		table.put("1", UINConstants.UIN_TAKEN);
+
+		String uin = pool.take("rid1");
+
+		assertEquals("1001", uin);
+		assertEquals(1, pool.getDirectFetchCount());
+	}
+
+	@Test
+	public void perPacketLatencyTest() throws Exception {
+		int packets = 200;
+		long start = System.nanoTime();
+		for (int i = 0; i < packets; i++) {
+			uinGenerator.getApi(ApiName.UINGENERATOR, null, "", "", String.class);
+			uinGenerator.putApi(ApiName.UINGENERATOR, null, "", "", "{}", String.class, null);
+		}
+		double directMicros = (System.nanoTime() - start) / 1000.0 / packets;
+
+		pool = pool(50, 250, 50);
+		pool.start();
+		await(() -> pool.getReservedCount() == 250);
+		start = System.nanoTime();
+		for (int i = 0; i < packets; i++)
+			pool.acknowledge("rid" + i, pool.take("rid" + i), UINConstants.UIN_ASSIGNED);
+		double pooledMicros = (System.nanoTime() - start) / 1000.0 / packets;
+		pool.flush();
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format("uin per packet with %d ms uin generator latency : direct %.0f us, pooled %.0f us",
+						UIN_GENERATOR_LATENCY_MILLIS, directMicros, pooledMicros));
+		assertEquals(0, pool.getDirectFetchCount());
+		assertEquals(packets, pool.getAcknowledgedCount());
+		assertTrue(pooledMicros < directMicros);
+	}
+
+	private UinReservationPool pool(int lowWatermark, int highWatermark, int ackBatchSize) {
+		return new UinReservationPool(uinGenerator, repository, lowWatermark, highWatermark, 4, ackBatchSize,
+				60000);
+	}
+
+	private void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (!condition.getAsBoolean()) {
+			assertTrue("timed out", System.nanoTime() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+}
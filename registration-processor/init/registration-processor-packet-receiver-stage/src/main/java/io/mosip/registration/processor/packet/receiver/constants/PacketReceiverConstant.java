@@ -19,4 +19,7 @@ public class PacketReceiverConstant {
 	public static final String PACKET_DECRYPTION_FAILED = "Packet decryption failed for registrationId ";
 	public static final String PACKET_RECEIVER_VALIDATION_SUCCESS = "Packet receiver validation success";
 
+	/** The digest algorithm of the packet hash sequence, the one HMACUtils.generateHash uses. */
+	public static final String HASH_SEQUENCE_ALGORITHM = "SHA-256";
+
 }
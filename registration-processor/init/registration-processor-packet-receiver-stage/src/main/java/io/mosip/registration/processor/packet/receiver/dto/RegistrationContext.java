@@ -0,0 +1,31 @@
+package io.mosip.registration.processor.packet.receiver.dto;
+
+import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
+import io.mosip.registration.processor.status.entity.SyncRegistrationEntity;
+import lombok.Data;
+
+/**
+ * The rows of one uploaded packet, read once when the packet is received and
+ * handed down the validation chain so that every check works on the same sync
+ * and registration status records.
+ */
+@Data
+public class RegistrationContext {
+
+	/** The registration id. */
+	private String registrationId;
+
+	/** The sync registration row, null if the packet is not synced. */
+	private SyncRegistrationEntity syncRegistration;
+
+	/** The registration status row, null if the packet was never received. */
+	private InternalRegistrationStatusDto registrationStatus;
+
+	/** Whether the registration status row was read. */
+	private boolean registrationStatusLoaded;
+
+	public RegistrationContext(String registrationId) {
+		this.registrationId = registrationId;
+	}
+
+}
@@ -0,0 +1,25 @@
+package io.mosip.registration.processor.packet.receiver.dto;
+
+import java.io.File;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A packet written to the spool directory while it was received, with the
+ * hash sequence computed on the way.
+ */
+@Data
+@AllArgsConstructor
+public class SpooledPacket {
+
+	/** The spooled file, named after the uploaded file. */
+	private File file;
+
+	/** The number of bytes received. */
+	private long size;
+
+	/** The hash sequence of the received bytes. */
+	private String hashSequence;
+
+}
@@ -23,6 +23,20 @@ public interface PacketReceiverService<T, U> {
 	 */
 	public U validatePacket(T file, String stageName);
 
+	/**
+	 * Stores registration packets whose hash sequence was computed while they
+	 * were received, so the file is not read again to be hashed.
+	 *
+	 * @param file
+	 *            the file
+	 * @param stageName
+	 *            the stage name
+	 * @param hashSequence
+	 *            the hash sequence of the file
+	 * @return the u
+	 */
+	public U validatePacket(T file, String stageName, String hashSequence);
+
 	public U processPacket(T file);
 
 }
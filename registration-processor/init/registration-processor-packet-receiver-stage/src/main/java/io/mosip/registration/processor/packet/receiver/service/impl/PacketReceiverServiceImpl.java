@@ -1,16 +1,15 @@
 package io.mosip.registration.processor.packet.receiver.service.impl;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.security.NoSuchAlgorithmException;
 
 import io.mosip.registration.processor.packet.manager.utils.ZipUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.h2.store.fs.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -43,6 +42,7 @@ import io.mosip.registration.processor.core.status.util.TrimExceptionMessage;
 import io.mosip.registration.processor.core.util.RegistrationExceptionMapperUtil;
 import io.mosip.registration.processor.packet.manager.dto.DirectoryPathDto;
 import io.mosip.registration.processor.packet.receiver.constants.PacketReceiverConstant;
+import io.mosip.registration.processor.packet.receiver.dto.RegistrationContext;
 import io.mosip.registration.processor.packet.receiver.exception.DuplicateUploadRequestException;
 import io.mosip.registration.processor.packet.receiver.exception.FileSizeExceedException;
 import io.mosip.registration.processor.packet.receiver.exception.PacketNotSyncException;
@@ -52,15 +52,16 @@ import io.mosip.registration.processor.packet.receiver.exception.PacketSizeNotIn
 import io.mosip.registration.processor.packet.receiver.exception.UnequalHashSequenceException;
 import io.mosip.registration.processor.packet.receiver.service.PacketReceiverService;
 import io.mosip.registration.processor.rest.client.audit.builder.AuditLogRequestBuilder;
+import io.mosip.registration.processor.status.code.RegistrationExternalStatusCode;
 import io.mosip.registration.processor.status.code.RegistrationStatusCode;
 import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
 import io.mosip.registration.processor.status.dto.RegistrationStatusDto;
-import io.mosip.registration.processor.status.dto.RegistrationStatusSubRequestDto;
 import io.mosip.registration.processor.status.dto.SyncRegistrationDto;
 import io.mosip.registration.processor.status.dto.SyncResponseDto;
 import io.mosip.registration.processor.status.entity.SyncRegistrationEntity;
 import io.mosip.registration.processor.status.service.RegistrationStatusService;
 import io.mosip.registration.processor.status.service.SyncRegistrationService;
+import io.mosip.registration.processor.status.utilities.RegistrationExternalStatusUtility;
 
 /**
  * The Class PacketReceiverServiceImpl.
@@ -79,9 +80,6 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 	/** The Constant LOG_FORMATTER. */
 	public static final String LOG_FORMATTER = "{} - {}";
 
-	/** The Constant RESEND. */
-	private static final String RESEND = "RESEND";
-
 	private TrimExceptionMessage trimExpMessage = new TrimExceptionMessage();
 
 	/** The file manager. */
@@ -96,6 +94,10 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 	@Autowired
 	private RegistrationStatusService<String, InternalRegistrationStatusDto, RegistrationStatusDto> registrationStatusService;
 
+	/** The registration external status utility. */
+	@Autowired
+	private RegistrationExternalStatusUtility registrationExternalStatusUtility;
+
 	/** The core audit request builder. */
 	@Autowired
 	private AuditLogRequestBuilder auditLogRequestBuilder;
@@ -121,9 +123,20 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 	 */
 	@Override
 	public MessageDTO validatePacket(File file, String stageName) {
+		return validatePacket(file, stageName, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.registration.processor.packet.receiver.service.
+	 * PacketReceiverService#validatePacket(java.lang.Object, java.lang.String,
+	 * java.lang.String)
+	 */
+	@Override
+	public MessageDTO validatePacket(File file, String stageName, String packetHashSequence) {
 
 		LogDescription description = new LogDescription();
-		InternalRegistrationStatusDto dto = new InternalRegistrationStatusDto();
 		MessageDTO messageDTO = new MessageDTO();
 		Boolean storageFlag = false;
 		messageDTO.setInternalError(false);
@@ -137,15 +150,17 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 			regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 					registrationId, "PacketReceiverServiceImpl::validatePacket()::entry");
 			messageDTO.setRid(registrationId);
+			RegistrationContext context = new RegistrationContext(registrationId);
 			regEntity = syncRegistrationService.findByRegistrationId(registrationId);
-			try (InputStream encryptedInputStream = FileUtils.newInputStream(file.getAbsolutePath())) {
-				byte[] encryptedByteArray = IOUtils.toByteArray(encryptedInputStream);
+			context.setSyncRegistration(regEntity);
+			try {
+				String hashSequence = packetHashSequence != null ? packetHashSequence : getHashSequence(file);
 				validatePacketWithSync(regEntity, registrationId, description);
 				messageDTO.setReg_type(RegistrationType.valueOf(regEntity.getRegistrationType()));
-				validateHashCode(new ByteArrayInputStream(encryptedByteArray), regEntity, registrationId, description);
+				validateHashCode(hashSequence, regEntity, registrationId, description);
 				validatePacketFormat(fileOriginalName, registrationId, description);
 				validatePacketSize(file.length(), regEntity, registrationId, description);
-				if (isDuplicatePacket(registrationId) && !isExternalStatusResend(registrationId)) {
+				if (isDuplicatePacket(context) && !isExternalStatusResend(context)) {
 					description.setMessage(PlatformErrorMessages.RPR_PKR_DUPLICATE_PACKET_RECIEVED.getMessage());
 					description.setCode(PlatformErrorMessages.RPR_PKR_DUPLICATE_PACKET_RECIEVED.getCode());
 					throw new DuplicateUploadRequestException(
@@ -156,7 +171,7 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 				regProcLogger.info(LoggerFileConstant.SESSIONID.toString(),
 						LoggerFileConstant.REGISTRATIONID.toString(), registrationId,
 						PlatformSuccessMessages.PACKET_RECEIVER_VALIDATION_SUCCESS.getMessage());
-				storageFlag = storePacket(stageName, regEntity, dto, description);
+				storageFlag = storePacket(stageName, context, description);
 				isTransactionSuccessful = true;
 			} catch (IOException e) {
 
@@ -229,28 +244,21 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 	/**
 	 * Store packet.
 	 *
-	 * @param dto
-	 *            the InternalRegistrationStatusDto
-	 * @param regEntity
-	 *            the SyncRegistrationEntity
 	 * @param stageName
 	 *            the stage name
+	 * @param context
+	 *            the registration context
 	 * @param description
 	 * @throws IOException
 	 *             Signals that an I/O exception has occurred.
 	 */
-	private boolean storePacket(String stageName, SyncRegistrationEntity regEntity, InternalRegistrationStatusDto dto,
-			LogDescription description) throws IOException {
+	private boolean storePacket(String stageName, RegistrationContext context, LogDescription description)
+			throws IOException {
 		Boolean storageFlag = false;
-		dto = registrationStatusService.getRegistrationStatus(dto.getRegistrationId());
-		if (dto == null) {
-			dto = new InternalRegistrationStatusDto();
-			dto.setRetryCount(0);
-		} else {
-			int retryCount = dto.getRetryCount() != null ? dto.getRetryCount() + 1 : 1;
-			dto.setRetryCount(retryCount);
-
-		}
+		SyncRegistrationEntity regEntity = context.getSyncRegistration();
+		// a received or resent packet starts its retry count over
+		InternalRegistrationStatusDto dto = new InternalRegistrationStatusDto();
+		dto.setRetryCount(0);
 		dto.setRegistrationId(regEntity.getRegistrationId());
 		dto.setLatestTransactionTypeCode(RegistrationTransactionTypeCode.PACKET_RECEIVER.toString());
 		dto.setRegistrationStageName(stageName);
@@ -298,14 +306,13 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 	/**
 	 * Scan file.
 	 *
-	 * @param input
-	 *            the input packet byte
+	 * @param file
+	 *            the packet file
 	 * @param description
 	 */
-	private boolean scanFile(final byte[] input, RegistrationExceptionMapperUtil registrationExceptionMapperUtil,
+	private boolean scanFile(File file, RegistrationExceptionMapperUtil registrationExceptionMapperUtil,
 			String registrationId, InternalRegistrationStatusDto dto, LogDescription description) throws IOException {
-		try {
-			InputStream inputStream = new ByteArrayInputStream(input);
+		try (InputStream inputStream = FileUtils.newInputStream(file.getAbsolutePath())) {
 			boolean isInputFileClean = virusScannerService.scanFile(inputStream);
 
 			if (!isInputFileClean) {
@@ -358,15 +365,31 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 		return extention;
 	}
 
+	/**
+	 * Gets the registration status of the packet, reading it only the first
+	 * time it is asked for.
+	 *
+	 * @param context
+	 *            the registration context
+	 * @return the registration status, null if the packet was never received
+	 */
+	private InternalRegistrationStatusDto getRegistrationStatus(RegistrationContext context) {
+		if (!context.isRegistrationStatusLoaded()) {
+			context.setRegistrationStatus(registrationStatusService.getRegistrationStatus(context.getRegistrationId()));
+			context.setRegistrationStatusLoaded(true);
+		}
+		return context.getRegistrationStatus();
+	}
+
 	/**
 	 * Checks if registration id is already present in registration status table.
 	 *
-	 * @param registrationId
-	 *            the registration id
+	 * @param context
+	 *            the registration context
 	 * @return the boolean
 	 */
-	private Boolean isDuplicatePacket(String registrationId) {
-		return registrationStatusService.getRegistrationStatus(registrationId) != null;
+	private Boolean isDuplicatePacket(RegistrationContext context) {
+		return getRegistrationStatus(context) != null;
 	}
 
 	/**
@@ -377,38 +400,62 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 	 * @return the boolean
 	 */
 	public Boolean isExternalStatusResend(String registrationId) {
-		List<RegistrationStatusSubRequestDto> regIds = new ArrayList<>();
-		RegistrationStatusSubRequestDto registrationStatusSubRequestDto = new RegistrationStatusSubRequestDto();
-		registrationStatusSubRequestDto.setRegistrationId(registrationId);
-		regIds.add(registrationStatusSubRequestDto);
-		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
-				registrationId, "PacketReceiverServiceImpl::isExternalStatusResend()::entry");
-
-		List<RegistrationStatusDto> registrationExternalStatusCode = registrationStatusService.getByIds(regIds);
+		return isExternalStatusResend(new RegistrationContext(registrationId));
+	}
 
-		String mappedValue = registrationExternalStatusCode.get(0).getStatusCode();
+	/**
+	 * Checks if the external status of the loaded registration status is resend.
+	 *
+	 * @param context
+	 *            the registration context
+	 * @return the boolean
+	 */
+	private Boolean isExternalStatusResend(RegistrationContext context) {
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+				context.getRegistrationId(), "PacketReceiverServiceImpl::isExternalStatusResend()::entry");
+		InternalRegistrationStatusDto registrationStatus = getRegistrationStatus(context);
+		RegistrationExternalStatusCode mappedValue = registrationStatus != null
+				? registrationExternalStatusUtility.getExternalStatus(registrationStatus)
+				: null;
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
-				registrationId, "PacketReceiverServiceImpl::isExternalStatusResend()::exit");
-		return (mappedValue.equals(RESEND));
+				context.getRegistrationId(), "PacketReceiverServiceImpl::isExternalStatusResend()::exit");
+		return RegistrationExternalStatusCode.RESEND.equals(mappedValue);
+	}
+
+	/**
+	 * Gets the hash sequence of a packet file, reading it as a stream.
+	 *
+	 * @param file
+	 *            the packet file
+	 * @return the hash sequence
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private String getHashSequence(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(PacketReceiverConstant.HASH_SEQUENCE_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		try (InputStream packetStream = new DigestInputStream(FileUtils.newInputStream(file.getAbsolutePath()),
+				digest)) {
+			IOUtils.copyLarge(packetStream, NullOutputStream.NULL_OUTPUT_STREAM);
+		}
+		return HMACUtils.digestAsPlainText(digest.digest());
 	}
 
 	/**
 	 * Validate hash code.
 	 *
+	 * @param hashSequence
+	 *            the hash sequence of the packet
 	 * @param registrationId
 	 *            the registration id
-	 * @param inputStream
-	 *            the input stream
 	 * @param description
-	 * @throws IOException
-	 *             Signals that an I/O exception has occurred.
 	 */
-	private void validateHashCode(InputStream inputStream, SyncRegistrationEntity regEntity, String registrationId,
-			LogDescription description) throws IOException {
-		// TO-DO testing
-		byte[] isbytearray = IOUtils.toByteArray(inputStream);
-		byte[] dataByte = HMACUtils.generateHash(isbytearray);
-		String hashSequence = HMACUtils.digestAsPlainText(dataByte);
+	private void validateHashCode(String hashSequence, SyncRegistrationEntity regEntity, String registrationId,
+			LogDescription description) {
 		String packetHashSequence = regEntity.getPacketHashValue();
 		if (!(MessageDigest.isEqual(packetHashSequence.getBytes(), hashSequence.getBytes()))) {
 			description.setMessage(PlatformErrorMessages.UNEQUAL_PACKET_HASH_PR.getMessage());
@@ -470,12 +517,15 @@ public class PacketReceiverServiceImpl implements PacketReceiverService<File, Me
 		messageDTO.setRid(registrationId);
 		regEntity = syncRegistrationService.findByRegistrationId(registrationId);
 		messageDTO.setReg_type(RegistrationType.valueOf(regEntity.getRegistrationType()));
-		try (InputStream encryptedInputStream = FileUtils.newInputStream(file.getAbsolutePath())) {
-			final byte[] encryptedByteArray = IOUtils.toByteArray(encryptedInputStream);
-			scanningFlag = scanFile(encryptedByteArray, registrationExceptionMapperUtil,
-					registrationId, dto, description);
+		try {
+			scanningFlag = scanFile(file, registrationExceptionMapperUtil, registrationId, dto, description);
 			if (scanningFlag) {
-				fileManager.put(registrationId, new ByteArrayInputStream(encryptedByteArray),
+				try (InputStream packetStream = FileUtils.newInputStream(file.getAbsolutePath())) {
+					fileManager.put(registrationId, packetStream, DirectoryPathDto.LANDING_ZONE);
+				}
+				// the synced hash was checked against the received packet, so
+				// the copies from the landing zone are verified against it
+				fileManager.putSidecar(registrationId, regEntity.getPacketHashValue(), file.length(),
 						DirectoryPathDto.LANDING_ZONE);
 				dto.setStatusCode(RegistrationStatusCode.PROCESSING.toString());
 				dto.setStatusComment(StatusUtil.PACKET_UPLOADED_TO_LANDING_ZONE.getMessage());
@@ -25,6 +25,7 @@ import io.mosip.registration.processor.core.status.util.StatusUtil;
 import io.mosip.registration.processor.packet.manager.exception.systemexception.UnexpectedException;
 import io.mosip.registration.processor.packet.receiver.builder.PacketReceiverResponseBuilder;
 import io.mosip.registration.processor.packet.receiver.dto.PacketReceiverResponseDTO;
+import io.mosip.registration.processor.packet.receiver.dto.SpooledPacket;
 import io.mosip.registration.processor.packet.receiver.exception.PacketReceiverAppException;
 import io.mosip.registration.processor.packet.receiver.exception.handler.PacketReceiverExceptionHandler;
 import io.mosip.registration.processor.packet.receiver.service.PacketReceiverService;
@@ -58,6 +59,18 @@ public class PacketReceiverStage extends MosipVerticleAPIManager {
 	@Value("${server.servlet.path}")
 	private String contextPath;
 
+	/** Whether packets are spooled to disk and hashed while they are received. */
+	@Value("${registration.processor.packet.receiver.streaming.enabled:false}")
+	private boolean streamingEnabled;
+
+	/** The directory packets are spooled to. */
+	@Value("${registration.processor.packet.receiver.spool.directory:${java.io.tmpdir}/packet-receiver-spool}")
+	private String spoolDirectory;
+
+	/** The maximum bytes received and not yet spooled, across all uploads. */
+	@Value("${registration.processor.packet.receiver.max-in-flight-bytes:268435456}")
+	private long maxInFlightBytes;
+
 	/** The Constant DATETIME_PATTERN. */
 	private static final String DATETIME_PATTERN = "mosip.registration.processor.datetime.pattern";
 
@@ -123,7 +136,12 @@ public class PacketReceiverStage extends MosipVerticleAPIManager {
 	private void routes(MosipRouter router) {
 
 		router.post(contextPath + "/registrationpackets");
-		router.handler(this::processURL, this::processPacket, this::failure);
+		if (streamingEnabled) {
+			router.streamingHandler(new PacketSpoolHandler(spoolDirectory, maxInFlightBytes), this::processURL,
+					this::processPacket, this::failure);
+		} else {
+			router.handler(this::processURL, this::processPacket, this::failure);
+		}
 	};
 
 	/**
@@ -133,7 +151,12 @@ public class PacketReceiverStage extends MosipVerticleAPIManager {
 	 */
 	public void failure(RoutingContext routingContext) {
 		try {
-			deleteFile(getFileFromCtx(routingContext));
+			SpooledPacket spooledPacket = routingContext.get(PacketSpoolHandler.SPOOLED_PACKET);
+			if (spooledPacket != null) {
+				deleteFile(spooledPacket.getFile().getParentFile());
+			} else if (!routingContext.fileUploads().isEmpty()) {
+				deleteFile(getFileFromCtx(routingContext));
+			}
 		} catch (IOException e) {
 			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 					"", e.getMessage() + ExceptionUtils.getStackTrace(e));
@@ -151,10 +174,11 @@ public class PacketReceiverStage extends MosipVerticleAPIManager {
 	 */
 	public void processPacket(RoutingContext ctx) {
 		File file=null;
+		SpooledPacket spooledPacket = ctx.get(PacketSpoolHandler.SPOOLED_PACKET);
 		try {
 			regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 					"", "PacketReceiverStage::processPacket()::entry");
-			file=getFileFromCtx(ctx);
+			file = spooledPacket != null ? spooledPacket.getFile() : getFileFromCtx(ctx);
 			MessageDTO messageDTO = packetReceiverService.processPacket(file);
 			messageDTO.setMessageBusAddress(MessageBusAddress.PACKET_RECEIVER_OUT);
 			if (messageDTO.getIsValid()) {
@@ -165,7 +189,7 @@ public class PacketReceiverStage extends MosipVerticleAPIManager {
 					"", e.getMessage() + ExceptionUtils.getStackTrace(e));
 			throw new UnexpectedException(e.getMessage());
 		} finally {
-			deleteFile(file);
+			deleteFile(spooledPacket != null ? spooledPacket.getFile().getParentFile() : file);
 		}
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 				"", "PacketReceiverStage::processPacket()::exit");
@@ -185,8 +209,15 @@ public class PacketReceiverStage extends MosipVerticleAPIManager {
 					"", "PacketReceiverStage::processURL()::entry");
 			List<String> listObj = new ArrayList<>();
 			listObj.add(env.getProperty(MODULE_ID));
-			File file=getFileFromCtx(ctx);
-			MessageDTO messageDTO = packetReceiverService.validatePacket(file, this.getClass().getSimpleName());
+			SpooledPacket spooledPacket = ctx.get(PacketSpoolHandler.SPOOLED_PACKET);
+			MessageDTO messageDTO;
+			if (spooledPacket != null) {
+				messageDTO = packetReceiverService.validatePacket(spooledPacket.getFile(),
+						this.getClass().getSimpleName(), spooledPacket.getHashSequence());
+			} else {
+				File file = getFileFromCtx(ctx);
+				messageDTO = packetReceiverService.validatePacket(file, this.getClass().getSimpleName());
+			}
 			listObj.add(DateUtils.getUTCCurrentDateTimeString(env.getProperty(DATETIME_PATTERN)));
 			listObj.add(env.getProperty(APPLICATION_VERSION));
 			if (messageDTO.getIsValid()) {
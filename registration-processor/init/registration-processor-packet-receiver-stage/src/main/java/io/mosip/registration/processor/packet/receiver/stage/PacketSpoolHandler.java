@@ -0,0 +1,278 @@
+package io.mosip.registration.processor.packet.receiver.stage;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FilenameUtils;
+
+import io.mosip.kernel.core.exception.ExceptionUtils;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.kernel.core.util.HMACUtils;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.exception.util.PlatformErrorMessages;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.packet.receiver.constants.PacketReceiverConstant;
+import io.mosip.registration.processor.packet.receiver.dto.SpooledPacket;
+import io.mosip.registration.processor.packet.receiver.exception.PacketNotAvailableException;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Reads the packet of an upload request from the socket straight into a file
+ * of the spool directory, hashing it on the way, so the packet is neither held
+ * in memory nor read again to be hashed. The spooled packet is put in the
+ * routing context under {@link #SPOOLED_PACKET} before the next handler is
+ * called.
+ * <p>
+ * The bytes received but not yet written to disk are counted across all the
+ * uploads. Above the maximum the uploads are paused, which stops reading their
+ * sockets, until the writes catch up.
+ */
+public class PacketSpoolHandler implements Handler<RoutingContext> {
+
+	/** The routing context key of the spooled packet. */
+	public static final String SPOOLED_PACKET = "spooledPacket";
+
+	/** The reg proc logger. */
+	private static Logger regProcLogger = RegProcessorLogger.getLogger(PacketSpoolHandler.class);
+
+	/** The spool directory. */
+	private final String spoolDirectory;
+
+	/** The maximum bytes received and not yet written, across all uploads. */
+	private final long maxInFlightBytes;
+
+	/** The bytes received and not yet written. */
+	private final AtomicLong inFlightBytes = new AtomicLong();
+
+	/** The uploads paused for the in flight bytes to drain. */
+	private final Queue<SpoolRequest> paused = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Instantiates a new packet spool handler.
+	 *
+	 * @param spoolDirectory
+	 *            the spool directory
+	 * @param maxInFlightBytes
+	 *            the maximum bytes received and not yet written, across all
+	 *            uploads
+	 */
+	public PacketSpoolHandler(String spoolDirectory, long maxInFlightBytes) {
+		this.spoolDirectory = spoolDirectory;
+		this.maxInFlightBytes = maxInFlightBytes;
+	}
+
+	@Override
+	public void handle(RoutingContext ctx) {
+		HttpServerRequest request = ctx.request();
+		SpoolRequest spoolRequest = new SpoolRequest(ctx);
+		request.setExpectMultipart(true);
+		request.exceptionHandler(spoolRequest::fail);
+		request.uploadHandler(spoolRequest::upload);
+		request.endHandler(v -> spoolRequest.requestEnded());
+		request.resume();
+	}
+
+	/**
+	 * Gets the bytes received and not yet written to the spool directory.
+	 *
+	 * @return the in flight bytes
+	 */
+	public long getInFlightBytes() {
+		return inFlightBytes.get();
+	}
+
+	private void release(long length) {
+		if (inFlightBytes.addAndGet(-length) <= maxInFlightBytes)
+			resumePaused();
+	}
+
+	private void resumePaused() {
+		SpoolRequest spoolRequest;
+		while (inFlightBytes.get() <= maxInFlightBytes && (spoolRequest = paused.poll()) != null)
+			spoolRequest.resume();
+	}
+
+	/**
+	 * The state of one upload request. Every callback of a request runs on the
+	 * context of its connection, so the state needs no locking.
+	 */
+	private class SpoolRequest {
+
+		private final RoutingContext ctx;
+
+		private final Context context;
+
+		private final FileSystem fileSystem;
+
+		private HttpServerFileUpload upload;
+
+		private String directory;
+
+		private File packet;
+
+		private AsyncFile file;
+
+		private MessageDigest digest;
+
+		private long size;
+
+		private int pendingWrites;
+
+		private boolean waiting;
+
+		private boolean uploadEnded;
+
+		private boolean requestEnded;
+
+		private boolean done;
+
+		SpoolRequest(RoutingContext ctx) {
+			this.ctx = ctx;
+			this.context = Vertx.currentContext();
+			this.fileSystem = ctx.vertx().fileSystem();
+		}
+
+		void upload(HttpServerFileUpload fileUpload) {
+			if (upload != null || done) {
+				// only the first file of the request is the packet
+				fileUpload.handler(buffer -> {
+				});
+				return;
+			}
+			upload = fileUpload;
+			String fileName = FilenameUtils.getName(fileUpload.filename());
+			if (fileName == null || fileName.isEmpty()) {
+				fail(new PacketNotAvailableException(PlatformErrorMessages.RPR_PKR_PACKET_NOT_AVAILABLE.getMessage()));
+				return;
+			}
+			try {
+				digest = MessageDigest.getInstance(PacketReceiverConstant.HASH_SEQUENCE_ALGORITHM);
+			} catch (NoSuchAlgorithmException e) {
+				fail(e);
+				return;
+			}
+			directory = spoolDirectory + File.separator + UUID.randomUUID();
+			packet = new File(directory, fileName);
+			fileUpload.pause();
+			fileSystem.mkdirs(directory, created -> {
+				if (created.failed()) {
+					fail(created.cause());
+					return;
+				}
+				fileSystem.open(packet.getPath(), new OpenOptions().setCreateNew(true).setWrite(true), opened -> {
+					if (opened.failed()) {
+						fail(opened.cause());
+						return;
+					}
+					file = opened.result();
+					fileUpload.handler(this::write);
+					fileUpload.exceptionHandler(this::fail);
+					fileUpload.endHandler(v -> {
+						uploadEnded = true;
+						complete();
+					});
+					fileUpload.resume();
+				});
+			});
+		}
+
+		void write(Buffer buffer) {
+			if (done)
+				return;
+			int length = buffer.length();
+			long position = size;
+			digest.update(buffer.getBytes());
+			size += length;
+			pendingWrites++;
+			if (inFlightBytes.addAndGet(length) > maxInFlightBytes)
+				pause();
+			file.write(buffer, position, written -> {
+				pendingWrites--;
+				release(length);
+				if (written.failed())
+					fail(written.cause());
+				else
+					complete();
+			});
+		}
+
+		void pause() {
+			if (waiting)
+				return;
+			waiting = true;
+			upload.pause();
+			paused.add(this);
+			// the writes may have drained before this request was queued
+			if (inFlightBytes.get() <= maxInFlightBytes)
+				resumePaused();
+		}
+
+		void resume() {
+			context.runOnContext(v -> {
+				waiting = false;
+				if (!done)
+					upload.resume();
+			});
+		}
+
+		void requestEnded() {
+			requestEnded = true;
+			if (upload == null)
+				fail(new PacketNotAvailableException(PlatformErrorMessages.RPR_PKR_PACKET_NOT_AVAILABLE.getMessage()));
+			else
+				complete();
+		}
+
+		void complete() {
+			if (done || !requestEnded || !uploadEnded || pendingWrites > 0)
+				return;
+			done = true;
+			file.close(closed -> {
+				if (closed.failed()) {
+					cleanUp();
+					ctx.fail(closed.cause());
+					return;
+				}
+				ctx.put(SPOOLED_PACKET, new SpooledPacket(packet, size, HMACUtils.digestAsPlainText(digest.digest())));
+				ctx.next();
+			});
+		}
+
+		void fail(Throwable t) {
+			if (done)
+				return;
+			done = true;
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					packet != null ? packet.getName() : "", "PacketSpoolHandler::fail()::" + t.getMessage()
+							+ ExceptionUtils.getStackTrace(t));
+			if (file != null)
+				file.close(closed -> cleanUp());
+			else
+				cleanUp();
+			if (!ctx.failed())
+				ctx.fail(t);
+		}
+
+		private void cleanUp() {
+			if (directory != null)
+				fileSystem.deleteRecursive(directory, true, deleted -> {
+				});
+		}
+
+	}
+
+}
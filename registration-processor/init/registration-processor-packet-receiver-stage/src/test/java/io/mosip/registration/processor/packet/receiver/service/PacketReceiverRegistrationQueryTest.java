@@ -0,0 +1,270 @@
+package io.mosip.registration.processor.packet.receiver.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.idvalidator.spi.RidValidator;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.kernel.core.util.HMACUtils;
+import io.mosip.kernel.core.virusscanner.spi.VirusScanner;
+import io.mosip.kernel.dataaccess.hibernate.config.HibernateDaoConfig;
+import io.mosip.kernel.dataaccess.hibernate.repository.impl.HibernateRepositoryImpl;
+import io.mosip.registration.processor.core.abstractverticle.MessageDTO;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.spi.filesystem.manager.FileManager;
+import io.mosip.registration.processor.packet.receiver.exception.DuplicateUploadRequestException;
+import io.mosip.registration.processor.packet.receiver.service.impl.PacketReceiverServiceImpl;
+import io.mosip.registration.processor.rest.client.audit.builder.AuditLogRequestBuilder;
+import io.mosip.registration.processor.status.dao.RegistrationStatusDao;
+import io.mosip.registration.processor.status.dao.SyncRegistrationDao;
+import io.mosip.registration.processor.status.decryptor.Decryptor;
+import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
+import io.mosip.registration.processor.status.dto.RegistrationStatusDto;
+import io.mosip.registration.processor.status.dto.SyncRegistrationDto;
+import io.mosip.registration.processor.status.dto.SyncResponseDto;
+import io.mosip.registration.processor.status.dto.TransactionDto;
+import io.mosip.registration.processor.status.encryptor.Encryptor;
+import io.mosip.registration.processor.status.service.RegistrationStatusService;
+import io.mosip.registration.processor.status.service.SyncRegistrationService;
+import io.mosip.registration.processor.status.service.TransactionService;
+import io.mosip.registration.processor.status.service.impl.RegistrationStatusServiceImpl;
+import io.mosip.registration.processor.status.service.impl.SyncRegistrationServiceImpl;
+import io.mosip.registration.processor.status.service.impl.TransactionServiceImpl;
+import io.mosip.registration.processor.status.utilities.RegistrationExternalStatusUtility;
+
+/**
+ * Receives packets against in-memory H2 sync and registration tables and
+ * counts the queries issued per packet. The number of packets of the
+ * throughput run can be set with -Dpacket.receiver.packets.
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = PacketReceiverRegistrationQueryTest.ReceiverTestConfig.class)
+@TestPropertySource(properties = {
+		"javax.persistence.jdbc.url=jdbc:h2:mem:receiver;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS regprc",
+		"javax.persistence.jdbc.driver=org.h2.Driver", "javax.persistence.jdbc.user=sa",
+		"javax.persistence.jdbc.password=sa", "hibernate.hbm2ddl.auto=update", "hibernate.ddl-auto=update",
+		"hibernate.dialect=org.hibernate.dialect.H2Dialect", "hibernate.temp.use_jdbc_metadata_defaults=false",
+		"registration.processor.max.retry=3", "registration.processor.reprocess.elapse.time=60",
+		"mosip.supported-languages=eng" })
+public class PacketReceiverRegistrationQueryTest {
+
+	private static final int PACKETS = Integer.getInteger("packet.receiver.packets", 500);
+
+	private static final int PACKET_SIZE = 16 * 1024;
+
+	private static final String STAGE_NAME = "PacketReceiverStage";
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(PacketReceiverRegistrationQueryTest.class);
+
+	private static int sequence;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Autowired
+	private SyncRegistrationService<SyncResponseDto, SyncRegistrationDto> syncRegistrationService;
+
+	@Autowired
+	private RegistrationStatusService<String, InternalRegistrationStatusDto, RegistrationStatusDto> registrationStatusService;
+
+	@Autowired
+	private RegistrationExternalStatusUtility registrationExternalStatusUtility;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockBean
+	private AuditLogRequestBuilder auditLogRequestBuilder;
+
+	@MockBean
+	private RidValidator<String> ridValidator;
+
+	@MockBean
+	private Decryptor decryptor;
+
+	@MockBean
+	private Encryptor encryptor;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private PacketReceiverServiceImpl packetReceiverService;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Statistics statistics;
+
+	@Configuration
+	@Import(HibernateDaoConfig.class)
+	@EnableJpaRepositories(basePackages = "io.mosip.registration.processor.status.repositary", repositoryBaseClass = HibernateRepositoryImpl.class)
+	static class ReceiverTestConfig {
+
+		@Bean
+		public RegistrationStatusDao getRegistrationStatusDao() {
+			return new RegistrationStatusDao();
+		}
+
+		@Bean
+		public SyncRegistrationDao getSyncRegistrationDao() {
+			return new SyncRegistrationDao();
+		}
+
+		@Bean
+		public RegistrationStatusService<String, InternalRegistrationStatusDto, RegistrationStatusDto> getRegistrationStatusService() {
+			return new RegistrationStatusServiceImpl();
+		}
+
+		@Bean
+		public SyncRegistrationService<SyncResponseDto, SyncRegistrationDto> getSyncRegistrationService() {
+			return new SyncRegistrationServiceImpl();
+		}
+
+		@Bean
+		public TransactionService<TransactionDto> getTransactionService() {
+			return new TransactionServiceImpl();
+		}
+
+		@Bean
+		public RegistrationExternalStatusUtility getRegistrationExternalStatusUtility() {
+			return new RegistrationExternalStatusUtility();
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() throws Exception {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+
+		VirusScanner<Boolean, InputStream> virusScanner = Mockito.mock(VirusScanner.class);
+		Mockito.when(virusScanner.scanFile(any(InputStream.class))).thenReturn(Boolean.TRUE);
+		packetReceiverService = new PacketReceiverServiceImpl();
+		ReflectionTestUtils.setField(packetReceiverService, "extention", ".zip");
+		ReflectionTestUtils.setField(packetReceiverService, "fileSize", "5");
+		ReflectionTestUtils.setField(packetReceiverService, "syncRegistrationService", syncRegistrationService);
+		ReflectionTestUtils.setField(packetReceiverService, "registrationStatusService", registrationStatusService);
+		ReflectionTestUtils.setField(packetReceiverService, "registrationExternalStatusUtility",
+				registrationExternalStatusUtility);
+		ReflectionTestUtils.setField(packetReceiverService, "auditLogRequestBuilder", auditLogRequestBuilder);
+		ReflectionTestUtils.setField(packetReceiverService, "virusScannerService", virusScanner);
+		ReflectionTestUtils.setField(packetReceiverService, "fileManager", Mockito.mock(FileManager.class));
+	}
+
+	@Test
+	public void newPacketQueryCountTest() throws IOException {
+		File packet = syncedPacket();
+
+		statistics.clear();
+		MessageDTO result = packetReceiverService.validatePacket(packet, STAGE_NAME);
+
+		assertTrue(result.getIsValid());
+		assertEquals("sync and registration status are each read once", 2, statistics.getQueryExecutionCount());
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+				result.getRid(), String.format("new packet : %d queries, %d statements",
+						statistics.getQueryExecutionCount(), statistics.getPrepareStatementCount()));
+	}
+
+	@Test
+	public void resentPacketQueryCountTest() throws IOException {
+		File packet = syncedPacket();
+		String registrationId = registrationId(packet);
+		Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusHours(1));
+		jdbcTemplate.update("INSERT INTO regprc.registration (id, reg_type, status_code, lang_code, is_active, "
+				+ "is_deleted, latest_trn_type_code, latest_trn_status_code, latest_trn_dtimes, trn_retry_count, "
+				+ "reg_process_retry_count, reg_stage_name, cr_dtimes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+				registrationId, "NEW", "PROCESSING", "eng", true, false, "PACKET_RECEIVER", "SUCCESS", old, 0, 0,
+				STAGE_NAME, old);
+
+		statistics.clear();
+		MessageDTO result = packetReceiverService.validatePacket(packet, STAGE_NAME);
+
+		assertTrue(result.getIsValid());
+		assertEquals("the resend check works on the status row already read", 2,
+				statistics.getQueryExecutionCount());
+		assertEquals("a resent packet starts its retry count over", Integer.valueOf(0),
+				registrationStatusService.getRegistrationStatus(registrationId).getRetryCount());
+	}
+
+	@Test(expected = DuplicateUploadRequestException.class)
+	public void duplicatePacketTest() throws IOException {
+		File packet = syncedPacket();
+		packetReceiverService.validatePacket(packet, STAGE_NAME);
+
+		packetReceiverService.validatePacket(packet, STAGE_NAME);
+	}
+
+	@Test
+	public void packetsPerSecondTest() throws IOException {
+		File[] packets = new File[PACKETS];
+		for (int i = 0; i < PACKETS; i++)
+			packets[i] = syncedPacket();
+
+		statistics.clear();
+		long start = System.nanoTime();
+		for (File packet : packets)
+			assertTrue(packetReceiverService.validatePacket(packet, STAGE_NAME).getIsValid());
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		assertEquals(2L * PACKETS, statistics.getQueryExecutionCount());
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format(
+						"packet receiver validation of %d packets : %.0f packets/s, %.1f queries and %.1f statements per packet",
+						PACKETS, PACKETS / seconds, (double) statistics.getQueryExecutionCount() / PACKETS,
+						(double) statistics.getPrepareStatementCount() / PACKETS));
+	}
+
+	private File syncedPacket() throws IOException {
+		String registrationId = String.format("1000110001%019d", sequence++);
+		byte[] data = new byte[PACKET_SIZE];
+		new Random(sequence).nextBytes(data);
+		File packet = new File(folder.getRoot(), registrationId + ".zip");
+		Files.write(packet.toPath(), data);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.update("INSERT INTO regprc.registration_list (id, reg_id, reg_type, packet_checksum, "
+				+ "packet_size, lang_code, cr_by, cr_dtimes, is_deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+				"sync-" + registrationId, registrationId, "NEW",
+				HMACUtils.digestAsPlainText(HMACUtils.generateHash(data)), PACKET_SIZE, "eng", "MOSIP_SYSTEM", now,
+				false);
+		return packet;
+	}
+
+	private static String registrationId(File packet) {
+		return packet.getName().split("\\.")[0];
+	}
+
+}
@@ -7,6 +7,8 @@ import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -16,6 +18,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.net.URISyntaxException;
 import java.time.LocalDateTime;
@@ -72,6 +75,7 @@ import io.mosip.registration.processor.packet.receiver.exception.UnequalHashSequ
 import io.mosip.registration.processor.packet.receiver.service.impl.PacketReceiverServiceImpl;
 import io.mosip.registration.processor.rest.client.audit.builder.AuditLogRequestBuilder;
 import io.mosip.registration.processor.rest.client.audit.dto.AuditResponseDto;
+import io.mosip.registration.processor.status.code.RegistrationExternalStatusCode;
 import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
 import io.mosip.registration.processor.status.dto.RegistrationStatusDto;
 import io.mosip.registration.processor.status.dto.SyncRegistrationDto;
@@ -79,6 +83,7 @@ import io.mosip.registration.processor.status.dto.SyncResponseDto;
 import io.mosip.registration.processor.status.entity.SyncRegistrationEntity;
 import io.mosip.registration.processor.status.service.RegistrationStatusService;
 import io.mosip.registration.processor.status.service.SyncRegistrationService;
+import io.mosip.registration.processor.status.utilities.RegistrationExternalStatusUtility;
 
 @RefreshScope
 @RunWith(PowerMockRunner.class)
@@ -106,6 +111,9 @@ public class PacketReceiverServiceTest {
 	@Mock
 	private AuditLogRequestBuilder auditLogRequestBuilder;
 
+	@Mock
+	private RegistrationExternalStatusUtility registrationExternalStatusUtility;
+
 	@Mock
 	InputStream is;
 
@@ -152,6 +160,8 @@ public class PacketReceiverServiceTest {
 		registrations.add(registrationStatusDto);
 		Mockito.doNothing().when(description).setMessage(any());
 		Mockito.when(registrationStatusService.getByIds(anyList())).thenReturn(registrations);
+		Mockito.when(registrationExternalStatusUtility.getExternalStatus(any(InternalRegistrationStatusDto.class)))
+				.thenReturn(RegistrationExternalStatusCode.RESEND);
 		PowerMockito.mockStatic(ZipUtils.class);
 		PowerMockito.when(ZipUtils.unzipAndGetFile(any(), anyString()))
 				.thenReturn(new ByteArrayInputStream(new String("abc").getBytes()));
@@ -199,6 +209,24 @@ public class PacketReceiverServiceTest {
 		assertEquals(true, successResult.getIsValid());
 	}
 
+	@Test
+	public void testRegistrationRowsReadOnce()
+			throws IOException, URISyntaxException, PacketDecryptionFailureException, ApisResourceAccessException, io.mosip.registration.processor.core.exception.PacketDecryptionFailureException {
+
+		mockDto = new InternalRegistrationStatusDto();
+		mockDto.setRetryCount(1);
+		Mockito.when(syncRegistrationService.findByRegistrationId(anyString())).thenReturn(regEntity);
+		Mockito.doReturn(mockDto).when(registrationStatusService).getRegistrationStatus("0000");
+		MessageDTO successResult = packetReceiverService.validatePacket(mockMultipartFile, stageName);
+
+		assertEquals(true, successResult.getIsValid());
+		verify(registrationStatusService).addRegistrationStatus(
+				argThat(status -> Integer.valueOf(0).equals(status.getRetryCount())), any(), any());
+		verify(syncRegistrationService, times(1)).findByRegistrationId("0000");
+		verify(registrationStatusService, times(1)).getRegistrationStatus("0000");
+		verify(registrationStatusService, never()).getByIds(anyList());
+	}
+
 	@Test
 	public void testRetryIfNotNull()
 			throws IOException, URISyntaxException, PacketDecryptionFailureException, ApisResourceAccessException, io.mosip.registration.processor.core.exception.PacketDecryptionFailureException {
@@ -244,6 +272,8 @@ public class PacketReceiverServiceTest {
 		registrationStatusDto.setStatusCode("REREGISTER");
 		registrations.add(registrationStatusDto);
 		Mockito.when(registrationStatusService.getByIds(anyList())).thenReturn(registrations);
+		Mockito.when(registrationExternalStatusUtility.getExternalStatus(any(InternalRegistrationStatusDto.class)))
+				.thenReturn(RegistrationExternalStatusCode.REREGISTER);
 
 		Mockito.when(syncRegistrationService.findByRegistrationId(anyString())).thenReturn(regEntity);
 		ch.qos.logback.classic.Logger root = (ch.qos.logback.classic.Logger) LoggerFactory
@@ -397,6 +427,8 @@ public class PacketReceiverServiceTest {
 		MessageDTO successResult = packetReceiverService.processPacket(mockMultipartFile);
 
 		assertEquals(true, successResult.getIsValid());
+		verify(fileManager, times(1)).putSidecar("0000", "abcd1234", mockMultipartFile.length(),
+				DirectoryPathDto.LANDING_ZONE);
 	}
 
 	@Test
@@ -431,7 +463,7 @@ public class PacketReceiverServiceTest {
 
 		Mockito.when(syncRegistrationService.findByRegistrationId(anyString())).thenReturn(regEntity);
 		PowerMockito.mockStatic(IOUtils.class);
-		PowerMockito.when(IOUtils.toByteArray(any(InputStream.class))).thenThrow(new IOException());
+		PowerMockito.when(IOUtils.copyLarge(any(InputStream.class), any(OutputStream.class))).thenThrow(new IOException());
 		MessageDTO successResult = packetReceiverService.validatePacket(mockMultipartFile, stageName);
 		assertEquals(false, successResult.getIsValid());
 	}
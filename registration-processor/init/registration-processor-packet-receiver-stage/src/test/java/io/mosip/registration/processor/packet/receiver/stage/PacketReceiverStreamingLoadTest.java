@@ -0,0 +1,339 @@
+package io.mosip.registration.processor.packet.receiver.stage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.kernel.core.util.HMACUtils;
+import io.mosip.kernel.core.virusscanner.spi.VirusScanner;
+import io.mosip.registration.processor.core.abstractverticle.MessageDTO;
+import io.mosip.registration.processor.core.abstractverticle.MosipRouter;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.spi.filesystem.manager.FileManager;
+import io.mosip.registration.processor.core.token.validation.TokenValidator;
+import io.mosip.registration.processor.packet.manager.dto.DirectoryPathDto;
+import io.mosip.registration.processor.packet.receiver.constants.PacketReceiverConstant;
+import io.mosip.registration.processor.packet.receiver.dto.SpooledPacket;
+import io.mosip.registration.processor.packet.receiver.service.impl.PacketReceiverServiceImpl;
+import io.mosip.registration.processor.rest.client.audit.builder.AuditLogRequestBuilder;
+import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
+import io.mosip.registration.processor.status.dto.RegistrationStatusDto;
+import io.mosip.registration.processor.status.dto.SyncRegistrationDto;
+import io.mosip.registration.processor.status.dto.SyncResponseDto;
+import io.mosip.registration.processor.status.entity.SyncRegistrationEntity;
+import io.mosip.registration.processor.status.service.RegistrationStatusService;
+import io.mosip.registration.processor.status.service.SyncRegistrationService;
+import io.mosip.registration.processor.status.utilities.RegistrationExternalStatusUtility;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.handler.BodyHandler;
+
+/**
+ * Starts the streaming route of the mosip router on a local port, uploads
+ * packets to it concurrently and checks that the peak heap stays bounded
+ * whatever the packet size. The packets are validated, scanned and stored by
+ * the real receiver service against in-memory sync and status records. The
+ * packets are small by default; the packet size in MB and the number of
+ * concurrent uploads can be set with -Dpacket.receiver.load.mb and
+ * -Dpacket.receiver.load.concurrency, e.g. 100 and 4 for the load run.
+ */
+public class PacketReceiverStreamingLoadTest {
+
+	private static final int PACKET_MB = Integer.getInteger("packet.receiver.load.mb", 8);
+
+	private static final int CONCURRENCY = Integer.getInteger("packet.receiver.load.concurrency", 4);
+
+	private static final long MAX_IN_FLIGHT_BYTES = 16L * 1024 * 1024;
+
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	private static final String BOUNDARY = "----packet-receiver-load-test";
+
+	private static final String STAGE_NAME = "PacketReceiverStage";
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(PacketReceiverStreamingLoadTest.class);
+
+	private static final String TOKEN = "Authorization=token";
+
+	private static final String VALIDATED_PACKET = "validatedPacket";
+
+	/**
+	 * The heap the uploads may take over the heap before them, whatever the
+	 * packet size. A body read into memory takes the whole packet.
+	 */
+	private static final long MAX_HEAP_GROWTH_BYTES = Long.getLong("packet.receiver.load.max-heap-growth-mb", 256L)
+			* 1024 * 1024;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Vertx vertx;
+
+	private HttpServer server;
+
+	private File spoolDirectory;
+
+	private PacketSpoolHandler spoolHandler;
+
+	private TokenValidator tokenValidator;
+
+	private PacketReceiverServiceImpl packetReceiverService;
+
+	private final Map<String, SyncRegistrationEntity> syncedPackets = new ConcurrentHashMap<>();
+
+	private final Map<String, InternalRegistrationStatusDto> registrationStatus = new ConcurrentHashMap<>();
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() throws Exception {
+		SyncRegistrationService<SyncResponseDto, SyncRegistrationDto> syncRegistrationService = Mockito
+				.mock(SyncRegistrationService.class);
+		Mockito.when(syncRegistrationService.findByRegistrationId(anyString()))
+				.thenAnswer(invocation -> syncedPackets.get(invocation.getArguments()[0]));
+		RegistrationStatusService<String, InternalRegistrationStatusDto, RegistrationStatusDto> registrationStatusService = Mockito
+				.mock(RegistrationStatusService.class);
+		Mockito.when(registrationStatusService.getRegistrationStatus(anyString()))
+				.thenAnswer(invocation -> registrationStatus.get(invocation.getArguments()[0]));
+		Mockito.doAnswer(invocation -> {
+			InternalRegistrationStatusDto dto = (InternalRegistrationStatusDto) invocation.getArguments()[0];
+			registrationStatus.put(dto.getRegistrationId(), dto);
+			return null;
+		}).when(registrationStatusService).addRegistrationStatus(any(), anyString(), anyString());
+		VirusScanner<Boolean, InputStream> virusScanner = Mockito.mock(VirusScanner.class);
+		Mockito.when(virusScanner.scanFile(any(InputStream.class))).thenAnswer(invocation -> {
+			IOUtils.copyLarge((InputStream) invocation.getArguments()[0], NullOutputStream.NULL_OUTPUT_STREAM);
+			return Boolean.TRUE;
+		});
+		FileManager<DirectoryPathDto, InputStream> fileManager = Mockito.mock(FileManager.class);
+		Mockito.doAnswer(invocation -> {
+			IOUtils.copyLarge((InputStream) invocation.getArguments()[1], NullOutputStream.NULL_OUTPUT_STREAM);
+			return null;
+		}).when(fileManager).put(anyString(), any(InputStream.class), any(DirectoryPathDto.class));
+
+		packetReceiverService = new PacketReceiverServiceImpl();
+		ReflectionTestUtils.setField(packetReceiverService, "extention", ".zip");
+		ReflectionTestUtils.setField(packetReceiverService, "fileSize", String.valueOf(PACKET_MB * 2));
+		ReflectionTestUtils.setField(packetReceiverService, "syncRegistrationService", syncRegistrationService);
+		ReflectionTestUtils.setField(packetReceiverService, "registrationStatusService", registrationStatusService);
+		ReflectionTestUtils.setField(packetReceiverService, "registrationExternalStatusUtility",
+				Mockito.mock(RegistrationExternalStatusUtility.class));
+		ReflectionTestUtils.setField(packetReceiverService, "auditLogRequestBuilder",
+				Mockito.mock(AuditLogRequestBuilder.class));
+		ReflectionTestUtils.setField(packetReceiverService, "virusScannerService", virusScanner);
+		ReflectionTestUtils.setField(packetReceiverService, "fileManager", fileManager);
+
+		spoolDirectory = folder.newFolder("spool");
+		spoolHandler = new PacketSpoolHandler(spoolDirectory.getAbsolutePath(), MAX_IN_FLIGHT_BYTES);
+		tokenValidator = Mockito.mock(TokenValidator.class);
+		vertx = Vertx.vertx();
+		// the same routes as the stage : a body handler for every route, as
+		// postUrl adds, and the streaming route of the mosip router ahead of it
+		Router router = Router.router(vertx);
+		router.route().handler(BodyHandler.create());
+		MosipRouter mosipRouter = new MosipRouter();
+		ReflectionTestUtils.setField(mosipRouter, "tokenValidator", tokenValidator);
+		mosipRouter.setRoute(router);
+		mosipRouter.post("/registrationpackets");
+		mosipRouter.streamingHandler(spoolHandler, ctx -> {
+			SpooledPacket spooledPacket = ctx.get(PacketSpoolHandler.SPOOLED_PACKET);
+			try {
+				ctx.put(VALIDATED_PACKET, packetReceiverService.validatePacket(spooledPacket.getFile(), STAGE_NAME,
+						spooledPacket.getHashSequence()));
+			} catch (RuntimeException e) {
+				FileUtils.deleteQuietly(spooledPacket.getFile().getParentFile());
+				throw e;
+			}
+			ctx.next();
+		}, ctx -> {
+			SpooledPacket spooledPacket = ctx.get(PacketSpoolHandler.SPOOLED_PACKET);
+			MessageDTO messageDTO = ctx.get(VALIDATED_PACKET);
+			try {
+				if (messageDTO.getIsValid())
+					messageDTO = packetReceiverService.processPacket(spooledPacket.getFile());
+			} finally {
+				FileUtils.deleteQuietly(spooledPacket.getFile().getParentFile());
+			}
+			ctx.response().setStatusCode(messageDTO.getIsValid() ? 200 : 400).end();
+		}, ctx -> ctx.response().setStatusCode(500).end());
+
+		CompletableFuture<HttpServer> listening = new CompletableFuture<>();
+		vertx.createHttpServer().requestHandler(router::accept).listen(0, result -> {
+			if (result.succeeded())
+				listening.complete(result.result());
+			else
+				listening.completeExceptionally(result.cause());
+		});
+		server = listening.get(30, TimeUnit.SECONDS);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		CompletableFuture<Void> closed = new CompletableFuture<>();
+		vertx.close(result -> closed.complete(null));
+		closed.get(30, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void incrementalHashMatchesHMACUtilsTest() throws Exception {
+		byte[] data = new byte[3 * BLOCK_SIZE + 17];
+		new Random(7).nextBytes(data);
+		MessageDigest digest = MessageDigest.getInstance(PacketReceiverConstant.HASH_SEQUENCE_ALGORITHM);
+		for (int offset = 0; offset < data.length; offset += 1000)
+			digest.update(data, offset, Math.min(1000, data.length - offset));
+
+		assertEquals(HMACUtils.digestAsPlainText(HMACUtils.generateHash(data)),
+				HMACUtils.digestAsPlainText(digest.digest()));
+	}
+
+	@Test
+	public void concurrentUploadLoadTest() throws Exception {
+		long packetSize = PACKET_MB * 1024L * 1024L;
+		List<String> registrationIds = new ArrayList<>();
+		for (int i = 0; i < CONCURRENCY; i++) {
+			String registrationId = String.format("1000110001%019d", i);
+			SyncRegistrationEntity regEntity = new SyncRegistrationEntity();
+			regEntity.setRegistrationId(registrationId);
+			regEntity.setRegistrationType("NEW");
+			regEntity.setPacketSize(BigInteger.valueOf(packetSize));
+			regEntity.setPacketHashValue(hashSequence(i, packetSize));
+			syncedPackets.put(registrationId, regEntity);
+			registrationIds.add(registrationId);
+		}
+
+		List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+				heapPools.add(pool);
+			}
+		}
+		System.gc();
+		long heapBefore = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+		ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+		long[] latencies = new long[CONCURRENCY];
+		try {
+			List<Future<Integer>> uploads = new ArrayList<>();
+			for (int i = 0; i < CONCURRENCY; i++) {
+				int seed = i;
+				uploads.add(executor.submit(() -> {
+					long start = System.nanoTime();
+					int status = upload(registrationIds.get(seed), seed, packetSize);
+					latencies[seed] = System.nanoTime() - start;
+					return status;
+				}));
+			}
+			for (Future<Integer> upload : uploads)
+				assertEquals(Integer.valueOf(200), upload.get(10, TimeUnit.MINUTES));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		long peakHeap = 0;
+		for (MemoryPoolMXBean pool : heapPools)
+			peakHeap += pool.getPeakUsage().getUsed();
+		Arrays.sort(latencies);
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+				"", String.format(
+						"packet receiver streaming %d x %d MB : heap before %d MB, peak heap %d MB, latency min %d ms, median %d ms, max %d ms",
+						CONCURRENCY, PACKET_MB, heapBefore >> 20, peakHeap >> 20,
+						TimeUnit.NANOSECONDS.toMillis(latencies[0]),
+						TimeUnit.NANOSECONDS.toMillis(latencies[CONCURRENCY / 2]),
+						TimeUnit.NANOSECONDS.toMillis(latencies[CONCURRENCY - 1])));
+
+		for (String registrationId : registrationIds)
+			assertEquals("PROCESSING", registrationStatus.get(registrationId).getStatusCode());
+		Mockito.verify(tokenValidator, Mockito.times(CONCURRENCY)).validate(Mockito.eq(TOKEN),
+				Mockito.eq("/registrationpackets"));
+		assertTrue("peak heap " + (peakHeap >> 20) + " MB over " + (heapBefore >> 20) + " MB before the uploads",
+				peakHeap - heapBefore < MAX_HEAP_GROWTH_BYTES);
+		assertEquals(0, spoolHandler.getInFlightBytes());
+		assertEquals(0, spoolDirectory.list().length);
+	}
+
+	private int upload(String registrationId, int seed, long packetSize) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(
+				"http://localhost:" + server.actualPort() + "/registrationpackets").openConnection();
+		connection.setDoOutput(true);
+		connection.setRequestMethod("POST");
+		connection.setChunkedStreamingMode(BLOCK_SIZE);
+		connection.setRequestProperty("Cookie", TOKEN);
+		connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + BOUNDARY);
+		try (OutputStream out = connection.getOutputStream()) {
+			out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\""
+					+ registrationId + ".zip\"\r\nContent-Type: application/octet-stream\r\n\r\n")
+							.getBytes(StandardCharsets.UTF_8));
+			writePacket(out, seed, packetSize);
+			out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+		}
+		int status = connection.getResponseCode();
+		connection.disconnect();
+		return status;
+	}
+
+	private static String hashSequence(int seed, long packetSize) throws Exception {
+		MessageDigest digest = MessageDigest.getInstance(PacketReceiverConstant.HASH_SEQUENCE_ALGORITHM);
+		writePacket(new OutputStream() {
+
+			@Override
+			public void write(int b) {
+				digest.update((byte) b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				digest.update(b, off, len);
+			}
+		}, seed, packetSize);
+		return HMACUtils.digestAsPlainText(digest.digest());
+	}
+
+	private static void writePacket(OutputStream out, int seed, long packetSize) throws IOException {
+		Random random = new Random(seed);
+		byte[] block = new byte[BLOCK_SIZE];
+		for (long written = 0; written < packetSize; written += block.length) {
+			random.nextBytes(block);
+			out.write(block, 0, (int) Math.min(block.length, packetSize - written));
+		}
+	}
+
+}
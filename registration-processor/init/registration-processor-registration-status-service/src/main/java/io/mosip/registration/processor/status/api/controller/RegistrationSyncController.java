@@ -80,6 +80,9 @@ public class RegistrationSyncController {
 	private static final String DATETIME_PATTERN = "mosip.registration.processor.datetime.pattern";
 	private static final String RESPONSE_SIGNATURE = "Response-Signature";
 
+	/** The mapper used to serialize signed responses. */
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
 	/**
 	 * Sync registration ids.
 	 *
@@ -110,7 +113,6 @@ public class RegistrationSyncController {
 			}
 			if (isEnabled) {
 				RegSyncResponseDTO responseDto = buildRegistrationSyncResponse(syncResponseList);
-				ObjectMapper objectMapper = new ObjectMapper();
 				HttpHeaders headers = new HttpHeaders();
 				headers.add(RESPONSE_SIGNATURE,
 						digitalSignatureUtility.getDigitalSignature(objectMapper.writeValueAsString(responseDto)));
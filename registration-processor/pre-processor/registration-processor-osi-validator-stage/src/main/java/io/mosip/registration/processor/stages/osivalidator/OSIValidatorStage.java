@@ -311,6 +311,7 @@ public class OSIValidatorStage extends MosipVerticleAPIManager {
 			object.setInternalError(Boolean.TRUE);
 			object.setIsValid(Boolean.FALSE);
 		} finally {
+			packetManagerService.evictPacket(registrationId);
 			/** Module-Id can be Both Succes/Error code */
 			String moduleId = isTransactionSuccessful ? PlatformSuccessMessages.RPR_PKR_OSI_VALIDATE.getCode()
 					: description.getCode();
@@ -34,6 +34,8 @@ import io.mosip.registration.processor.core.status.util.StatusUtil;
 import io.mosip.registration.processor.core.util.IdentityIteratorUtil;
 import io.mosip.registration.processor.core.util.JsonUtil;
 import io.mosip.registration.processor.core.exception.PacketManagerException;
+import io.mosip.registration.processor.stages.osivalidator.utils.MasterDataCache;
+import io.mosip.registration.processor.stages.osivalidator.utils.MasterDataCache.MasterDataFetch;
 import io.mosip.registration.processor.stages.osivalidator.utils.OSIUtils;
 import io.mosip.registration.processor.stages.osivalidator.utils.StatusMessage;
 import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
@@ -43,10 +45,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -98,6 +103,24 @@ public class UMCValidator {
 	@Autowired
 	private Environment env;
 
+	/** The time a master data response is kept, 0 to call master data for every packet. */
+	@Value("${registration.processor.umc.cache.ttl-seconds:300}")
+	private long masterDataCacheTtl;
+
+	/** The most master data responses kept. */
+	@Value("${registration.processor.umc.cache.max-entries:10000}")
+	private int masterDataCacheMaxEntries;
+
+	/** The minutes of packet creation time sharing one master data response. */
+	@Value("${registration.processor.umc.cache.bucket-minutes:15}")
+	private long masterDataCacheBucketMinutes;
+
+	/** The parallel device lookups of a packet. */
+	@Value("${registration.processor.umc.device.fetch-threads:4}")
+	private int deviceFetchThreads;
+
+	private volatile MasterDataCache masterDataCache;
+
 	/**
 	 * Validate registration center.
 	 *
@@ -132,8 +155,10 @@ public class UMCValidator {
 		RegistrationCenterResponseDto rcpdto = null;
 		ResponseWrapper<?> responseWrapper;
 
-		responseWrapper = (ResponseWrapper<?>) registrationProcessorRestService.getApi(ApiName.CENTERHISTORY,
-				pathsegments, "", "", ResponseWrapper.class);
+		responseWrapper = getMasterDataCache().get(
+				getMasterDataCache().key(ApiName.CENTERHISTORY, effectiveDate, true, registrationCenterId, langCode),
+				() -> (ResponseWrapper<?>) registrationProcessorRestService.getApi(ApiName.CENTERHISTORY,
+						pathsegments, "", "", ResponseWrapper.class));
 		rcpdto = mapper.readValue(mapper.writeValueAsString(responseWrapper.getResponse()),
 				RegistrationCenterResponseDto.class);
 
@@ -200,8 +225,10 @@ public class UMCValidator {
 		MachineHistoryResponseDto mhrdto;
 		ResponseWrapper<?> responseWrapper;
 
-		responseWrapper = (ResponseWrapper<?>) registrationProcessorRestService.getApi(ApiName.MACHINEHISTORY,
-				pathsegments, "", "", ResponseWrapper.class);
+		responseWrapper = getMasterDataCache().get(
+				getMasterDataCache().key(ApiName.MACHINEHISTORY, effdatetimes, true, machineId, langCode),
+				() -> (ResponseWrapper<?>) registrationProcessorRestService.getApi(ApiName.MACHINEHISTORY,
+						pathsegments, "", "", ResponseWrapper.class));
 		mhrdto = mapper.readValue(mapper.writeValueAsString(responseWrapper.getResponse()),
 				MachineHistoryResponseDto.class);
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
@@ -293,8 +320,11 @@ public class UMCValidator {
 		ResponseWrapper<?> responseWrapper;
 		RegistrationCenterUserMachineMappingHistoryResponseDto userDto = null;
 
-		responseWrapper = (ResponseWrapper<?>) registrationProcessorRestService.getApi(ApiName.CENTERUSERMACHINEHISTORY,
-				pathsegments, "", "", ResponseWrapper.class);
+		responseWrapper = getMasterDataCache().get(
+				getMasterDataCache().key(ApiName.CENTERUSERMACHINEHISTORY, pathsegments.get(0), true,
+						pathsegments.subList(1, pathsegments.size()).toArray(new String[0])),
+				() -> (ResponseWrapper<?>) registrationProcessorRestService
+						.getApi(ApiName.CENTERUSERMACHINEHISTORY, pathsegments, "", "", ResponseWrapper.class));
 		userDto = mapper.readValue(mapper.writeValueAsString(responseWrapper.getResponse()),
 				RegistrationCenterUserMachineMappingHistoryResponseDto.class);
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
@@ -418,12 +448,112 @@ public class UMCValidator {
 	private boolean isValidDevice(RegOsiDto regOsi,
 			InternalRegistrationStatusDto registrationStatusDto) throws ApisResourceAccessException, IOException {
 		boolean isValidDevice = false;
-		if (isDeviceActive(regOsi, registrationStatusDto) && isDeviceMappedWithCenter(regOsi, registrationStatusDto)) {
+		Map<String, ResponseWrapper<?>> deviceResponses = fetchDeviceDetails(regOsi);
+		if (isDeviceActive(regOsi, registrationStatusDto, deviceResponses)
+				&& isDeviceMappedWithCenter(regOsi, registrationStatusDto, deviceResponses)) {
 			isValidDevice = true;
 		}
 		return isValidDevice;
 	}
 
+	/**
+	 * Fetches the validate history and the center mapping history of all the
+	 * captured devices in one batch, each distinct lookup once.
+	 *
+	 * @param rcmDto
+	 *            the rcm dto
+	 * @return the responses, by master data cache key
+	 * @throws ApisResourceAccessException
+	 *             the apis resource access exception
+	 * @throws IOException
+	 */
+	private Map<String, ResponseWrapper<?>> fetchDeviceDetails(RegOsiDto rcmDto)
+			throws ApisResourceAccessException, IOException {
+		Map<String, MasterDataFetch> fetches = new LinkedHashMap<>();
+		List<NewRegisteredDevice> registreredDevices = rcmDto.getCapturedRegisteredDevices();
+		if (registreredDevices != null) {
+			for (NewRegisteredDevice deviceDetails : registreredDevices) {
+				RegisteredDevice registeredDevice = convert(deviceDetails);
+				fetches.putIfAbsent(deviceValidateKey(registeredDevice, rcmDto.getPacketCreationDate()),
+						() -> fetchDeviceValidateHistory(registeredDevice, rcmDto.getPacketCreationDate()));
+
+				List<String> pathsegments = new ArrayList<>();
+				pathsegments.add(rcmDto.getRegcntrId());
+				pathsegments.add(deviceDetails.getDeviceCode());
+				pathsegments.add(rcmDto.getPacketCreationDate());
+				fetches.putIfAbsent(centerDeviceKey(rcmDto, deviceDetails.getDeviceCode()),
+						() -> (ResponseWrapper<?>) registrationProcessorRestService.getApi(
+								ApiName.REGISTRATIONCENTERDEVICEHISTORY, pathsegments, "", "", ResponseWrapper.class));
+			}
+		}
+		return fetches.isEmpty() ? new LinkedHashMap<>() : getMasterDataCache().getAll(fetches);
+	}
+
+	private String centerDeviceKey(RegOsiDto rcmDto, String deviceCode) {
+		return getMasterDataCache().key(ApiName.REGISTRATIONCENTERDEVICEHISTORY, rcmDto.getPacketCreationDate(), true,
+				rcmDto.getRegcntrId(), deviceCode);
+	}
+
+	/**
+	 * Gets the master data cache key of a device validation. The capture time
+	 * of the digital id differs for every packet and is left out, so the
+	 * packets captured with one device share the validation.
+	 */
+	private String deviceValidateKey(RegisteredDevice registeredDevice, String effectiveDate) {
+		DigitalId digitalId = registeredDevice.getDigitalId();
+		return getMasterDataCache().key(ApiName.DEVICEVALIDATEHISTORY, effectiveDate, true,
+				registeredDevice.getDeviceCode(), registeredDevice.getDeviceServiceVersion(), digitalId.getType(),
+				digitalId.getDeviceSubType(), digitalId.getDp(), digitalId.getDpId(), digitalId.getMake(),
+				digitalId.getModel(), digitalId.getSerialNo());
+	}
+
+	private ResponseWrapper<?> fetchDeviceValidateHistory(RegisteredDevice registeredDevice, String effectiveDate)
+			throws ApisResourceAccessException {
+		DeviceValidateHistoryRequest deviceValidateHistoryRequest = new DeviceValidateHistoryRequest();
+		deviceValidateHistoryRequest.setDeviceCode(registeredDevice.getDeviceCode());
+		deviceValidateHistoryRequest.setDeviceServiceVersion(registeredDevice.getDeviceServiceVersion());
+		deviceValidateHistoryRequest.setDigitalId(registeredDevice.getDigitalId());
+		deviceValidateHistoryRequest.setTimeStamp(effectiveDate);
+		RequestWrapper<DeviceValidateHistoryRequest> request = new RequestWrapper<>();
+
+		request.setRequest(deviceValidateHistoryRequest);
+		request.setId(deviceValidateHistoryId);
+		request.setMetadata(null);
+		request.setVersion("1.0");
+		DateTimeFormatter format = DateTimeFormatter.ofPattern(env.getProperty(DATETIME_PATTERN));
+		LocalDateTime localdatetime = LocalDateTime
+				.parse(DateUtils.getUTCCurrentDateTimeString(env.getProperty(DATETIME_PATTERN)), format);
+		request.setRequesttime(localdatetime);
+
+		return (ResponseWrapper<?>) registrationProcessorRestService.postApi(ApiName.DEVICEVALIDATEHISTORY, "", "",
+				request, ResponseWrapper.class);
+	}
+
+	private MasterDataCache getMasterDataCache() {
+		if (masterDataCache == null) {
+			synchronized (this) {
+				if (masterDataCache == null)
+					masterDataCache = new MasterDataCache(masterDataCacheTtl, masterDataCacheMaxEntries,
+							masterDataCacheBucketMinutes, deviceFetchThreads);
+			}
+		}
+		return masterDataCache;
+	}
+
+	/**
+	 * Drops the cached master data, so the next packets are validated against
+	 * fresh master data.
+	 */
+	public void invalidateMasterDataCache() {
+		getMasterDataCache().invalidate();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (masterDataCache != null)
+			masterDataCache.shutdown();
+	}
+
 	/**
 	 * Checks if is device mapped with center.
 	 *
@@ -439,8 +569,8 @@ public class UMCValidator {
 	 * @throws com.fasterxml.jackson.core.JsonParseException
 	 */
 
-	private boolean isDeviceMappedWithCenter(RegOsiDto rcmDto,
-			InternalRegistrationStatusDto registrationStatusDto) throws ApisResourceAccessException, IOException {
+	private boolean isDeviceMappedWithCenter(RegOsiDto rcmDto, InternalRegistrationStatusDto registrationStatusDto,
+			Map<String, ResponseWrapper<?>> deviceResponses) throws ApisResourceAccessException, IOException {
 		boolean isDeviceMappedWithCenter = false;
 		List<NewRegisteredDevice> registreredDevices = rcmDto.getCapturedRegisteredDevices();
 		if (registreredDevices != null && !registreredDevices.isEmpty()) {
@@ -449,13 +579,7 @@ public class UMCValidator {
 				deviceCode = deviceDetails.getDeviceCode();
 				RegistrationCenterDeviceHistoryResponseDto registrationCenterDeviceHistoryResponseDto;
 
-				List<String> pathsegments = new ArrayList<>();
-				pathsegments.add(rcmDto.getRegcntrId());
-				pathsegments.add(deviceCode);
-				pathsegments.add(rcmDto.getPacketCreationDate());
-
-				ResponseWrapper<?> responseWrapper = (ResponseWrapper<?>) registrationProcessorRestService
-						.getApi(ApiName.REGISTRATIONCENTERDEVICEHISTORY, pathsegments, "", "", ResponseWrapper.class);
+				ResponseWrapper<?> responseWrapper = deviceResponses.get(centerDeviceKey(rcmDto, deviceCode));
 				registrationCenterDeviceHistoryResponseDto = mapper.readValue(
 						mapper.writeValueAsString(responseWrapper.getResponse()),
 						RegistrationCenterDeviceHistoryResponseDto.class);
@@ -535,8 +659,8 @@ public class UMCValidator {
 	 *             the apis resource access exception
 	 */
 
-	private boolean isDeviceActive(RegOsiDto rcmDto,
-			InternalRegistrationStatusDto registrationStatusDto)
+	private boolean isDeviceActive(RegOsiDto rcmDto, InternalRegistrationStatusDto registrationStatusDto,
+			Map<String, ResponseWrapper<?>> deviceResponses)
 			throws JsonProcessingException, IOException, ApisResourceAccessException {
 		boolean isDeviceValid = false;
 
@@ -544,26 +668,10 @@ public class UMCValidator {
 		if (registreredDevices != null && !registreredDevices.isEmpty()) {
 			for (NewRegisteredDevice deviceDetails : registreredDevices) {
 				RegisteredDevice registeredDevice = convert(deviceDetails);
-				DeviceValidateHistoryRequest deviceValidateHistoryRequest = new DeviceValidateHistoryRequest();
-				deviceValidateHistoryRequest.setDeviceCode(registeredDevice.getDeviceCode());
-				deviceValidateHistoryRequest.setDeviceServiceVersion(registeredDevice.getDeviceServiceVersion());
-				deviceValidateHistoryRequest.setDigitalId(registeredDevice.getDigitalId());
-				deviceValidateHistoryRequest.setTimeStamp(rcmDto.getPacketCreationDate());
-				RequestWrapper<DeviceValidateHistoryRequest> request = new RequestWrapper<>();
-
-				request.setRequest(deviceValidateHistoryRequest);
-				request.setId(deviceValidateHistoryId);
-				request.setMetadata(null);
-				request.setVersion("1.0");
-				DateTimeFormatter format = DateTimeFormatter.ofPattern(env.getProperty(DATETIME_PATTERN));
-				LocalDateTime localdatetime = LocalDateTime
-						.parse(DateUtils.getUTCCurrentDateTimeString(env.getProperty(DATETIME_PATTERN)), format);
-				request.setRequesttime(localdatetime);
-
 				DeviceValidateHistoryResponse deviceValidateResponse;
 
-				ResponseWrapper<?> responseWrapper = (ResponseWrapper<?>) registrationProcessorRestService
-						.postApi(ApiName.DEVICEVALIDATEHISTORY, "", "", request, ResponseWrapper.class);
+				ResponseWrapper<?> responseWrapper = deviceResponses
+						.get(deviceValidateKey(registeredDevice, rcmDto.getPacketCreationDate()));
 				deviceValidateResponse = mapper.readValue(mapper.writeValueAsString(responseWrapper.getResponse()),
 						DeviceValidateHistoryResponse.class);
 				regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(),
@@ -657,8 +765,12 @@ public class UMCValidator {
 		ResponseWrapper<?> responseWrapper;
 		RegistartionCenterTimestampResponseDto result;
 
-		responseWrapper = (ResponseWrapper<?>) registrationProcessorRestService
-				.getApi(ApiName.REGISTRATIONCENTERTIMESTAMP, pathsegments, "", "", ResponseWrapper.class);
+		// the working hours are checked for the exact creation time, never for its bucket
+		responseWrapper = getMasterDataCache().get(
+				getMasterDataCache().key(ApiName.REGISTRATIONCENTERTIMESTAMP, rcmDto.getPacketCreationDate(), false,
+						rcmDto.getRegcntrId(), primaryLanguagecode),
+				() -> (ResponseWrapper<?>) registrationProcessorRestService
+						.getApi(ApiName.REGISTRATIONCENTERTIMESTAMP, pathsegments, "", "", ResponseWrapper.class));
 
 		result = mapper.readValue(mapper.writeValueAsString(responseWrapper.getResponse()),
 				RegistartionCenterTimestampResponseDto.class);
@@ -0,0 +1,256 @@
+package io.mosip.registration.processor.stages.osivalidator.utils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.mosip.registration.processor.core.code.ApiName;
+import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
+import io.mosip.registration.processor.core.http.ResponseWrapper;
+
+/**
+ * Keeps the master data responses the UMC validation is made of, keyed by the
+ * entity they are about and the effective timestamp they are asked for.
+ * <p>
+ * The effective timestamps are grouped in buckets of a configured number of
+ * minutes, so the packets created at a center in the same bucket share one
+ * answer, the one fetched for the first of them. A response is kept for the
+ * configured time to live, and the least recently used responses are dropped
+ * above the maximum entries. Error responses are never kept.
+ */
+public class MasterDataCache {
+
+	/**
+	 * Fetches a master data response.
+	 */
+	@FunctionalInterface
+	public interface MasterDataFetch {
+
+		ResponseWrapper<?> fetch() throws ApisResourceAccessException, IOException;
+
+	}
+
+	private final long ttlMillis;
+
+	private final long bucketMinutes;
+
+	private final Map<String, CachedResponse> responses;
+
+	private final ExecutorService fetchExecutor;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Instantiates a new master data cache.
+	 *
+	 * @param ttlSeconds
+	 *            the time a response is kept, 0 to keep none
+	 * @param maxEntries
+	 *            the most responses kept
+	 * @param bucketMinutes
+	 *            the minutes of effective time sharing one response, 0 to
+	 *            share only the exact same timestamp
+	 * @param fetchThreads
+	 *            the parallel fetches of a batch
+	 */
+	public MasterDataCache(long ttlSeconds, int maxEntries, long bucketMinutes, int fetchThreads) {
+		this.ttlMillis = ttlSeconds * 1000;
+		this.bucketMinutes = bucketMinutes;
+		this.responses = Collections.synchronizedMap(new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+				return size() > maxEntries;
+			}
+		});
+		AtomicInteger threads = new AtomicInteger();
+		this.fetchExecutor = fetchThreads > 1 ? Executors.newFixedThreadPool(fetchThreads, r -> {
+			Thread thread = new Thread(r, "master-data-fetch-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+	}
+
+	/**
+	 * Gets the cache key of a master data response.
+	 *
+	 * @param apiName
+	 *            the master data api
+	 * @param effectiveDate
+	 *            the effective timestamp the response is asked for
+	 * @param bucketed
+	 *            true if the timestamps of one bucket share the response
+	 * @param ids
+	 *            the ids of the entity the response is about
+	 * @return the key
+	 */
+	public String key(ApiName apiName, String effectiveDate, boolean bucketed, String... ids) {
+		StringBuilder key = new StringBuilder(apiName.name());
+		for (String id : ids)
+			key.append('|').append(id);
+		return key.append('|').append(bucketed ? bucket(effectiveDate) : effectiveDate).toString();
+	}
+
+	private String bucket(String effectiveDate) {
+		if (bucketMinutes <= 0 || effectiveDate == null)
+			return effectiveDate;
+		try {
+			String dateTime = effectiveDate.endsWith("Z") ? effectiveDate.substring(0, effectiveDate.length() - 1)
+					: effectiveDate;
+			long epochMinute = LocalDateTime.parse(dateTime).toEpochSecond(ZoneOffset.UTC) / 60;
+			return "@" + (epochMinute / bucketMinutes);
+		} catch (DateTimeParseException e) {
+			return effectiveDate;
+		}
+	}
+
+	/**
+	 * Gets a response from the cache, fetching it when missing.
+	 *
+	 * @param key
+	 *            the key
+	 * @param fetch
+	 *            the fetch of the response
+	 * @return the response
+	 * @throws ApisResourceAccessException
+	 *             the apis resource access exception
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public ResponseWrapper<?> get(String key, MasterDataFetch fetch) throws ApisResourceAccessException, IOException {
+		ResponseWrapper<?> response = getCached(key);
+		if (response != null)
+			return response;
+		response = fetch.fetch();
+		put(key, response);
+		return response;
+	}
+
+	/**
+	 * Gets the responses of a batch from the cache, fetching the missing ones
+	 * in parallel.
+	 *
+	 * @param fetches
+	 *            the fetches of the responses, by key
+	 * @return the responses, by key
+	 * @throws ApisResourceAccessException
+	 *             the apis resource access exception
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public Map<String, ResponseWrapper<?>> getAll(Map<String, MasterDataFetch> fetches)
+			throws ApisResourceAccessException, IOException {
+		Map<String, ResponseWrapper<?>> found = new LinkedHashMap<>();
+		List<String> missing = new ArrayList<>();
+		for (String key : fetches.keySet()) {
+			ResponseWrapper<?> response = getCached(key);
+			if (response != null)
+				found.put(key, response);
+			else
+				missing.add(key);
+		}
+		if (fetchExecutor == null || missing.size() < 2) {
+			for (String key : missing)
+				found.put(key, get(key, fetches.get(key)));
+			return found;
+		}
+
+		List<Future<ResponseWrapper<?>>> futures = new ArrayList<>(missing.size());
+		for (String key : missing)
+			futures.add(fetchExecutor.submit(() -> fetches.get(key).fetch()));
+		try {
+			for (int i = 0; i < missing.size(); i++) {
+				ResponseWrapper<?> response = futures.get(i).get();
+				put(missing.get(i), response);
+				found.put(missing.get(i), response);
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof ApisResourceAccessException)
+				throw (ApisResourceAccessException) cause;
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ApisResourceAccessException(e.getMessage(), e);
+		} finally {
+			for (Future<ResponseWrapper<?>> future : futures)
+				future.cancel(true);
+		}
+		return found;
+	}
+
+	private ResponseWrapper<?> getCached(String key) {
+		if (ttlMillis <= 0)
+			return null;
+		CachedResponse cached = responses.get(key);
+		if (cached != null && System.currentTimeMillis() - cached.loadTime < ttlMillis) {
+			hits.increment();
+			return cached.response;
+		}
+		if (cached != null)
+			responses.remove(key);
+		misses.increment();
+		return null;
+	}
+
+	private void put(String key, ResponseWrapper<?> response) {
+		if (ttlMillis > 0 && response != null && (response.getErrors() == null || response.getErrors().isEmpty()))
+			responses.put(key, new CachedResponse(response, System.currentTimeMillis()));
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Drops all the responses, so the next packets fetch fresh master data.
+	 */
+	public void invalidate() {
+		responses.clear();
+	}
+
+	/**
+	 * Stops the batch fetch threads.
+	 */
+	public void shutdown() {
+		if (fetchExecutor != null)
+			fetchExecutor.shutdownNow();
+	}
+
+	private static class CachedResponse {
+
+		private final ResponseWrapper<?> response;
+
+		private final long loadTime;
+
+		CachedResponse(ResponseWrapper<?> response, long loadTime) {
+			this.response = response;
+			this.loadTime = loadTime;
+		}
+
+	}
+
+}
@@ -0,0 +1,169 @@
+package io.mosip.registration.processor.stages.osivalidator;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.mosip.registration.processor.core.code.ApiName;
+import io.mosip.registration.processor.core.common.rest.dto.ErrorDTO;
+import io.mosip.registration.processor.core.http.ResponseWrapper;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.DeviceValidateHistoryResponse;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.MachineHistoryDto;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.MachineHistoryResponseDto;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.RegistartionCenterTimestampResponseDto;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.RegistrationCenterDeviceHistoryDto;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.RegistrationCenterDeviceHistoryResponseDto;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.RegistrationCenterDto;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.RegistrationCenterResponseDto;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.RegistrationCenterUserMachineMappingHistoryDto;
+import io.mosip.registration.processor.core.packet.dto.regcentermachine.RegistrationCenterUserMachineMappingHistoryResponseDto;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+
+/**
+ * Master data service kept in memory, served through the rest client the
+ * {@link UMCValidator} calls. Every center, machine, user and device is active
+ * and every packet is created in working hours, except for the machines marked
+ * unknown, which are answered with an error. Each call waits a fixed latency
+ * and is counted per api.
+ */
+public class LocalMasterData {
+
+	private final long latencyMillis;
+
+	private final Set<String> unknownMachines = ConcurrentHashMap.newKeySet();
+
+	private final Map<ApiName, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+	public LocalMasterData(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+	}
+
+	public void addUnknownMachine(String machineId) {
+		unknownMachines.add(machineId);
+	}
+
+	/**
+	 * Gets the number of calls made to an api.
+	 *
+	 * @param apiName
+	 *            the api
+	 * @return the number of calls
+	 */
+	public int getCalls(ApiName apiName) {
+		AtomicInteger count = calls.get(apiName);
+		return count == null ? 0 : count.get();
+	}
+
+	public int getCalls() {
+		return calls.values().stream().mapToInt(AtomicInteger::get).sum();
+	}
+
+	public void resetCalls() {
+		calls.clear();
+	}
+
+	/**
+	 * Gets this master data service as a rest client.
+	 *
+	 * @return the rest client
+	 */
+	@SuppressWarnings("unchecked")
+	public RegistrationProcessorRestClientService<Object> asRestClient() {
+		return (RegistrationProcessorRestClientService<Object>) Proxy.newProxyInstance(
+				RegistrationProcessorRestClientService.class.getClassLoader(),
+				new Class<?>[] { RegistrationProcessorRestClientService.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getApi":
+						if (args.length == 5 && args[1] instanceof List)
+							return answer((ApiName) args[0], (List<String>) args[1]);
+						throw new UnsupportedOperationException(method.getName());
+					case "postApi":
+						if (args.length == 5 && args[0] == ApiName.DEVICEVALIDATEHISTORY)
+							return answer(ApiName.DEVICEVALIDATEHISTORY, new ArrayList<>());
+						throw new UnsupportedOperationException(method.getName());
+					case "toString":
+						return "LocalMasterData";
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private ResponseWrapper<Object> answer(ApiName apiName, List<String> pathsegments) throws InterruptedException {
+		calls.computeIfAbsent(apiName, k -> new AtomicInteger()).incrementAndGet();
+		Thread.sleep(latencyMillis);
+		ResponseWrapper<Object> response = new ResponseWrapper<>();
+		response.setErrors(null);
+		switch (apiName) {
+		case CENTERHISTORY:
+			RegistrationCenterDto center = new RegistrationCenterDto();
+			center.setId(pathsegments.get(0));
+			center.setIsActive(true);
+			List<RegistrationCenterDto> centers = new ArrayList<>();
+			centers.add(center);
+			RegistrationCenterResponseDto centerResponse = new RegistrationCenterResponseDto();
+			centerResponse.setRegistrationCentersHistory(centers);
+			response.setResponse(centerResponse);
+			break;
+		case MACHINEHISTORY:
+			if (unknownMachines.contains(pathsegments.get(0))) {
+				List<ErrorDTO> errors = new ArrayList<>();
+				errors.add(new ErrorDTO("KER-MSD-070", "Machine History not found"));
+				response.setErrors(errors);
+				break;
+			}
+			MachineHistoryDto machine = new MachineHistoryDto();
+			machine.setId(pathsegments.get(0));
+			machine.setIsActive(true);
+			List<MachineHistoryDto> machines = new ArrayList<>();
+			machines.add(machine);
+			MachineHistoryResponseDto machineResponse = new MachineHistoryResponseDto();
+			machineResponse.setMachineHistoryDetails(machines);
+			response.setResponse(machineResponse);
+			break;
+		case CENTERUSERMACHINEHISTORY:
+			RegistrationCenterUserMachineMappingHistoryDto mapping = new RegistrationCenterUserMachineMappingHistoryDto();
+			mapping.setCntrId(pathsegments.get(1));
+			mapping.setMachineId(pathsegments.get(2));
+			mapping.setUsrId(pathsegments.get(3));
+			mapping.setIsActive(true);
+			List<RegistrationCenterUserMachineMappingHistoryDto> mappings = new ArrayList<>();
+			mappings.add(mapping);
+			RegistrationCenterUserMachineMappingHistoryResponseDto mappingResponse = new RegistrationCenterUserMachineMappingHistoryResponseDto();
+			mappingResponse.setRegistrationCenters(mappings);
+			response.setResponse(mappingResponse);
+			break;
+		case REGISTRATIONCENTERTIMESTAMP:
+			RegistartionCenterTimestampResponseDto timestampResponse = new RegistartionCenterTimestampResponseDto();
+			timestampResponse.setStatus("Valid");
+			response.setResponse(timestampResponse);
+			break;
+		case REGISTRATIONCENTERDEVICEHISTORY:
+			RegistrationCenterDeviceHistoryDto device = new RegistrationCenterDeviceHistoryDto();
+			device.setRegCenterId(pathsegments.get(0));
+			device.setDeviceId(pathsegments.get(1));
+			device.setIsActive(true);
+			RegistrationCenterDeviceHistoryResponseDto deviceResponse = new RegistrationCenterDeviceHistoryResponseDto();
+			deviceResponse.setRegistrationCenterDeviceHistoryDetails(device);
+			response.setResponse(deviceResponse);
+			break;
+		case DEVICEVALIDATEHISTORY:
+			DeviceValidateHistoryResponse validateResponse = new DeviceValidateHistoryResponse();
+			validateResponse.setStatus("Valid");
+			response.setResponse(validateResponse);
+			break;
+		default:
+			throw new UnsupportedOperationException(apiName.name());
+		}
+		return response;
+	}
+
+}
@@ -0,0 +1,234 @@
+package io.mosip.registration.processor.stages.osivalidator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.code.ApiName;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.packet.dto.NewDigitalId;
+import io.mosip.registration.processor.core.packet.dto.NewRegisteredDevice;
+import io.mosip.registration.processor.core.packet.dto.RegOsiDto;
+import io.mosip.registration.processor.stages.osivalidator.utils.OSIUtils;
+import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
+
+/**
+ * Validates packets against a local master data service and counts the master
+ * data calls made per packet. The benchmark validates packets of a few centers
+ * and machines created over a working day, without and with the master data
+ * cache, and prints the calls per packet and the packets per second. The
+ * packets per run and the master data latency can be set with
+ * -Dumc.validator.load.packets and -Dumc.validator.load.latency.ms.
+ */
+public class UMCValidatorCacheTest {
+
+	private static final int PACKETS = Integer.getInteger("umc.validator.load.packets", 200);
+
+	private static final long LATENCY_MILLIS = Long.getLong("umc.validator.load.latency.ms", 1L);
+
+	private static final String PACKET = "packet";
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(UMCValidatorCacheTest.class);
+
+	private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+	private static final LocalDateTime DAY_START = LocalDateTime.of(2020, 10, 16, 9, 0);
+
+	private LocalMasterData masterData;
+
+	private final Map<String, RegOsiDto> packets = new HashMap<>();
+
+	private OSIUtils osiUtils;
+
+	private Environment env;
+
+	private UMCValidator umcValidator;
+
+	@Before
+	public void setup() throws Exception {
+		masterData = new LocalMasterData(LATENCY_MILLIS);
+		osiUtils = Mockito.mock(OSIUtils.class);
+		Mockito.when(osiUtils.getOSIDetailsFromMetaInfo(any()))
+				.thenAnswer(invocation -> packets.get(invocation.<Map<String, String>> getArgument(0).get(PACKET)));
+		env = Mockito.mock(Environment.class);
+		Mockito.when(env.getProperty("mosip.registration.processor.datetime.pattern"))
+				.thenReturn("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+		umcValidator = umcValidator(300L, 4);
+	}
+
+	@After
+	public void tearDown() {
+		umcValidator.shutdown();
+	}
+
+	@Test
+	public void packetsOfOneBucketShareMasterDataTest() throws Exception {
+		assertTrue(validate(packet("10001", "10002", DAY_START.plusMinutes(1), "FINGER", "IRIS", "FACE")));
+		assertEquals(10, masterData.getCalls());
+
+		masterData.resetCalls();
+		assertTrue(validate(packet("10001", "10002", DAY_START.plusMinutes(7), "FINGER", "IRIS", "FACE")));
+		assertEquals("only the working hours are checked again", 1, masterData.getCalls());
+		assertEquals(1, masterData.getCalls(ApiName.REGISTRATIONCENTERTIMESTAMP));
+	}
+
+	@Test
+	public void packetOfOtherBucketIsFetchedAgainTest() throws Exception {
+		assertTrue(validate(packet("10001", "10002", DAY_START.plusMinutes(1), "FINGER")));
+		masterData.resetCalls();
+
+		assertTrue(validate(packet("10001", "10002", DAY_START.plusMinutes(16), "FINGER")));
+
+		assertEquals(6, masterData.getCalls());
+	}
+
+	@Test
+	public void devicesAreFetchedInOneBatchTest() throws Exception {
+		RegOsiDto regOsi = packet("10001", "10002", DAY_START.plusMinutes(1), "FINGER", "IRIS", "FACE");
+		regOsi.getCapturedRegisteredDevices().add(device("FINGER", DAY_START.plusMinutes(1)));
+
+		assertTrue(validate(regOsi));
+
+		assertEquals(3, masterData.getCalls(ApiName.DEVICEVALIDATEHISTORY));
+		assertEquals(3, masterData.getCalls(ApiName.REGISTRATIONCENTERDEVICEHISTORY));
+	}
+
+	@Test
+	public void errorResponsesAreNotCachedTest() throws Exception {
+		masterData.addUnknownMachine("10009");
+
+		assertFalse(validate(packet("10001", "10009", DAY_START.plusMinutes(1), "FINGER")));
+		assertFalse(validate(packet("10001", "10009", DAY_START.plusMinutes(2), "FINGER")));
+
+		assertEquals(1, masterData.getCalls(ApiName.CENTERHISTORY));
+		assertEquals(4, masterData.getCalls(ApiName.MACHINEHISTORY));
+	}
+
+	@Test
+	public void invalidatedMasterDataIsFetchedAgainTest() throws Exception {
+		assertTrue(validate(packet("10001", "10002", DAY_START.plusMinutes(1), "FINGER")));
+		umcValidator.invalidateMasterDataCache();
+		masterData.resetCalls();
+
+		assertTrue(validate(packet("10001", "10002", DAY_START.plusMinutes(2), "FINGER")));
+
+		assertEquals(6, masterData.getCalls());
+	}
+
+	@Test
+	public void remoteCallsPerPacketTest() throws Exception {
+		List<RegOsiDto> day = new ArrayList<>();
+		long minutes = 8 * 60;
+		for (int i = 0; i < PACKETS; i++) {
+			String centerId = "1000" + (i % 5);
+			String machineId = centerId + (i % 4);
+			day.add(packet(centerId, machineId, DAY_START.plusSeconds(minutes * 60 * i / PACKETS), "FINGER", "IRIS",
+					"FACE"));
+		}
+
+		UMCValidator uncached = umcValidator(0L, 1);
+		double[] withoutCache = run(uncached, day);
+		double[] withCache = run(umcValidator, day);
+		uncached.shutdown();
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format(
+						"%d packets : without cache %.1f calls per packet, %.0f packets/s; with cache %.1f calls per packet, %.0f packets/s",
+						PACKETS, withoutCache[0], withoutCache[1], withCache[0], withCache[1]));
+		assertEquals(10, withoutCache[0], 0);
+		assertTrue(withCache[0] < withoutCache[0]);
+	}
+
+	private double[] run(UMCValidator validator, List<RegOsiDto> day) throws Exception {
+		masterData.resetCalls();
+		long start = System.nanoTime();
+		for (RegOsiDto regOsi : day)
+			assertTrue(validate(validator, regOsi));
+		double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+		return new double[] { masterData.getCalls() / (double) day.size(), day.size() / seconds };
+	}
+
+	private boolean validate(RegOsiDto regOsi) throws Exception {
+		return validate(umcValidator, regOsi);
+	}
+
+	private boolean validate(UMCValidator validator, RegOsiDto regOsi) throws Exception {
+		packets.put(regOsi.getRegId(), regOsi);
+		Map<String, String> metaInfo = new HashMap<>();
+		metaInfo.put(PACKET, regOsi.getRegId());
+		InternalRegistrationStatusDto registrationStatusDto = new InternalRegistrationStatusDto();
+		registrationStatusDto.setRegistrationId(regOsi.getRegId());
+		return validator.isValidUMC(regOsi.getRegId(), registrationStatusDto, metaInfo);
+	}
+
+	private UMCValidator umcValidator(long cacheTtl, int deviceFetchThreads) {
+		UMCValidator validator = new UMCValidator();
+		ReflectionTestUtils.setField(validator, "registrationProcessorRestService", masterData.asRestClient());
+		ReflectionTestUtils.setField(validator, "osiUtils", osiUtils);
+		ReflectionTestUtils.setField(validator, "env", env);
+		ReflectionTestUtils.setField(validator, "isWorkingHourValidationRequired", true);
+		ReflectionTestUtils.setField(validator, "primaryLanguagecode", "eng");
+		ReflectionTestUtils.setField(validator, "deviceValidateHistoryId", "mosip.device.validate.history");
+		ReflectionTestUtils.setField(validator, "gpsEnable", "N");
+		ReflectionTestUtils.setField(validator, "masterDataCacheTtl", cacheTtl);
+		ReflectionTestUtils.setField(validator, "masterDataCacheMaxEntries", 1000);
+		ReflectionTestUtils.setField(validator, "masterDataCacheBucketMinutes", 15L);
+		ReflectionTestUtils.setField(validator, "deviceFetchThreads", deviceFetchThreads);
+		return validator;
+	}
+
+	private static int rid;
+
+	private static RegOsiDto packet(String centerId, String machineId, LocalDateTime creationDate,
+			String... deviceTypes) {
+		RegOsiDto regOsi = new RegOsiDto();
+		regOsi.setRegId(String.format("%s%s%014d", centerId, machineId, ++rid));
+		regOsi.setRegcntrId(centerId);
+		regOsi.setMachineId(machineId);
+		regOsi.setSupervisorId("110001");
+		regOsi.setOfficerId("110002");
+		regOsi.setPacketCreationDate(creationDate.format(DATE_TIME_FORMAT));
+		List<NewRegisteredDevice> devices = new ArrayList<>();
+		for (String type : deviceTypes)
+			devices.add(device(type, creationDate));
+		regOsi.setCapturedRegisteredDevices(devices);
+		return regOsi;
+	}
+
+	private static NewRegisteredDevice device(String type, LocalDateTime captureTime) {
+		NewDigitalId digitalId = new NewDigitalId();
+		digitalId.setSerialNo(type + "-0001");
+		digitalId.setMake("MOSIP");
+		digitalId.setModel("SLAP01");
+		digitalId.setType(type);
+		digitalId.setDeviceSubType("Single");
+		digitalId.setDeviceProvider("MOSIP");
+		digitalId.setDeviceProviderId("MOSIP.PROXY.SBI");
+		digitalId.setDateTime(captureTime.format(DATE_TIME_FORMAT));
+		NewRegisteredDevice device = new NewRegisteredDevice();
+		device.setDeviceCode("DEV-" + type);
+		device.setDeviceServiceVersion("0.9.5");
+		device.setDigitalId(digitalId);
+		return device;
+	}
+
+}
@@ -31,6 +31,7 @@ import io.mosip.registration.processor.core.status.util.StatusUtil;
 import io.mosip.registration.processor.core.status.util.TrimExceptionMessage;
 import io.mosip.registration.processor.core.util.RegistrationExceptionMapperUtil;
 import io.mosip.registration.processor.packet.manager.decryptor.Decryptor;
+import io.mosip.registration.processor.packet.manager.utils.ZipEntryIndex;
 import io.mosip.registration.processor.packet.manager.utils.ZipUtils;
 import io.mosip.registration.processor.packet.uploader.archiver.util.PacketArchiver;
 import io.mosip.registration.processor.packet.uploader.exception.PacketNotFoundException;
@@ -53,12 +54,22 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import java.io.*;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Class PacketUploaderServiceImpl.
@@ -96,6 +107,18 @@ public class PacketUploaderServiceImpl implements PacketUploaderService<MessageD
     @Value("${registration.processor.max.retry}")
     private int maxRetryCount;
 
+    /**
+     * The threads decrypting, scanning and uploading the sub packets, 0 to do it in the calling thread.
+     */
+    @Value("${registration.processor.uploader.worker-threads:4}")
+    private int workerThreads;
+
+    /**
+     * The sub packet tasks waiting for a worker thread, the calling thread runs them once it is full.
+     */
+    @Value("${registration.processor.uploader.queue-size:64}")
+    private int workerQueueSize;
+
     @Autowired
     private ObjectStoreAdapter objectStoreAdapter;
 
@@ -138,11 +161,10 @@ public class PacketUploaderServiceImpl implements PacketUploaderService<MessageD
     @Autowired
     private ObjectMapper mapper;
 
-
     /**
-     * The is transaction successful.
+     * The sub packet executor.
      */
-    boolean isTransactionSuccessful = false;
+    private ExecutorService packetExecutor;
 
     /**
      * The packet archiver.
@@ -170,7 +192,7 @@ public class PacketUploaderServiceImpl implements PacketUploaderService<MessageD
         MessageDTO messageDTO = new MessageDTO();
         messageDTO.setInternalError(false);
         messageDTO.setIsValid(false);
-        isTransactionSuccessful = false;
+        boolean isTransactionSuccessful = false;
         regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
                 registrationId, "PacketUploaderServiceImpl::validateAndUploadPacket()::entry");
         messageDTO.setRid(registrationId);
@@ -191,13 +213,13 @@ public class PacketUploaderServiceImpl implements PacketUploaderService<MessageD
                 if (validateHashCode(new ByteArrayInputStream(encryptedByteArray), regEntity, registrationId, dto,
                         description)) {
                     InputStream decryptedPacket = decryptor.decrypt(new ByteArrayInputStream(encryptedByteArray), registrationId);
-                    final byte[] decryptedPacketBytes = IOUtils.toByteArray(decryptedPacket);
-                    if (scanFile(encryptedByteArray, registrationId, ZipUtils.unzipAndGetFiles(new ByteArrayInputStream(decryptedPacketBytes)), dto, description)) {
+                    final ZipEntryIndex packetIndex = ZipUtils.indexZip(IOUtils.toByteArray(decryptedPacket));
+                    if (scanFile(encryptedByteArray, registrationId, packetIndex.getInputStreams(), dto, description)) {
                         int retrycount = (dto.getRetryCount() == null) ? 0 : dto.getRetryCount() + 1;
                         dto.setRetryCount(retrycount);
                         if (retrycount < getMaxRetryCount()) {
 
-                            messageDTO = uploadPacket(dto, ZipUtils.unzipAndGetFiles(new ByteArrayInputStream(decryptedPacketBytes)), messageDTO, description);
+                            messageDTO = uploadPacket(dto, packetIndex.getInputStreams(), messageDTO, description);
                             if (messageDTO.getIsValid()) {
                                 dto.setLatestTransactionStatusCode(
                                         RegistrationTransactionStatusCode.SUCCESS.toString());
@@ -378,17 +400,15 @@ public class PacketUploaderServiceImpl implements PacketUploaderService<MessageD
             isInputFileClean = virusScannerService.scanFile(packet);
 
             if (isInputFileClean) {
-                // scanning the source packets (Like - id, evidence, optional packets).
+                // scanning the source packets (Like - id, evidence, optional packets) in parallel.
+                List<PacketTask<Boolean>> scans = new ArrayList<>();
                 for (final Map.Entry<String, InputStream> source : sourcePackets.entrySet()) {
                     if (source.getKey().endsWith(ZIP)) {
-                        InputStream decryptedData = decryptor
-                                .decrypt(source.getValue(), id);
-                        isInputFileClean = virusScannerService.scanFile(decryptedData);
+                        scans.add(() -> virusScannerService.scanFile(decryptor.decrypt(source.getValue(), id)));
                     } else
-                        isInputFileClean = virusScannerService.scanFile(source.getValue());
-                    if (!isInputFileClean)
-                        break;
+                        scans.add(() -> virusScannerService.scanFile(source.getValue()));
                 }
+                isInputFileClean = !runAll(scans).contains(Boolean.FALSE);
             }
             if (!isInputFileClean) {
                 description.setMessage(PlatformErrorMessages.RPR_PUM_PACKET_VIRUS_SCAN_FAILED.getMessage());
@@ -472,25 +492,34 @@ public class PacketUploaderServiceImpl implements PacketUploaderService<MessageD
         String registrationId = dto.getRegistrationId();
         // upload packets
         try {
+            List<PacketTask<Boolean>> packets = new ArrayList<>();
             for (Map.Entry<String, InputStream> entry : sourcePackets.entrySet()) {
                 if (entry.getKey().endsWith(ZIP)) {
-                    boolean result = objectStoreAdapter.putObject(packetManagerAccount, registrationId,
-                            null, null, entry.getKey().replace(ZIP, ""), entry.getValue());
-                    if (!result)
-                        throw new ObjectStoreNotAccessibleException("Failed to store packet : " + entry.getKey());
+                    packets.add(() -> {
+                        boolean result = objectStoreAdapter.putObject(packetManagerAccount, registrationId,
+                                null, null, entry.getKey().replace(ZIP, ""), entry.getValue());
+                        if (!result)
+                            throw new ObjectStoreNotAccessibleException("Failed to store packet : " + entry.getKey());
+                        return result;
+                    });
                 }
             }
+            runAll(packets);
 
-            // upload metadata
+            // upload metadata once all the packets are stored
+            List<PacketTask<Map<String, Object>>> metadata = new ArrayList<>();
             for (Map.Entry<String, InputStream> entry : sourcePackets.entrySet()) {
                 if (entry.getKey().endsWith(JSON)) {
-                    byte[] bytearray = IOUtils.toByteArray(entry.getValue());
-                    String jsonString = new String(bytearray);
-                    LinkedHashMap<String, Object> currentIdMap = (LinkedHashMap<String, Object>) mapper.readValue(jsonString, LinkedHashMap.class);
-                    objectStoreAdapter.addObjectMetaData(packetManagerAccount, registrationId,
-                            null, null, entry.getKey().replace(JSON, ""), currentIdMap);
+                    metadata.add(() -> {
+                        byte[] bytearray = IOUtils.toByteArray(entry.getValue());
+                        String jsonString = new String(bytearray);
+                        LinkedHashMap<String, Object> currentIdMap = (LinkedHashMap<String, Object>) mapper.readValue(jsonString, LinkedHashMap.class);
+                        return objectStoreAdapter.addObjectMetaData(packetManagerAccount, registrationId,
+                                null, null, entry.getKey().replace(JSON, ""), currentIdMap);
+                    });
                 }
             }
+            runAll(metadata);
         } catch (Exception e) {
             object.setIsValid(false);
             object.setInternalError(true);
@@ -506,7 +535,6 @@ public class PacketUploaderServiceImpl implements PacketUploaderService<MessageD
         object.setIsValid(true);
         object.setRid(registrationId);
 
-        isTransactionSuccessful = true;
         description.setMessage(PlatformErrorMessages.RPR_PUM_PACKET_DELETION_INFO.getMessage());
         description.setCode(PlatformErrorMessages.RPR_PUM_PACKET_DELETION_INFO.getCode());
 
@@ -526,6 +554,102 @@ public class PacketUploaderServiceImpl implements PacketUploaderService<MessageD
         return maxRetryCount;
     }
 
+    /**
+     * Creates the bounded sub packet executor.
+     */
+    @PostConstruct
+    public void init() {
+        if (workerThreads > 0) {
+            AtomicInteger threadCount = new AtomicInteger();
+            packetExecutor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(workerQueueSize, 1)), r -> {
+                        Thread thread = new Thread(r, "packet-uploader-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+    /**
+     * Shuts the sub packet executor down.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (packetExecutor != null)
+            packetExecutor.shutdown();
+    }
+
+    /**
+     * Runs the tasks of one packet on the sub packet executor and waits for all of them.
+     *
+     * @param tasks the tasks
+     * @return the task results, in task order
+     * @throws ApisResourceAccessException
+     * @throws PacketDecryptionFailureException
+     * @throws IOException
+     */
+    private <T> List<T> runAll(List<PacketTask<T>> tasks)
+            throws ApisResourceAccessException, PacketDecryptionFailureException, IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (packetExecutor == null || tasks.size() < 2) {
+            for (PacketTask<T> task : tasks)
+                results.add(call(task));
+            return results;
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (PacketTask<T> task : tasks)
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.call();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, packetExecutor));
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            rethrow(e.getCause());
+        }
+        for (CompletableFuture<T> future : futures)
+            results.add(future.join());
+        return results;
+    }
+
+    private static <T> T call(PacketTask<T> task)
+            throws ApisResourceAccessException, PacketDecryptionFailureException, IOException {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            rethrow(e);
+            return null;
+        }
+    }
+
+    private static void rethrow(Throwable e)
+            throws ApisResourceAccessException, PacketDecryptionFailureException, IOException {
+        if (e instanceof CompletionException && e.getCause() != null)
+            e = e.getCause();
+        if (e instanceof ApisResourceAccessException)
+            throw (ApisResourceAccessException) e;
+        if (e instanceof PacketDecryptionFailureException)
+            throw (PacketDecryptionFailureException) e;
+        if (e instanceof IOException)
+            throw (IOException) e;
+        if (e instanceof RuntimeException)
+            throw (RuntimeException) e;
+        if (e instanceof Error)
+            throw (Error) e;
+        throw new IllegalStateException(e);
+    }
+
+    /**
+     * A step of a packet upload, run on the sub packet executor.
+     */
+    @FunctionalInterface
+    private interface PacketTask<T> {
+        T call() throws Exception;
+    }
+
     private byte[] getPakcetFromDMZ(String rid) throws ApisResourceAccessException {
         List<String> pathSegment = new ArrayList<>();
         pathSegment.add(rid + extention);
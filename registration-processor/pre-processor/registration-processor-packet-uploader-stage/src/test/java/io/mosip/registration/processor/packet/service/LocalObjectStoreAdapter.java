@@ -0,0 +1,111 @@
+package io.mosip.registration.processor.packet.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.mosip.commons.khazana.spi.ObjectStoreAdapter;
+
+/**
+ * Object store kept in a local directory, laid out as
+ * {@code <root>/<account>/<id>/<objectName>} with the metadata of an object
+ * next to it in {@code <objectName>.metadata.json}. Only the calls the
+ * registration processor makes are served: putObject, getObject, exists,
+ * addObjectMetaData and getMetaData.
+ */
+public class LocalObjectStoreAdapter {
+
+	private static final String METADATA = ".metadata.json";
+
+	private final Path root;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	public LocalObjectStoreAdapter(Path root) {
+		this.root = root;
+	}
+
+	/**
+	 * Gets this store as an object store adapter.
+	 *
+	 * @return the object store adapter
+	 */
+	public ObjectStoreAdapter asObjectStoreAdapter() {
+		return (ObjectStoreAdapter) Proxy.newProxyInstance(ObjectStoreAdapter.class.getClassLoader(),
+				new Class<?>[] { ObjectStoreAdapter.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "putObject":
+						return putObject((String) args[0], (String) args[1], (String) args[4], (InputStream) args[5]);
+					case "getObject":
+						return getObject((String) args[0], (String) args[1], (String) args[4]);
+					case "exists":
+						return exists((String) args[0], (String) args[1], (String) args[4]);
+					case "addObjectMetaData":
+						return addObjectMetaData((String) args[0], (String) args[1], (String) args[4], args);
+					case "getMetaData":
+						return getMetaData((String) args[0], (String) args[1], (String) args[4]);
+					case "toString":
+						return "LocalObjectStoreAdapter " + root;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	public boolean putObject(String account, String id, String objectName, InputStream data) throws IOException {
+		Path object = path(account, id, objectName);
+		Files.createDirectories(object.getParent());
+		try (InputStream in = data) {
+			Files.copy(in, object, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return true;
+	}
+
+	public InputStream getObject(String account, String id, String objectName) throws IOException {
+		Path object = path(account, id, objectName);
+		return Files.exists(object) ? Files.newInputStream(object) : null;
+	}
+
+	public boolean exists(String account, String id, String objectName) {
+		return Files.exists(path(account, id, objectName));
+	}
+
+	@SuppressWarnings("unchecked")
+	public synchronized Map<String, Object> getMetaData(String account, String id, String objectName)
+			throws IOException {
+		Path metadata = path(account, id, objectName + METADATA);
+		if (!Files.exists(metadata))
+			return new LinkedHashMap<>();
+		return mapper.readValue(metadata.toFile(), LinkedHashMap.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized Map<String, Object> addObjectMetaData(String account, String id, String objectName,
+			Object[] args) throws IOException {
+		Map<String, Object> metadata = getMetaData(account, id, objectName);
+		if (args[5] instanceof Map)
+			metadata.putAll((Map<String, Object>) args[5]);
+		else
+			metadata.put((String) args[5], args[6]);
+		Path file = path(account, id, objectName + METADATA);
+		Files.createDirectories(file.getParent());
+		mapper.writeValue(file.toFile(), metadata);
+		return metadata;
+	}
+
+	private Path path(String account, String id, String objectName) {
+		return root.resolve(account).resolve(id).resolve(objectName);
+	}
+
+}
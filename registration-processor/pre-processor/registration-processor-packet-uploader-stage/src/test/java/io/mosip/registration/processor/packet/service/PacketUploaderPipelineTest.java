@@ -0,0 +1,206 @@
+package io.mosip.registration.processor.packet.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.kernel.core.util.HMACUtils;
+import io.mosip.kernel.core.virusscanner.spi.VirusScanner;
+import io.mosip.registration.processor.core.abstractverticle.MessageDTO;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.core.util.RegistrationExceptionMapperUtil;
+import io.mosip.registration.processor.packet.manager.decryptor.Decryptor;
+import io.mosip.registration.processor.packet.uploader.service.impl.PacketUploaderServiceImpl;
+import io.mosip.registration.processor.rest.client.audit.builder.AuditLogRequestBuilder;
+import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
+import io.mosip.registration.processor.status.dto.RegistrationStatusDto;
+import io.mosip.registration.processor.status.dto.SyncRegistrationDto;
+import io.mosip.registration.processor.status.dto.SyncResponseDto;
+import io.mosip.registration.processor.status.entity.SyncRegistrationEntity;
+import io.mosip.registration.processor.status.service.RegistrationStatusService;
+import io.mosip.registration.processor.status.service.SyncRegistrationService;
+
+/**
+ * Runs the packet uploader against a local object store, with a virus scanner
+ * and a decryptor which answer after a fixed delay, and measures the packets
+ * per minute with 1, 4 and 16 worker threads. The number of packets per run
+ * can be set with -Dpacket.uploader.packets.
+ */
+public class PacketUploaderPipelineTest {
+
+	private static final int PACKETS = Integer.getInteger("packet.uploader.packets", 20);
+
+	private static final long SCAN_MILLIS = 20;
+
+	private static final long DECRYPT_MILLIS = 10;
+
+	private static final String ACCOUNT = "PACKET_MANAGER_ACCOUNT";
+
+	private static final String[] SOURCES = { "id", "evidence", "optional" };
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(PacketUploaderPipelineTest.class);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private PacketUploaderServiceImpl packetUploaderService;
+
+	private LocalObjectStoreAdapter objectStore;
+
+	private final Map<String, byte[]> packets = new LinkedHashMap<>();
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() throws Exception {
+		objectStore = new LocalObjectStoreAdapter(folder.getRoot().toPath());
+		for (int i = 0; i < PACKETS; i++)
+			packets.put(String.format("1000110001%019d", i), packet(i));
+
+		SyncRegistrationService<SyncResponseDto, SyncRegistrationDto> syncRegistrationService = Mockito
+				.mock(SyncRegistrationService.class);
+		Mockito.when(syncRegistrationService.findByRegistrationId(anyString())).thenAnswer(invocation -> {
+			SyncRegistrationEntity regEntity = new SyncRegistrationEntity();
+			regEntity.setRegistrationType("NEW");
+			regEntity.setPacketHashValue(HMACUtils.digestAsPlainText(
+					HMACUtils.generateHash(packets.get(invocation.getArguments()[0]))));
+			return regEntity;
+		});
+		RegistrationStatusService<String, InternalRegistrationStatusDto, RegistrationStatusDto> registrationStatusService = Mockito
+				.mock(RegistrationStatusService.class);
+		Mockito.when(registrationStatusService.getRegistrationStatus(anyString())).thenAnswer(invocation -> {
+			InternalRegistrationStatusDto dto = new InternalRegistrationStatusDto();
+			dto.setRegistrationId((String) invocation.getArguments()[0]);
+			return dto;
+		});
+		RegistrationProcessorRestClientService<Object> restClient = Mockito
+				.mock(RegistrationProcessorRestClientService.class);
+		Mockito.when(restClient.getApi(any(), anyList(), anyString(), any(), any())).thenAnswer(
+				invocation -> packets.get(((String) ((List<?>) invocation.getArguments()[1]).get(0))
+						.replace(".zip", "")));
+		VirusScanner<Boolean, InputStream> virusScanner = Mockito.mock(VirusScanner.class);
+		Mockito.when(virusScanner.scanFile(any(InputStream.class))).thenAnswer(invocation -> {
+			Thread.sleep(SCAN_MILLIS);
+			return Boolean.TRUE;
+		});
+		Decryptor decryptor = Mockito.mock(Decryptor.class);
+		Mockito.when(decryptor.decrypt(any(), anyString())).thenAnswer(invocation -> {
+			Thread.sleep(DECRYPT_MILLIS);
+			return invocation.getArguments()[0];
+		});
+
+		packetUploaderService = new PacketUploaderServiceImpl();
+		ReflectionTestUtils.setField(packetUploaderService, "packetManagerAccount", ACCOUNT);
+		ReflectionTestUtils.setField(packetUploaderService, "extention", ".zip");
+		ReflectionTestUtils.setField(packetUploaderService, "maxRetryCount", Integer.MAX_VALUE);
+		ReflectionTestUtils.setField(packetUploaderService, "workerQueueSize", 64);
+		ReflectionTestUtils.setField(packetUploaderService, "objectStoreAdapter", objectStore.asObjectStoreAdapter());
+		ReflectionTestUtils.setField(packetUploaderService, "syncRegistrationService", syncRegistrationService);
+		ReflectionTestUtils.setField(packetUploaderService, "registrationStatusService", registrationStatusService);
+		ReflectionTestUtils.setField(packetUploaderService, "auditLogRequestBuilder",
+				Mockito.mock(AuditLogRequestBuilder.class));
+		ReflectionTestUtils.setField(packetUploaderService, "virusScannerService", virusScanner);
+		ReflectionTestUtils.setField(packetUploaderService, "restClient", restClient);
+		ReflectionTestUtils.setField(packetUploaderService, "registrationStatusMapperUtil",
+				new RegistrationExceptionMapperUtil());
+		ReflectionTestUtils.setField(packetUploaderService, "decryptor", decryptor);
+		ReflectionTestUtils.setField(packetUploaderService, "mapper", new ObjectMapper());
+	}
+
+	@After
+	public void tearDown() {
+		packetUploaderService.destroy();
+	}
+
+	@Test
+	public void uploadToLocalObjectStoreTest() throws IOException {
+		start(4);
+		String registrationId = packets.keySet().iterator().next();
+
+		MessageDTO result = packetUploaderService.validateAndUploadPacket(registrationId, "PacketUploaderStage");
+
+		assertTrue(result.getIsValid());
+		for (String source : SOURCES) {
+			assertTrue(objectStore.exists(ACCOUNT, registrationId, source));
+			assertEquals(source, objectStore.getMetaData(ACCOUNT, registrationId, source).get("source"));
+		}
+		try (InputStream id = objectStore.getObject(ACCOUNT, registrationId, "id")) {
+			assertEquals(64 * 1024, IOUtils.toByteArray(id).length);
+		}
+	}
+
+	@Test
+	public void packetsPerMinuteTest() {
+		double single = packetsPerMinute(1);
+		double four = packetsPerMinute(4);
+		double sixteen = packetsPerMinute(16);
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format(
+						"packet uploader with %d ms scans and %d ms decryption : 1 thread %.0f, 4 threads %.0f, 16 threads %.0f packets/min",
+						SCAN_MILLIS, DECRYPT_MILLIS, single, four, sixteen));
+		assertTrue(four > single);
+	}
+
+	private double packetsPerMinute(int workerThreads) {
+		start(workerThreads);
+		long start = System.nanoTime();
+		for (String registrationId : packets.keySet())
+			assertTrue(packetUploaderService.validateAndUploadPacket(registrationId, "PacketUploaderStage")
+					.getIsValid());
+		double minutes = (System.nanoTime() - start) / 60e9;
+		packetUploaderService.destroy();
+		return packets.size() / minutes;
+	}
+
+	private void start(int workerThreads) {
+		packetUploaderService.destroy();
+		ReflectionTestUtils.setField(packetUploaderService, "workerThreads", workerThreads);
+		packetUploaderService.init();
+	}
+
+	private static byte[] packet(int seed) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Random random = new Random(seed);
+		try (ZipOutputStream zos = new ZipOutputStream(out)) {
+			for (String source : SOURCES) {
+				byte[] data = new byte[64 * 1024];
+				random.nextBytes(data);
+				zos.putNextEntry(new ZipEntry(source + ".zip"));
+				zos.write(data);
+				zos.closeEntry();
+				zos.putNextEntry(new ZipEntry(source + ".json"));
+				zos.write(("{\"source\":\"" + source + "\",\"seed\":" + seed + "}").getBytes(StandardCharsets.UTF_8));
+				zos.closeEntry();
+			}
+		}
+		return out.toByteArray();
+	}
+
+}
@@ -25,6 +25,7 @@ import io.mosip.kernel.core.util.exception.JsonProcessingException;
 import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
 import io.mosip.registration.processor.core.exception.PacketDecryptionFailureException;
 import io.mosip.registration.processor.packet.manager.decryptor.Decryptor;
+import io.mosip.registration.processor.packet.manager.utils.ZipEntryIndex;
 import io.mosip.registration.processor.packet.manager.utils.ZipUtils;
 import org.apache.commons.io.IOUtils;
 import org.json.simple.JSONObject;
@@ -187,7 +188,9 @@ public class PacketUploaderServiceTest {
 
 		Mockito.when(mapper.readValue(anyString(), any(Class.class))).thenReturn(jsonObject);
 		PowerMockito.mockStatic(ZipUtils.class);
-		PowerMockito.when(ZipUtils.unzipAndGetFiles(any())).thenReturn(entryMap);
+		ZipEntryIndex packetIndex = Mockito.mock(ZipEntryIndex.class);
+		Mockito.when(packetIndex.getInputStreams()).thenReturn(entryMap);
+		PowerMockito.when(ZipUtils.indexZip(any())).thenReturn(packetIndex);
 
 	}
 
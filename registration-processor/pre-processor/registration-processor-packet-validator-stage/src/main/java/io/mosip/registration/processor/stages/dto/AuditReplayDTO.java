@@ -0,0 +1,18 @@
+package io.mosip.registration.processor.stages.dto;
+
+import lombok.Data;
+
+/**
+ * The outcome of the replay of the audits of a packet.
+ */
+@Data
+public class AuditReplayDTO {
+
+	private String registrationId;
+
+	private int total;
+
+	private int succeeded;
+
+	private int failed;
+}
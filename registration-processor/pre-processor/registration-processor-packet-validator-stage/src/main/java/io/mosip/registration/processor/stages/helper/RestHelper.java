@@ -1,8 +1,10 @@
 package io.mosip.registration.processor.stages.helper;
 
+import java.io.IOException;
 import java.util.function.Supplier;
 
 import io.mosip.registration.processor.stages.dto.AsyncRequestDTO;
+import reactor.core.publisher.Mono;
 
 /*
  * The class RestHelper
@@ -18,4 +20,26 @@ public interface RestHelper {
 	 */
 
 	Supplier<Object> requestAsync(AsyncRequestDTO request);
+
+	/**
+	 * Request to send/receive HTTP requests without blocking. The request is
+	 * sent once the returned mono is subscribed. A cookie header of the request
+	 * is sent as the token; without one, the token is fetched when the mono is
+	 * built.
+	 *
+	 * @param request
+	 *            the request
+	 * @return the mono of the response
+	 */
+	Mono<?> request(AsyncRequestDTO request);
+
+	/**
+	 * Gets the token the requests are sent with, so that many requests can
+	 * share one.
+	 *
+	 * @return the token
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	String getToken() throws IOException;
 }
@@ -9,12 +9,14 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.util.function.Supplier;
 
+import javax.annotation.PreDestroy;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLException;
 import javax.validation.Valid;
 
 import io.mosip.registration.processor.rest.client.utils.RestApiClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -45,6 +47,7 @@ import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import lombok.NoArgsConstructor;
 import reactor.core.publisher.Mono;
+import reactor.ipc.netty.resources.PoolResources;
 
 @Component
 @NoArgsConstructor
@@ -58,10 +61,18 @@ public class RestHelperImpl implements RestHelper {
 	@Autowired
 	private ObjectMapper mapper;
 
+	/** The most connections kept open to the services called, shared by all the requests. */
+	@Value("${registration.processor.rest.helper.max-connections:50}")
+	private int maxConnections;
+
+	private volatile ReactorClientHttpConnector connector;
+
+	private PoolResources connectionPool;
+
 	@Override
 	public Supplier<Object> requestAsync(@Valid AsyncRequestDTO request) {
 		try {
-			Mono<?> sendRequest = request(request, getSslContext());
+			Mono<?> sendRequest = request(request, getConnector());
 			sendRequest.subscribe();
 			return () -> sendRequest.block();
 		} catch (RestServiceException | IOException e) {
@@ -71,6 +82,44 @@ public class RestHelperImpl implements RestHelper {
 		}
 	}
 
+	@Override
+	public Mono<?> request(@Valid AsyncRequestDTO request) {
+		try {
+			return request(request, getConnector());
+		} catch (RestServiceException | IOException e) {
+			mosipLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+					"RestHelperImpl::request()::error");
+			return Mono.error(e);
+		}
+	}
+
+	@Override
+	public String getToken() throws IOException {
+		return restApiClient.getToken();
+	}
+
+	/**
+	 * Gets the connector of the requests. The ssl context and the connection pool
+	 * are built once and shared by all the requests.
+	 *
+	 * @return the connector
+	 * @throws RestServiceException
+	 *             the rest service exception
+	 */
+	private ReactorClientHttpConnector getConnector() throws RestServiceException {
+		if (connector == null) {
+			synchronized (this) {
+				if (connector == null) {
+					SslContext sslContext = getSslContext();
+					connectionPool = PoolResources.fixed("rest-helper", maxConnections > 0 ? maxConnections : 50);
+					connector = new ReactorClientHttpConnector(
+							builder -> builder.sslContext(sslContext).poolResources(connectionPool));
+				}
+			}
+		}
+		return connector;
+	}
+
 	private SslContext getSslContext() throws RestServiceException {
 		try {
 			return SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).build();
@@ -81,7 +130,13 @@ public class RestHelperImpl implements RestHelper {
 		}
 	}
 
-	private Mono<?> request(AsyncRequestDTO request, SslContext sslContext) throws IOException {
+	@PreDestroy
+	public void shutdown() {
+		if (connectionPool != null)
+			connectionPool.dispose();
+	}
+
+	private Mono<?> request(AsyncRequestDTO request, ReactorClientHttpConnector connector) throws IOException {
 		WebClient webClient;
 		Mono<?> monoResponse;
 		RequestBodySpec uri;
@@ -90,12 +145,12 @@ public class RestHelperImpl implements RestHelper {
 
 		if (request.getHeaders() != null) {
 			webClient = WebClient.builder()
-					.clientConnector(new ReactorClientHttpConnector(builder -> builder.sslContext(sslContext)))
+					.clientConnector(connector)
 					.baseUrl(request.getUri())
 					.defaultHeader(HttpHeaders.CONTENT_TYPE, request.getHeaders().getContentType().toString()).build();
 		} else {
 			webClient = WebClient.builder()
-					.clientConnector(new ReactorClientHttpConnector(builder -> builder.sslContext(sslContext)))
+					.clientConnector(connector)
 					.baseUrl(request.getUri()).build();
 		}
 
@@ -108,7 +163,8 @@ public class RestHelperImpl implements RestHelper {
 			uri = method.uri(builder -> builder.build());
 		}
 
-		uri.header("cookie", restApiClient.getToken());
+		String token = request.getHeaders() != null ? request.getHeaders().getFirst(HttpHeaders.COOKIE) : null;
+		uri.header("cookie", token != null ? token : restApiClient.getToken());
 
 		if (request.getRequestBody() != null) {
 			exchange = uri.syncBody(request.getRequestBody()).retrieve();
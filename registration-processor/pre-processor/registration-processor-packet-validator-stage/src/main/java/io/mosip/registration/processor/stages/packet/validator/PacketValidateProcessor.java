@@ -415,6 +415,7 @@ public class PacketValidateProcessor {
 			object.setRid(registrationStatusDto.getRegistrationId());
 
 		} finally {
+			packetManagerService.evictPacket(registrationId);
 
 			if (object.getInternalError()) {
 				registrationStatusDto.setUpdatedBy(USER);
@@ -1,12 +1,15 @@
 package io.mosip.registration.processor.stages.utils;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.function.Supplier;
 
 import io.mosip.kernel.core.exception.ExceptionUtils;
 import io.mosip.kernel.core.util.DateUtils;
@@ -15,6 +18,7 @@ import io.mosip.registration.processor.packet.storage.utils.PacketManagerService
 import org.apache.commons.collections.CollectionUtils;
 import org.assertj.core.util.Lists;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -34,8 +38,11 @@ import io.mosip.registration.processor.core.packet.dto.AuditDTO;
 import io.mosip.registration.processor.core.packet.dto.AuditRespDTO;
 
 import io.mosip.registration.processor.stages.dto.AsyncRequestDTO;
+import io.mosip.registration.processor.stages.dto.AuditReplayDTO;
 import io.mosip.registration.processor.stages.helper.RestHelper;
 import io.mosip.registration.processor.stages.packet.validator.PacketValidateProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * @author Tapaswini Behera M1043226
@@ -60,8 +67,30 @@ public class AuditUtility {
 	@Autowired
 	private PacketManagerService packetManagerService;
 
+	/** The most audits of a packet posted at once. */
+	@Value("${registration.processor.audit.replay.concurrency:8}")
+	private int replayConcurrency;
+
+	/** The seconds an audit post may take before it is counted as failed. */
+	@Value("${registration.processor.audit.replay.timeout-seconds:30}")
+	private long replayTimeoutSeconds;
+
+	/** The most packets whose replay outcome is kept. */
+	@Value("${registration.processor.audit.replay.max-results:1000}")
+	private int replayMaxResults;
+
+	private final Map<String, AuditReplayDTO> replayResults = Collections
+			.synchronizedMap(new LinkedHashMap<String, AuditReplayDTO>() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, AuditReplayDTO> eldest) {
+					return size() > replayMaxResults;
+				}
+			});
+
 	/**
-	 * Save the audit Details.
+	 * Save the audit Details. The audits are posted without blocking the caller.
 	 *
 	 * @param registrationId
 	 *            the registrationId
@@ -74,13 +103,8 @@ public class AuditUtility {
 			regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 					"", "AuditUtility::saveAuditDetails()::entry");
 			List<FieldResponseDto> audits = packetManagerService.getAudits(registrationId, source, process);
-			if (CollectionUtils.isNotEmpty(audits)) {
-				audits.parallelStream().forEach(audit -> {
-					AsyncRequestDTO request = buildRequest(audit);
-					Supplier<Object> dto = restHelper.requestAsync(request);
-					dto.get();
-				});
-			}
+			if (CollectionUtils.isNotEmpty(audits))
+				replayAudits(registrationId, audits).subscribe();
 		} catch (RuntimeException e) {
 			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 					registrationId, "AuditUtility::saveAuditDetails::Runtime exception occurred " + ExceptionUtils.getStackTrace(e));
@@ -92,6 +116,82 @@ public class AuditUtility {
 
 	}
 
+	/**
+	 * Replays the audits of a packet. The token is fetched once, on the
+	 * subscribing thread, and the audits are posted with it through the shared
+	 * connection pool, at most the configured concurrency at a time; an audit
+	 * failing or timing out does not stop the others.
+	 *
+	 * @param registrationId
+	 *            the registration id
+	 * @param audits
+	 *            the audits
+	 * @return the mono of the success and failure counts, emitted once all the
+	 *         audits are posted
+	 */
+	public Mono<AuditReplayDTO> replayAudits(String registrationId, List<FieldResponseDto> audits) {
+		return Mono.defer(() -> {
+			AuditReplayDTO result = new AuditReplayDTO();
+			result.setRegistrationId(registrationId);
+			result.setTotal(audits.size());
+			String token;
+			try {
+				token = restHelper.getToken();
+			} catch (IOException | RuntimeException e) {
+				regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
+						LoggerFileConstant.REGISTRATIONID.toString(), registrationId,
+						"AuditUtility::replayAudits()::token error " + ExceptionUtils.getStackTrace(e));
+				result.setFailed(audits.size());
+				replayResults.put(registrationId, result);
+				return Mono.just(result);
+			}
+			return Flux.fromIterable(audits)
+					.flatMap(audit -> postAudit(registrationId, audit, token),
+							replayConcurrency > 0 ? replayConcurrency : 1)
+					.doOnNext(success -> {
+						if (success)
+							result.setSucceeded(result.getSucceeded() + 1);
+						else
+							result.setFailed(result.getFailed() + 1);
+					}).then(Mono.fromSupplier(() -> {
+						replayResults.put(registrationId, result);
+						regProcLogger.info(LoggerFileConstant.SESSIONID.toString(),
+								LoggerFileConstant.REGISTRATIONID.toString(), registrationId,
+								"AuditUtility::replayAudits()::" + result.getSucceeded() + " audits saved, "
+										+ result.getFailed() + " failed");
+						return result;
+					}));
+		});
+	}
+
+	private Mono<Boolean> postAudit(String registrationId, FieldResponseDto audit, String token) {
+		return Mono.<Object> defer(() -> {
+			AsyncRequestDTO request = buildRequest(audit);
+			request.getHeaders().set(HttpHeaders.COOKIE, token);
+			return restHelper.request(request);
+		})
+				.timeout(Duration.ofSeconds(replayTimeoutSeconds > 0 ? replayTimeoutSeconds : 30))
+				.map(response -> !(response instanceof AuditRespDTO)
+						|| CollectionUtils.isEmpty(((AuditRespDTO) response).getErrors()))
+				.defaultIfEmpty(Boolean.TRUE).onErrorResume(e -> {
+					regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
+							LoggerFileConstant.REGISTRATIONID.toString(), registrationId,
+							"AuditUtility::postAudit()::error " + e.getMessage());
+					return Mono.just(Boolean.FALSE);
+				});
+	}
+
+	/**
+	 * Gets the outcome of the last replay of the audits of a packet.
+	 *
+	 * @param registrationId
+	 *            the registration id
+	 * @return the outcome, null if not replayed or no longer kept
+	 */
+	public AuditReplayDTO getReplayResult(String registrationId) {
+		return replayResults.get(registrationId);
+	}
+
 	/**
 	 * Builds the request.
 	 *
@@ -0,0 +1,208 @@
+package io.mosip.registration.processor.stages.utils;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
+
+/**
+ * Keeps the master data codes already found valid, so the values of a packet
+ * are validated locally and master data is called only for the codes not
+ * known to be valid. An invalid code is not kept: it is validated again for
+ * every packet, so a code added to master data is accepted at once.
+ * <p>
+ * A valid code is validated again by the first packet using it after the
+ * refresh seconds, so only the codes still in use are validated again, one at
+ * a time. While master data cannot be reached, such a code is not taken as
+ * valid: its validation fails as for a code not kept. The least recently used
+ * codes are dropped above the maximum entries.
+ */
+public class MasterDataDictionary {
+
+	/**
+	 * Validates a code against master data.
+	 */
+	@FunctionalInterface
+	public interface CodeResolver {
+
+		/**
+		 * Validates a code.
+		 *
+		 * @param attribute
+		 *            the attribute
+		 * @param value
+		 *            the value
+		 * @return true if valid, false if invalid, null if invalid for this
+		 *         packet only, the answer not being kept
+		 * @throws ApisResourceAccessException
+		 *             the apis resource access exception
+		 * @throws IOException
+		 *             Signals that an I/O exception has occurred.
+		 */
+		Boolean isValid(String attribute, String value) throws ApisResourceAccessException, IOException;
+
+	}
+
+	/**
+	 * A value of a packet to validate. The validation of a value does not
+	 * depend on its language, which is kept for the logs.
+	 */
+	public static class Code {
+
+		private final String attribute;
+
+		private final String language;
+
+		private final String value;
+
+		public Code(String attribute, String language, String value) {
+			this.attribute = attribute;
+			this.language = language;
+			this.value = value;
+		}
+
+		public String getAttribute() {
+			return attribute;
+		}
+
+		public String getLanguage() {
+			return language;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		private String key() {
+			return attribute.toUpperCase() + '|' + value;
+		}
+
+		@Override
+		public String toString() {
+			return attribute + " " + value + " (" + language + ")";
+		}
+
+	}
+
+	private final CodeResolver resolver;
+
+	private final int maxEntries;
+
+	private final long refreshNanos;
+
+	/** The valid codes, with the time they are to be validated again. */
+	private final Map<String, Long> codes;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Instantiates a new master data dictionary.
+	 *
+	 * @param resolver
+	 *            the validation of the codes missing
+	 * @param maxEntries
+	 *            the most codes kept, 0 to keep none
+	 * @param refreshSeconds
+	 *            the seconds after which a valid code is validated again, 0 to
+	 *            never validate it again
+	 */
+	public MasterDataDictionary(CodeResolver resolver, int maxEntries, long refreshSeconds) {
+		this.resolver = resolver;
+		this.maxEntries = maxEntries;
+		this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+		this.codes = Collections.synchronizedMap(new LinkedHashMap<String, Long>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+				return size() > maxEntries;
+			}
+		});
+	}
+
+	/**
+	 * Adds the valid values of an attribute, known without asking master data.
+	 *
+	 * @param attribute
+	 *            the attribute
+	 * @param values
+	 *            the valid values
+	 */
+	public void load(String attribute, Collection<String> values) {
+		if (maxEntries <= 0)
+			return;
+		long refreshAt = System.nanoTime() + refreshNanos;
+		for (String value : values)
+			codes.put(new Code(attribute, null, value).key(), refreshAt);
+	}
+
+	/**
+	 * Gets the first invalid code of a packet. The codes are validated in
+	 * order, master data being called only for the codes not known to be valid
+	 * or due to be validated again, and the validation stops at the first
+	 * invalid code.
+	 *
+	 * @param packetCodes
+	 *            the codes of the packet
+	 * @return the first invalid code, null if all are valid
+	 * @throws ApisResourceAccessException
+	 *             the apis resource access exception
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public Code getFirstInvalid(List<Code> packetCodes) throws ApisResourceAccessException, IOException {
+		Map<String, Boolean> resolved = new HashMap<>();
+		for (Code code : packetCodes) {
+			String key = code.key();
+			Boolean valid = resolved.get(key);
+			if (valid == null) {
+				valid = isValid(code, key);
+				resolved.put(key, valid);
+			}
+			if (!valid)
+				return code;
+		}
+		return null;
+	}
+
+	private boolean isValid(Code code, String key) throws ApisResourceAccessException, IOException {
+		Long refreshAt = codes.get(key);
+		if (refreshAt != null && (refreshNanos <= 0 || System.nanoTime() - refreshAt < 0)) {
+			hits.increment();
+			return true;
+		}
+		misses.increment();
+		Boolean valid = resolver.isValid(code.getAttribute(), code.getValue());
+		if (Boolean.TRUE.equals(valid)) {
+			if (maxEntries > 0)
+				codes.put(key, System.nanoTime() + refreshNanos);
+			return true;
+		}
+		// a refused request says nothing of the code, an invalid answer drops it
+		if (valid != null)
+			codes.remove(key);
+		return false;
+	}
+
+	public int size() {
+		return codes.size();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+}
@@ -11,6 +11,7 @@ import io.mosip.registration.processor.packet.storage.utils.PacketManagerService
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.web.client.HttpClientErrorException;
 
@@ -31,6 +32,7 @@ import io.mosip.registration.processor.core.packet.dto.masterdata.StatusResponse
 import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
 import io.mosip.registration.processor.core.util.JsonUtil;
 import io.mosip.registration.processor.packet.storage.utils.Utilities;
+import io.mosip.registration.processor.stages.utils.MasterDataDictionary.Code;
 
 /**
  * The Class MasterDataValidation.
@@ -74,7 +76,15 @@ public class MasterDataValidation {
 
 	private static final String ATTRIBUTES = "registration.processor.masterdata.validation.attributes";
 
-	
+	/** The most codes kept in the dictionary, 0 to call master data for every value. */
+	@Value("${registration.processor.masterdata.validation.dictionary.max-entries:10000}")
+	private int dictionaryMaxEntries;
+
+	/** The seconds after which a valid code of the dictionary is validated again, 0 to never. */
+	@Value("${registration.processor.masterdata.validation.dictionary.refresh-seconds:3600}")
+	private long dictionaryRefreshSeconds;
+
+	private volatile MasterDataDictionary dictionary;
 
 	/**
 	 * Validate master data.
@@ -89,7 +99,6 @@ public class MasterDataValidation {
 	public boolean validateMasterData(String id, String source, String process) throws ApisResourceAccessException, IOException, io.mosip.kernel.core.util.exception.JsonProcessingException, PacketManagerException {
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
 				"MasterDataValidation::validateMasterData()::entry");
-		boolean isValid = false;
 		String primaryLanguage = env.getProperty(PRIMARY_LANGUAGE);
 		String secondaryLanguage = env.getProperty(SECONDARY_LANGUAGE);
 		String[] attributes = env.getProperty(ATTRIBUTES).split(",");
@@ -97,46 +106,49 @@ public class MasterDataValidation {
 			return true;
 
 		List<String> list = new ArrayList<>(Arrays.asList(attributes));
-
 		for (String element : list) {
-			if (env.getProperty(ApiName.valueOf(element.toUpperCase()).name()) != null) {
-				String primaryLangValue = null;
-				String secondaryLangValue = null;
-				String val = packetManagerService.getField(id, element, source, process);
-				if (val != null) {
-					Object object = objectMapper.readValue(val, Object.class);
-					if (object instanceof ArrayList) {
-						JSONArray node = objectMapper.readValue(val, JSONArray.class);
-						JsonValue[] jsonValues = JsonUtil.mapJsonNodeToJavaObject(JsonValue.class, node);
-						primaryLangValue = getParameter(jsonValues, primaryLanguage);
-						secondaryLangValue = getParameter(jsonValues, secondaryLanguage);
-					} else if (object instanceof LinkedHashMap) {
-						JSONObject json = objectMapper.readValue(val, JSONObject.class);
-						primaryLangValue = (String) json.get(VALUE);
-					} else
-						primaryLangValue = (String) object;
-
-					isValid = validateIdentityValues(element, primaryLangValue) && validateIdentityValues(element, secondaryLangValue);
-					if (!isValid) {
-						regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
-								LoggerFileConstant.REGISTRATIONID.toString(), "",
-								PlatformErrorMessages.RPR_PVM_IDENTITY_INVALID.getMessage() + " " + element
-										+ "and for values are" + primaryLangValue + " " + secondaryLangValue);
-
-						break;
-					}
-				} else
-					isValid = true;
-
-			} else {
-				isValid = false;
+			if (env.getProperty(ApiName.valueOf(element.toUpperCase()).name()) == null) {
 				regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
 						LoggerFileConstant.REGISTRATIONID.toString(), "",
 						PlatformErrorMessages.RPR_PVM_RESOURCE_NOT_FOUND.getMessage() + " " + element);
-				break;
+				return false;
+			}
+		}
+		packetManagerService.prefetchFields(id, list, source, process);
+
+		// all the values of the packet are collected first and validated in one go
+		List<Code> codes = new ArrayList<>();
+		for (String element : list) {
+			String primaryLangValue = null;
+			String secondaryLangValue = null;
+			String val = packetManagerService.getField(id, element, source, process);
+			if (val != null) {
+				Object object = objectMapper.readValue(val, Object.class);
+				if (object instanceof ArrayList) {
+					JSONArray node = objectMapper.readValue(val, JSONArray.class);
+					JsonValue[] jsonValues = JsonUtil.mapJsonNodeToJavaObject(JsonValue.class, node);
+					primaryLangValue = getParameter(jsonValues, primaryLanguage);
+					secondaryLangValue = getParameter(jsonValues, secondaryLanguage);
+				} else if (object instanceof LinkedHashMap) {
+					JSONObject json = objectMapper.readValue(val, JSONObject.class);
+					primaryLangValue = (String) json.get(VALUE);
+				} else
+					primaryLangValue = (String) object;
+
+				if (primaryLangValue != null)
+					codes.add(new Code(element, primaryLanguage, primaryLangValue));
+				if (secondaryLangValue != null)
+					codes.add(new Code(element, secondaryLanguage, secondaryLangValue));
 			}
 		}
 
+		Code invalid = getDictionary().getFirstInvalid(codes);
+		boolean isValid = invalid == null;
+		if (!isValid)
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					"", PlatformErrorMessages.RPR_PVM_IDENTITY_INVALID.getMessage() + " " + invalid.getAttribute()
+							+ "and for values are" + invalid.getValue());
+
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
 				"MasterDataValidation::validateMasterData::exit");
 		return isValid;
@@ -150,18 +162,19 @@ public class MasterDataValidation {
 	 *            the key
 	 * @param value
 	 *            the value
-	 * @return true, if successful
+	 * @return true if valid, false if invalid, null if master data refused the
+	 *         request
 	 * @throws IOException
 	 * @throws JsonProcessingException
 	 * @throws JsonMappingException
 	 * @throws JsonParseException
 	 */
 	@SuppressWarnings("unchecked")
-	private boolean validateIdentityValues(String key, String value) throws JsonParseException, JsonMappingException,
+	private Boolean validateIdentityValues(String key, String value) throws JsonParseException, JsonMappingException,
 			JsonProcessingException, IOException, ApisResourceAccessException {
 		StatusResponseDto statusResponseDto;
 		ObjectMapper mapper = new ObjectMapper();
-		boolean isvalidateIdentity = false;
+		Boolean isvalidateIdentity = false;
 		if (value != null) {
 			try {
 
@@ -181,7 +194,8 @@ public class MasterDataValidation {
 					isvalidateIdentity = true;
 			} catch (ApisResourceAccessException ex) {
 				if (ex.getCause() instanceof HttpClientErrorException) {
-					isvalidateIdentity = false;
+					// a refused request says nothing about the value, so it is not kept in the dictionary
+					isvalidateIdentity = null;
 					regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
 							LoggerFileConstant.REGISTRATIONID.toString(), "",
 							PlatformErrorMessages.RPR_PVM_API_RESOUCE_ACCESS_FAILED.getMessage() + ex.getMessage());
@@ -197,6 +211,17 @@ public class MasterDataValidation {
 
 	}
 
+	private MasterDataDictionary getDictionary() {
+		if (dictionary == null) {
+			synchronized (this) {
+				if (dictionary == null)
+					dictionary = new MasterDataDictionary(this::validateIdentityValues, dictionaryMaxEntries,
+							dictionaryRefreshSeconds);
+			}
+		}
+		return dictionary;
+	}
+
 	/**
 	 * Gets the parameter.
 	 *
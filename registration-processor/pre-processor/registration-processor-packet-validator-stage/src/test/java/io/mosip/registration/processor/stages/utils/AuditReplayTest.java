@@ -0,0 +1,187 @@
+package io.mosip.registration.processor.stages.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.registration.processor.core.constant.PacketFiles;
+import io.mosip.registration.processor.packet.storage.dto.FieldResponseDto;
+import io.mosip.registration.processor.packet.storage.utils.PacketManagerService;
+import io.mosip.registration.processor.rest.client.utils.RestApiClient;
+import io.mosip.registration.processor.stages.dto.AuditReplayDTO;
+import io.mosip.registration.processor.stages.helper.RestHelperImpl;
+
+/**
+ * Replays audits against a local audit manager, through the rest helper and
+ * its shared connection pool.
+ */
+public class AuditReplayTest {
+
+	private static final String RID = "10001100010000120201016090000";
+
+	private static final long SLOW_MILLIS = 100;
+
+	private static final long HANG_MILLIS = 2500;
+
+	private LocalAuditManager auditManager;
+
+	private RestApiClient restApiClient;
+
+	private RestHelperImpl restHelper;
+
+	private PacketManagerService packetManagerService;
+
+	private AuditUtility auditUtility;
+
+	@Before
+	public void setup() throws Exception {
+		auditManager = new LocalAuditManager(SLOW_MILLIS, HANG_MILLIS);
+		String url = auditManager.start();
+
+		restApiClient = Mockito.mock(RestApiClient.class);
+		Mockito.when(restApiClient.getToken()).thenReturn("Authorization=token");
+		restHelper = new RestHelperImpl();
+		ReflectionTestUtils.setField(restHelper, "restApiClient", restApiClient);
+		ReflectionTestUtils.setField(restHelper, "maxConnections", 10);
+
+		Environment env = Mockito.mock(Environment.class);
+		Mockito.when(env.getProperty(PacketFiles.AUDIT.name())).thenReturn(url);
+		packetManagerService = Mockito.mock(PacketManagerService.class);
+		auditUtility = new AuditUtility();
+		ReflectionTestUtils.setField(auditUtility, "restHelper", restHelper);
+		ReflectionTestUtils.setField(auditUtility, "env", env);
+		ReflectionTestUtils.setField(auditUtility, "packetManagerService", packetManagerService);
+		ReflectionTestUtils.setField(auditUtility, "replayConcurrency", 4);
+		ReflectionTestUtils.setField(auditUtility, "replayTimeoutSeconds", 1L);
+		ReflectionTestUtils.setField(auditUtility, "replayMaxResults", 10);
+	}
+
+	@After
+	public void tearDown() {
+		restHelper.shutdown();
+		auditManager.stop();
+	}
+
+	@Test
+	public void replayTest() {
+		AuditReplayDTO result = auditUtility.replayAudits(RID, audits("SAVE", 20)).block();
+
+		assertEquals(20, result.getTotal());
+		assertEquals(20, result.getSucceeded());
+		assertEquals(0, result.getFailed());
+		assertEquals(20, auditManager.getCalls());
+		assertSame(result, auditUtility.getReplayResult(RID));
+		Mockito.verify(restApiClient, Mockito.times(1)).getToken();
+	}
+
+	@Test
+	public void tokenErrorFailsReplayTest() throws Exception {
+		Mockito.when(restApiClient.getToken()).thenThrow(new IOException("auth manager down"));
+
+		AuditReplayDTO result = auditUtility.replayAudits(RID, audits("SAVE", 3)).block();
+
+		assertEquals(3, result.getFailed());
+		assertEquals(0, auditManager.getCalls());
+	}
+
+	@Test
+	public void connectionPoolIsSharedTest() {
+		auditUtility.replayAudits(RID, audits("SAVE", 2)).block();
+		Object connector = ReflectionTestUtils.getField(restHelper, "connector");
+
+		auditUtility.replayAudits(RID, audits("SAVE", 2)).block();
+
+		assertSame(connector, ReflectionTestUtils.getField(restHelper, "connector"));
+	}
+
+	@Test
+	public void failingAuditsAreCountedTest() {
+		List<FieldResponseDto> audits = audits("SAVE", 5);
+		audits.addAll(audits("FAIL", 3));
+		audits.addAll(audits("REJECT", 2));
+
+		AuditReplayDTO result = auditUtility.replayAudits(RID, audits).block();
+
+		assertEquals(5, result.getSucceeded());
+		assertEquals(5, result.getFailed());
+		assertEquals("a failing audit does not stop the others", 10, auditManager.getCalls());
+	}
+
+	@Test
+	public void concurrencyTest() {
+		ReflectionTestUtils.setField(auditUtility, "replayConcurrency", 2);
+
+		long start = System.nanoTime();
+		AuditReplayDTO result = auditUtility.replayAudits(RID, audits("SLOW", 8)).block();
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertEquals(8, result.getSucceeded());
+		assertTrue(auditManager.getMaxInProgress() <= 2);
+		assertTrue("8 slow audits two at a time take 4 round trips", millis >= 4 * SLOW_MILLIS);
+	}
+
+	@Test
+	public void slowAuditTimesOutTest() {
+		List<FieldResponseDto> audits = audits("SAVE", 3);
+		audits.addAll(audits("HANG", 1));
+
+		AuditReplayDTO result = auditUtility.replayAudits(RID, audits).block();
+
+		assertEquals(3, result.getSucceeded());
+		assertEquals(1, result.getFailed());
+	}
+
+	@Test
+	public void saveAuditDetailsDoesNotBlockTest() throws Exception {
+		Mockito.when(packetManagerService.getAudits(anyString(), anyString(), anyString()))
+				.thenReturn(audits("SLOW", 4));
+
+		auditUtility.saveAuditDetails(RID, "REGISTRATION_CLIENT", "NEW");
+		assertNull("the caller does not wait for the audits", auditUtility.getReplayResult(RID));
+
+		for (int i = 0; i < 50 && auditUtility.getReplayResult(RID) == null; i++)
+			Thread.sleep(SLOW_MILLIS);
+		assertEquals(4, auditUtility.getReplayResult(RID).getSucceeded());
+	}
+
+	@Test
+	public void replayResultsAreBoundedTest() {
+		for (int i = 0; i < 12; i++)
+			auditUtility.replayAudits(RID + i, audits("SAVE", 1)).block();
+
+		assertNull(auditUtility.getReplayResult(RID + 0));
+		assertEquals(1, auditUtility.getReplayResult(RID + 11).getSucceeded());
+	}
+
+	private static List<FieldResponseDto> audits(String eventId, int count) {
+		List<FieldResponseDto> audits = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Map<String, String> fields = new HashMap<>();
+			fields.put("eventId", eventId);
+			fields.put("eventName", "Packet validation " + i);
+			fields.put("eventType", "SYSTEM");
+			fields.put("id", RID);
+			fields.put("idType", "REGISTRATION_ID");
+			fields.put("moduleId", "REG-MOD-100");
+			audits.add(new FieldResponseDto(fields));
+		}
+		return audits;
+	}
+
+}
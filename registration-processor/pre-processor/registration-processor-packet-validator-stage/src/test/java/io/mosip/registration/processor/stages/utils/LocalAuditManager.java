@@ -0,0 +1,94 @@
+package io.mosip.registration.processor.stages.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.reactivestreams.Publisher;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.NettyContext;
+import reactor.ipc.netty.http.server.HttpServer;
+import reactor.ipc.netty.http.server.HttpServerRequest;
+import reactor.ipc.netty.http.server.HttpServerResponse;
+
+/**
+ * Audit manager served over http on a local port. An audit is saved unless its
+ * event id says otherwise: FAIL is answered with a server error, REJECT with an
+ * error in the response body, SLOW after the slow latency and HANG after the
+ * hang latency. The calls and the most calls in progress at once are counted.
+ */
+public class LocalAuditManager {
+
+	public static final String PATH = "/v1/auditmanager/audits";
+
+	private final long slowMillis;
+
+	private final long hangMillis;
+
+	private NettyContext server;
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private final AtomicInteger inProgress = new AtomicInteger();
+
+	private final AtomicInteger maxInProgress = new AtomicInteger();
+
+	public LocalAuditManager(long slowMillis, long hangMillis) {
+		this.slowMillis = slowMillis;
+		this.hangMillis = hangMillis;
+	}
+
+	/**
+	 * Starts the audit manager on a free port.
+	 *
+	 * @return the url of the audits
+	 */
+	public String start() {
+		server = HttpServer.create("localhost", 0).newRouter(routes -> routes.post(PATH, this::audit)).block();
+		return "http://localhost:" + server.address().getPort() + PATH;
+	}
+
+	public void stop() {
+		if (server != null)
+			server.dispose();
+	}
+
+	public int getCalls() {
+		return calls.get();
+	}
+
+	public int getMaxInProgress() {
+		return maxInProgress.get();
+	}
+
+	private Publisher<Void> audit(HttpServerRequest request, HttpServerResponse response) {
+		return request.receive().aggregate().asString().flatMap(body -> {
+			calls.incrementAndGet();
+			maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+			long latency = body.contains(eventId("HANG")) ? hangMillis : body.contains(eventId("SLOW")) ? slowMillis : 0;
+			return Mono.delay(Duration.ofMillis(latency)).then(Mono.defer(() -> reply(body, response)))
+					.doFinally(signal -> inProgress.decrementAndGet());
+		});
+	}
+
+	private Mono<Void> reply(String body, HttpServerResponse response) {
+		response.header(HttpHeaderNames.CONTENT_TYPE, "application/json");
+		if (body.contains(eventId("FAIL")))
+			return response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR)
+					.sendString(Mono.just("{\"errors\":[{\"errorCode\":\"KER-AUD-500\",\"message\":\"audit failed\"}]}"))
+					.then();
+		if (body.contains(eventId("REJECT")))
+			return response
+					.sendString(Mono.just(
+							"{\"response\":null,\"errors\":[{\"errorCode\":\"KER-AUD-001\",\"message\":\"invalid audit\"}]}"))
+					.then();
+		return response.sendString(Mono.just("{\"response\":{\"status\":true},\"errors\":null}")).then();
+	}
+
+	private static String eventId(String eventId) {
+		return "\"eventId\":\"" + eventId + "\"";
+	}
+
+}
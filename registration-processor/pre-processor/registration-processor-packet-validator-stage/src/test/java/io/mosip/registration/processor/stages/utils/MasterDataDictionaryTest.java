@@ -0,0 +1,296 @@
+package io.mosip.registration.processor.stages.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.code.ApiName;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
+import io.mosip.registration.processor.core.http.ResponseWrapper;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.packet.dto.masterdata.StatusResponseDto;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.packet.storage.utils.PacketManagerService;
+import io.mosip.registration.processor.stages.utils.MasterDataDictionary.Code;
+
+/**
+ * Validates codes against the dictionary of src/test/resources/masterdata-dictionary.json,
+ * master data answering valid for the codes of the fixture only. The benchmark
+ * validates synthetic packets, without and with the dictionary, and logs the
+ * master data calls per packet and the packets per second. The packets, the
+ * packets of the run without dictionary and the master data latency can be set
+ * with -Dmasterdata.validation.load.packets, -Dmasterdata.validation.load.baseline.packets
+ * and -Dmasterdata.validation.load.latency.ms.
+ */
+public class MasterDataDictionaryTest {
+
+	private static final int PACKETS = Integer.getInteger("masterdata.validation.load.packets", 10000);
+
+	private static final int BASELINE_PACKETS = Integer.getInteger("masterdata.validation.load.baseline.packets",
+			200);
+
+	private static final long LATENCY_MILLIS = Long.getLong("masterdata.validation.load.latency.ms", 1L);
+
+	private static final String[] ATTRIBUTES = { "gender", "region", "province", "city", "postalcode" };
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(MasterDataDictionaryTest.class);
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private Map<String, List<String>> fixture;
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private volatile boolean masterDataDown;
+
+	private MasterDataDictionary dictionary;
+
+	@Before
+	public void setup() throws IOException {
+		fixture = objectMapper.readValue(new File("src/test/resources/masterdata-dictionary.json"),
+				new TypeReference<Map<String, List<String>>>() {
+				});
+		dictionary = new MasterDataDictionary(this::isValid, 100, 3600);
+	}
+
+	private Boolean isValid(String attribute, String value) throws ApisResourceAccessException {
+		calls.incrementAndGet();
+		if (masterDataDown)
+			throw new ApisResourceAccessException("master data down");
+		return fixture.get(attribute.toLowerCase()).contains(value);
+	}
+
+	private void loadFixture() {
+		fixture.forEach(dictionary::load);
+	}
+
+	@Test
+	public void loadedCodesAreNotFetchedTest() throws Exception {
+		loadFixture();
+
+		assertNull(dictionary.getFirstInvalid(codes("gender", "MLE", "region", "RSK", "city", "KNT", "postalcode",
+				"14022")));
+		assertEquals(0, calls.get());
+		assertEquals(4, dictionary.getHits());
+	}
+
+	@Test
+	public void missingCodeIsFetchedOnceTest() throws Exception {
+		assertNull(dictionary.getFirstInvalid(codes("gender", "FLE", "city", "RBT")));
+		assertNull(dictionary.getFirstInvalid(codes("gender", "FLE", "city", "RBT")));
+
+		assertEquals(2, calls.get());
+		assertEquals(2, dictionary.getMisses());
+	}
+
+	@Test
+	public void valueOfBothLanguagesIsFetchedOnceTest() throws Exception {
+		List<Code> codes = new ArrayList<>();
+		codes.add(new Code("gender", "eng", "MLE"));
+		codes.add(new Code("gender", "ara", "MLE"));
+
+		assertNull(dictionary.getFirstInvalid(codes));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void invalidCodeStopsValidationTest() throws Exception {
+		Code invalid = dictionary.getFirstInvalid(codes("gender", "XYZ", "region", "RSK"));
+
+		assertEquals("XYZ", invalid.getValue());
+		assertEquals("the codes after the invalid one are not fetched", 1, calls.get());
+
+		assertEquals("XYZ", dictionary.getFirstInvalid(codes("gender", "XYZ")).getValue());
+		assertEquals("an invalid code is not kept", 2, calls.get());
+
+		fixture.get("gender").add("XYZ");
+		assertNull("a code added to master data is valid at once", dictionary.getFirstInvalid(codes("gender", "XYZ")));
+		assertEquals(1, dictionary.size());
+	}
+
+	@Test
+	public void refusedRequestIsNotKeptTest() throws Exception {
+		MasterDataDictionary refusing = new MasterDataDictionary((attribute, value) -> {
+			calls.incrementAndGet();
+			return null;
+		}, 100, 0);
+
+		assertEquals("MLE", refusing.getFirstInvalid(codes("gender", "MLE")).getValue());
+		assertEquals("MLE", refusing.getFirstInvalid(codes("gender", "MLE")).getValue());
+		assertEquals(2, calls.get());
+		assertEquals(0, refusing.size());
+	}
+
+	@Test
+	public void expiredCodeIsValidatedAgainWhenUsedTest() throws Exception {
+		loadFixture();
+		fixture.get("gender").remove("OTH");
+		expireCodes();
+
+		assertEquals("OTH", dictionary.getFirstInvalid(codes("gender", "OTH")).getValue());
+		assertNull(dictionary.getFirstInvalid(codes("gender", "MLE")));
+		assertNull(dictionary.getFirstInvalid(codes("gender", "MLE")));
+
+		assertEquals("only the codes used are validated again", 2, calls.get());
+		assertEquals(19, dictionary.size());
+	}
+
+	@Test(expected = ApisResourceAccessException.class)
+	public void expiredCodeNotValidWhileMasterDataDownTest() throws Exception {
+		loadFixture();
+		expireCodes();
+		masterDataDown = true;
+
+		dictionary.getFirstInvalid(codes("gender", "MLE", "city", "SAL"));
+	}
+
+	@Test(expected = ApisResourceAccessException.class)
+	public void masterDataDownTest() throws Exception {
+		masterDataDown = true;
+
+		dictionary.getFirstInvalid(codes("gender", "MLE"));
+	}
+
+	@Test
+	public void maxEntriesTest() throws Exception {
+		MasterDataDictionary small = new MasterDataDictionary(this::isValid, 2, 0);
+
+		small.getFirstInvalid(codes("gender", "MLE", "gender", "FLE", "gender", "OTH"));
+		assertEquals(2, small.size());
+
+		MasterDataDictionary none = new MasterDataDictionary(this::isValid, 0, 0);
+		none.getFirstInvalid(codes("gender", "MLE"));
+		none.getFirstInvalid(codes("gender", "MLE"));
+		assertEquals(0, none.size());
+		assertEquals(5, calls.get());
+	}
+
+	@Test
+	public void throughputTest() throws Exception {
+		Map<String, Map<String, String>> packets = new HashMap<>();
+		for (int i = 0; i < PACKETS; i++)
+			packets.put("packet" + i, packet(i));
+
+		MasterDataValidation withoutDictionary = masterDataValidation(packets, 0);
+		double[] baseline = run(withoutDictionary, BASELINE_PACKETS);
+		MasterDataValidation withDictionary = masterDataValidation(packets, 10000);
+		double[] cached = run(withDictionary, PACKETS);
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format(
+						"without dictionary %d packets, %.2f calls per packet, %.0f packets/s; with dictionary %d packets, %.3f calls per packet, %.0f packets/s",
+						BASELINE_PACKETS, baseline[0], baseline[1], PACKETS, cached[0], cached[1]));
+		assertEquals(5, baseline[0], 0);
+		assertTrue(cached[0] < baseline[0]);
+	}
+
+	private double[] run(MasterDataValidation masterDataValidation, int packets) throws Exception {
+		calls.set(0);
+		long start = System.nanoTime();
+		for (int i = 0; i < packets; i++)
+			assertTrue(masterDataValidation.validateMasterData("packet" + i, "REGISTRATION_CLIENT", "NEW"));
+		double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+		return new double[] { calls.get() / (double) packets, packets / seconds };
+	}
+
+	@SuppressWarnings("unchecked")
+	private MasterDataValidation masterDataValidation(Map<String, Map<String, String>> packets, int maxEntries)
+			throws Exception {
+		Environment env = Mockito.mock(Environment.class);
+		Mockito.when(env.getProperty(anyString())).thenReturn("http://localhost/masterdata");
+		Mockito.when(env.getProperty("mosip.primary-language")).thenReturn("eng");
+		Mockito.when(env.getProperty("mosip.secondary-language")).thenReturn("ara");
+		Mockito.when(env.getProperty("registration.processor.masterdata.validation.attributes"))
+				.thenReturn(String.join(",", ATTRIBUTES));
+		PacketManagerService packetManagerService = Mockito.mock(PacketManagerService.class);
+		Mockito.when(packetManagerService.getField(anyString(), anyString(), anyString(), anyString())).thenAnswer(
+				invocation -> packets.get(invocation.<String> getArgument(0)).get(invocation.<String> getArgument(1)));
+
+		RegistrationProcessorRestClientService<Object> masterData = (RegistrationProcessorRestClientService<Object>) Proxy
+				.newProxyInstance(RegistrationProcessorRestClientService.class.getClassLoader(),
+						new Class<?>[] { RegistrationProcessorRestClientService.class }, (proxy, method, args) -> {
+							if (!method.getName().equals("getApi") || args.length != 5)
+								throw new UnsupportedOperationException(method.getName());
+							Thread.sleep(LATENCY_MILLIS);
+							StatusResponseDto status = new StatusResponseDto();
+							status.setStatus(isValid(((ApiName) args[0]).name(), ((List<String>) args[1]).get(0))
+									? "Valid"
+									: "Invalid");
+							ResponseWrapper<StatusResponseDto> response = new ResponseWrapper<>();
+							response.setResponse(status);
+							return response;
+						});
+
+		MasterDataValidation masterDataValidation = new MasterDataValidation();
+		ReflectionTestUtils.setField(masterDataValidation, "env", env);
+		ReflectionTestUtils.setField(masterDataValidation, "packetManagerService", packetManagerService);
+		ReflectionTestUtils.setField(masterDataValidation, "registrationProcessorRestService", masterData);
+		ReflectionTestUtils.setField(masterDataValidation, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(masterDataValidation, "dictionaryMaxEntries", maxEntries);
+		return masterDataValidation;
+	}
+
+	/**
+	 * A packet with the gender, region, province and city in both languages,
+	 * and a postal code, picked from the fixture.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, String> packet(int i) {
+		Map<String, String> fields = new HashMap<>();
+		for (String attribute : ATTRIBUTES) {
+			List<String> values = fixture.get(attribute);
+			String value = values.get(i % values.size());
+			if (attribute.equals("postalcode")) {
+				fields.put(attribute, "\"" + value + "\"");
+				continue;
+			}
+			JSONArray languages = new JSONArray();
+			for (String language : Arrays.asList("eng", "ara")) {
+				JSONObject json = new JSONObject();
+				json.put("language", language);
+				json.put("value", value);
+				languages.add(json);
+			}
+			fields.put(attribute, languages.toJSONString());
+		}
+		return fields;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void expireCodes() {
+		long now = System.nanoTime();
+		((Map<String, Long>) ReflectionTestUtils.getField(dictionary, "codes")).replaceAll((key, refreshAt) -> now);
+	}
+
+	private static List<Code> codes(String... attributeValues) {
+		List<Code> codes = new ArrayList<>();
+		for (int i = 0; i < attributeValues.length; i += 2)
+			codes.add(new Code(attributeValues[i], "eng", attributeValues[i + 1]));
+		return codes;
+	}
+
+}
@@ -28,6 +28,7 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
 
 import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
@@ -119,6 +120,17 @@ public class MasterDataValidationTest {
 
 	}
 
+	@Test
+	public void testMasterDataValidationDictionary() throws Exception {
+		ReflectionTestUtils.setField(masterDataValidation, "dictionaryMaxEntries", 100);
+
+		assertTrue(masterDataValidation.validateMasterData(id, source, process));
+		assertTrue(masterDataValidation.validateMasterData(id, source, process));
+
+		Mockito.verify(registrationProcessorRestService, Mockito.times(5)).getApi(any(), any(), anyString(), any(),
+				any());
+	}
+
 	@Test
 	public void testMasterDataValidationSuccessWithLinkedList() throws Exception {
 
@@ -1,6 +1,7 @@
 package io.mosip.registration.processor.quality.checker.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
@@ -10,6 +11,7 @@ import io.mosip.kernel.cbeffutil.impl.CbeffImpl;
 import io.mosip.kernel.core.bioapi.spi.IBioApi;
 import io.mosip.kernel.core.cbeffutil.spi.CbeffUtil;
 import io.mosip.registration.processor.quality.checker.stage.QualityCheckerStage;
+import io.mosip.registration.processor.quality.checker.util.QualityScoringEngine;
 
 @PropertySource("classpath:bootstrap.properties")
 @Configuration
@@ -65,4 +67,10 @@ public class QualityCheckerConfig {
 	public CbeffUtil getCbeffUtil() {
 		return new CbeffImpl();
 	}
+
+	@Bean(destroyMethod = "shutdown")
+	public QualityScoringEngine getQualityScoringEngine(
+			@Value("${registration.processor.quality.checker.threads-per-modality:2}") int threadsPerModality) {
+		return new QualityScoringEngine(threadsPerModality);
+	}
 }
@@ -0,0 +1,102 @@
+package io.mosip.registration.processor.quality.checker.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in fixed millisecond buckets. Recording takes no lock, so
+ * it can be shared by all the threads calling one bio SDK.
+ */
+public class LatencyHistogram {
+
+	/** The upper bounds of the buckets, in milliseconds. */
+	private static final long[] BUCKET_BOUNDS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000 };
+
+	/** The counts of the buckets, the last one counting what is above all bounds. */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder totalNanos = new LongAdder();
+
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos
+	 *            the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		int bucket = 0;
+		while (bucket < BUCKET_BOUNDS.length && millis > BUCKET_BOUNDS[bucket])
+			bucket++;
+		buckets.incrementAndGet(bucket);
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public double getMeanMillis() {
+		long calls = count.sum();
+		return calls == 0 ? 0 : totalNanos.sum() / (calls * 1_000_000d);
+	}
+
+	public double getMaxMillis() {
+		return maxNanos.get() / 1_000_000d;
+	}
+
+	/**
+	 * Gets the upper bound of the bucket a percentile of the latencies falls in.
+	 *
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the bucket bound in milliseconds, the maximum latency above the
+	 *         last bound, 0 when nothing was recorded
+	 */
+	public double getPercentileMillis(double percentile) {
+		long calls = count.sum();
+		if (calls == 0)
+			return 0;
+		long rank = (long) Math.ceil(calls * percentile / 100);
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKET_BOUNDS.length; bucket++) {
+			seen += buckets.get(bucket);
+			if (seen >= rank)
+				return BUCKET_BOUNDS[bucket];
+		}
+		return getMaxMillis();
+	}
+
+	/**
+	 * Gets the counts of the buckets, in the order of their bounds, the last
+	 * count being the latencies above all bounds.
+	 *
+	 * @return the bucket counts
+	 */
+	public long[] getBucketCounts() {
+		long[] counts = new long[buckets.length()];
+		for (int bucket = 0; bucket < counts.length; bucket++)
+			counts[bucket] = buckets.get(bucket);
+		return counts;
+	}
+
+	public static long[] getBucketBounds() {
+		return BUCKET_BOUNDS.clone();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d mean=%.1fms p50<=%.0fms p95<=%.0fms p99<=%.0fms max=%.1fms", getCount(),
+				getMeanMillis(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99),
+				getMaxMillis());
+	}
+
+}
@@ -0,0 +1,215 @@
+package io.mosip.registration.processor.quality.checker.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.mosip.kernel.biometrics.constant.BiometricType;
+import io.mosip.kernel.biometrics.entities.BIR;
+import io.mosip.kernel.core.bioapi.exception.BiometricException;
+import io.mosip.kernel.core.bioapi.model.QualityScore;
+import io.mosip.kernel.core.bioapi.model.Response;
+import io.mosip.kernel.core.bioapi.spi.IBioApi;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.packet.storage.utils.BIRConverter;
+import io.mosip.registration.processor.quality.checker.exception.BioTypeException;
+
+/**
+ * Scores the biometrics of a packet with the bio SDK of their modality and
+ * compares the scores against the quality thresholds.
+ * <p>
+ * The records are scored in parallel. Every modality has a pool of its own,
+ * bounded to the configured threads, so a slow SDK does not hold back the other
+ * modalities and an SDK is never called by more threads than configured. The
+ * latency of every SDK call is recorded per modality.
+ * <p>
+ * Every record is mandatory. The outcome is the one of the first record, in the
+ * order of the packet, that is below its threshold or cannot be scored, as if
+ * the records were scored one at a time. Once it is known the records not
+ * scored yet are dropped.
+ */
+public class QualityScoringEngine {
+
+	/** The reg proc logger. */
+	private static Logger regProcLogger = RegProcessorLogger.getLogger(QualityScoringEngine.class);
+
+	/**
+	 * Gets the bio SDK of a modality.
+	 */
+	@FunctionalInterface
+	public interface BioSdkResolver {
+
+		IBioApi getBioSdkInstance(BiometricType type) throws BioTypeException;
+
+	}
+
+	/**
+	 * Gets the quality threshold of a modality.
+	 */
+	@FunctionalInterface
+	public interface ThresholdResolver {
+
+		Integer getThreshold(BiometricType type, List<String> subtype);
+
+	}
+
+	/** The threads scoring the records of one modality, 0 to score in the caller. */
+	private final int threadsPerModality;
+
+	private final Map<String, ThreadPoolExecutor> executors = new ConcurrentHashMap<>();
+
+	private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+	/**
+	 * Instantiates a new quality scoring engine.
+	 *
+	 * @param threadsPerModality
+	 *            the threads scoring the records of one modality, 0 to score
+	 *            them one at a time in the calling thread
+	 */
+	public QualityScoringEngine(int threadsPerModality) {
+		this.threadsPerModality = threadsPerModality;
+	}
+
+	/**
+	 * Checks the quality of the biometric records of a packet.
+	 *
+	 * @param regId
+	 *            the registration id
+	 * @param birList
+	 *            the biometric records
+	 * @param thresholds
+	 *            the quality thresholds
+	 * @param bioSdks
+	 *            the bio SDKs
+	 * @return true if every record meets its threshold
+	 * @throws BioTypeException
+	 *             if a record is of a modality without SDK
+	 * @throws BiometricException
+	 *             if an SDK fails to score a record
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the scores
+	 */
+	public boolean checkQuality(String regId, List<BIR> birList, ThresholdResolver thresholds,
+			BioSdkResolver bioSdks) throws BioTypeException, BiometricException, InterruptedException {
+		if (threadsPerModality <= 0 || birList.size() < 2) {
+			for (BIR bir : birList) {
+				if (!score(bir, thresholds, bioSdks))
+					return false;
+			}
+			return true;
+		}
+
+		// index of the first record known to fail, the later ones are not scored
+		AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+		List<Future<Boolean>> scores = new ArrayList<>(birList.size());
+		try {
+			for (int i = 0; i < birList.size(); i++) {
+				int index = i;
+				BIR bir = birList.get(i);
+				scores.add(executor(bir.getBdbInfo().getType().get(0).value()).submit(() -> {
+					if (firstFailure.get() < index)
+						return Boolean.FALSE;
+					boolean passed = false;
+					try {
+						passed = score(bir, thresholds, bioSdks);
+						return passed;
+					} finally {
+						if (!passed)
+							firstFailure.accumulateAndGet(index, Math::min);
+					}
+				}));
+			}
+			for (Future<Boolean> score : scores) {
+				if (!score.get())
+					return false;
+			}
+			return true;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof BioTypeException)
+				throw (BioTypeException) cause;
+			if (cause instanceof BiometricException)
+				throw (BiometricException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} finally {
+			for (Future<Boolean> score : scores)
+				score.cancel(false);
+			regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					regId, "QualityScoringEngine::checkQuality()::" + birList.size() + " records, first failure at "
+							+ (firstFailure.get() == Integer.MAX_VALUE ? "none" : firstFailure.get()));
+		}
+	}
+
+	private boolean score(BIR bir, ThresholdResolver thresholds, BioSdkResolver bioSdks)
+			throws BioTypeException, BiometricException {
+		BiometricType singleType = bir.getBdbInfo().getType().get(0);
+		Integer threshold = thresholds.getThreshold(singleType, bir.getBdbInfo().getSubtype());
+		IBioApi bioSdk = bioSdks.getBioSdkInstance(singleType);
+		io.mosip.kernel.core.cbeffutil.entity.BIR sample = BIRConverter.convertToBIR(bir);
+
+		Response<QualityScore> qualityScoreresponse;
+		long start = System.nanoTime();
+		try {
+			qualityScoreresponse = bioSdk.checkQuality(sample, null);
+		} finally {
+			latencies.computeIfAbsent(singleType.value(), k -> new LatencyHistogram())
+					.record(System.nanoTime() - start);
+		}
+		if (qualityScoreresponse.getStatusCode() < 200 || qualityScoreresponse.getStatusCode() > 299) {
+			throw new BiometricException(qualityScoreresponse.getStatusCode().toString(),
+					qualityScoreresponse.getStatusMessage());
+		}
+		return qualityScoreresponse.getResponse().getScore() >= threshold;
+	}
+
+	private ExecutorService executor(String modality) {
+		return executors.computeIfAbsent(modality, k -> {
+			AtomicInteger threads = new AtomicInteger();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threadsPerModality, threadsPerModality, 60L,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+						Thread thread = new Thread(r, "quality-scoring-" + modality + "-" + threads.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		});
+	}
+
+	/**
+	 * Gets the latencies of the SDK calls, per modality.
+	 *
+	 * @return the latency histograms
+	 */
+	public Map<String, LatencyHistogram> getLatencyHistograms() {
+		return Collections.unmodifiableMap(new TreeMap<>(latencies));
+	}
+
+	/**
+	 * Logs the SDK latencies and stops the scoring threads.
+	 */
+	public void shutdown() {
+		getLatencyHistograms().forEach((modality, histogram) -> regProcLogger.info(
+				LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+				"QualityScoringEngine::shutdown()::" + modality + " quality check latency " + histogram));
+		executors.values().forEach(ExecutorService::shutdownNow);
+	}
+
+}
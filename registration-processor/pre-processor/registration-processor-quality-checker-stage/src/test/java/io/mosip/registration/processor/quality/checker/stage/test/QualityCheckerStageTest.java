@@ -16,6 +16,8 @@ import io.mosip.kernel.core.util.exception.JsonProcessingException;
 import io.mosip.registration.processor.core.abstractverticle.MessageBusAddress;
 import io.mosip.registration.processor.core.abstractverticle.MessageDTO;
 import io.mosip.registration.processor.core.abstractverticle.MosipEventBus;
+import io.mosip.registration.processor.core.code.RegistrationExceptionTypeCode;
+import io.mosip.registration.processor.core.code.RegistrationTransactionStatusCode;
 import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
 import io.mosip.registration.processor.core.util.JsonUtil;
 import io.mosip.registration.processor.core.util.RegistrationExceptionMapperUtil;
@@ -23,7 +25,9 @@ import io.mosip.registration.processor.core.exception.PacketManagerException;
 import io.mosip.registration.processor.packet.storage.utils.PacketManagerService;
 import io.mosip.registration.processor.packet.storage.utils.Utilities;
 import io.mosip.registration.processor.quality.checker.stage.QualityCheckerStage;
+import io.mosip.registration.processor.quality.checker.util.QualityScoringEngine;
 import io.mosip.registration.processor.rest.client.audit.builder.AuditLogRequestBuilder;
+import io.mosip.registration.processor.status.code.RegistrationStatusCode;
 import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
 import io.mosip.registration.processor.status.dto.RegistrationStatusDto;
 import io.mosip.registration.processor.status.service.RegistrationStatusService;
@@ -111,6 +115,7 @@ public class QualityCheckerStageTest {
 		ReflectionTestUtils.setField(qualityCheckerStage, "fingerApi", fingerApi);
 		ReflectionTestUtils.setField(qualityCheckerStage, "faceApi", fingerApi);
 		ReflectionTestUtils.setField(qualityCheckerStage, "irisApi", fingerApi);
+		ReflectionTestUtils.setField(qualityCheckerStage, "qualityScoringEngine", new QualityScoringEngine(2));
 		Mockito.when(registrationStatusService.getRegistrationStatus(any())).thenReturn(registrationStatusDto);
 		Mockito.doNothing().when(registrationStatusService).updateRegistrationStatus(any(), any(), any());
 		String idJsonString = "{\n" + "  \"identity\" : {\n" + "    \"fullName\" : [ {\n"
@@ -447,4 +452,29 @@ public class QualityCheckerStageTest {
 
 		assertTrue(result.getInternalError());
 	}
+
+	@Test
+	public void testQualityCheckInterrupted() throws Exception {
+		QualityScoringEngine qualityScoringEngine = Mockito.mock(QualityScoringEngine.class);
+		when(qualityScoringEngine.checkQuality(any(), any(), any(), any())).thenThrow(new InterruptedException());
+		ReflectionTestUtils.setField(qualityCheckerStage, "qualityScoringEngine", qualityScoringEngine);
+		when(registrationStatusMapperUtil.getStatusCode(RegistrationExceptionTypeCode.INTERRUPTED_EXCEPTION))
+				.thenReturn(RegistrationTransactionStatusCode.REPROCESS.toString());
+		MessageDTO dto = new MessageDTO();
+		dto.setRid("1234567890");
+		MessageDTO result;
+		try {
+			result = qualityCheckerStage.process(dto);
+			assertTrue("the interrupt is restored", Thread.currentThread().isInterrupted());
+		} finally {
+			Thread.interrupted();
+		}
+
+		assertFalse(result.getIsValid());
+		assertTrue(result.getInternalError());
+		Mockito.verify(registrationStatusDto).setStatusCode(RegistrationStatusCode.PROCESSING.name());
+		Mockito.verify(registrationStatusDto, Mockito.never()).setStatusCode(RegistrationStatusCode.FAILED.name());
+		Mockito.verify(registrationStatusDto)
+				.setLatestTransactionStatusCode(RegistrationTransactionStatusCode.REPROCESS.toString());
+	}
 }
@@ -0,0 +1,94 @@
+package io.mosip.registration.processor.quality.checker.util;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.mosip.kernel.core.bioapi.model.QualityScore;
+import io.mosip.kernel.core.bioapi.model.Response;
+import io.mosip.kernel.core.bioapi.spi.IBioApi;
+import io.mosip.kernel.core.cbeffutil.entity.BIR;
+
+/**
+ * Bio SDK answering quality checks after a fixed latency, with the quality
+ * score already written in the record, so the scores of a packet are known in
+ * advance. The calls and the most calls in progress at once are counted.
+ */
+public class LocalBioSdk {
+
+	private final long latencyMillis;
+
+	private volatile int statusCode = 200;
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private final AtomicInteger inProgress = new AtomicInteger();
+
+	private final AtomicInteger maxInProgress = new AtomicInteger();
+
+	public LocalBioSdk(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+	}
+
+	/**
+	 * Sets the status code of the responses, anything but 2xx being an error.
+	 *
+	 * @param statusCode
+	 *            the status code
+	 */
+	public void setStatusCode(int statusCode) {
+		this.statusCode = statusCode;
+	}
+
+	public int getCalls() {
+		return calls.get();
+	}
+
+	public int getMaxInProgress() {
+		return maxInProgress.get();
+	}
+
+	/**
+	 * Gets this SDK as a bio api. Only the quality check is served.
+	 *
+	 * @return the bio api
+	 */
+	public IBioApi asBioApi() {
+		return (IBioApi) Proxy.newProxyInstance(IBioApi.class.getClassLoader(), new Class<?>[] { IBioApi.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "checkQuality":
+						return checkQuality((BIR) args[0]);
+					case "toString":
+						return "LocalBioSdk";
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private Response<QualityScore> checkQuality(BIR sample) throws InterruptedException {
+		calls.incrementAndGet();
+		maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+		try {
+			Thread.sleep(latencyMillis);
+		} finally {
+			inProgress.decrementAndGet();
+		}
+		Response<QualityScore> response = new Response<>();
+		response.setStatusCode(statusCode);
+		if (statusCode < 200 || statusCode > 299) {
+			response.setStatusMessage("quality check failed");
+			return response;
+		}
+		long score = sample.getBdbInfo().getQuality().getScore();
+		QualityScore qualityScore = new QualityScore();
+		qualityScore.setScore((int) score);
+		response.setResponse(qualityScore);
+		return response;
+	}
+
+}
@@ -0,0 +1,189 @@
+package io.mosip.registration.processor.quality.checker.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.mosip.kernel.biometrics.constant.BiometricType;
+import io.mosip.kernel.biometrics.constant.QualityType;
+import io.mosip.kernel.biometrics.entities.BDBInfo;
+import io.mosip.kernel.biometrics.entities.BIR;
+import io.mosip.kernel.biometrics.entities.RegistryIDType;
+import io.mosip.kernel.core.bioapi.exception.BiometricException;
+import io.mosip.kernel.core.bioapi.spi.IBioApi;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.quality.checker.exception.BioTypeException;
+import io.mosip.registration.processor.quality.checker.util.QualityScoringEngine.BioSdkResolver;
+import io.mosip.registration.processor.quality.checker.util.QualityScoringEngine.ThresholdResolver;
+
+/**
+ * Scores packets of ten fingers, two irises and a face against local bio SDKs
+ * of fixed latency, one record at a time and in parallel, and prints the time
+ * per packet and the SDK latencies. The packets scored per run and the SDK
+ * latency can be set with -Dquality.checker.load.packets and
+ * -Dquality.checker.load.latency.ms.
+ */
+public class QualityScoringEngineTest {
+
+	private static final int PACKETS = Integer.getInteger("quality.checker.load.packets", 5);
+
+	private static final long LATENCY_MILLIS = Long.getLong("quality.checker.load.latency.ms", 20L);
+
+	private static final String RID = "10001100010000000000000000001";
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(QualityScoringEngineTest.class);
+
+	private static final int THRESHOLD = 60;
+
+	private static final ThresholdResolver THRESHOLDS = (type, subtype) -> THRESHOLD;
+
+	private LocalBioSdk fingerSdk;
+
+	private LocalBioSdk irisSdk;
+
+	private LocalBioSdk faceSdk;
+
+	private BioSdkResolver bioSdks;
+
+	private QualityScoringEngine engine;
+
+	@Before
+	public void setup() {
+		fingerSdk = new LocalBioSdk(LATENCY_MILLIS);
+		irisSdk = new LocalBioSdk(LATENCY_MILLIS);
+		faceSdk = new LocalBioSdk(LATENCY_MILLIS);
+		IBioApi fingerApi = fingerSdk.asBioApi();
+		IBioApi irisApi = irisSdk.asBioApi();
+		IBioApi faceApi = faceSdk.asBioApi();
+		bioSdks = type -> type == BiometricType.FINGER ? fingerApi : type == BiometricType.IRIS ? irisApi : faceApi;
+		engine = new QualityScoringEngine(2);
+	}
+
+	@After
+	public void tearDown() {
+		engine.shutdown();
+	}
+
+	@Test
+	public void parallelScoringTest() throws Exception {
+		List<BIR> packet = packet(90);
+		QualityScoringEngine sequentialEngine = new QualityScoringEngine(0);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < PACKETS; i++)
+			assertTrue(sequentialEngine.checkQuality(RID, packet, THRESHOLDS, bioSdks));
+		long sequential = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int i = 0; i < PACKETS; i++)
+			assertTrue(engine.checkQuality(RID, packet, THRESHOLDS, bioSdks));
+		long parallel = System.nanoTime() - start;
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), RID,
+				String.format("per packet : one record at a time %d ms, in parallel %d ms",
+						TimeUnit.NANOSECONDS.toMillis(sequential) / PACKETS,
+						TimeUnit.NANOSECONDS.toMillis(parallel) / PACKETS));
+		engine.getLatencyHistograms()
+				.forEach((modality, histogram) -> regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(),
+						LoggerFileConstant.REGISTRATIONID.toString(), RID, modality + " : " + histogram));
+		assertEquals(10 * PACKETS, engine.getLatencyHistograms().get("FINGER").getCount());
+		assertEquals(2 * PACKETS, engine.getLatencyHistograms().get("IRIS").getCount());
+		assertEquals(PACKETS, engine.getLatencyHistograms().get("FACE").getCount());
+		assertTrue("a modality is not called by more threads than configured", fingerSdk.getMaxInProgress() <= 2);
+		assertTrue(irisSdk.getMaxInProgress() <= 2);
+		assertEquals(13 * PACKETS * 2, fingerSdk.getCalls() + irisSdk.getCalls() + faceSdk.getCalls());
+	}
+
+	@Test
+	public void failingRecordShortCircuitsTest() throws Exception {
+		List<BIR> packet = packet(90);
+		packet.set(0, bir(BiometricType.FINGER, 30, "Left", "IndexFinger"));
+
+		assertFalse(engine.checkQuality(RID, packet, THRESHOLDS, bioSdks));
+		assertTrue("the fingers queued behind the failing one are not scored", fingerSdk.getCalls() <= 3);
+	}
+
+	@Test
+	public void earlierFailingRecordDecidesTest() throws Exception {
+		List<BIR> packet = Arrays.asList(bir(BiometricType.FINGER, 30, "Left", "IndexFinger"),
+				bir(BiometricType.IRIS, 90, "Right"));
+		irisSdk.setStatusCode(500);
+
+		assertFalse(engine.checkQuality(RID, packet, THRESHOLDS, bioSdks));
+	}
+
+	@Test(expected = BiometricException.class)
+	public void sdkErrorTest() throws Exception {
+		List<BIR> packet = Arrays.asList(bir(BiometricType.IRIS, 90, "Right"),
+				bir(BiometricType.FINGER, 30, "Left", "IndexFinger"));
+		irisSdk.setStatusCode(500);
+
+		engine.checkQuality(RID, packet, THRESHOLDS, bioSdks);
+	}
+
+	@Test(expected = BioTypeException.class)
+	public void missingSdkTest() throws Exception {
+		BioSdkResolver fingerOnly = type -> {
+			if (type != BiometricType.FINGER)
+				throw new BioTypeException("code", "message");
+			return fingerSdk.asBioApi();
+		};
+
+		engine.checkQuality(RID, packet(90), THRESHOLDS, fingerOnly);
+	}
+
+	@Test
+	public void latencyHistogramTest() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 90; i++)
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+		for (int i = 0; i < 10; i++)
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(150));
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(5, histogram.getPercentileMillis(50), 0);
+		assertEquals(200, histogram.getPercentileMillis(95), 0);
+		assertEquals(150, histogram.getMaxMillis(), 0);
+		assertEquals(90, histogram.getBucketCounts()[2]);
+	}
+
+	private static List<BIR> packet(long score) {
+		List<BIR> packet = new ArrayList<>();
+		for (String side : new String[] { "Left", "Right" }) {
+			for (String finger : new String[] { "IndexFinger", "MiddleFinger", "RingFinger", "LittleFinger" })
+				packet.add(bir(BiometricType.FINGER, score, side, finger));
+			packet.add(bir(BiometricType.FINGER, score, side, "Thumb"));
+		}
+		packet.add(bir(BiometricType.IRIS, score, "Left"));
+		packet.add(bir(BiometricType.IRIS, score, "Right"));
+		packet.add(bir(BiometricType.FACE, score));
+		return packet;
+	}
+
+	private static BIR bir(BiometricType type, long score, String... subtype) {
+		RegistryIDType algorithm = new RegistryIDType();
+		algorithm.setOrganization("Mosip");
+		algorithm.setType("257");
+		QualityType quality = new QualityType();
+		quality.setAlgorithm(algorithm);
+		quality.setScore(score);
+		BDBInfo bdbInfo = new BDBInfo.BDBInfoBuilder().build();
+		bdbInfo.setQuality(quality);
+		bdbInfo.setType(new ArrayList<>(Arrays.asList(type)));
+		bdbInfo.setSubtype(new ArrayList<>(Arrays.asList(subtype)));
+		BIR bir = new BIR.BIRBuilder().build();
+		bir.setBdbInfo(bdbInfo);
+		return bir;
+	}
+
+}
@@ -1,27 +1,31 @@
 package io.mosip.registration.processor.camel.bridge;
 
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+import javax.annotation.PreDestroy;
+
 import org.apache.camel.CamelContext;
 import org.apache.camel.component.vertx.VertxComponent;
 import org.apache.camel.impl.DefaultCamelContext;
 import org.apache.camel.impl.JndiRegistry;
-import org.apache.camel.model.RoutesDefinition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.env.Environment;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
 import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.camel.bridge.route.CamelRouteRepository;
+import io.mosip.registration.processor.camel.bridge.route.DirectoryRouteSource;
+import io.mosip.registration.processor.camel.bridge.route.RouteSource;
+import io.mosip.registration.processor.camel.bridge.route.UrlRouteSource;
 import io.mosip.registration.processor.core.abstractverticle.MessageBusAddress;
 import io.mosip.registration.processor.core.abstractverticle.MessageDTO;
 import io.mosip.registration.processor.core.abstractverticle.MosipEventBus;
@@ -63,6 +67,27 @@ public class MosipBridgeFactory extends MosipVerticleAPIManager {
 	/** Mosip router for APIs */
 	@Autowired
 	MosipRouter router;
+
+	/** The local directory of the route files, the config server if empty. */
+	@Value("${camel.routes.local.directory:}")
+	private String camelRoutesDirectory;
+
+	/** The interval of the reload of the changed route files. */
+	@Value("${camel.routes.reload.seconds:30}")
+	private long camelRoutesReloadSeconds;
+
+	/** Whether a route is stream cached, unless listed below. */
+	@Value("${camel.routes.stream.caching.default:true}")
+	private boolean streamCachingDefault;
+
+	@Value("${camel.routes.stream.caching.enabled.routes:}")
+	private String streamCachingEnabledRoutes;
+
+	@Value("${camel.routes.stream.caching.disabled.routes:}")
+	private String streamCachingDisabledRoutes;
+
+	/** The camel routes. */
+	private CamelRouteRepository routeRepository;
 	/**
 	 * Gets the event bus.
 	 *
@@ -117,26 +142,47 @@ public class MosipBridgeFactory extends MosipVerticleAPIManager {
         	camelRoutesFileName = environment.getProperty("camel.secure.active.flows.file.names");
         }
 		CamelContext camelContext = new DefaultCamelContext(registry);
-		camelContext.setStreamCaching(true);
 		VertxComponent vertxComponent = new VertxComponent();
 		vertxComponent.setVertx(vertx);
 		List<String> camelRoutesFilesArr = Arrays.asList(camelRoutesFileName.split(","));
-        RestTemplate restTemplate = new RestTemplate();
-        String camelRoutesBaseUrl = environment.getProperty("camel.routes.url");
-        ResponseEntity<Resource> responseEntity;
-        RoutesDefinition routes;
-        for (String camelRouteFileName : camelRoutesFilesArr) {
-			String camelRoutesUrl = camelRoutesBaseUrl + camelRouteFileName;
-			responseEntity = restTemplate.exchange(camelRoutesUrl, HttpMethod.GET, null,
-	                Resource.class);
-			routes = camelContext.loadRoutesDefinition(responseEntity.getBody().getInputStream());
-			camelContext.addRouteDefinitions(routes.getRoutes());
+		RouteSource routeSource;
+		if (camelRoutesDirectory != null && !camelRoutesDirectory.isEmpty()) {
+			routeSource = new DirectoryRouteSource(Paths.get(camelRoutesDirectory), camelRoutesFilesArr);
+		} else {
+			routeSource = new UrlRouteSource(new RestTemplate(), environment.getProperty("camel.routes.url"),
+					camelRoutesFilesArr);
 		}
+		// stream caching is set per route, instead of for the whole context
+		routeRepository = new CamelRouteRepository(camelContext, routeSource);
+		routeRepository.setStreamCaching(streamCachingDefault, split(streamCachingEnabledRoutes),
+				split(streamCachingDisabledRoutes));
+		routeRepository.load();
 		camelContext.addComponent("vertx", vertxComponent);
 		camelContext.start();
+		routeRepository.startReload(camelRoutesReloadSeconds);
 		CamelBridge.create(vertx, new CamelBridgeOptions(camelContext)).start();
 	}
 
+	/**
+	 * Gets the camel routes of the bridge.
+	 *
+	 * @return the route repository, null until the bridge is started
+	 */
+	public CamelRouteRepository getRouteRepository() {
+		return routeRepository;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (routeRepository != null)
+			routeRepository.shutdown();
+	}
+
+	private static List<String> split(String routeIds) {
+		return routeIds == null || routeIds.trim().isEmpty() ? Collections.emptyList()
+				: Arrays.asList(routeIds.trim().split("\\s*,\\s*"));
+	}
+
 	@Override
 	public MessageDTO process(MessageDTO object) {
 		// TODO Auto-generated method stub
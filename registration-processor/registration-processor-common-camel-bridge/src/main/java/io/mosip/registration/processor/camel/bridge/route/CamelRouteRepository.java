@@ -0,0 +1,272 @@
+package io.mosip.registration.processor.camel.bridge.route;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.model.RouteDefinition;
+import org.apache.camel.model.RoutesDefinition;
+
+import io.mosip.kernel.core.exception.ExceptionUtils;
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+
+/**
+ * Loads the camel routes of the bridge from a {@link RouteSource}, and reloads
+ * them while the bridge runs.
+ * <p>
+ * The SHA-256 checksum of every route file loaded is kept as its snapshot. A
+ * reload reads the files again and only replaces the routes of a file whose
+ * checksum changed: its routes are replaced by id in the running context, and
+ * the routes no longer in the file are removed once the new ones are added, so
+ * the other routes and the bridge keep running. A file failing to load keeps
+ * its previous routes and snapshot, does not stop the other files from loading,
+ * and is tried again on the next reload.
+ * <p>
+ * Stream caching is set per route: the streamCache attribute of a route wins,
+ * then the routes listed as enabled or disabled, then the default.
+ */
+public class CamelRouteRepository {
+
+	/** The reg proc logger. */
+	private static Logger regProcLogger = RegProcessorLogger.getLogger(CamelRouteRepository.class);
+
+	private final CamelContext camelContext;
+
+	private final RouteSource source;
+
+	private boolean streamCachingDefault = true;
+
+	private Set<String> streamCachingEnabledRoutes = Collections.emptySet();
+
+	private Set<String> streamCachingDisabledRoutes = Collections.emptySet();
+
+	private final Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+
+	private long reloads;
+
+	private volatile ScheduledExecutorService scheduler;
+
+	/**
+	 * Instantiates a new camel route repository.
+	 *
+	 * @param camelContext
+	 *            the context the routes are added to
+	 * @param source
+	 *            the source of the route files
+	 */
+	public CamelRouteRepository(CamelContext camelContext, RouteSource source) {
+		this.camelContext = camelContext;
+		this.source = source;
+	}
+
+	/**
+	 * Sets the stream caching policy of the routes.
+	 *
+	 * @param defaultEnabled
+	 *            whether a route not listed is stream cached
+	 * @param enabledRoutes
+	 *            the ids of the routes stream cached
+	 * @param disabledRoutes
+	 *            the ids of the routes not stream cached
+	 */
+	public void setStreamCaching(boolean defaultEnabled, Collection<String> enabledRoutes,
+			Collection<String> disabledRoutes) {
+		this.streamCachingDefault = defaultEnabled;
+		this.streamCachingEnabledRoutes = new HashSet<>(enabledRoutes);
+		this.streamCachingDisabledRoutes = new HashSet<>(disabledRoutes);
+	}
+
+	/**
+	 * Loads the route files whose checksum changed since their last load. A
+	 * file failing to load does not stop the files after it.
+	 *
+	 * @return the number of route files loaded
+	 * @throws Exception
+	 *             if a route file could not be read or its routes added, the
+	 *             failures of the other files being suppressed
+	 */
+	public synchronized int load() throws Exception {
+		List<Exception> failures = new ArrayList<>();
+		int loaded = load(failures);
+		if (!failures.isEmpty()) {
+			Exception failure = failures.get(0);
+			for (int i = 1; i < failures.size(); i++)
+				failure.addSuppressed(failures.get(i));
+			throw failure;
+		}
+		return loaded;
+	}
+
+	private int load(List<Exception> failures) throws Exception {
+		int loaded = 0;
+		for (String name : source.getNames()) {
+			try {
+				if (load(name))
+					loaded++;
+			} catch (Exception e) {
+				failures.add(e);
+				regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+						name, "CamelRouteRepository::load()::current routes kept " + e.getMessage()
+								+ ExceptionUtils.getStackTrace(e));
+			}
+		}
+		if (loaded > 0)
+			reloads++;
+		return loaded;
+	}
+
+	private boolean load(String name) throws Exception {
+		byte[] content = source.read(name);
+		String checksum = checksum(content);
+		Snapshot previous = snapshots.get(name);
+		if (previous != null && previous.checksum.equals(checksum))
+			return false;
+
+		RoutesDefinition routes = camelContext.loadRoutesDefinition(new ByteArrayInputStream(content));
+		List<RouteDefinition> definitions = routes.getRoutes();
+		List<String> routeIds = new ArrayList<>();
+		for (int i = 0; i < definitions.size(); i++) {
+			RouteDefinition definition = definitions.get(i);
+			// a route needs a stable id to be replaced on the next reload
+			if (definition.getId() == null)
+				definition.setId(name + "-" + i);
+			if (definition.getStreamCache() == null)
+				definition.setStreamCache(String.valueOf(isStreamCached(definition.getId())));
+			routeIds.add(definition.getId());
+		}
+
+		camelContext.addRouteDefinitions(definitions);
+		// the routes dropped from the file go only once the new ones run, and a
+		// failure to remove them keeps the snapshot so the next reload retries
+		if (previous != null) {
+			List<RouteDefinition> removed = new ArrayList<>();
+			for (String routeId : previous.routeIds) {
+				RouteDefinition definition = camelContext.getRouteDefinition(routeId);
+				if (!routeIds.contains(routeId) && definition != null)
+					removed.add(definition);
+			}
+			camelContext.removeRouteDefinitions(removed);
+		}
+		snapshots.put(name, new Snapshot(checksum, routeIds));
+		regProcLogger.info(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+				name, "CamelRouteRepository::load()::routes " + routeIds + " loaded from " + source
+						+ " with checksum " + checksum);
+		return true;
+	}
+
+	/**
+	 * Reloads the changed route files every interval, in the background.
+	 *
+	 * @param intervalSeconds
+	 *            the interval, no reload if not positive
+	 */
+	public synchronized void startReload(long intervalSeconds) {
+		if (intervalSeconds <= 0 || scheduler != null)
+			return;
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "camel-route-reload");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::reload, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Reloads the changed route files, keeping the current routes of a file
+	 * failing to load.
+	 *
+	 * @return the number of route files loaded
+	 */
+	public synchronized int reload() {
+		try {
+			return load(new ArrayList<>());
+		} catch (Exception e) {
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					"CamelRouteRepository::reload()::current routes kept", e.getMessage() + ExceptionUtils.getStackTrace(e));
+			return 0;
+		}
+	}
+
+	/**
+	 * Gets the checksum of a route file, as last loaded.
+	 *
+	 * @param name
+	 *            the name of the route file
+	 * @return the checksum, null if the file was never loaded
+	 */
+	public synchronized String getChecksum(String name) {
+		Snapshot snapshot = snapshots.get(name);
+		return snapshot == null ? null : snapshot.checksum;
+	}
+
+	/**
+	 * Gets the ids of the routes of a route file, as last loaded.
+	 *
+	 * @param name
+	 *            the name of the route file
+	 * @return the route ids
+	 */
+	public synchronized List<String> getRouteIds(String name) {
+		Snapshot snapshot = snapshots.get(name);
+		return snapshot == null ? Collections.emptyList() : snapshot.routeIds;
+	}
+
+	/**
+	 * Gets the number of loads which changed routes.
+	 *
+	 * @return the count, the first load included
+	 */
+	public synchronized long getReloads() {
+		return reloads;
+	}
+
+	public void shutdown() {
+		if (scheduler != null)
+			scheduler.shutdownNow();
+	}
+
+	private boolean isStreamCached(String routeId) {
+		if (streamCachingEnabledRoutes.contains(routeId))
+			return true;
+		if (streamCachingDisabledRoutes.contains(routeId))
+			return false;
+		return streamCachingDefault;
+	}
+
+	private static String checksum(byte[] content) {
+		try {
+			return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(content)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class Snapshot {
+
+		private final String checksum;
+
+		private final List<String> routeIds;
+
+		Snapshot(String checksum, List<String> routeIds) {
+			this.checksum = checksum;
+			this.routeIds = Collections.unmodifiableList(routeIds);
+		}
+
+	}
+
+}
@@ -0,0 +1,45 @@
+package io.mosip.registration.processor.camel.bridge.route;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Reads the route files from a local directory.
+ */
+public class DirectoryRouteSource implements RouteSource {
+
+	private final Path directory;
+
+	private final List<String> names;
+
+	/**
+	 * Instantiates a new directory route source.
+	 *
+	 * @param directory
+	 *            the directory
+	 * @param names
+	 *            the names of the route files in the directory
+	 */
+	public DirectoryRouteSource(Path directory, List<String> names) {
+		this.directory = directory;
+		this.names = names;
+	}
+
+	@Override
+	public List<String> getNames() {
+		return names;
+	}
+
+	@Override
+	public byte[] read(String name) throws IOException {
+		return Files.readAllBytes(directory.resolve(name));
+	}
+
+	@Override
+	public String toString() {
+		return directory.toString();
+	}
+
+}
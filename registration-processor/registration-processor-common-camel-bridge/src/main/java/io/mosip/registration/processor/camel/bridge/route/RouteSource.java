@@ -0,0 +1,29 @@
+package io.mosip.registration.processor.camel.bridge.route;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A source of camel route files, read by the {@link CamelRouteRepository}.
+ */
+public interface RouteSource {
+
+	/**
+	 * Gets the names of the route files.
+	 *
+	 * @return the names
+	 */
+	List<String> getNames();
+
+	/**
+	 * Reads a route file.
+	 *
+	 * @param name
+	 *            the name of the file
+	 * @return the content of the file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	byte[] read(String name) throws IOException;
+
+}
@@ -0,0 +1,58 @@
+package io.mosip.registration.processor.camel.bridge.route;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Reads the route files over http, from the config server.
+ */
+public class UrlRouteSource implements RouteSource {
+
+	private final RestTemplate restTemplate;
+
+	private final String baseUrl;
+
+	private final List<String> names;
+
+	/**
+	 * Instantiates a new url route source.
+	 *
+	 * @param restTemplate
+	 *            the rest template
+	 * @param baseUrl
+	 *            the url the route file names are appended to
+	 * @param names
+	 *            the names of the route files
+	 */
+	public UrlRouteSource(RestTemplate restTemplate, String baseUrl, List<String> names) {
+		this.restTemplate = restTemplate;
+		this.baseUrl = baseUrl;
+		this.names = names;
+	}
+
+	@Override
+	public List<String> getNames() {
+		return names;
+	}
+
+	@Override
+	public byte[] read(String name) throws IOException {
+		try {
+			byte[] content = restTemplate.getForObject(baseUrl + name, byte[].class);
+			if (content == null)
+				throw new IOException("Empty route file " + baseUrl + name);
+			return content;
+		} catch (RestClientException e) {
+			throw new IOException("Failed to read route file " + baseUrl + name, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return baseUrl;
+	}
+
+}
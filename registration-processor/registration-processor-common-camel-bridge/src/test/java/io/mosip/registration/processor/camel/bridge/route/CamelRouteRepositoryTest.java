@@ -0,0 +1,279 @@
+package io.mosip.registration.processor.camel.bridge.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.camel.CamelContext;
+import org.apache.camel.component.jms.JmsComponent;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.vertx.camel.CamelBridge;
+import io.vertx.camel.CamelBridgeOptions;
+import io.vertx.camel.InboundMapping;
+import io.vertx.camel.OutboundMapping;
+import io.vertx.core.Vertx;
+
+/**
+ * Runs a camel bridge over an in memory ActiveMQ broker, with its routes read
+ * from a local directory, and changes the routes while messages go through.
+ */
+public class CamelRouteRepositoryTest {
+
+	private static final String ROUTE_FILE = "packet-flow.xml";
+
+	private static final String IN = "packet-in";
+
+	private static final String OUT = "packet-out";
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(CamelRouteRepositoryTest.class);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path routes;
+
+	private BrokerService broker;
+
+	private Vertx vertx;
+
+	private CamelContext camelContext;
+
+	private CamelRouteRepository repository;
+
+	private CamelBridge bridge;
+
+	private final BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+
+	@Before
+	public void setup() throws Exception {
+		routes = folder.newFolder("routes").toPath();
+		writeRoutes("v1", true);
+
+		broker = new BrokerService();
+		broker.setBrokerName("route-test");
+		broker.setPersistent(false);
+		broker.setUseJmx(false);
+		broker.start();
+
+		vertx = Vertx.vertx();
+		vertx.eventBus().<String>consumer(OUT, message -> replies.add(message.body()));
+
+		camelContext = new DefaultCamelContext();
+		camelContext.addComponent("activemq",
+				JmsComponent.jmsComponentAutoAcknowledge(new ActiveMQConnectionFactory("vm://route-test?create=false")));
+		camelContext.getShutdownStrategy().setTimeout(10);
+		repository = new CamelRouteRepository(camelContext,
+				new DirectoryRouteSource(routes, Collections.singletonList(ROUTE_FILE)));
+		repository.setStreamCaching(true, Collections.emptyList(), Collections.singletonList("packet-audit"));
+		repository.load();
+		camelContext.start();
+
+		bridge = CamelBridge.create(vertx,
+				new CamelBridgeOptions(camelContext)
+						.addOutboundMapping(OutboundMapping.fromVertx(IN).toCamel("activemq:queue:packet-in"))
+						.addInboundMapping(
+								InboundMapping.fromCamel("activemq:queue:packet-out").toVertx(OUT).withoutHeadersCopy()));
+		bridge.start();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		repository.shutdown();
+		bridge.stop();
+		camelContext.stop();
+		CompletableFuture<Void> closed = new CompletableFuture<>();
+		vertx.close(result -> closed.complete(null));
+		closed.get(10, TimeUnit.SECONDS);
+		broker.stop();
+	}
+
+	@Test
+	public void streamCachingPolicyTest() {
+		assertFalse("stream caching is not set for the whole context", camelContext.isStreamCaching());
+		assertEquals("true", camelContext.getRouteDefinition("packet-flow").getStreamCache());
+		assertEquals("false", camelContext.getRouteDefinition("packet-audit").getStreamCache());
+		assertEquals("the attribute of a route wins", "false",
+				camelContext.getRouteDefinition(ROUTE_FILE + "-2").getStreamCache());
+	}
+
+	@Test
+	public void unchangedRoutesAreNotReloadedTest() throws Exception {
+		String checksum = repository.getChecksum(ROUTE_FILE);
+
+		assertEquals(0, repository.reload());
+		assertEquals(checksum, repository.getChecksum(ROUTE_FILE));
+		assertEquals(1, repository.getReloads());
+		assertEquals(Arrays.asList("packet-flow", "packet-audit", ROUTE_FILE + "-2"),
+				repository.getRouteIds(ROUTE_FILE));
+	}
+
+	@Test
+	public void removedRouteTest() throws Exception {
+		writeRoutes("v1", false);
+
+		assertEquals(1, repository.reload());
+		assertNull(camelContext.getRoute("packet-audit"));
+		assertNotNull(camelContext.getRoute("packet-flow"));
+		assertEquals(Arrays.asList("packet-flow", ROUTE_FILE + "-1"), repository.getRouteIds(ROUTE_FILE));
+	}
+
+	@Test
+	public void brokenRouteFileKeepsCurrentRoutesTest() throws Exception {
+		String checksum = repository.getChecksum(ROUTE_FILE);
+		Files.write(routes.resolve(ROUTE_FILE), "<routes><route>".getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(0, repository.reload());
+		assertEquals(checksum, repository.getChecksum(ROUTE_FILE));
+		vertx.eventBus().send(IN, "1");
+		assertEquals("v1:1", replies.poll(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void brokenRouteFileDoesNotStopTheOthersTest() throws Exception {
+		Files.write(routes.resolve("broken.xml"), "<routes><route>".getBytes(StandardCharsets.UTF_8));
+		Files.write(routes.resolve("notify.xml"),
+				("<routes xmlns=\"http://camel.apache.org/schema/spring\">\n"
+						+ "\t<route id=\"packet-notify\">\n"
+						+ "\t\t<from uri=\"direct:packet-notify\"/>\n"
+						+ "\t\t<to uri=\"log:packet-notify\"/>\n"
+						+ "\t</route>\n"
+						+ "</routes>\n").getBytes(StandardCharsets.UTF_8));
+		CamelRouteRepository both = new CamelRouteRepository(camelContext,
+				new DirectoryRouteSource(routes, Arrays.asList("broken.xml", "notify.xml")));
+
+		try {
+			both.load();
+			fail("the broken route file is reported");
+		} catch (Exception e) {
+			assertNull(both.getChecksum("broken.xml"));
+		}
+		assertNotNull("the file after the broken one is loaded", both.getChecksum("notify.xml"));
+		assertNotNull(camelContext.getRoute("packet-notify"));
+		assertEquals(0, both.reload());
+		assertEquals(1, both.getReloads());
+	}
+
+	/**
+	 * Sends a message every few millis through the bridge, and changes the route
+	 * in the middle. No message is lost, the messages after the reload go
+	 * through the new route, and the latency before, across and after the reload
+	 * is printed.
+	 */
+	@Test
+	public void reloadUnderTrafficTest() throws Exception {
+		int messages = 300;
+		int reloadAt = 100;
+		Map<Integer, Long> sent = new ConcurrentHashMap<>();
+		Map<Integer, Long> latencies = new ConcurrentHashMap<>();
+		List<String> received = new ArrayList<>();
+		CompletableFuture<Integer> reloaded = new CompletableFuture<>();
+		long reloadStart = 0;
+
+		for (int i = 0; i < messages; i++) {
+			if (i == reloadAt) {
+				writeRoutes("v2", true);
+				reloadStart = System.nanoTime();
+				new Thread(() -> reloaded.complete(repository.reload())).start();
+			}
+			sent.put(i, System.nanoTime());
+			vertx.eventBus().send(IN, String.valueOf(i));
+			Thread.sleep(2);
+			drain(sent, latencies, received);
+		}
+		assertEquals(Integer.valueOf(1), reloaded.get(30, TimeUnit.SECONDS));
+		long reloadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - reloadStart);
+		while (received.size() < messages) {
+			String reply = replies.poll(10, TimeUnit.SECONDS);
+			assertNotNull("a message was lost, " + received.size() + " received", reply);
+			record(reply, sent, latencies, received);
+		}
+
+		assertEquals(messages, latencies.size());
+		// the messages still queued when the route is replaced go through the new one
+		int switched = 0;
+		while (switched < messages && received.get(switched).startsWith("v1:"))
+			switched++;
+		assertTrue(switched > 0);
+		assertTrue(received.subList(switched, messages).stream().allMatch(reply -> reply.startsWith("v2:")));
+		vertx.eventBus().send(IN, "last");
+		assertEquals("v2:last", replies.poll(10, TimeUnit.SECONDS));
+		assertEquals(2, repository.getReloads());
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(), "",
+				String.format(
+						"route reload took at most %d ms; latency before %s, across %s, after %s (median/max ms)",
+						reloadMillis, latency(latencies, 0, reloadAt), latency(latencies, reloadAt, reloadAt + 50),
+						latency(latencies, reloadAt + 50, messages)));
+	}
+
+	private void drain(Map<Integer, Long> sent, Map<Integer, Long> latencies, List<String> received) {
+		String reply;
+		while ((reply = replies.poll()) != null)
+			record(reply, sent, latencies, received);
+	}
+
+	private static void record(String reply, Map<Integer, Long> sent, Map<Integer, Long> latencies,
+			List<String> received) {
+		int index = Integer.parseInt(reply.substring(reply.indexOf(':') + 1));
+		latencies.put(index, System.nanoTime() - sent.get(index));
+		received.add(reply);
+	}
+
+	private static String latency(Map<Integer, Long> latencies, int from, int to) {
+		List<Long> window = new ArrayList<>();
+		for (int i = from; i < to; i++)
+			window.add(latencies.get(i));
+		Collections.sort(window);
+		return TimeUnit.NANOSECONDS.toMillis(window.get(window.size() / 2)) + "/"
+				+ TimeUnit.NANOSECONDS.toMillis(window.get(window.size() - 1));
+	}
+
+	private void writeRoutes(String version, boolean withAudit) throws Exception {
+		StringBuilder xml = new StringBuilder("<routes xmlns=\"http://camel.apache.org/schema/spring\">\n");
+		xml.append("\t<route id=\"packet-flow\">\n")
+				.append("\t\t<from uri=\"activemq:queue:packet-in\"/>\n")
+				.append("\t\t<transform><simple>" + version + ":${body}</simple></transform>\n")
+				.append("\t\t<to uri=\"activemq:queue:packet-out\"/>\n")
+				.append("\t</route>\n");
+		if (withAudit)
+			xml.append("\t<route id=\"packet-audit\">\n")
+					.append("\t\t<from uri=\"direct:packet-audit\"/>\n")
+					.append("\t\t<to uri=\"log:packet-audit\"/>\n")
+					.append("\t</route>\n");
+		xml.append("\t<route streamCache=\"false\">\n")
+				.append("\t\t<from uri=\"direct:packet-status\"/>\n")
+				.append("\t\t<to uri=\"log:packet-status\"/>\n")
+				.append("\t</route>\n")
+				.append("</routes>\n");
+		Files.write(routes.resolve(ROUTE_FILE), xml.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+}
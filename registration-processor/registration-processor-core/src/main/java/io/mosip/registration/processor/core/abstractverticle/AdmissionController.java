@@ -0,0 +1,196 @@
+package io.mosip.registration.processor.core.abstractverticle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.eventbus.MessageConsumer;
+
+/**
+ * Bounds the messages of an event bus consumer handed to the worker pool of a
+ * stage, if a max in flight is set.
+ * <p>
+ * A received message is admitted and counted in flight until its processing
+ * ends. Once the max in flight is reached, the consumer is paused, so the
+ * following messages wait in the consumer buffer, of bounded size, instead of
+ * piling up in the worker queue; the consumer is resumed as soon as a message
+ * ends. The messages dropped because the consumer buffer was full are counted.
+ * The messages in flight, the messages waiting for a worker, the time they
+ * waited and the messages dropped are exposed as metrics.
+ */
+public class AdmissionController {
+
+	private final String address;
+
+	private final int maxInFlight;
+
+	private MessageConsumer<?> consumer;
+
+	private boolean paused;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final AtomicInteger peakInFlight = new AtomicInteger();
+
+	private final AtomicLong admitted = new AtomicLong();
+
+	private final AtomicLong completed = new AtomicLong();
+
+	private final AtomicLong pauses = new AtomicLong();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final AtomicLong waitNanos = new AtomicLong();
+
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	/**
+	 * Instantiates a new admission controller.
+	 *
+	 * @param address
+	 *            the address consumed
+	 * @param maxInFlight
+	 *            the max messages in flight, 0 to never pause the consumer
+	 */
+	public AdmissionController(String address, int maxInFlight) {
+		this.address = address;
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Sets the consumer paused and resumed by this controller.
+	 *
+	 * @param consumer
+	 *            the consumer
+	 */
+	public synchronized void attach(MessageConsumer<?> consumer) {
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Admits a received message, pausing the consumer if the max in flight is
+	 * reached.
+	 *
+	 * @return the time of the admission, to be passed to {@link #started(long)}
+	 */
+	public long admit() {
+		int current = inFlight.incrementAndGet();
+		queued.incrementAndGet();
+		admitted.incrementAndGet();
+		peakInFlight.accumulateAndGet(current, Math::max);
+		if (maxInFlight > 0 && current >= maxInFlight)
+			pause();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records that a worker started processing an admitted message.
+	 *
+	 * @param admittedAt
+	 *            the time of the admission
+	 */
+	public void started(long admittedAt) {
+		queued.decrementAndGet();
+		long nanos = System.nanoTime() - admittedAt;
+		waitNanos.addAndGet(nanos);
+		maxWaitNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * Releases a message whose processing ended, resuming the consumer if it
+	 * was paused.
+	 */
+	public void release() {
+		completed.incrementAndGet();
+		if (inFlight.decrementAndGet() < maxInFlight)
+			resume();
+	}
+
+	/**
+	 * Records a message dropped because the buffer of the paused consumer was
+	 * full.
+	 *
+	 * @return the messages dropped so far
+	 */
+	public long dropped() {
+		return dropped.incrementAndGet();
+	}
+
+	private synchronized void pause() {
+		if (!paused && consumer != null && inFlight.get() >= maxInFlight) {
+			consumer.pause();
+			paused = true;
+			pauses.incrementAndGet();
+		}
+	}
+
+	private synchronized void resume() {
+		if (paused && inFlight.get() < maxInFlight) {
+			// cleared first, the buffered messages resumed may pause the consumer again
+			paused = false;
+			consumer.resume();
+		}
+	}
+
+	public String getAddress() {
+		return address;
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Gets the queue depth: the messages admitted and waiting for a worker.
+	 *
+	 * @return the queue depth
+	 */
+	public int getQueueDepth() {
+		return queued.get();
+	}
+
+	public int getPeakInFlight() {
+		return peakInFlight.get();
+	}
+
+	public long getAdmitted() {
+		return admitted.get();
+	}
+
+	public long getCompleted() {
+		return completed.get();
+	}
+
+	public long getPauses() {
+		return pauses.get();
+	}
+
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	public synchronized boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Gets the mean time a message waited for a worker.
+	 *
+	 * @return the mean wait in millis
+	 */
+	public double getMeanWaitMillis() {
+		long started = admitted.get() - queued.get();
+		return started <= 0 ? 0 : waitNanos.get() / (double) started / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public double getMaxWaitMillis() {
+		return maxWaitNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+}
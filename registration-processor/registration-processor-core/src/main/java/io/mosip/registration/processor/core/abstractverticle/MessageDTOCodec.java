@@ -0,0 +1,139 @@
+package io.mosip.registration.processor.core.abstractverticle;
+
+import java.nio.charset.StandardCharsets;
+
+import io.mosip.registration.processor.core.constant.RegistrationType;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * Compact binary event bus codec for {@link MessageDTO}, used instead of the
+ * Jackson based JsonObject mapping between stages.
+ *
+ * Wire format: int length of the rest of the record, one schema version byte,
+ * then the fields in declaration order. Strings are an int byte length (-1 for
+ * null) followed by UTF-8 bytes, booleans are a byte (-1 null, 0 false, 1
+ * true) and the retry count is a presence byte followed by an int. Fields
+ * added by a later schema version are appended, and skipped by older readers
+ * through the record length.
+ */
+public class MessageDTOCodec implements MessageCodec<MessageDTO, MessageDTO> {
+
+	/** The codec name used in delivery options. */
+	public static final String NAME = "mosip-message-dto";
+
+	/** The schema version written by this codec. */
+	public static final byte SCHEMA_VERSION = 1;
+
+	private static final byte NULL = -1;
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.vertx.core.eventbus.MessageCodec#encodeToWire(io.vertx.core.buffer.
+	 * Buffer, java.lang.Object)
+	 */
+	@Override
+	public void encodeToWire(Buffer buffer, MessageDTO message) {
+		int lengthPos = buffer.length();
+		buffer.appendInt(0);
+		buffer.appendByte(SCHEMA_VERSION);
+		appendString(buffer, message.getReg_type() == null ? null : message.getReg_type().name());
+		appendString(buffer, message.getRid());
+		appendBoolean(buffer, message.getIsValid());
+		appendBoolean(buffer, message.getInternalError());
+		appendString(buffer,
+				message.getMessageBusAddress() == null ? null : message.getMessageBusAddress().getAddress());
+		if (message.getRetryCount() == null) {
+			buffer.appendByte(NULL);
+		} else {
+			buffer.appendByte((byte) 1);
+			buffer.appendInt(message.getRetryCount());
+		}
+		buffer.setInt(lengthPos, buffer.length() - lengthPos - 4);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.vertx.core.eventbus.MessageCodec#decodeFromWire(int,
+	 * io.vertx.core.buffer.Buffer)
+	 */
+	@Override
+	public MessageDTO decodeFromWire(int pos, Buffer buffer) {
+		int[] cursor = { pos + 4 };
+		byte version = buffer.getByte(cursor[0]++);
+		if (version < 1)
+			throw new IllegalStateException("Unsupported MessageDTO schema version " + version);
+		MessageDTO message = new MessageDTO();
+		String regType = readString(buffer, cursor);
+		message.setReg_type(regType == null ? null : RegistrationType.valueOf(regType));
+		message.setRid(readString(buffer, cursor));
+		message.setIsValid(readBoolean(buffer, cursor));
+		message.setInternalError(readBoolean(buffer, cursor));
+		String address = readString(buffer, cursor);
+		message.setMessageBusAddress(address == null ? null : new MessageBusAddress(address));
+		if (buffer.getByte(cursor[0]++) != NULL) {
+			message.setRetryCount(buffer.getInt(cursor[0]));
+		}
+		return message;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.vertx.core.eventbus.MessageCodec#transform(java.lang.Object)
+	 */
+	@Override
+	public MessageDTO transform(MessageDTO message) {
+		MessageDTO copy = new MessageDTO();
+		copy.setReg_type(message.getReg_type());
+		copy.setRid(message.getRid());
+		copy.setIsValid(message.getIsValid());
+		copy.setInternalError(message.getInternalError());
+		copy.setMessageBusAddress(message.getMessageBusAddress() == null ? null
+				: new MessageBusAddress(message.getMessageBusAddress().getAddress()));
+		copy.setRetryCount(message.getRetryCount());
+		return copy;
+	}
+
+	@Override
+	public String name() {
+		return NAME;
+	}
+
+	@Override
+	public byte systemCodecID() {
+		return -1;
+	}
+
+	private static void appendString(Buffer buffer, String value) {
+		if (value == null) {
+			buffer.appendInt(-1);
+		} else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			buffer.appendInt(bytes.length);
+			buffer.appendBytes(bytes);
+		}
+	}
+
+	private static void appendBoolean(Buffer buffer, Boolean value) {
+		buffer.appendByte(value == null ? NULL : (byte) (value ? 1 : 0));
+	}
+
+	private static String readString(Buffer buffer, int[] cursor) {
+		int length = buffer.getInt(cursor[0]);
+		cursor[0] += 4;
+		if (length < 0)
+			return null;
+		String value = buffer.getString(cursor[0], cursor[0] + length, StandardCharsets.UTF_8.name());
+		cursor[0] += length;
+		return value;
+	}
+
+	private static Boolean readBoolean(Buffer buffer, int[] cursor) {
+		byte value = buffer.getByte(cursor[0]++);
+		return value == NULL ? null : value == 1;
+	}
+
+}
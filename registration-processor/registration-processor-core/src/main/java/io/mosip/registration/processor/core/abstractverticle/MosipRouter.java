@@ -73,6 +73,25 @@ public class MosipRouter {
 				.blockingHandler(requestHandler2, false).failureHandler(failureHandler);
 	}
 
+	/**
+	 * this method is used to handle a request whose body is read by the upload
+	 * handler instead of the body handler of the router. The route is ordered
+	 * ahead of the body handler and the request is paused until the token is
+	 * validated; the upload handler resumes it and calls the request handlers
+	 * once the body is read.
+	 *
+	 * @param uploadHandler
+	 * @param requestHandler
+	 * @param requestHandler2
+	 * @param failureHandler
+	 */
+	public void streamingHandler(Handler<RoutingContext> uploadHandler, Handler<RoutingContext> requestHandler,
+			Handler<RoutingContext> requestHandler2, Handler<RoutingContext> failureHandler) {
+		this.route.order(-1).handler(this::pauseRequest).blockingHandler(this::validateToken)
+				.handler(uploadHandler).blockingHandler(requestHandler, false).blockingHandler(requestHandler2, false)
+				.failureHandler(failureHandler);
+	}
+
 	/**
 	 * this method is used to handle request only
 	 * 
@@ -93,6 +112,17 @@ public class MosipRouter {
 		return this.route;
 	}
 
+	/**
+	 * This method pauses the request so that no part of the body is lost while
+	 * the token is validated on a worker thread
+	 * 
+	 * @param routingContext
+	 */
+	private void pauseRequest(RoutingContext routingContext) {
+		routingContext.request().pause();
+		routingContext.next();
+	}
+
 	/**
 	 * This method is used for validating token
 	 * 
@@ -23,6 +23,9 @@ import io.vertx.ext.web.handler.BodyHandler;
  */
 public abstract class MosipVerticleAPIManager extends MosipVerticleManager {
 
+	/** Gson is thread safe, one instance serializes all signed responses. */
+	private static final Gson GSON = new GsonBuilder().serializeNulls().create();
+
 	@Value("${registration.processor.signature.isEnabled}")
 	Boolean isEnabled;
 
@@ -150,12 +153,11 @@ public abstract class MosipVerticleAPIManager extends MosipVerticleManager {
 	 */
 	public void setResponseWithDigitalSignature(RoutingContext ctx, Object object, String contentType) {
 		HttpServerResponse response = ctx.response();
-	Gson gson=new GsonBuilder().serializeNulls().create();
+		String body = GSON.toJson(object);
 		if (isEnabled)
-			response.putHeader("Response-Signature",
-					digitalSignatureUtility.getDigitalSignature(gson.toJson(object)));
+			response.putHeader("Response-Signature", digitalSignatureUtility.getDigitalSignature(body));
 		response.putHeader("content-type", contentType).putHeader("Access-Control-Allow-Origin", "*")
 				.putHeader("Access-Control-Allow-Methods", "GET, POST").setStatusCode(200)
-				.end(gson.toJson(object));
+				.end(body);
 	}
 }
\ No newline at end of file
@@ -3,7 +3,9 @@ package io.mosip.registration.processor.core.abstractverticle;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -19,7 +21,10 @@ import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Verticle;
 import io.vertx.core.Vertx;
 import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBusOptions;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.impl.HandlerRegistration;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
@@ -44,6 +49,28 @@ public abstract class MosipVerticleManager extends AbstractVerticle
 
 	@Value("${eventbus.port}")
 	private String eventBusPort;
+
+	/** The event bus codec of sent messages, json or binary. */
+	@Value("${eventbus.message.codec:json}")
+	private String messageCodec;
+
+	private static final int DEFAULT_MAX_BUFFERED = 1000;
+
+	/**
+	 * The max messages of a consumer handed to the workers at once, 0 for no
+	 * admission control. A paused consumer drops the messages overflowing its
+	 * buffer, and in a cluster still gets its share of the sends, so it is only
+	 * set for a stage whose dropped messages are left to the reprocessor.
+	 */
+	@Value("${eventbus.consumer.max.in.flight:0}")
+	private int maxInFlight;
+
+	/** The max messages buffered by a consumer paused by its admission controller. */
+	@Value("${eventbus.consumer.max.buffered:1000}")
+	private int maxBuffered;
+
+	/** The admission controllers of the consumers, by address. */
+	private final Map<String, AdmissionController> admissionControllers = new ConcurrentHashMap<>();
 	
 	/* (non-Javadoc)
 	 * @see io.mosip.registration.processor.core.spi.eventbus.EventBusManager#getEventBus(java.lang.Class, java.lang.String)
@@ -63,24 +90,14 @@ public abstract class MosipVerticleManager extends AbstractVerticle
 	public MosipEventBus getEventBus(Object verticleName, String clusterManagerUrl, int instanceNumber) {
 		CompletableFuture<Vertx> eventBus = new CompletableFuture<>();
 		MosipEventBus mosipEventBus = null;
-		Config config;
-		try {
-			config = new UrlXmlConfig(clusterManagerUrl);
-		} catch (IOException e1) {
-			throw new DeploymentFailureException(PlatformErrorMessages.RPR_CMB_MALFORMED_URL_EXCEPTION.getMessage());
-		}
-		ClusterManager clusterManager = new HazelcastClusterManager(config);
-		String address = null;
-		try {
-			address = InetAddress.getLocalHost().getHostAddress();
-		} catch (UnknownHostException e1) {
-			throw new DeploymentFailureException(PlatformErrorMessages.RPR_CMB_MALFORMED_URL_EXCEPTION.getMessage());
-		}
+		ClusterManager clusterManager = new HazelcastClusterManager(getClusterConfig(clusterManagerUrl));
+		String address = getEventBusHost();
 		VertxOptions options = new VertxOptions().setClustered(true).setClusterManager(clusterManager)
 				.setHAEnabled(false).setWorkerPoolSize(instanceNumber)
 				.setEventBusOptions(new EventBusOptions().setPort(getEventBusPort()).setHost(address));
 		Vertx.clusteredVertx(options, result -> {
 			if (result.succeeded()) {
+				result.result().eventBus().registerCodec(new MessageDTOCodec());
 				result.result().deployVerticle((Verticle) verticleName,
 						new DeploymentOptions().setHa(false).setWorker(true).setWorkerPoolSize(instanceNumber));
 				eventBus.complete(result.result());
@@ -100,6 +117,34 @@ public abstract class MosipVerticleManager extends AbstractVerticle
 		return mosipEventBus;
 	}
 
+	/**
+	 * Gets the hazelcast config of the cluster.
+	 *
+	 * @param clusterManagerUrl
+	 *            the url of the hazelcast xml config
+	 * @return the config
+	 */
+	protected Config getClusterConfig(String clusterManagerUrl) {
+		try {
+			return new UrlXmlConfig(clusterManagerUrl);
+		} catch (IOException e1) {
+			throw new DeploymentFailureException(PlatformErrorMessages.RPR_CMB_MALFORMED_URL_EXCEPTION.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the host the event bus of this node listens on.
+	 *
+	 * @return the address of the local host
+	 */
+	protected String getEventBusHost() {
+		try {
+			return InetAddress.getLocalHost().getHostAddress();
+		} catch (UnknownHostException e1) {
+			throw new DeploymentFailureException(PlatformErrorMessages.RPR_CMB_MALFORMED_URL_EXCEPTION.getMessage());
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -110,15 +155,19 @@ public abstract class MosipVerticleManager extends AbstractVerticle
 	public void consumeAndSend(MosipEventBus mosipEventBus, MessageBusAddress fromAddress,
 			MessageBusAddress toAddress) {
 		Vertx vertx = mosipEventBus.getEventbus();
-		vertx.eventBus().consumer(fromAddress.getAddress(), msg -> {
+		AdmissionController admissionController = getAdmissionController(fromAddress);
+		MessageConsumer<Object> consumer = createConsumer(vertx, fromAddress, admissionController);
+		consumer.handler(msg -> {
 			logger.debug("received from " + fromAddress.toString() + msg.body());
+			long admittedAt = admissionController.admit();
 			vertx.executeBlocking(future -> {
-				JsonObject jsonObject = (JsonObject) msg.body();
-				MessageDTO messageDTO = jsonObject.mapTo(MessageDTO.class);
+				admissionController.started(admittedAt);
+				MessageDTO messageDTO = toMessageDTO(msg.body());
 				MessageDTO result = process(messageDTO);
 				future.complete();
 				send(mosipEventBus, toAddress, result);
 			}, false, res -> {
+				admissionController.release();
 				if (!res.succeeded()) {
 					logger.error("failure " + res.cause());
 				}
@@ -126,6 +175,48 @@ public abstract class MosipVerticleManager extends AbstractVerticle
 		});
 	}
 
+	/**
+	 * Gets the admission controller of the consumer of an address, which bounds
+	 * the messages handed to the workers if the max in flight is set, and
+	 * exposes the queue depth and wait time of the stage.
+	 *
+	 * @param fromAddress
+	 *            the address consumed
+	 * @return the admission controller
+	 */
+	public AdmissionController getAdmissionController(MessageBusAddress fromAddress) {
+		return admissionControllers.computeIfAbsent(fromAddress.getAddress(),
+				address -> new AdmissionController(address, Math.max(maxInFlight, 0)));
+	}
+
+	/**
+	 * Creates a consumer paused and resumed by its admission controller, if
+	 * the max in flight is set. The messages received while paused are
+	 * buffered up to the max buffered, the following ones are dropped by Vert.x
+	 * and left to the reprocessor; each drop is counted by the admission
+	 * controller and logged.
+	 */
+	@SuppressWarnings("unchecked")
+	private MessageConsumer<Object> createConsumer(Vertx vertx, MessageBusAddress fromAddress,
+			AdmissionController admissionController) {
+		MessageConsumer<Object> consumer = vertx.eventBus().consumer(fromAddress.getAddress());
+		if (admissionController.getMaxInFlight() > 0) {
+			consumer.setMaxBufferedMessages(maxBuffered > 0 ? maxBuffered : DEFAULT_MAX_BUFFERED);
+			// the drops are only seen through the consumer implementation, checked by the tests
+			if (consumer instanceof HandlerRegistration)
+				((HandlerRegistration<Object>) consumer).discardHandler(message -> {
+					long dropped = admissionController.dropped();
+					logger.warn("dropped from " + fromAddress.toString() + ", consumer buffer full, " + dropped
+							+ " dropped so far, rid " + toMessageDTO(message.body()).getRid());
+				});
+			else
+				logger.warn("dropped messages of " + fromAddress.toString() + " not counted, consumer "
+						+ consumer.getClass().getName());
+		}
+		admissionController.attach(consumer);
+		return consumer;
+	}
+
 	/**
 	 * Send.
 	 *
@@ -139,9 +230,34 @@ public abstract class MosipVerticleManager extends AbstractVerticle
 	public void send(MosipEventBus mosipEventBus, MessageBusAddress toAddress, MessageDTO message) {
 		Vertx vertx = mosipEventBus.getEventbus();
 		MessageBusAddress messageBusAddress = new MessageBusAddress(toAddress, message.getReg_type());
-		JsonObject jsonObject = JsonObject.mapFrom(message);
-		vertx.eventBus().send(messageBusAddress.getAddress(), jsonObject);
-		logger.debug("sent to " + toAddress.toString() + " message " + jsonObject);
+		if (isBinaryCodec()) {
+			vertx.eventBus().send(messageBusAddress.getAddress(), message,
+					new DeliveryOptions().setCodecName(MessageDTOCodec.NAME));
+			logger.debug("sent to " + toAddress.toString() + " message " + message);
+		} else {
+			JsonObject jsonObject = JsonObject.mapFrom(message);
+			vertx.eventBus().send(messageBusAddress.getAddress(), jsonObject);
+			logger.debug("sent to " + toAddress.toString() + " message " + jsonObject);
+		}
+	}
+
+	/**
+	 * Converts a received event bus body to a message dto. Both the json and the
+	 * binary codec payloads are accepted so stages sending either format can
+	 * run in the same cluster.
+	 *
+	 * @param body
+	 *            the received message body
+	 * @return the message dto
+	 */
+	protected MessageDTO toMessageDTO(Object body) {
+		if (body instanceof MessageDTO)
+			return (MessageDTO) body;
+		return ((JsonObject) body).mapTo(MessageDTO.class);
+	}
+
+	private boolean isBinaryCodec() {
+		return "binary".equalsIgnoreCase(messageCodec);
 	}
 
 	/**
@@ -154,14 +270,18 @@ public abstract class MosipVerticleManager extends AbstractVerticle
 	 */
 	public void consume(MosipEventBus mosipEventBus, MessageBusAddress fromAddress) {
 		Vertx vertx = mosipEventBus.getEventbus();
-		vertx.eventBus().consumer(fromAddress.getAddress(), message -> {
+		AdmissionController admissionController = getAdmissionController(fromAddress);
+		MessageConsumer<Object> consumer = createConsumer(vertx, fromAddress, admissionController);
+		consumer.handler(message -> {
 			logger.debug("received from " + fromAddress.toString() + " message " + message.body());
+			long admittedAt = admissionController.admit();
 			vertx.executeBlocking(future -> {
-				JsonObject jsonObject = (JsonObject) message.body();
-				MessageDTO messageDTO = jsonObject.mapTo(MessageDTO.class);
+				admissionController.started(admittedAt);
+				MessageDTO messageDTO = toMessageDTO(message.body());
 				process(messageDTO);
 				future.complete();
 			}, false, res -> {
+				admissionController.release();
 				if (!res.succeeded()) {
 					logger.error("failure " + res.cause());
 				}
@@ -1,11 +1,17 @@
 package io.mosip.registration.processor.core.config;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
@@ -15,6 +21,8 @@ import org.springframework.core.env.Environment;
 import io.mosip.kernel.core.exception.ExceptionUtils;
 import io.mosip.kernel.core.logger.spi.Logger;
 import io.mosip.registration.processor.core.abstractverticle.MosipRouter;
+import io.mosip.registration.processor.core.digital.signature.JcaResponseSigner;
+import io.mosip.registration.processor.core.digital.signature.ResponseSigner;
 import io.mosip.registration.processor.core.logger.LogDescription;
 import io.mosip.registration.processor.core.logger.RegProcessorLogger;
 import io.mosip.registration.processor.core.queue.factory.MosipQueueConnectionFactoryImpl;
@@ -127,8 +135,9 @@ public class CoreConfigBean {
 	}
 
 	@Bean
-	MosipQueueManager<?, ?> getMosipQueueManager() {
-		return new MosipActiveMqImpl();
+	MosipQueueManager<?, ?> getMosipQueueManager(Environment env) {
+		return new MosipActiveMqImpl(
+				env.getProperty("registration.processor.queue.producers-per-address", Integer.class, 4));
 	}
 
 	@Bean
@@ -151,6 +160,22 @@ public class CoreConfigBean {
 		return new DigitalSignatureUtility();
 	}
 
+	@Bean
+	@ConditionalOnProperty(name = "registration.processor.signature.local.keystore-path")
+	public ResponseSigner getResponseSigner(Environment env) throws GeneralSecurityException, IOException {
+		char[] password = env.getProperty("registration.processor.signature.local.keystore-password", "")
+				.toCharArray();
+		KeyStore keyStore = KeyStore
+				.getInstance(env.getProperty("registration.processor.signature.local.keystore-type", "PKCS12"));
+		try (InputStream in = new FileInputStream(
+				env.getProperty("registration.processor.signature.local.keystore-path"))) {
+			keyStore.load(in, password);
+		}
+		return JcaResponseSigner.fromKeyStore(keyStore,
+				env.getProperty("registration.processor.signature.local.alias"), password,
+				env.getProperty("registration.processor.signature.local.algorithm"));
+	}
+
 	@Bean
 	public LogDescription getLogDescription() {
 		return new LogDescription();
@@ -0,0 +1,99 @@
+package io.mosip.registration.processor.core.digital.signature;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+
+import io.mosip.registration.processor.core.util.exception.DigitalSignatureException;
+
+/**
+ * {@link ResponseSigner} backed by a JCA private key. RSA keys are signed with
+ * SHA256withRSA and EC keys with SHA256withECDSA unless an algorithm is given.
+ * A {@link Signature} instance is kept per thread, since it is not thread safe
+ * and costly to look up on every response.
+ */
+public class JcaResponseSigner implements ResponseSigner {
+
+	private final PrivateKey privateKey;
+
+	private final String algorithm;
+
+	private final ThreadLocal<Signature> signatures;
+
+	/**
+	 * Instantiates a new jca response signer.
+	 *
+	 * @param privateKey
+	 *            the signing key
+	 * @param algorithm
+	 *            the signature algorithm, or null to derive it from the key
+	 */
+	public JcaResponseSigner(PrivateKey privateKey, String algorithm) {
+		this.privateKey = privateKey;
+		this.algorithm = algorithm != null ? algorithm : defaultAlgorithm(privateKey);
+		this.signatures = ThreadLocal.withInitial(this::newSignature);
+	}
+
+	/**
+	 * Loads the signing key from a key store.
+	 *
+	 * @param keyStore
+	 *            the loaded key store
+	 * @param alias
+	 *            the private key alias
+	 * @param password
+	 *            the key password
+	 * @param algorithm
+	 *            the signature algorithm, or null to derive it from the key
+	 * @return the jca response signer
+	 * @throws GeneralSecurityException
+	 *             if the key can not be read
+	 */
+	public static JcaResponseSigner fromKeyStore(KeyStore keyStore, String alias, char[] password,
+			String algorithm) throws GeneralSecurityException {
+		Key key = keyStore.getKey(alias, password);
+		if (!(key instanceof PrivateKey))
+			throw new GeneralSecurityException("No private key found for alias " + alias);
+		return new JcaResponseSigner((PrivateKey) key, algorithm);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * io.mosip.registration.processor.core.digital.signature.ResponseSigner#sign(
+	 * java.lang.String)
+	 */
+	@Override
+	public String sign(String data) {
+		try {
+			Signature signature = signatures.get();
+			signature.initSign(privateKey);
+			signature.update(data.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(signature.sign());
+		} catch (GeneralSecurityException e) {
+			throw new DigitalSignatureException(e.getMessage(), e);
+		}
+	}
+
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	private Signature newSignature() {
+		try {
+			return Signature.getInstance(algorithm);
+		} catch (GeneralSecurityException e) {
+			throw new DigitalSignatureException(e.getMessage(), e);
+		}
+	}
+
+	private static String defaultAlgorithm(PrivateKey privateKey) {
+		return "EC".equals(privateKey.getAlgorithm()) ? "SHA256withECDSA" : "SHA256withRSA";
+	}
+
+}
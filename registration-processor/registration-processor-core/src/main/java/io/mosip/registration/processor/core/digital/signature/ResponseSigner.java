@@ -0,0 +1,18 @@
+package io.mosip.registration.processor.core.digital.signature;
+
+/**
+ * Signs response payloads locally, in place of the key manager sign api call
+ * made by {@link io.mosip.registration.processor.core.util.DigitalSignatureUtility}.
+ */
+public interface ResponseSigner {
+
+	/**
+	 * Signs the data.
+	 *
+	 * @param data
+	 *            the serialized response
+	 * @return the base64 encoded signature
+	 */
+	public String sign(String data);
+
+}
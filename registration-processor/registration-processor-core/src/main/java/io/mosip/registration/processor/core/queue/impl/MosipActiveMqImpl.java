@@ -15,6 +15,13 @@ import org.apache.activemq.ActiveMQConnection;
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.commons.lang.exception.ExceptionUtils;
 
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.Destination;
@@ -43,12 +50,48 @@ public class MosipActiveMqImpl implements MosipQueueManager<MosipQueue, byte[]>
     private Destination destination;
     private static final String LINE_SEPERATOR = "----------------";
 
+    private static final int DEFAULT_PRODUCERS_PER_ADDRESS = 4;
+    private static final long PRODUCER_WAIT_SECONDS = 30;
+
+    /** The max producers created per queue address. */
+    private final int producersPerAddress;
+
+    /**
+     * The connection generation, incremented when the connection is replaced.
+     * The connection, the generation and the producer counts are guarded by
+     * this instance, so a reconnect never races a producer creation.
+     */
+    private int generation;
+
+    /**
+     * Producer pools per queue address. Each producer owns its session, as a
+     * JMS session must not be used by more than one thread at a time.
+     */
+    private final Map<String, ProducerPool> producers = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new mosip active mq impl with the default producers per
+     * address.
+     */
+    public MosipActiveMqImpl() {
+        this(DEFAULT_PRODUCERS_PER_ADDRESS);
+    }
+
+    /**
+     * Instantiates a new mosip active mq impl.
+     *
+     * @param producersPerAddress the max producers created per queue address
+     */
+    public MosipActiveMqImpl(int producersPerAddress) {
+        this.producersPerAddress = producersPerAddress > 0 ? producersPerAddress : DEFAULT_PRODUCERS_PER_ADDRESS;
+    }
+
     /**
      * The method to set up session and destination
      *
      * @param mosipActiveMq The Mosip ActiveMq instance
      */
-    private void setup(MosipActiveMq mosipActiveMq) {
+    private synchronized void setup(MosipActiveMq mosipActiveMq) {
         regProcLogger.debug(LINE_SEPERATOR, LINE_SEPERATOR, "In ActiveMq setUp ", LINE_SEPERATOR);
         try {
             ActiveMQConnection activemQConn = (ActiveMQConnection) connection;
@@ -57,6 +100,7 @@ public class MosipActiveMqImpl implements MosipQueueManager<MosipQueue, byte[]>
                         LINE_SEPERATOR + this.connection);
                 regProcLogger.debug(LINE_SEPERATOR, LINE_SEPERATOR, "-----INITIAL SESSION-----",
                         LINE_SEPERATOR + this.session);
+                closeProducers();
                 connection = mosipActiveMq.getActiveMQConnectionFactory().createConnection();
                 activemQConn = (ActiveMQConnection) connection;
                 activemQConn.addTransportListener(new TransportExceptionListener());
@@ -93,14 +137,16 @@ public class MosipActiveMqImpl implements MosipQueueManager<MosipQueue, byte[]>
 
         boolean flag = false;
         initialSetup(mosipQueue);
+        QueueProducer queueProducer = null;
         try {
-            destination = session.createQueue(address);
-            MessageProducer messageProducer = session.createProducer(destination);
-            BytesMessage byteMessage = session.createBytesMessage();
+            queueProducer = borrowProducer(address);
+            BytesMessage byteMessage = queueProducer.session.createBytesMessage();
             byteMessage.writeObject(message);
-            messageProducer.send(byteMessage);
+            queueProducer.producer.send(byteMessage);
             flag = true;
         } catch (JMSException e) {
+            discardProducer(queueProducer);
+            queueProducer = null;
             regProcLogger.error("*******SEND EXCEPTION *****", "*******SEND EXCEPTION *****",
                     "*******SEND EXCEPTION *****", ExceptionUtils.getFullStackTrace(e));
             regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
@@ -108,6 +154,8 @@ public class MosipActiveMqImpl implements MosipQueueManager<MosipQueue, byte[]>
                             + PlatformErrorMessages.RPR_MQI_UNABLE_TO_SEND_TO_QUEUE.getMessage());
             throw new ConnectionUnavailableException(
                     PlatformErrorMessages.RPR_MQI_UNABLE_TO_SEND_TO_QUEUE.getMessage());
+        } finally {
+            returnProducer(queueProducer);
         }
         regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(),
                 "", "MosipActiveMqImpl::send()::exit");
@@ -119,14 +167,16 @@ public class MosipActiveMqImpl implements MosipQueueManager<MosipQueue, byte[]>
     public Boolean send(MosipQueue mosipQueue, String message, String address) {
         boolean flag = false;
         initialSetup(mosipQueue);
+        QueueProducer queueProducer = null;
         try {
-            destination = session.createQueue(address);
-            MessageProducer messageProducer = session.createProducer(destination);
-            TextMessage textMessage = session.createTextMessage();
+            queueProducer = borrowProducer(address);
+            TextMessage textMessage = queueProducer.session.createTextMessage();
             textMessage.setText(message);
-            messageProducer.send(textMessage);
+            queueProducer.producer.send(textMessage);
             flag = true;
         } catch (JMSException e) {
+            discardProducer(queueProducer);
+            queueProducer = null;
             regProcLogger.error("*******SEND EXCEPTION *****", "*******SEND EXCEPTION *****",
                     "*******SEND EXCEPTION *****", ExceptionUtils.getFullStackTrace(e));
             regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
@@ -134,6 +184,8 @@ public class MosipActiveMqImpl implements MosipQueueManager<MosipQueue, byte[]>
                             + PlatformErrorMessages.RPR_MQI_UNABLE_TO_SEND_TO_QUEUE.getMessage());
             throw new ConnectionUnavailableException(
                     PlatformErrorMessages.RPR_MQI_UNABLE_TO_SEND_TO_QUEUE.getMessage());
+        } finally {
+            returnProducer(queueProducer);
         }
         regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(),
                 "", "MosipActiveMqImpl::send()::exit");
@@ -202,4 +254,156 @@ public class MosipActiveMqImpl implements MosipQueueManager<MosipQueue, byte[]>
         setup(mosipActiveMq);
     }
 
+    /**
+     * Borrows an idle producer of the address, or creates one. At most the max
+     * producers of an address are borrowed at once; a sender finding them all
+     * borrowed waits until one is returned or discarded.
+     *
+     * @param address the queue address
+     * @return the queue producer, to be returned or discarded
+     * @throws JMSException if the producer cannot be created, or none is
+     *                      returned in time
+     */
+    private QueueProducer borrowProducer(String address) throws JMSException {
+        ProducerPool pool = producers.computeIfAbsent(address, key -> new ProducerPool(producersPerAddress));
+        try {
+            if (!pool.permits.tryAcquire(PRODUCER_WAIT_SECONDS, TimeUnit.SECONDS))
+                throw new JMSException("No producer available for " + address);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JMSException("Interrupted waiting for a producer for " + address);
+        }
+        try {
+            QueueProducer queueProducer = pool.idle.poll();
+            if (queueProducer != null)
+                return queueProducer;
+            synchronized (this) {
+                Session producerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                try {
+                    MessageProducer producer = producerSession.createProducer(producerSession.createQueue(address));
+                    pool.created++;
+                    return new QueueProducer(pool, generation, producerSession, producer);
+                } catch (JMSException e) {
+                    producerSession.close();
+                    throw e;
+                }
+            }
+        } catch (JMSException | RuntimeException e) {
+            pool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a producer to its pool, or closes it if the connection it was
+     * created on has been replaced.
+     *
+     * @param queueProducer the producer, may be null
+     */
+    private void returnProducer(QueueProducer queueProducer) {
+        if (queueProducer == null)
+            return;
+        boolean current;
+        synchronized (this) {
+            current = queueProducer.generation == generation;
+            if (current)
+                queueProducer.pool.idle.offer(queueProducer);
+        }
+        if (!current)
+            queueProducer.close();
+        queueProducer.pool.permits.release();
+    }
+
+    /**
+     * Closes a failed producer so that the next send creates a new one.
+     *
+     * @param queueProducer the failed producer, may be null
+     */
+    private void discardProducer(QueueProducer queueProducer) {
+        if (queueProducer == null)
+            return;
+        synchronized (this) {
+            if (queueProducer.generation == generation)
+                queueProducer.pool.created--;
+        }
+        queueProducer.close();
+        queueProducer.pool.permits.release();
+    }
+
+    /**
+     * Closes the idle producers, called when the connection is replaced. The
+     * producers borrowed at that time are closed when returned.
+     */
+    private synchronized void closeProducers() {
+        generation++;
+        for (ProducerPool pool : producers.values()) {
+            QueueProducer queueProducer;
+            while ((queueProducer = pool.idle.poll()) != null)
+                queueProducer.close();
+            pool.created = 0;
+        }
+    }
+
+    /**
+     * Gets the number of producers of the current connection.
+     *
+     * @return the producer count
+     */
+    public synchronized int getProducerCount() {
+        return producers.values().stream().mapToInt(pool -> pool.created).sum();
+    }
+
+    /**
+     * Gets the number of producers of the current connection for an address.
+     *
+     * @param address the queue address
+     * @return the producer count
+     */
+    public synchronized int getProducerCount(String address) {
+        ProducerPool pool = producers.get(address);
+        return pool == null ? 0 : pool.created;
+    }
+
+    /**
+     * The idle producers of one queue address, the count of producers created
+     * for it on the current connection, and the permits bounding the producers
+     * borrowed at once. A permit is released whenever a producer is returned or
+     * discarded, so a waiting sender takes the idle producer or creates one.
+     */
+    private static class ProducerPool {
+        private final BlockingQueue<QueueProducer> idle = new LinkedBlockingQueue<>();
+        private final Semaphore permits;
+        private int created;
+
+        private ProducerPool(int producersPerAddress) {
+            this.permits = new Semaphore(producersPerAddress);
+        }
+    }
+
+    /**
+     * A session and the producer created on it for one queue address.
+     */
+    private static class QueueProducer {
+        private final ProducerPool pool;
+        private final int generation;
+        private final Session session;
+        private final MessageProducer producer;
+
+        private QueueProducer(ProducerPool pool, int generation, Session session, MessageProducer producer) {
+            this.pool = pool;
+            this.generation = generation;
+            this.session = session;
+            this.producer = producer;
+        }
+
+        private void close() {
+            try {
+                session.close();
+            } catch (JMSException e) {
+                regProcLogger.error(LINE_SEPERATOR, LINE_SEPERATOR, "-----EXCEPTION While closing producer -----",
+                        LINE_SEPERATOR + ExceptionUtils.getFullStackTrace(e));
+            }
+        }
+    }
+
 }
@@ -47,6 +47,23 @@ public interface FileManager<D, F> {
 	 */
 	public void put(String fileName, F file, D workingDirectory) throws IOException;
 
+	/**
+	 * stores the sidecar of a file next to it, so that the copies of the file
+	 * are verified without reading it again.
+	 *
+	 * @param fileName
+	 *            the file name
+	 * @param digest
+	 *            the hex SHA-256 digest of the file
+	 * @param size
+	 *            the size of the file
+	 * @param workingDirectory
+	 *            working directory
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public void putSidecar(String fileName, String digest, long size, D workingDirectory) throws IOException;
+
 	/**
 	 * Check if file exists.
 	 *
@@ -1,10 +1,20 @@
 package io.mosip.registration.processor.core.util;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
@@ -14,6 +24,7 @@ import io.mosip.kernel.core.logger.spi.Logger;
 import io.mosip.kernel.core.util.DateUtils;
 import io.mosip.registration.processor.core.code.ApiName;
 import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.digital.signature.ResponseSigner;
 import io.mosip.registration.processor.core.digital.signature.dto.SignRequestDto;
 import io.mosip.registration.processor.core.digital.signature.dto.SignResponseDto;
 import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
@@ -38,6 +49,25 @@ public class DigitalSignatureUtility {
 	@Autowired
 	ObjectMapper mapper;
 
+	/** The local signer, used instead of the key manager sign api when present. */
+	@Autowired(required = false)
+	private ResponseSigner responseSigner;
+
+	/** The number of signatures kept for repeated payloads, 0 disables the cache. */
+	@Value("${registration.processor.signature.cache.size:1000}")
+	private int cacheSize;
+
+	/**
+	 * The seconds a cached signature is served for. Bounds how long signatures
+	 * made with a key are returned after the key manager rotates it.
+	 */
+	@Value("${registration.processor.signature.cache.ttl-seconds:300}")
+	private long cacheTtlSeconds;
+
+	private static final long DEFAULT_CACHE_TTL_SECONDS = 300;
+
+	private volatile Map<String, CachedSignature> signatureCache;
+
 	private static final String DIGITAL_SIGNATURE_ID = "mosip.registration.processor.digital.signature.id";
 	private static final String DATETIME_PATTERN = "mosip.registration.processor.datetime.pattern";
 	private static final String REG_PROC_APPLICATION_VERSION = "mosip.registration.processor.application.version";
@@ -46,6 +76,17 @@ public class DigitalSignatureUtility {
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
 				"DigitalSignatureUtility::getDigitalSignature()::entry");
 
+		if (cacheSize <= 0)
+			return sign(data);
+		CachedSignature cached = getSignatureCache().computeIfAbsent(contentHash(data), key -> new CachedSignature());
+		return cached.get(() -> sign(data),
+				TimeUnit.SECONDS.toNanos(cacheTtlSeconds > 0 ? cacheTtlSeconds : DEFAULT_CACHE_TTL_SECONDS));
+	}
+
+	private String sign(String data) {
+		if (responseSigner != null)
+			return responseSigner.sign(data);
+
 		SignRequestDto dto=new SignRequestDto();
 		dto.setData(data);
 		RequestWrapper<SignRequestDto> request=new RequestWrapper<>();
@@ -81,5 +122,52 @@ public class DigitalSignatureUtility {
 		}
 
 	}
+
+	private Map<String, CachedSignature> getSignatureCache() {
+		if (signatureCache == null) {
+			synchronized (this) {
+				if (signatureCache == null)
+					signatureCache = Collections.synchronizedMap(new LinkedHashMap<String, CachedSignature>(16, 0.75f, true) {
+						private static final long serialVersionUID = 1L;
+
+						@Override
+						protected boolean removeEldestEntry(Map.Entry<String, CachedSignature> eldest) {
+							return size() > cacheSize;
+						}
+					});
+			}
+		}
+		return signatureCache;
+	}
+
+	/**
+	 * The signature of one payload. The cache map lock is only held to look the
+	 * entry up, signing happens under the entry lock, so concurrent misses for a
+	 * payload sign it once and other payloads are not held up meanwhile.
+	 */
+	private static class CachedSignature {
+
+		private String signature;
+
+		private long signedAt;
+
+		synchronized String get(Supplier<String> signer, long ttlNanos) {
+			if (signature == null || System.nanoTime() - signedAt >= ttlNanos) {
+				signature = signer.get();
+				signedAt = System.nanoTime();
+			}
+			return signature;
+		}
+
+	}
+
+	private static String contentHash(String data) {
+		try {
+			return Base64.getEncoder()
+					.encodeToString(MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new DigitalSignatureException(e.getMessage(), e);
+		}
+	}
 }
 
@@ -0,0 +1,286 @@
+package io.mosip.registration.processor.abstractverticle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.abstractverticle.AdmissionController;
+import io.mosip.registration.processor.core.abstractverticle.MessageBusAddress;
+import io.mosip.registration.processor.core.abstractverticle.MessageDTO;
+import io.mosip.registration.processor.core.abstractverticle.MosipEventBus;
+import io.mosip.registration.processor.core.abstractverticle.MosipVerticleManager;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.impl.HandlerRegistration;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Checks the admission of the consumed messages, and floods a local stage
+ * slower than its producer to check the heap it retains stays bounded.
+ */
+public class AdmissionControllerTest {
+
+	private static final int MAX_IN_FLIGHT = 8;
+
+	private static final int MAX_BUFFERED = 100;
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(AdmissionControllerTest.class);
+
+	private Vertx vertx;
+
+	@Before
+	public void setup() {
+		vertx = Vertx.vertx();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		CompletableFuture<Void> closed = new CompletableFuture<>();
+		vertx.close(result -> closed.complete(null));
+		closed.get(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void pauseAndResumeTest() {
+		MessageConsumer<?> consumer = Mockito.mock(MessageConsumer.class);
+		AdmissionController admissionController = new AdmissionController("packet-validator-bus-in", 2);
+		admissionController.attach(consumer);
+
+		long first = admissionController.admit();
+		admissionController.admit();
+		Mockito.verify(consumer).pause();
+		assertTrue(admissionController.isPaused());
+		assertEquals(2, admissionController.getQueueDepth());
+
+		admissionController.started(first);
+		assertEquals(1, admissionController.getQueueDepth());
+		admissionController.release();
+		Mockito.verify(consumer).resume();
+		assertFalse(admissionController.isPaused());
+		assertEquals(1, admissionController.getInFlight());
+		assertEquals(1, admissionController.getCompleted());
+		assertEquals(1, admissionController.getPauses());
+		assertEquals(2, admissionController.getPeakInFlight());
+	}
+
+	@Test
+	public void noPauseWithoutMaxInFlightTest() {
+		MessageConsumer<?> consumer = Mockito.mock(MessageConsumer.class);
+		AdmissionController admissionController = new AdmissionController("packet-validator-bus-in", 0);
+		admissionController.attach(consumer);
+
+		for (int i = 0; i < 3; i++)
+			admissionController.admit();
+		admissionController.release();
+
+		Mockito.verify(consumer, Mockito.never()).pause();
+		assertFalse(admissionController.isPaused());
+		assertEquals(2, admissionController.getInFlight());
+	}
+
+	@Test
+	public void noAdmissionControlWithoutMaxInFlightTest() {
+		MosipVerticleManager stage = new SlowStage(0);
+		ReflectionTestUtils.setField(stage, "maxInFlight", 0);
+
+		assertEquals(0, stage.getAdmissionController(MessageBusAddress.PACKET_VALIDATOR_BUS_IN).getMaxInFlight());
+	}
+
+	/**
+	 * The dropped messages are counted through the consumer implementation of
+	 * Vert.x, so a Vert.x upgrade changing it fails here.
+	 */
+	@Test
+	public void consumerImplementationTest() {
+		MessageConsumer<Object> consumer = vertx.eventBus().consumer(MessageBusAddress.PACKET_VALIDATOR_BUS_IN.getAddress());
+
+		assertTrue(consumer.getClass().getName(), consumer instanceof HandlerRegistration);
+		consumer.unregister();
+	}
+
+	@Test
+	public void admissionControllerPerAddressTest() {
+		SlowStage stage = new SlowStage(0);
+
+		AdmissionController admissionController = stage.getAdmissionController(MessageBusAddress.PACKET_VALIDATOR_BUS_IN);
+
+		assertSame(admissionController, stage.getAdmissionController(MessageBusAddress.PACKET_VALIDATOR_BUS_IN));
+		assertEquals(MAX_IN_FLIGHT, admissionController.getMaxInFlight());
+		assertEquals("packet-validator-bus-in", admissionController.getAddress());
+	}
+
+	/**
+	 * Sends 20000 messages of 16 KB to a stage taking 1 ms per message, keeping
+	 * the consumer buffer full. The messages in flight never exceed the max,
+	 * none is dropped, and the heap retained during the flood stays a fraction
+	 * of what was sent.
+	 */
+	@Test
+	public void floodTest() throws Exception {
+		int messages = 20000;
+		SlowStage stage = new SlowStage(1);
+		CompletableFuture<String> deployed = new CompletableFuture<>();
+		vertx.deployVerticle(stage, result -> deployed.complete(result.result()));
+		deployed.get(10, TimeUnit.SECONDS);
+		AdmissionController admissionController = stage.getAdmissionController(MessageBusAddress.PACKET_VALIDATOR_BUS_IN);
+		String payload = StringUtils.repeat('x', 16 * 1024);
+
+		long baseline = usedHeap();
+		long peak = 0;
+		for (int i = 0; i < messages; i++) {
+			// the producer stays at most a buffer ahead of the admitted messages
+			while (i - admissionController.getAdmitted() >= MAX_BUFFERED)
+				Thread.sleep(1);
+			MessageDTO messageDTO = new MessageDTO();
+			messageDTO.setRid(i + payload);
+			messageDTO.setMessageBusAddress(MessageBusAddress.PACKET_VALIDATOR_BUS_IN);
+			vertx.eventBus().send(MessageBusAddress.PACKET_VALIDATOR_BUS_IN.getAddress(),
+					JsonObject.mapFrom(messageDTO));
+			if (i % 500 == 499) {
+				// the messages sent so far have reached the consumer
+				awaitContext(stage.getContext());
+				if (i % 5000 == 4999)
+					peak = Math.max(peak, usedHeap());
+				assertTrue(admissionController.getInFlight() <= MAX_IN_FLIGHT);
+			}
+		}
+		// the messages in flight and still buffered are processed
+		for (int i = 0; i < 200; i++) {
+			awaitContext(stage.getContext());
+			if (admissionController.getInFlight() == 0 && !admissionController.isPaused())
+				break;
+			Thread.sleep(50);
+		}
+
+		long sentBytes = (long) messages * payload.length();
+		long retained = peak - baseline;
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(),
+				admissionController.getAddress(), String.format(
+						"%d MB sent, %d MB retained at peak; %d of %d messages processed, %d pauses, mean wait %.2f ms, max wait %.2f ms",
+						sentBytes >> 20, retained >> 20, stage.getProcessed(), messages,
+						admissionController.getPauses(), admissionController.getMeanWaitMillis(),
+						admissionController.getMaxWaitMillis()));
+		assertTrue(admissionController.getPeakInFlight() <= MAX_IN_FLIGHT);
+		assertTrue(admissionController.getPauses() > 0);
+		assertTrue(retained < sentBytes / 8);
+		assertEquals(0, admissionController.getDropped());
+		assertEquals(messages, admissionController.getAdmitted());
+		assertEquals(admissionController.getAdmitted(), admissionController.getCompleted());
+		assertEquals(messages, stage.getProcessed());
+	}
+
+	/**
+	 * Sends a burst of 2000 messages of 16 KB the stage cannot buffer, without
+	 * waiting for the stage. Every message is either processed or counted as
+	 * dropped, and the heap retained once the burst is received stays a
+	 * fraction of what was sent.
+	 */
+	@Test
+	public void droppedMessagesCountedTest() throws Exception {
+		int messages = 2000;
+		SlowStage stage = new SlowStage(1);
+		CompletableFuture<String> deployed = new CompletableFuture<>();
+		vertx.deployVerticle(stage, result -> deployed.complete(result.result()));
+		deployed.get(10, TimeUnit.SECONDS);
+		AdmissionController admissionController = stage.getAdmissionController(MessageBusAddress.PACKET_VALIDATOR_BUS_IN);
+		String payload = StringUtils.repeat('x', 16 * 1024);
+
+		long baseline = usedHeap();
+		for (int i = 0; i < messages; i++) {
+			MessageDTO messageDTO = new MessageDTO();
+			messageDTO.setRid(i + payload);
+			messageDTO.setMessageBusAddress(MessageBusAddress.PACKET_VALIDATOR_BUS_IN);
+			vertx.eventBus().send(MessageBusAddress.PACKET_VALIDATOR_BUS_IN.getAddress(),
+					JsonObject.mapFrom(messageDTO));
+		}
+		// the whole burst has reached the consumer, buffered or dropped
+		awaitContext(stage.getContext());
+		long retained = usedHeap() - baseline;
+		for (int i = 0; i < 200; i++) {
+			awaitContext(stage.getContext());
+			if (admissionController.getAdmitted() + admissionController.getDropped() == messages
+					&& admissionController.getInFlight() == 0)
+				break;
+			Thread.sleep(50);
+		}
+
+		long sentBytes = (long) messages * payload.length();
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(),
+				admissionController.getAddress(), String.format("%d MB sent, %d MB retained; %d processed, %d dropped",
+						sentBytes >> 20, retained >> 20, stage.getProcessed(), admissionController.getDropped()));
+		assertTrue(admissionController.getDropped() > 0);
+		assertEquals(messages, stage.getProcessed() + admissionController.getDropped());
+		assertTrue(retained < sentBytes / 8);
+	}
+
+	private static void awaitContext(Context context) throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		context.runOnContext(v -> latch.countDown());
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+	}
+
+	private static long usedHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * A stage taking a fixed time per message.
+	 */
+	private static class SlowStage extends MosipVerticleManager {
+
+		private final long millis;
+
+		private final AtomicInteger processed = new AtomicInteger();
+
+		SlowStage(long millis) {
+			this.millis = millis;
+			ReflectionTestUtils.setField(this, "maxInFlight", MAX_IN_FLIGHT);
+			ReflectionTestUtils.setField(this, "maxBuffered", MAX_BUFFERED);
+		}
+
+		@Override
+		public void start() {
+			consume(new MosipEventBus(vertx), MessageBusAddress.PACKET_VALIDATOR_BUS_IN);
+		}
+
+		@Override
+		public MessageDTO process(MessageDTO object) {
+			try {
+				Thread.sleep(millis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			processed.incrementAndGet();
+			return object;
+		}
+
+		Context getContext() {
+			return context;
+		}
+
+		int getProcessed() {
+			return processed.get();
+		}
+
+	}
+
+}
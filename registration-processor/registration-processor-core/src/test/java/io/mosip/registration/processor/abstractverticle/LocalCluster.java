@@ -0,0 +1,334 @@
+package io.mosip.registration.processor.abstractverticle;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.MultiMapConfig;
+import com.hazelcast.config.NetworkConfig;
+
+import io.mosip.registration.processor.core.abstractverticle.MessageBusAddress;
+import io.mosip.registration.processor.core.abstractverticle.MessageDTO;
+import io.mosip.registration.processor.core.abstractverticle.MosipEventBus;
+import io.mosip.registration.processor.core.abstractverticle.MosipVerticleManager;
+import io.mosip.registration.processor.core.constant.RegistrationType;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Clustered stages started in one JVM, each on its own Vert.x node, joined in
+ * a Hazelcast cluster over loopback TCP-IP only, built in code instead of read
+ * from the config server.
+ * <p>
+ * Stage i consumes the i-th address of {@link #STAGES} and sends to the next
+ * one, through {@link MosipVerticleManager#consumeAndSend}; the last stage
+ * sends to {@link #SINK}, consumed on the first node. The time of every hop,
+ * from the send of a message to its processing by the next stage, is
+ * recorded.
+ */
+public class LocalCluster {
+
+	/** The addresses of the stages, in the order of a new packet. */
+	public static final List<MessageBusAddress> STAGES = Collections.unmodifiableList(Arrays.asList(
+			MessageBusAddress.PACKET_VALIDATOR_BUS_IN, MessageBusAddress.OSI_BUS_IN,
+			MessageBusAddress.DEMO_DEDUPE_BUS_IN, MessageBusAddress.BIO_DEDUPE_BUS_IN,
+			MessageBusAddress.QUALITY_CHECKER_BUS_IN, MessageBusAddress.ABIS_HANDLER_BUS_IN,
+			MessageBusAddress.UIN_GENERATION_BUS_IN, MessageBusAddress.PRINTING_BUS));
+
+	public static final MessageBusAddress SINK = MessageBusAddress.MESSAGE_SENDER_BUS;
+
+	private static final String LOOPBACK = "127.0.0.1";
+
+	private static final String WARMUP = "warmup";
+
+	private final String clusterName = "regproc-local-" + UUID.randomUUID();
+
+	private final String codec;
+
+	private final List<Integer> ports = new ArrayList<>();
+
+	private final List<MosipEventBus> nodes = new ArrayList<>();
+
+	private LocalStage first;
+
+	private final Map<String, Long> lastSent = new ConcurrentHashMap<>();
+
+	private final ConcurrentLinkedQueue<Long> hops = new ConcurrentLinkedQueue<>();
+
+	private volatile CountDownLatch delivered = new CountDownLatch(0);
+
+	private volatile CountDownLatch warmedUp = new CountDownLatch(0);
+
+	/**
+	 * Instantiates a new local cluster.
+	 *
+	 * @param codec
+	 *            the event bus codec of the stages, json or binary
+	 */
+	public LocalCluster(String codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * Starts the nodes, one stage per node, and waits until a message goes
+	 * through every stage.
+	 *
+	 * @param size
+	 *            the number of nodes, at most the number of stages
+	 * @throws Exception
+	 *             if the cluster does not form
+	 */
+	public void start(int size) throws Exception {
+		if (size < 1 || size > STAGES.size())
+			throw new IllegalArgumentException("between 1 and " + STAGES.size() + " nodes");
+		for (int i = 0; i < size; i++)
+			ports.add(freePort());
+		for (int i = 0; i < size; i++) {
+			MessageBusAddress to = i + 1 < size ? STAGES.get(i + 1) : SINK;
+			LocalStage stage = new LocalStage(i, STAGES.get(i), to);
+			ReflectionTestUtils.setField(stage, "messageCodec", codec);
+			nodes.add(stage.getEventBus(stage, null));
+			if (i == 0)
+				first = stage;
+		}
+		nodes.get(0).getEventbus().eventBus().consumer(SINK.getAddress(), message -> {
+			String rid = rid(message.body());
+			if (rid.startsWith(WARMUP)) {
+				warmedUp.countDown();
+			} else {
+				record(rid);
+				delivered.countDown();
+			}
+		});
+
+		// the consumers of the other nodes are known once a message goes through
+		for (int attempt = 0; attempt < 300; attempt++) {
+			warmedUp = new CountDownLatch(1);
+			send(WARMUP + attempt);
+			if (warmedUp.await(100, TimeUnit.MILLISECONDS))
+				return;
+		}
+		throw new IllegalStateException("the cluster of " + size + " nodes did not form");
+	}
+
+	/**
+	 * Sends messages through every stage, and waits for all of them.
+	 *
+	 * @param messages
+	 *            the number of messages
+	 * @param timeoutSeconds
+	 *            the time to wait for the messages
+	 * @return the hop latencies and the throughput
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	public Report run(int messages, long timeoutSeconds) throws InterruptedException {
+		hops.clear();
+		delivered = new CountDownLatch(messages);
+		long start = System.nanoTime();
+		for (int i = 0; i < messages; i++)
+			send("1000" + i);
+		boolean complete = delivered.await(timeoutSeconds, TimeUnit.SECONDS);
+		long nanos = System.nanoTime() - start;
+		return new Report(nodes.size(), messages - (int) delivered.getCount(), complete, nanos,
+				new ArrayList<>(hops));
+	}
+
+	/**
+	 * Closes every node.
+	 */
+	public void stop() {
+		List<CompletableFuture<Void>> closed = new ArrayList<>();
+		for (MosipEventBus node : nodes) {
+			CompletableFuture<Void> future = new CompletableFuture<>();
+			node.getEventbus().close(result -> future.complete(null));
+			closed.add(future);
+		}
+		CompletableFuture.allOf(closed.toArray(new CompletableFuture[0])).join();
+		nodes.clear();
+	}
+
+	public int size() {
+		return nodes.size();
+	}
+
+	private void send(String rid) {
+		MessageDTO messageDTO = new MessageDTO();
+		messageDTO.setRid(rid);
+		messageDTO.setReg_type(RegistrationType.NEW);
+		messageDTO.setRetryCount(0);
+		messageDTO.setIsValid(true);
+		messageDTO.setInternalError(false);
+		messageDTO.setMessageBusAddress(STAGES.get(0));
+		lastSent.put(rid, System.nanoTime());
+		first.send(nodes.get(0), STAGES.get(0), messageDTO);
+	}
+
+	private void record(String rid) {
+		if (rid.startsWith(WARMUP))
+			return;
+		Long sent = lastSent.put(rid, System.nanoTime());
+		if (sent != null)
+			hops.add(System.nanoTime() - sent);
+	}
+
+	private String rid(Object body) {
+		return body instanceof MessageDTO ? ((MessageDTO) body).getRid() : ((JsonObject) body).getString("rid");
+	}
+
+	/**
+	 * Builds the hazelcast config of a node: a cluster of its own name, joined
+	 * over TCP-IP on the loopback interface, on the ports picked for the nodes.
+	 */
+	private Config clusterConfig(int node) {
+		Config config = new Config();
+		config.setInstanceName(clusterName + "-" + node);
+		config.getGroupConfig().setName(clusterName);
+		config.setProperty("hazelcast.logging.type", "none");
+		config.setProperty("hazelcast.phone.home.enabled", "false");
+		config.setProperty("hazelcast.shutdownhook.enabled", "false");
+		config.setProperty("hazelcast.wait.seconds.before.join", "0");
+		config.setProperty("hazelcast.socket.bind.any", "false");
+		config.getMultiMapConfig("__vertx.subs").setBackupCount(1)
+				.setValueCollectionType(MultiMapConfig.ValueCollectionType.SET);
+
+		NetworkConfig network = config.getNetworkConfig();
+		network.setPort(ports.get(node)).setPortAutoIncrement(false);
+		network.getInterfaces().setEnabled(true).addInterface(LOOPBACK);
+		JoinConfig join = network.getJoin();
+		join.getMulticastConfig().setEnabled(false);
+		join.getAwsConfig().setEnabled(false);
+		join.getTcpIpConfig().setEnabled(true).setConnectionTimeoutSeconds(1);
+		for (int port : ports)
+			join.getTcpIpConfig().addMember(LOOPBACK + ":" + port);
+		return config;
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	/**
+	 * A stage passing its messages on, on a node of the local cluster.
+	 */
+	private class LocalStage extends MosipVerticleManager {
+
+		private final int node;
+
+		private final MessageBusAddress from;
+
+		private final MessageBusAddress to;
+
+		LocalStage(int node, MessageBusAddress from, MessageBusAddress to) {
+			this.node = node;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public void start() {
+			consumeAndSend(new MosipEventBus(vertx), from, to);
+		}
+
+		@Override
+		public MessageDTO process(MessageDTO object) {
+			record(object.getRid());
+			return object;
+		}
+
+		@Override
+		protected Config getClusterConfig(String clusterManagerUrl) {
+			return clusterConfig(node);
+		}
+
+		@Override
+		protected String getEventBusHost() {
+			return LOOPBACK;
+		}
+
+		@Override
+		public Integer getEventBusPort() {
+			return 0;
+		}
+
+	}
+
+	/**
+	 * The hop latencies and the throughput of a run.
+	 */
+	public static class Report {
+
+		private final int nodes;
+
+		private final int delivered;
+
+		private final boolean complete;
+
+		private final long nanos;
+
+		private final long[] hops;
+
+		Report(int nodes, int delivered, boolean complete, long nanos, List<Long> hops) {
+			this.nodes = nodes;
+			this.delivered = delivered;
+			this.complete = complete;
+			this.nanos = nanos;
+			this.hops = hops.stream().mapToLong(Long::longValue).sorted().toArray();
+		}
+
+		public int getDelivered() {
+			return delivered;
+		}
+
+		public boolean isComplete() {
+			return complete;
+		}
+
+		public int getHops() {
+			return hops.length;
+		}
+
+		/**
+		 * Gets a percentile of the hop latencies.
+		 *
+		 * @param percentile
+		 *            the percentile, from 0 to 100
+		 * @return the latency in millis
+		 */
+		public double getHopMillis(double percentile) {
+			if (hops.length == 0)
+				return 0;
+			int index = (int) Math.ceil(percentile / 100 * hops.length) - 1;
+			return hops[Math.max(0, Math.min(index, hops.length - 1))] / 1_000_000d;
+		}
+
+		public double getMessagesPerSecond() {
+			return delivered / (nanos / 1_000_000_000d);
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+					"%d nodes: %d messages, %d hops, hop p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms, %.0f messages/s",
+					nodes, delivered, hops.length, getHopMillis(50), getHopMillis(90), getHopMillis(99),
+					getHopMillis(100), getMessagesPerSecond());
+		}
+
+	}
+
+}
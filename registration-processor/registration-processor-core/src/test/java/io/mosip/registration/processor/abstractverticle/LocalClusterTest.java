@@ -0,0 +1,85 @@
+package io.mosip.registration.processor.abstractverticle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+
+/**
+ * Routes messages through stages clustered in this JVM. The comparison of the
+ * hop latency and throughput across cluster sizes only runs when its node
+ * counts are set with -Dcluster.benchmark.nodes=1,2,4,8; the number of
+ * messages can be set with -Dcluster.benchmark.messages.
+ */
+public class LocalClusterTest {
+
+	private static final String BENCHMARK_NODES = System.getProperty("cluster.benchmark.nodes");
+
+	private static final int BENCHMARK_MESSAGES = Integer.getInteger("cluster.benchmark.messages", 1000);
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(LocalClusterTest.class);
+
+	private LocalCluster cluster;
+
+	@After
+	public void tearDown() {
+		if (cluster != null)
+			cluster.stop();
+	}
+
+	@Test
+	public void routeThroughStagesTest() throws Exception {
+		cluster = new LocalCluster("json");
+		cluster.start(3);
+
+		LocalCluster.Report report = cluster.run(50, 30);
+
+		assertTrue(report.isComplete());
+		assertEquals(50, report.getDelivered());
+		assertEquals("each message goes through 3 stages and the sink", 50 * 4, report.getHops());
+	}
+
+	@Test
+	public void routeWithBinaryCodecTest() throws Exception {
+		cluster = new LocalCluster("binary");
+		cluster.start(2);
+
+		LocalCluster.Report report = cluster.run(50, 30);
+
+		assertTrue(report.isComplete());
+		assertEquals(50 * 3, report.getHops());
+	}
+
+	@Test
+	public void clusterSizeBenchmark() throws Exception {
+		Assume.assumeNotNull(BENCHMARK_NODES);
+		List<LocalCluster.Report> reports = new ArrayList<>();
+		for (String codec : new String[] { "json", "binary" }) {
+			for (String nodes : BENCHMARK_NODES.split(",")) {
+				cluster = new LocalCluster(codec);
+				cluster.start(Integer.parseInt(nodes.trim()));
+				// the first run warms the codecs and the connections between the nodes
+				cluster.run(BENCHMARK_MESSAGES / 10, 60);
+				LocalCluster.Report report = cluster.run(BENCHMARK_MESSAGES, 120);
+				cluster.stop();
+				cluster = null;
+
+				assertTrue(report.isComplete());
+				regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(),
+						LoggerFileConstant.APPLICATIONID.toString(), codec, codec + " codec, " + report);
+				reports.add(report);
+			}
+		}
+		assertEquals(BENCHMARK_NODES.split(",").length * 2, reports.size());
+	}
+
+}
@@ -0,0 +1,129 @@
+package io.mosip.registration.processor.abstractverticle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.abstractverticle.MessageBusAddress;
+import io.mosip.registration.processor.core.abstractverticle.MessageDTO;
+import io.mosip.registration.processor.core.abstractverticle.MessageDTOCodec;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.constant.RegistrationType;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+public class MessageDTOCodecTest {
+
+	private static final int ITERATIONS = 100000;
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(MessageDTOCodecTest.class);
+
+	private MessageDTOCodec codec = new MessageDTOCodec();
+
+	private MessageDTO messageDTO;
+
+	@Before
+	public void setup() {
+		messageDTO = new MessageDTO();
+		messageDTO.setRid("10031100110005020190313110030");
+		messageDTO.setRetryCount(2);
+		messageDTO.setMessageBusAddress(MessageBusAddress.PACKET_VALIDATOR_BUS_IN);
+		messageDTO.setIsValid(true);
+		messageDTO.setInternalError(false);
+		messageDTO.setReg_type(RegistrationType.NEW);
+	}
+
+	@Test
+	public void roundTripTest() {
+		Buffer buffer = Buffer.buffer();
+		buffer.appendString("prefix");
+		codec.encodeToWire(buffer, messageDTO);
+
+		MessageDTO decoded = codec.decodeFromWire("prefix".length(), buffer);
+
+		assertMessageEquals(messageDTO, decoded);
+	}
+
+	@Test
+	public void nullFieldsTest() {
+		MessageDTO empty = new MessageDTO();
+		empty.setRid("10031100110005020190313110030");
+		Buffer buffer = Buffer.buffer();
+		codec.encodeToWire(buffer, empty);
+
+		MessageDTO decoded = codec.decodeFromWire(0, buffer);
+
+		assertEquals("10031100110005020190313110030", decoded.getRid());
+		assertNull(decoded.getReg_type());
+		assertNull(decoded.getIsValid());
+		assertNull(decoded.getInternalError());
+		assertNull(decoded.getMessageBusAddress());
+		assertNull(decoded.getRetryCount());
+	}
+
+	@Test
+	public void newerSchemaFieldsSkippedTest() {
+		Buffer buffer = Buffer.buffer();
+		codec.encodeToWire(buffer, messageDTO);
+		buffer.setByte(4, (byte) (MessageDTOCodec.SCHEMA_VERSION + 1));
+		buffer.appendString("appended by a newer stage");
+		buffer.setInt(0, buffer.length() - 4);
+		buffer.appendString("next record");
+
+		MessageDTO decoded = codec.decodeFromWire(0, buffer);
+
+		assertMessageEquals(messageDTO, decoded);
+	}
+
+	@Test
+	public void transformCopyTest() {
+		MessageDTO copy = codec.transform(messageDTO);
+
+		assertMessageEquals(messageDTO, copy);
+		assertTrue(copy != messageDTO);
+		assertTrue(copy.getMessageBusAddress() != messageDTO.getMessageBusAddress());
+	}
+
+	@Test
+	public void binaryAgainstJsonTest() {
+		Buffer binary = Buffer.buffer();
+		codec.encodeToWire(binary, messageDTO);
+		Buffer json = JsonObject.mapFrom(messageDTO).toBuffer();
+		assertTrue(binary.length() < json.length());
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			Buffer buffer = Buffer.buffer();
+			codec.encodeToWire(buffer, messageDTO);
+			codec.decodeFromWire(0, buffer);
+		}
+		long binaryElapsed = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			Buffer buffer = JsonObject.mapFrom(messageDTO).toBuffer();
+			new JsonObject(buffer).mapTo(MessageDTO.class);
+		}
+		long jsonElapsed = System.nanoTime() - start;
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+				messageDTO.getRid(), String.format("MessageDTO binary %d bytes %.0f ns/op, json %d bytes %.0f ns/op",
+				binary.length(), (double) binaryElapsed / ITERATIONS, json.length(),
+				(double) jsonElapsed / ITERATIONS));
+	}
+
+	private void assertMessageEquals(MessageDTO expected, MessageDTO actual) {
+		assertEquals(expected.getRid(), actual.getRid());
+		assertEquals(expected.getReg_type(), actual.getReg_type());
+		assertEquals(expected.getIsValid(), actual.getIsValid());
+		assertEquals(expected.getInternalError(), actual.getInternalError());
+		assertEquals(expected.getMessageBusAddress().getAddress(), actual.getMessageBusAddress().getAddress());
+		assertEquals(expected.getRetryCount(), actual.getRetryCount());
+	}
+
+}
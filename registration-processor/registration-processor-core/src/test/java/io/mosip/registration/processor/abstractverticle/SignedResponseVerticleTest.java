@@ -0,0 +1,166 @@
+package io.mosip.registration.processor.abstractverticle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.ServerSocket;
+import java.security.KeyPairGenerator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.abstractverticle.MessageDTO;
+import io.mosip.registration.processor.core.abstractverticle.MosipVerticleAPIManager;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.digital.signature.JcaResponseSigner;
+import io.mosip.registration.processor.core.digital.signature.ResponseSigner;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.util.DigitalSignatureUtility;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.ext.web.Router;
+
+public class SignedResponseVerticleTest {
+
+	private static final int REQUESTS = 2000;
+
+	private static final int IN_FLIGHT = 16;
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(SignedResponseVerticleTest.class);
+
+	private Vertx vertx;
+
+	private HttpClient client;
+
+	private int port;
+
+	private AtomicInteger signed = new AtomicInteger();
+
+	@Before
+	public void setup() throws Exception {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		JcaResponseSigner signer = new JcaResponseSigner(generator.generateKeyPair().getPrivate(), null);
+		DigitalSignatureUtility utility = new DigitalSignatureUtility();
+		ReflectionTestUtils.setField(utility, "responseSigner", (ResponseSigner) data -> {
+			signed.incrementAndGet();
+			return signer.sign(data);
+		});
+		ReflectionTestUtils.setField(utility, "cacheSize", 1000);
+
+		SignedResponseVerticle verticle = new SignedResponseVerticle(port);
+		ReflectionTestUtils.setField(verticle, "isEnabled", true);
+		ReflectionTestUtils.setField(verticle, "digitalSignatureUtility", utility);
+
+		vertx = Vertx.vertx();
+		CompletableFuture<String> deployed = new CompletableFuture<>();
+		vertx.deployVerticle(verticle, result -> {
+			if (result.succeeded())
+				deployed.complete(result.result());
+			else
+				deployed.completeExceptionally(result.cause());
+		});
+		deployed.get(30, TimeUnit.SECONDS);
+		client = vertx.createHttpClient(
+				new HttpClientOptions().setDefaultPort(port).setKeepAlive(true).setMaxPoolSize(IN_FLIGHT));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		CountDownLatch closed = new CountDownLatch(1);
+		vertx.close(result -> closed.countDown());
+		closed.await(30, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void signedResponseTest() throws Exception {
+		CompletableFuture<String> signature = new CompletableFuture<>();
+		client.getNow("/status/1", response -> signature.complete(response.getHeader("Response-Signature")));
+
+		assertNotNull(signature.get(30, TimeUnit.SECONDS));
+		assertEquals(1, signed.get());
+	}
+
+	@Test
+	public void signedResponseThroughputTest() throws Exception {
+		double repeated = run(i -> "/status/1");
+		assertEquals(1, signed.get());
+
+		double distinct = run(i -> "/status/" + i);
+		assertTrue(signed.get() > REQUESTS / 2);
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(),
+				"", String.format("signed responses/sec : repeated payload %.0f, distinct payload %.0f",
+				repeated, distinct));
+	}
+
+	private double run(IntFunction<String> uri) throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(REQUESTS);
+		AtomicInteger next = new AtomicInteger();
+		long start = System.nanoTime();
+		for (int i = 0; i < IN_FLIGHT; i++)
+			request(uri, next, done);
+		assertTrue(done.await(120, TimeUnit.SECONDS));
+		return REQUESTS / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private void request(IntFunction<String> uri, AtomicInteger next, CountDownLatch done) {
+		int i = next.getAndIncrement();
+		if (i >= REQUESTS)
+			return;
+		client.getNow(uri.apply(i), response -> response.bodyHandler(body -> {
+			done.countDown();
+			request(uri, next, done);
+		}));
+	}
+
+	private static class SignedResponseVerticle extends MosipVerticleAPIManager {
+
+		private final int port;
+
+		SignedResponseVerticle(int port) {
+			this.port = port;
+		}
+
+		@Override
+		public void start(Future<Void> startFuture) {
+			Router router = Router.router(vertx);
+			router.get("/status/:id").handler(ctx -> {
+				Map<String, Object> response = new LinkedHashMap<>();
+				response.put("id", "mosip.registration.status");
+				response.put("registrationId", ctx.pathParam("id"));
+				response.put("status", "PROCESSED");
+				setResponseWithDigitalSignature(ctx, response, "application/json");
+			});
+			vertx.createHttpServer().requestHandler(router::accept).listen(port, result -> {
+				if (result.succeeded())
+					startFuture.complete();
+				else
+					startFuture.fail(result.cause());
+			});
+		}
+
+		@Override
+		public MessageDTO process(MessageDTO object) {
+			return object;
+		}
+
+	}
+
+}
@@ -0,0 +1,128 @@
+package io.mosip.registration.processor.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.registration.processor.core.digital.signature.JcaResponseSigner;
+import io.mosip.registration.processor.core.digital.signature.ResponseSigner;
+
+public class LocalDigitalSignatureTest {
+
+	private static final String DATA = "{\"id\":\"mosip.registration.sync\",\"response\":[{\"registrationId\":\"27847657360002520181210094052\",\"status\":\"SUCCESS\"}]}";
+
+	@Test
+	public void rsaSignatureTest() throws Exception {
+		KeyPair keyPair = keyPair("RSA", 2048);
+		JcaResponseSigner signer = new JcaResponseSigner(keyPair.getPrivate(), null);
+
+		assertEquals("SHA256withRSA", signer.getAlgorithm());
+		assertTrue(verify("SHA256withRSA", keyPair, signer.sign(DATA)));
+	}
+
+	@Test
+	public void ecSignatureTest() throws Exception {
+		KeyPair keyPair = keyPair("EC", 256);
+		JcaResponseSigner signer = new JcaResponseSigner(keyPair.getPrivate(), null);
+
+		assertEquals("SHA256withECDSA", signer.getAlgorithm());
+		assertTrue(verify("SHA256withECDSA", keyPair, signer.sign(DATA)));
+	}
+
+	@Test
+	public void cachedSignatureTest() throws Exception {
+		AtomicInteger signed = new AtomicInteger();
+		ResponseSigner signer = data -> "signature" + signed.incrementAndGet();
+		DigitalSignatureUtility utility = utility(signer, 2);
+
+		String signature = utility.getDigitalSignature(DATA);
+
+		assertEquals(signature, utility.getDigitalSignature(DATA));
+		assertEquals(1, signed.get());
+		utility.getDigitalSignature("a");
+		utility.getDigitalSignature("b");
+		utility.getDigitalSignature(DATA);
+		assertEquals(4, signed.get());
+	}
+
+	@Test
+	public void expiredSignatureTest() throws Exception {
+		AtomicInteger signed = new AtomicInteger();
+		DigitalSignatureUtility utility = utility(data -> "signature" + signed.incrementAndGet(), 2);
+		ReflectionTestUtils.setField(utility, "cacheTtlSeconds", 1L);
+
+		assertEquals("signature1", utility.getDigitalSignature(DATA));
+		Thread.sleep(1100);
+
+		assertEquals("a signature older than the ttl is made again", "signature2", utility.getDigitalSignature(DATA));
+	}
+
+	@Test
+	public void concurrentMissSignedOnceTest() throws Exception {
+		AtomicInteger signed = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		DigitalSignatureUtility utility = utility(data -> {
+			signed.incrementAndGet();
+			try {
+				release.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "signature";
+		}, 10);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++)
+			executor.submit(() -> utility.getDigitalSignature(DATA));
+		Thread.sleep(200);
+		release.countDown();
+		executor.shutdown();
+
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+		assertEquals(1, signed.get());
+	}
+
+	@Test
+	public void cacheDisabledTest() {
+		AtomicInteger signed = new AtomicInteger();
+		DigitalSignatureUtility utility = utility(data -> "signature" + signed.incrementAndGet(), 0);
+
+		utility.getDigitalSignature(DATA);
+		utility.getDigitalSignature(DATA);
+
+		assertEquals(2, signed.get());
+	}
+
+	static DigitalSignatureUtility utility(ResponseSigner signer, int cacheSize) {
+		DigitalSignatureUtility utility = new DigitalSignatureUtility();
+		ReflectionTestUtils.setField(utility, "responseSigner", signer);
+		ReflectionTestUtils.setField(utility, "cacheSize", cacheSize);
+		return utility;
+	}
+
+	static KeyPair keyPair(String algorithm, int keySize) throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+		generator.initialize(keySize);
+		return generator.generateKeyPair();
+	}
+
+	private boolean verify(String algorithm, KeyPair keyPair, String signature) throws Exception {
+		Signature verifier = Signature.getInstance(algorithm);
+		verifier.initVerify(keyPair.getPublic());
+		verifier.update(DATA.getBytes(StandardCharsets.UTF_8));
+		return verifier.verify(Base64.getDecoder().decode(signature));
+	}
+
+}
@@ -0,0 +1,134 @@
+package io.mosip.registration.processor.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.queue.factory.MosipActiveMq;
+import io.mosip.registration.processor.core.queue.factory.MosipQueue;
+import io.mosip.registration.processor.core.queue.impl.MosipActiveMqImpl;
+
+public class MosipActiveMqProducerTest {
+
+	private static final String BROKER_URL = "vm://abis-test?create=false";
+
+	private static final int MESSAGES = 2000;
+
+	private static final int PRODUCERS_PER_ADDRESS = 2;
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(MosipActiveMqProducerTest.class);
+
+	private BrokerService broker;
+
+	private MosipActiveMqImpl mosipActiveMqImpl;
+
+	private MosipQueue mosipQueue;
+
+	@Before
+	public void setup() throws Exception {
+		broker = new BrokerService();
+		broker.setBrokerName("abis-test");
+		broker.setPersistent(false);
+		broker.setUseJmx(false);
+		broker.start();
+		mosipActiveMqImpl = new MosipActiveMqImpl(PRODUCERS_PER_ADDRESS);
+		mosipQueue = new MosipActiveMq("abis1", "admin", "admin", BROKER_URL);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		broker.stop();
+	}
+
+	@Test
+	public void producersPooledPerAddressTest() throws Exception {
+		CountDownLatch received = new CountDownLatch(MESSAGES);
+		Connection consumerConnection = new ActiveMQConnectionFactory(BROKER_URL).createConnection();
+		consumerConnection.start();
+		Session session = consumerConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+		for (String address : new String[] { "abis1-inbound", "abis2-inbound" }) {
+			MessageConsumer consumer = session.createConsumer(session.createQueue(address));
+			consumer.setMessageListener(message -> received.countDown());
+		}
+		int clientsBefore = broker.getBroker().getClients().length;
+
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < MESSAGES; i++) {
+			String address = i % 2 == 0 ? "abis1-inbound" : "abis2-inbound";
+			executor.submit(() -> mosipActiveMqImpl.send(mosipQueue, "message".getBytes(), address));
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+		assertTrue(received.await(60, TimeUnit.SECONDS));
+		long elapsed = System.nanoTime() - start;
+
+		assertTrue(mosipActiveMqImpl.getProducerCount("abis1-inbound") <= PRODUCERS_PER_ADDRESS);
+		assertTrue(mosipActiveMqImpl.getProducerCount("abis2-inbound") <= PRODUCERS_PER_ADDRESS);
+		assertEquals(clientsBefore + 1, broker.getBroker().getClients().length);
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(),
+				"abis1", String.format("%d messages sent : %.0f messages/sec, %d producers", MESSAGES,
+						MESSAGES / (elapsed / 1e9), mosipActiveMqImpl.getProducerCount()));
+		consumerConnection.close();
+	}
+
+	@Test
+	public void textMessageSendTest() throws Exception {
+		assertTrue(mosipActiveMqImpl.send(mosipQueue, "{\"id\":\"mosip.abis.identify\"}", "abis1-outbound"));
+		assertTrue(mosipActiveMqImpl.send(mosipQueue, "{\"id\":\"mosip.abis.insert\"}", "abis1-outbound"));
+		assertEquals(1, mosipActiveMqImpl.getProducerCount());
+	}
+
+	@Test
+	public void discardWakesWaitingSenderTest() throws Exception {
+		MosipActiveMqImpl singleProducer = new MosipActiveMqImpl(1);
+		assertTrue(singleProducer.send(mosipQueue, "{}", "abis1-outbound"));
+		Object borrowed = ReflectionTestUtils.invokeMethod(singleProducer, "borrowProducer", "abis1-outbound");
+
+		CompletableFuture<Boolean> sent = CompletableFuture
+				.supplyAsync(() -> singleProducer.send(mosipQueue, "{}", "abis1-outbound"));
+		Thread.sleep(200);
+		assertFalse("the only producer is borrowed", sent.isDone());
+
+		long start = System.nanoTime();
+		ReflectionTestUtils.invokeMethod(singleProducer, "discardProducer", borrowed);
+
+		assertTrue("the waiting sender creates a producer", sent.get(5, TimeUnit.SECONDS));
+		assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+		assertEquals(1, singleProducer.getProducerCount("abis1-outbound"));
+	}
+
+	@Test
+	public void reconnectReplacesProducersTest() throws Exception {
+		assertTrue(mosipActiveMqImpl.send(mosipQueue, "{}", "abis1-outbound"));
+		int clients = broker.getBroker().getClients().length;
+
+		((Connection) ReflectionTestUtils.getField(mosipActiveMqImpl, "connection")).close();
+
+		assertTrue(mosipActiveMqImpl.send(mosipQueue, "{}", "abis1-outbound"));
+		assertEquals("the producers of the closed connection are not reused", 1,
+				mosipActiveMqImpl.getProducerCount());
+		assertEquals(clients, broker.getBroker().getClients().length);
+	}
+
+}
@@ -233,6 +233,28 @@ public class PacketInfoDao {
 		return demographicInfoDtos;
 	}
 
+	/**
+	 * Gets the demographic info dtos of the registrations sharing a blocking key
+	 * with the given registration in the given language.
+	 *
+	 * @param regId
+	 *            the reg id
+	 * @param langCode
+	 *            the lang code
+	 * @return the demographic info dtos
+	 */
+	public List<DemographicInfoDto> getDemographicInfoDtosByBlockingKeys(String regId, String langCode) {
+		List<DemographicInfoDto> demographicInfoDtos = new ArrayList<>();
+		List<String> blockingKeys = demographicDedupeRepository.getBlockingKeys(regId, langCode);
+		if (blockingKeys.isEmpty())
+			return demographicInfoDtos;
+		for (IndividualDemographicDedupeEntity entity : demographicDedupeRepository
+				.getDemoByBlockingKeys(blockingKeys, langCode, regId)) {
+			demographicInfoDtos.add(convertEntityToDemographicDto(entity));
+		}
+		return demographicInfoDtos;
+	}
+
 	/**
 	 * Gets the reg id by UIN.
 	 *
@@ -0,0 +1,50 @@
+package io.mosip.registration.processor.packet.storage.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Blocking key of an individual, used to narrow down the demographic dedupe
+ * candidates. An individual has one row per key and language; the primary key
+ * starts with the blocking key so that candidates are looked up through its
+ * index, and reg_id is indexed to read the keys of the packet being deduped.
+ */
+@Entity
+@Table(name = "individual_demographic_dedup_key", schema = "regprc", indexes = {
+		@Index(name = "idx_idemdkey_reg_id", columnList = "reg_id") })
+public class IndividualDemographicDedupeKeyEntity extends BasePacketEntity<IndividualDemographicDedupeKeyPKEntity>
+		implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Column(name = "cr_by", nullable = false)
+	private String crBy = "SYSTEM";
+
+	@Column(name = "cr_dtimes", updatable = false)
+	private LocalDateTime crDtimes;
+
+	public IndividualDemographicDedupeKeyEntity() {
+		super();
+	}
+
+	public String getCrBy() {
+		return crBy;
+	}
+
+	public void setCrBy(String crBy) {
+		this.crBy = crBy;
+	}
+
+	public LocalDateTime getCrDtimes() {
+		return crDtimes;
+	}
+
+	public void setCrDtimes(LocalDateTime crDtimes) {
+		this.crDtimes = crDtimes;
+	}
+
+}
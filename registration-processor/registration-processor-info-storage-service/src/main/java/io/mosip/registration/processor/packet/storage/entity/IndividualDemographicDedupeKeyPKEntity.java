@@ -0,0 +1,74 @@
+package io.mosip.registration.processor.packet.storage.entity;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+@Embeddable
+public class IndividualDemographicDedupeKeyPKEntity implements Serializable {
+
+	// default serial version id, required for serializable classes.
+	private static final long serialVersionUID = 1L;
+
+	@Column(name = "blocking_key", nullable = false)
+	private String blockingKey;
+
+	@Column(name = "lang_code", nullable = false)
+	private String langCode;
+
+	@Column(name = "reg_id", nullable = false)
+	private String regId;
+
+	public IndividualDemographicDedupeKeyPKEntity() {
+		super();
+	}
+
+	public String getBlockingKey() {
+		return this.blockingKey;
+	}
+
+	public void setBlockingKey(String blockingKey) {
+		this.blockingKey = blockingKey;
+	}
+
+	public String getLangCode() {
+		return this.langCode;
+	}
+
+	public void setLangCode(String langCode) {
+		this.langCode = langCode;
+	}
+
+	public String getRegId() {
+		return this.regId;
+	}
+
+	public void setRegId(String regId) {
+		this.regId = regId;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof IndividualDemographicDedupeKeyPKEntity)) {
+			return false;
+		}
+		IndividualDemographicDedupeKeyPKEntity castOther = (IndividualDemographicDedupeKeyPKEntity) other;
+		return this.blockingKey.equals(castOther.blockingKey) && this.langCode.equals(castOther.langCode)
+				&& this.regId.equals(castOther.regId);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int hash = 17;
+		hash = hash * prime + this.blockingKey.hashCode();
+		hash = hash * prime + this.langCode.hashCode();
+		hash = hash * prime + this.regId.hashCode();
+
+		return hash;
+	}
+}
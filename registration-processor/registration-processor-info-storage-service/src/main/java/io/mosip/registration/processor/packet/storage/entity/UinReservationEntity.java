@@ -0,0 +1,79 @@
+package io.mosip.registration.processor.packet.storage.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * A UIN fetched ahead of time from the UIN generator. The row is kept while the
+ * UIN is reserved, taken by a registration, or waiting for its status to be
+ * acknowledged to the UIN generator, and removed once acknowledged.
+ */
+@Entity
+@Table(name = "uin_reservation", schema = "regprc")
+public class UinReservationEntity extends BasePacketEntity<UinReservationPKEntity> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Column(name = "status_code", nullable = false)
+	private String statusCode;
+
+	@Column(name = "reg_id")
+	private String regId;
+
+	@Column(name = "cr_by", nullable = false)
+	private String crBy = "SYSTEM";
+
+	@Column(name = "cr_dtimes", updatable = false)
+	private LocalDateTime crDtimes;
+
+	@Column(name = "upd_dtimes")
+	private LocalDateTime updDtimes;
+
+	public UinReservationEntity() {
+		super();
+	}
+
+	public String getStatusCode() {
+		return statusCode;
+	}
+
+	public void setStatusCode(String statusCode) {
+		this.statusCode = statusCode;
+	}
+
+	public String getRegId() {
+		return regId;
+	}
+
+	public void setRegId(String regId) {
+		this.regId = regId;
+	}
+
+	public String getCrBy() {
+		return crBy;
+	}
+
+	public void setCrBy(String crBy) {
+		this.crBy = crBy;
+	}
+
+	public LocalDateTime getCrDtimes() {
+		return crDtimes;
+	}
+
+	public void setCrDtimes(LocalDateTime crDtimes) {
+		this.crDtimes = crDtimes;
+	}
+
+	public LocalDateTime getUpdDtimes() {
+		return updDtimes;
+	}
+
+	public void setUpdDtimes(LocalDateTime updDtimes) {
+		this.updDtimes = updDtimes;
+	}
+
+}
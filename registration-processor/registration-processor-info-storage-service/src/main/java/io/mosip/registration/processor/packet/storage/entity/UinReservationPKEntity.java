@@ -0,0 +1,57 @@
+package io.mosip.registration.processor.packet.storage.entity;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+@Embeddable
+public class UinReservationPKEntity implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Column(name = "uin", nullable = false)
+	private String uin;
+
+	public UinReservationPKEntity() {
+		super();
+	}
+
+	public UinReservationPKEntity(String uin) {
+		this.uin = uin;
+	}
+
+	public String getUin() {
+		return uin;
+	}
+
+	public void setUin(String uin) {
+		this.uin = uin;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((uin == null) ? 0 : uin.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		UinReservationPKEntity other = (UinReservationPKEntity) obj;
+		if (uin == null) {
+			if (other.uin != null)
+				return false;
+		} else if (!uin.equals(other.uin))
+			return false;
+		return true;
+	}
+
+}
@@ -32,6 +32,8 @@ import io.mosip.registration.processor.packet.storage.entity.AbisResponseDetPKEn
 import io.mosip.registration.processor.packet.storage.entity.AbisResponseEntity;
 import io.mosip.registration.processor.packet.storage.entity.AbisResponsePKEntity;
 import io.mosip.registration.processor.packet.storage.entity.IndividualDemographicDedupeEntity;
+import io.mosip.registration.processor.packet.storage.entity.IndividualDemographicDedupeKeyEntity;
+import io.mosip.registration.processor.packet.storage.entity.IndividualDemographicDedupeKeyPKEntity;
 import io.mosip.registration.processor.packet.storage.entity.IndividualDemographicDedupePKEntity;
 import io.mosip.registration.processor.packet.storage.entity.RegAbisRefEntity;
 import io.mosip.registration.processor.packet.storage.entity.RegAbisRefPkEntity;
@@ -40,6 +42,7 @@ import io.mosip.registration.processor.packet.storage.entity.RegBioRefPKEntity;
 import io.mosip.registration.processor.packet.storage.entity.RegDemoDedupeListEntity;
 import io.mosip.registration.processor.packet.storage.entity.RegDemoDedupeListPKEntity;
 import io.mosip.registration.processor.packet.storage.exception.DateParseException;
+import io.mosip.registration.processor.packet.storage.utils.DemographicBlockingKeys;
 
 /**
  * The Class PacketInfoMapper.
@@ -198,6 +201,47 @@ public class PacketInfoMapper {
 		return demogrphicDedupeEntities;
 	}
 
+	/**
+	 * Converts the demographic dedupe dto to its hashed blocking keys, one set per
+	 * language.
+	 *
+	 * @param demoDto
+	 *            the demo dto
+	 * @param regId
+	 *            the reg id
+	 * @return the blocking key entities
+	 */
+	public static List<IndividualDemographicDedupeKeyEntity> convertDemographicDedupeDtoToKeyEntity(
+			IndividualDemographicDedupe demoDto, String regId) {
+		List<IndividualDemographicDedupeKeyEntity> keyEntities = new ArrayList<>();
+		StringBuilder languages = new StringBuilder();
+		if (demoDto.getName() == null || demoDto.getName().isEmpty())
+			return keyEntities;
+		for (JsonValue[] jsonValue : demoDto.getName())
+			getLanguages(jsonValue, languages);
+		String[] languageArray = getLanguages(demoDto.getGender(), languages);
+		for (String language : languageArray) {
+			StringBuilder applicantFullName = new StringBuilder();
+			for (JsonValue[] jsonValue : demoDto.getName()) {
+				String value = getJsonValues(jsonValue, language);
+				if (value != null)
+					applicantFullName.append(value).append(" ");
+			}
+			for (String blockingKey : DemographicBlockingKeys.generate(applicantFullName.toString(),
+					demoDto.getDateOfBirth(), getJsonValues(demoDto.getGender(), language))) {
+				IndividualDemographicDedupeKeyPKEntity pkEntity = new IndividualDemographicDedupeKeyPKEntity();
+				pkEntity.setBlockingKey(getHMACHashCode(blockingKey));
+				pkEntity.setLangCode(language);
+				pkEntity.setRegId(regId);
+				IndividualDemographicDedupeKeyEntity keyEntity = new IndividualDemographicDedupeKeyEntity();
+				keyEntity.setId(pkEntity);
+				keyEntity.setCrDtimes(LocalDateTime.now(ZoneId.of("UTC")));
+				keyEntities.add(keyEntity);
+			}
+		}
+		return keyEntities;
+	}
+
 	public static String getHMACHashCode(String value) {
 		if (value == null)
 			return null;
@@ -1,5 +1,6 @@
 package io.mosip.registration.processor.packet.storage.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.Modifying;
@@ -49,6 +50,45 @@ public interface BasePacketRepository<E extends BasePacketEntity<?>, T> extends
 	@Query("SELECT demo FROM IndividualDemographicDedupeEntity demo WHERE demo.id.regId=:regId")
 	public List<E> findDemoById(@Param("regId") String regId);
 
+	/**
+	 * Gets the demographic dedupe blocking keys of a registration.
+	 *
+	 * @param regId
+	 *            the reg id
+	 * @param langCode
+	 *            the lang code
+	 * @return the blocking keys
+	 */
+	@Query("SELECT demoKey.id.blockingKey FROM IndividualDemographicDedupeKeyEntity demoKey WHERE demoKey.id.regId=:regId AND demoKey.id.langCode=:langCode")
+	public List<String> getBlockingKeys(@Param("regId") String regId, @Param("langCode") String langCode);
+
+	/**
+	 * Deletes the demographic dedupe blocking keys of a registration.
+	 *
+	 * @param regId
+	 *            the reg id
+	 */
+	@Modifying
+	@Transactional
+	@Query("DELETE FROM IndividualDemographicDedupeKeyEntity demoKey WHERE demoKey.id.regId=:regId")
+	public void deleteBlockingKeys(@Param("regId") String regId);
+
+	/**
+	 * Gets the active demographic records, other than the given registration,
+	 * sharing at least one of the blocking keys.
+	 *
+	 * @param blockingKeys
+	 *            the blocking keys
+	 * @param langCode
+	 *            the lang code
+	 * @param regId
+	 *            the reg id to leave out
+	 * @return the list
+	 */
+	@Query("SELECT DISTINCT demo FROM IndividualDemographicDedupeEntity demo, IndividualDemographicDedupeKeyEntity demoKey WHERE demoKey.id.blockingKey IN :blockingKeys AND demoKey.id.langCode=:langCode AND demo.id.regId=demoKey.id.regId AND demo.id.langCode=demoKey.id.langCode AND demo.isActive=TRUE AND demo.id.regId<>:regId")
+	public List<E> getDemoByBlockingKeys(@Param("blockingKeys") List<String> blockingKeys,
+			@Param("langCode") String langCode, @Param("regId") String regId);
+
 	/**
 	 * This method gets the first created registration record
 	 * {@link ManualVerificationEntity} with the specified status.
@@ -404,4 +444,49 @@ public interface BasePacketRepository<E extends BasePacketEntity<?>, T> extends
 	
 	@Query("SELECT latestRegId FROM RegLostUinDetEntity lostUin WHERE lostUin.id.regId =:regId")
 	public String getLostUinMatchedRegId(@Param("regId") String regId);
+
+	/**
+	 * Gets the uin reservations with the given status.
+	 *
+	 * @param statusCode
+	 *            the status code
+	 * @return the list
+	 */
+	@Query("SELECT reservation FROM UinReservationEntity reservation WHERE reservation.statusCode=:statusCode")
+	public List<E> getUinReservationsByStatus(@Param("statusCode") String statusCode);
+
+	/**
+	 * Moves a uin reservation to a new status, only if it is still in the
+	 * expected one, so that a reserved uin is handed out once across stage
+	 * instances.
+	 *
+	 * @param uin
+	 *            the uin
+	 * @param statusCode
+	 *            the expected status code
+	 * @param newStatusCode
+	 *            the new status code
+	 * @param regId
+	 *            the reg id the uin is taken for
+	 * @param updDtimes
+	 *            the update time
+	 * @return the number of updated rows
+	 */
+	@Modifying
+	@Transactional
+	@Query("UPDATE UinReservationEntity reservation SET reservation.statusCode=:newStatusCode, reservation.regId=:regId, reservation.updDtimes=:updDtimes WHERE reservation.id.uin=:uin AND reservation.statusCode=:statusCode")
+	public int updateUinReservationStatus(@Param("uin") String uin, @Param("statusCode") String statusCode,
+			@Param("newStatusCode") String newStatusCode, @Param("regId") String regId,
+			@Param("updDtimes") LocalDateTime updDtimes);
+
+	/**
+	 * Deletes the uin reservations.
+	 *
+	 * @param uins
+	 *            the uins
+	 */
+	@Modifying
+	@Transactional
+	@Query("DELETE FROM UinReservationEntity reservation WHERE reservation.id.uin IN :uins")
+	public void deleteUinReservations(@Param("uins") List<String> uins);
 }
\ No newline at end of file
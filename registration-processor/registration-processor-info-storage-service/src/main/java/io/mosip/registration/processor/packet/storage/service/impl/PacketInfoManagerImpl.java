@@ -51,6 +51,7 @@ import io.mosip.registration.processor.packet.storage.dto.ApplicantInfoDto;
 import io.mosip.registration.processor.packet.storage.entity.AbisApplicationEntity;
 import io.mosip.registration.processor.packet.storage.entity.AbisRequestEntity;
 import io.mosip.registration.processor.packet.storage.entity.IndividualDemographicDedupeEntity;
+import io.mosip.registration.processor.packet.storage.entity.IndividualDemographicDedupeKeyEntity;
 import io.mosip.registration.processor.packet.storage.entity.ManualVerificationEntity;
 import io.mosip.registration.processor.packet.storage.entity.ManualVerificationPKEntity;
 import io.mosip.registration.processor.packet.storage.entity.RegAbisRefEntity;
@@ -113,6 +114,10 @@ public class PacketInfoManagerImpl implements PacketInfoManager<Identity, Applic
 	@Autowired
 	private BasePacketRepository<IndividualDemographicDedupeEntity, String> demographicDedupeRepository;
 
+	/** The demographic dedupe blocking key repository. */
+	@Autowired
+	private BasePacketRepository<IndividualDemographicDedupeKeyEntity, String> demographicDedupeKeyRepository;
+
 	/** The manual verfication repository. */
 	@Autowired
 	private BasePacketRepository<ManualVerificationEntity, String> manualVerficationRepository;
@@ -141,6 +146,10 @@ public class PacketInfoManagerImpl implements PacketInfoManager<Identity, Applic
 	@Value("${registration.processor.demodedupe.manualverification.status}")
 	private String manualVerificationStatus;
 
+	/** Whether the demographic dedupe blocking keys are stored. */
+	@Value("${registration.processor.demodedupe.blocking-key.enabled:false}")
+	private boolean blockingKeyEnabled;
+
 	/** The Constant MATCHED_REFERENCE_TYPE. */
 	private static final String MATCHED_REFERENCE_TYPE = "rid";
 
@@ -299,6 +308,7 @@ public class PacketInfoManagerImpl implements PacketInfoManager<Identity, Applic
 				demographicDedupeRepository.save(applicantDemographicEntity);
 
 			}
+			saveBlockingKeys(demographicData, regId, false);
 			isTransactionSuccessful = true;
 			description.setMessage("Individual Demographic Dedupe data saved ");
 
@@ -321,6 +331,26 @@ public class PacketInfoManagerImpl implements PacketInfoManager<Identity, Applic
 
 	}
 
+	/**
+	 * Saves the demographic dedupe blocking keys, when enabled.
+	 *
+	 * @param demographicData
+	 *            the demographic data
+	 * @param regId
+	 *            the reg id
+	 * @param replace
+	 *            whether the keys already stored for the reg id are deleted
+	 *            first, so that keys of the old demographic values do not stay
+	 */
+	private void saveBlockingKeys(IndividualDemographicDedupe demographicData, String regId, boolean replace) {
+		if (!blockingKeyEnabled)
+			return;
+		if (replace)
+			demographicDedupeKeyRepository.deleteBlockingKeys(regId);
+		demographicDedupeKeyRepository
+				.saveAll(PacketInfoMapper.convertDemographicDedupeDtoToKeyEntity(demographicData, regId));
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -345,6 +375,7 @@ public class PacketInfoManagerImpl implements PacketInfoManager<Identity, Applic
 				demographicDedupeRepository.save(applicantDemographicEntity);
 
 			}
+			saveBlockingKeys(demographicData, registrationId, true);
 			isTransactionSuccessful = true;
 			description.setMessage("Individual Demographic Dedupe data saved ");
 
@@ -0,0 +1,85 @@
+package io.mosip.registration.processor.packet.storage.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+/**
+ * Builds the demographic dedupe blocking keys of an individual. A key is the
+ * Double Metaphone code of every name token, sorted so that the word order does
+ * not matter, followed by the year of birth and the gender. Names which sound
+ * alike and share year of birth and gender end up with a common key, so
+ * spelling variations of an already registered identity are still found.
+ * <p>
+ * Both the primary and the alternate Double Metaphone encodings are used, which
+ * gives at most two keys per name. Tokens Double Metaphone can not encode (non
+ * latin scripts) are kept as they are.
+ */
+public final class DemographicBlockingKeys {
+
+	private static final String SEPARATOR = "|";
+
+	private static final String VERSION = "DM1";
+
+	private static final ThreadLocal<DoubleMetaphone> ENCODER = ThreadLocal.withInitial(DoubleMetaphone::new);
+
+	private DemographicBlockingKeys() {
+	}
+
+	/**
+	 * Generates the blocking keys.
+	 *
+	 * @param name
+	 *            the full name
+	 * @param dob
+	 *            the date of birth, in yyyy/MM/dd format
+	 * @param gender
+	 *            the gender
+	 * @return the blocking keys, empty if the name has nothing to encode
+	 */
+	public static Set<String> generate(String name, String dob, String gender) {
+		Set<String> keys = new LinkedHashSet<>();
+		List<String> tokens = tokenize(name);
+		if (tokens.isEmpty())
+			return keys;
+		String suffix = SEPARATOR + year(dob) + SEPARATOR + (gender == null ? "" : gender.trim().toUpperCase(Locale.ROOT));
+		keys.add(VERSION + SEPARATOR + encode(tokens, false) + suffix);
+		keys.add(VERSION + SEPARATOR + encode(tokens, true) + suffix);
+		return keys;
+	}
+
+	private static List<String> tokenize(String name) {
+		List<String> tokens = new ArrayList<>();
+		if (name == null)
+			return tokens;
+		String normalized = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "")
+				.toUpperCase(Locale.ROOT);
+		for (String token : normalized.split("[^\\p{L}]+")) {
+			if (!token.isEmpty())
+				tokens.add(token);
+		}
+		return tokens;
+	}
+
+	private static String encode(List<String> tokens, boolean alternate) {
+		DoubleMetaphone encoder = ENCODER.get();
+		List<String> codes = new ArrayList<>(tokens.size());
+		for (String token : tokens) {
+			String code = encoder.doubleMetaphone(token, alternate);
+			codes.add(code == null || code.isEmpty() ? token : code);
+		}
+		Collections.sort(codes);
+		return String.join(" ", codes);
+	}
+
+	private static String year(String dob) {
+		return dob != null && dob.length() >= 4 ? dob.substring(0, 4) : "";
+	}
+
+}
@@ -19,15 +19,24 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the id schema. A published schema version does not change, so each
+ * version is fetched and parsed once; {@link #refreshIdSchema} and
+ * {@link #invalidateIdSchemas} reload them when needed.
+ */
 @Component
 public class IdSchemaUtil {
 
     private static Map<String, String> categorySubpacketMapping = new HashMap<>();
-    private Map<Double, String> idschema = null;
+    private final Map<Double, String> idschema = new ConcurrentHashMap<>();
+    private final Map<Double, List<Map<String, String>>> defaultFields = new ConcurrentHashMap<>();
     public static final String RESPONSE = "response";
     public static final String PROPERTIES = "properties";
     public static final String IDENTITY = "identity";
@@ -60,7 +69,23 @@ public class IdSchemaUtil {
         return fieldList;
     }
 
+    /**
+     * Gets the fields of the id sub packet of a schema version. The list is
+     * parsed once per version and cannot be modified.
+     *
+     * @param schemaVersion the schema version
+     * @return the fields with their id and type
+     */
     public List<Map<String, String>> loadDefaultFields(Double schemaVersion) throws JSONException, ApisResourceAccessException, IOException {
+        List<Map<String, String>> fields = defaultFields.get(schemaVersion);
+        if (fields == null) {
+            fields = parseDefaultFields(schemaVersion);
+            defaultFields.put(schemaVersion, fields);
+        }
+        return fields;
+    }
+
+    private List<Map<String, String>> parseDefaultFields(Double schemaVersion) throws JSONException, ApisResourceAccessException, IOException {
         Map<String, List<Map<String, String>>> packetBasedMap = new HashMap<String, List<Map<String, String>>>();
 
         String schemaJson = getIdSchema(schemaVersion);
@@ -88,16 +113,47 @@ public class IdSchemaUtil {
                 attributes.put(SCHEMA_ID, fieldName);
                 attributes.put(SCHEMA_TYPE, fieldDetail.has(SCHEMA_REF) ?
                         fieldDetail.getString(SCHEMA_REF) : fieldDetail.getString(SCHEMA_TYPE));
-                packetBasedMap.get(packetName).add(attributes);
+                packetBasedMap.get(packetName).add(Collections.unmodifiableMap(attributes));
             }
         }
-        return packetBasedMap.get("id");
+        List<Map<String, String>> fields = packetBasedMap.get("id");
+        return fields != null ? Collections.unmodifiableList(fields) : Collections.emptyList();
     }
 
     public String getIdSchema(Double version) throws ApisResourceAccessException, JSONException, IOException {
-        if (idschema != null && !idschema.isEmpty() && idschema.get(version) != null)
-            return idschema.get(version);
+        String schema = idschema.get(version);
+        if (schema != null)
+            return schema;
+
+        schema = fetchIdSchema(version);
+        if (schema != null)
+            idschema.put(version, schema);
+        return schema;
+    }
 
+    /**
+     * Fetches a schema version again. The parsed fields of the version are
+     * dropped only when the schema has changed.
+     *
+     * @param version the schema version
+     * @return the id schema
+     */
+    public String refreshIdSchema(Double version) throws ApisResourceAccessException, JSONException, IOException {
+        String schema = fetchIdSchema(version);
+        if (schema != null && !Objects.equals(schema, idschema.put(version, schema)))
+            defaultFields.remove(version);
+        return schema;
+    }
+
+    /**
+     * Drops every cached schema version.
+     */
+    public void invalidateIdSchemas() {
+        idschema.clear();
+        defaultFields.clear();
+    }
+
+    private String fetchIdSchema(Double version) throws ApisResourceAccessException, JSONException, IOException {
         String response = (String) registrationProcessorRestClientService.getApi(ApiName.IDSCHEMAURL, null,
                 Lists.newArrayList(SCHEMA_VERSION_QUERY_PARAM), Lists.newArrayList(version), String.class);
 
@@ -106,16 +162,6 @@ public class IdSchemaUtil {
 
         JSONObject jsonObject = new JSONObject(response);
         JSONObject respObj = (JSONObject) jsonObject.get(RESPONSE);
-        String responseString = respObj != null ? (String) respObj.get(SCHEMA_JSON) : null;
-
-        if (responseString != null) {
-            if (idschema == null) {
-                idschema = new HashMap<>();
-                idschema.put(version, responseString);
-            } else
-                idschema.put(version, responseString);
-        }
-
-        return idschema.get(version);
+        return respObj != null ? (String) respObj.get(SCHEMA_JSON) : null;
     }
 }
@@ -26,14 +26,31 @@ import io.mosip.registration.processor.packet.storage.dto.ValidatePacketResponse
 import io.mosip.registration.processor.core.exception.PacketManagerException;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads packets through the packet manager. When the cache is enabled, the
+ * fields, meta info and audits read for a packet are kept for a short time, so
+ * the repeated reads a stage makes for the packet it is processing are served
+ * from memory. Documents and biometrics carry the binary payloads of the packet
+ * and are always read from the packet manager. Each stage runs in its own
+ * application, so the cache holds the packets of one stage; a stage calls
+ * {@link #prefetchFields} with the fields it reads and {@link #evictPacket}
+ * once it is done with the packet.
+ */
 @Component
 public class PacketManagerService {
 
@@ -41,12 +58,25 @@ public class PacketManagerService {
     private static final String ID = "mosip.commmons.packetmanager";
     private static final String VERSION = "v1";
 
+    /** Marks a field the packet manager returned no value for. */
+    private static final Object ABSENT = new Object();
+
     @Autowired
     private RegistrationProcessorRestClientService<Object> restApi;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    /** The seconds the values read from a packet are kept, 0 (the default) to disable the cache. */
+    @Value("${registration.processor.packet.manager.cache.ttl-seconds:0}")
+    private long cacheTtlSeconds;
+
+    /** The maximum number of packets kept in the cache. */
+    @Value("${registration.processor.packet.manager.cache.max-packets:200}")
+    private int cacheMaxPackets;
+
+    private final Map<String, PacketCache> packetCache = new ConcurrentHashMap<>();
+
     @PostConstruct
     private void setObjectMapper() {
         objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
@@ -54,6 +84,23 @@ public class PacketManagerService {
 
 
     public String getField(String id, String field, String source, String process) throws ApisResourceAccessException, PacketManagerException, JsonProcessingException, IOException {
+        PacketCache cache = getPacketCache(id);
+        String key = fieldKey(field, source, process);
+        String responseField;
+        if (cache != null && cache.contains(key)) {
+            Object value = cache.get(key);
+            responseField = value == ABSENT ? null : (String) value;
+        } else {
+            responseField = fetchField(id, field, source, process);
+            if (cache != null)
+                cache.put(key, responseField);
+        }
+        if (StringUtils.isNotEmpty(responseField) && responseField.equalsIgnoreCase("null"))
+            responseField = null;
+        return responseField;
+    }
+
+    private String fetchField(String id, String field, String source, String process) throws ApisResourceAccessException, PacketManagerException, JsonProcessingException, IOException {
         FieldDto fieldDto = new FieldDto(id, field, source, process, false);
 
         RequestWrapper<FieldDto> request = new RequestWrapper<>();
@@ -70,13 +117,60 @@ public class PacketManagerService {
 
         FieldResponseDto fieldResponseDto = objectMapper.readValue(JsonUtils.javaObjectToJsonString(response.getResponse()), FieldResponseDto.class);
 
-        String responseField = fieldResponseDto.getFields().get(field);
-        if (StringUtils.isNotEmpty(responseField) && responseField.equalsIgnoreCase("null"))
-            responseField = null;
-        return responseField;
+        return fieldResponseDto.getFields().get(field);
     }
 
     public Map<String, String> getFields(String id, List<String> fields, String source, String process) throws ApisResourceAccessException, PacketManagerException, JsonProcessingException, IOException {
+        PacketCache cache = getPacketCache(id);
+        if (cache == null)
+            return fetchFields(id, fields, source, process);
+
+        List<String> missingFields = new ArrayList<>();
+        for (String field : fields) {
+            if (!cache.contains(fieldKey(field, source, process)))
+                missingFields.add(field);
+        }
+        if (!missingFields.isEmpty()) {
+            Map<String, String> fetchedFields = fetchFields(id, missingFields, source, process);
+            for (String field : missingFields)
+                cache.put(fieldKey(field, source, process), fetchedFields != null && fetchedFields.containsKey(field) ? fetchedFields.get(field) : ABSENT);
+        }
+
+        Map<String, String> responseFields = new HashMap<>();
+        for (String field : fields) {
+            Object value = cache.get(fieldKey(field, source, process));
+            if (value != ABSENT)
+                responseFields.put(field, (String) value);
+        }
+        return responseFields;
+    }
+
+    /**
+     * Fetches the fields a stage reads from a packet with one request, so the
+     * getField and getFields calls which follow for them are served from the
+     * cache.
+     *
+     * @param id      the registration id
+     * @param fields  the fields the stage reads
+     * @param source  the source
+     * @param process the process
+     */
+    public void prefetchFields(String id, Collection<String> fields, String source, String process) throws ApisResourceAccessException, PacketManagerException, JsonProcessingException, IOException {
+        if (getPacketCache(id) != null && fields != null && !fields.isEmpty())
+            getFields(id, new ArrayList<>(new LinkedHashSet<>(fields)), source, process);
+    }
+
+    /**
+     * Drops the values read for a packet.
+     *
+     * @param id the registration id
+     */
+    public void evictPacket(String id) {
+        if (id != null)
+            packetCache.remove(id);
+    }
+
+    private Map<String, String> fetchFields(String id, List<String> fields, String source, String process) throws ApisResourceAccessException, PacketManagerException, JsonProcessingException, IOException {
         FieldDtos fieldDto = new FieldDtos(id, fields, source, process, false);
 
         RequestWrapper<FieldDtos> request = new RequestWrapper<>();
@@ -135,7 +229,26 @@ public class PacketManagerService {
         return validatePacketResponse;
     }
 
+    @SuppressWarnings("unchecked")
     public List<FieldResponseDto> getAudits(String id, String source, String process) throws ApisResourceAccessException, PacketManagerException, JsonProcessingException, IOException {
+        PacketCache cache = getPacketCache(id);
+        String key = "audits|" + source + "|" + process;
+        if (cache != null && cache.contains(key))
+            return copyAudits((List<FieldResponseDto>) cache.get(key));
+        List<FieldResponseDto> audits = fetchAudits(id, source, process);
+        if (cache != null)
+            cache.put(key, copyAudits(audits));
+        return audits;
+    }
+
+    private static List<FieldResponseDto> copyAudits(List<FieldResponseDto> audits) {
+        List<FieldResponseDto> copy = new ArrayList<>(audits.size());
+        for (FieldResponseDto audit : audits)
+            copy.add(new FieldResponseDto(audit.getFields() == null ? null : new LinkedHashMap<>(audit.getFields())));
+        return copy;
+    }
+
+    private List<FieldResponseDto> fetchAudits(String id, String source, String process) throws ApisResourceAccessException, PacketManagerException, JsonProcessingException, IOException {
         InfoDto fieldDto = new InfoDto(id, source, process, false);
         List<FieldResponseDto> response = new ArrayList<>();
 
@@ -181,7 +294,21 @@ public class PacketManagerService {
 
     }
 
+    @SuppressWarnings("unchecked")
     public Map<String, String> getMetaInfo(String id, String source, String process) throws ApisResourceAccessException, PacketManagerException, JsonProcessingException, IOException {
+        PacketCache cache = getPacketCache(id);
+        String key = "metaInfo|" + source + "|" + process;
+        if (cache != null && cache.contains(key)) {
+            Map<String, String> metaInfo = (Map<String, String>) cache.get(key);
+            return metaInfo == null ? null : new LinkedHashMap<>(metaInfo);
+        }
+        Map<String, String> metaInfo = fetchMetaInfo(id, source, process);
+        if (cache != null)
+            cache.put(key, metaInfo == null ? null : new LinkedHashMap<>(metaInfo));
+        return metaInfo;
+    }
+
+    private Map<String, String> fetchMetaInfo(String id, String source, String process) throws ApisResourceAccessException, PacketManagerException, JsonProcessingException, IOException {
         InfoDto fieldDto = new InfoDto(id, source, process, false);
 
         RequestWrapper<InfoDto> request = new RequestWrapper<>();
@@ -201,4 +328,60 @@ public class PacketManagerService {
         return fieldResponseDto.getFields();
     }
 
+    /**
+     * Gets the cache of a packet, creating it if needed.
+     *
+     * @param id the registration id
+     * @return the cache, null if the cache is disabled or full
+     */
+    private PacketCache getPacketCache(String id) {
+        if (cacheTtlSeconds <= 0 || id == null)
+            return null;
+        long now = System.nanoTime();
+        PacketCache cache = packetCache.get(id);
+        if (cache != null) {
+            if (now - cache.expiresAt < 0)
+                return cache;
+            packetCache.remove(id, cache);
+        }
+        if (packetCache.size() >= cacheMaxPackets) {
+            packetCache.values().removeIf(c -> now - c.expiresAt >= 0);
+            if (packetCache.size() >= cacheMaxPackets)
+                return null;
+        }
+        PacketCache created = new PacketCache(now + TimeUnit.SECONDS.toNanos(cacheTtlSeconds));
+        cache = packetCache.putIfAbsent(id, created);
+        return cache != null ? cache : created;
+    }
+
+    private static String fieldKey(String field, String source, String process) {
+        return "field|" + field + "|" + source + "|" + process;
+    }
+
+    /**
+     * The values read from one packet, null values included.
+     */
+    private static class PacketCache {
+
+        private final long expiresAt;
+
+        private final Map<String, Object> values = new HashMap<>();
+
+        PacketCache(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        synchronized boolean contains(String key) {
+            return values.containsKey(key);
+        }
+
+        synchronized Object get(String key) {
+            return values.get(key);
+        }
+
+        synchronized void put(String key, Object value) {
+            values.put(key, value);
+        }
+    }
+
 }
@@ -200,7 +200,37 @@ public class Utilities {
 	
 	private static final String VALUE = "value";
 
-	private String mappingJsonString = null;
+	/** The shared rest template the config server files are fetched with. */
+	private static final RestTemplate restTemplate = new RestTemplate();
+
+	/** The object mapper the mapping json is parsed with. */
+	private static final ObjectMapper MAPPING_JSON_MAPPER = new ObjectMapper();
+
+	/**
+	 * The seconds after which the mapping json is fetched again, 0 to fetch it
+	 * only once.
+	 */
+	@Value("${registration.processor.identityjson.cache.ttl-seconds:300}")
+	private long mappingJsonCacheTtl;
+
+	/** The mapping json the cached identity was parsed from. */
+	private volatile String mappingJsonString;
+
+	/** The parsed identity of the mapping json. */
+	private volatile JSONObject mappingJsonIdentity;
+
+	private volatile long mappingJsonLoadTime;
+
+	/** The abis queue details cache ttl in seconds, 0 disables the cache. */
+	@Value("${registration.processor.abis.queue.details.cache.ttl-seconds:300}")
+	private long abisQueueDetailsCacheTtl;
+
+	/** The abis json the cached queue details were built from. */
+	private String abisJsonString;
+
+	private volatile List<AbisQueueDetails> abisQueueDetailsCache;
+
+	private volatile long abisQueueDetailsLoadTime;
 
 	/**
 	 * Gets the json.
@@ -212,7 +242,6 @@ public class Utilities {
 	 * @return the json
 	 */
 	public static String getJson(String configServerFileStorageURL, String uri) {
-		RestTemplate restTemplate = new RestTemplate();
 		return restTemplate.getForObject(configServerFileStorageURL + uri, String.class);
 	}
 
@@ -340,8 +369,46 @@ public class Utilities {
 	 *             the registration processor checked exception
 	 */
 	public List<AbisQueueDetails> getAbisQueueDetails() throws RegistrationProcessorCheckedException {
-		List<AbisQueueDetails> abisQueueDetailsList = new ArrayList<>();
+		List<AbisQueueDetails> cached = abisQueueDetailsCache;
+		if (cached != null && !isAbisQueueDetailsExpired())
+			return cached;
+		return refreshAbisQueueDetails(false);
+	}
+
+	/**
+	 * Fetches the abis json again and rebuilds the cached queue details. When the
+	 * json has not changed the cached details, and with them the queue
+	 * connections, are kept.
+	 *
+	 * @return the abis queue details
+	 * @throws RegistrationProcessorCheckedException
+	 *             the registration processor checked exception
+	 */
+	public List<AbisQueueDetails> refreshAbisQueueDetails() throws RegistrationProcessorCheckedException {
+		return refreshAbisQueueDetails(true);
+	}
+
+	private boolean isAbisQueueDetailsExpired() {
+		return System.currentTimeMillis() - abisQueueDetailsLoadTime >= abisQueueDetailsCacheTtl * 1000;
+	}
+
+	private synchronized List<AbisQueueDetails> refreshAbisQueueDetails(boolean force)
+			throws RegistrationProcessorCheckedException {
+		// another caller may have fetched it while this one waited for the lock
+		if (!force && abisQueueDetailsCache != null && !isAbisQueueDetailsExpired())
+			return abisQueueDetailsCache;
 		String registrationProcessorAbis = Utilities.getJson(configServerFileStorageURL, registrationProcessorAbisJson);
+		if (abisQueueDetailsCache == null || !Objects.equals(registrationProcessorAbis, abisJsonString)) {
+			abisQueueDetailsCache = Collections.unmodifiableList(loadAbisQueueDetails(registrationProcessorAbis));
+			abisJsonString = registrationProcessorAbis;
+		}
+		abisQueueDetailsLoadTime = System.currentTimeMillis();
+		return abisQueueDetailsCache;
+	}
+
+	private List<AbisQueueDetails> loadAbisQueueDetails(String registrationProcessorAbis)
+			throws RegistrationProcessorCheckedException {
+		List<AbisQueueDetails> abisQueueDetailsList = new ArrayList<>();
 		JSONObject regProcessorAbisJson;
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
 				"Utilities::getAbisQueueDetails()::entry");
@@ -388,7 +455,9 @@ public class Utilities {
 
 	/**
 	 * Gets registration processor mapping json from config and maps to
-	 * RegistrationProcessorIdentity java class.
+	 * RegistrationProcessorIdentity java class. The json is parsed once and
+	 * fetched again after the cache ttl; each caller gets its own copy of the
+	 * parsed mapping.
 	 *
 	 * @return the registration processor identity json
 	 * @throws IOException
@@ -398,13 +467,74 @@ public class Utilities {
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
 				"Utilities::getRegistrationProcessorMappingJson()::entry");
 
-		mappingJsonString = (mappingJsonString != null && !mappingJsonString.isEmpty()) ?
-				mappingJsonString : Utilities.getJson(configServerFileStorageURL, getRegProcessorIdentityJson);
-		ObjectMapper mapIdentityJsonStringToObject = new ObjectMapper();
+		JSONObject identity = mappingJsonIdentity;
+		if (identity == null || isMappingJsonExpired())
+			identity = refreshMappingJson(false);
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
 				"Utilities::getRegistrationProcessorMappingJson()::exit");
-		return JsonUtil.getJSONObject(mapIdentityJsonStringToObject.readValue(mappingJsonString, JSONObject.class), MappingJsonConstants.IDENTITY);
+		return (JSONObject) copyMappingJson(identity);
+
+	}
 
+	/**
+	 * Fetches the mapping json again. The json is parsed again only when it has
+	 * changed.
+	 *
+	 * @return the registration processor identity json
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public JSONObject refreshRegistrationProcessorMappingJson() throws IOException {
+		return (JSONObject) copyMappingJson(refreshMappingJson(true));
+	}
+
+	private boolean isMappingJsonExpired() {
+		return mappingJsonCacheTtl > 0 && System.currentTimeMillis() - mappingJsonLoadTime >= mappingJsonCacheTtl * 1000;
+	}
+
+	private synchronized JSONObject refreshMappingJson(boolean force) throws IOException {
+		// another caller may have fetched it while this one waited for the lock
+		if (!force && mappingJsonIdentity != null && !isMappingJsonExpired())
+			return mappingJsonIdentity;
+		String mappingJson;
+		try {
+			mappingJson = Utilities.getJson(configServerFileStorageURL, getRegProcessorIdentityJson);
+		} catch (RuntimeException e) {
+			if (force || mappingJsonIdentity == null)
+				throw e;
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+					"Utilities::refreshMappingJson():: keeping the cached mapping json "
+							+ ExceptionUtils.getStackTrace(e));
+			mappingJsonLoadTime = System.currentTimeMillis();
+			return mappingJsonIdentity;
+		}
+		if (mappingJsonIdentity == null || !Objects.equals(mappingJson, mappingJsonString)) {
+			mappingJsonIdentity = JsonUtil.getJSONObject(MAPPING_JSON_MAPPER.readValue(mappingJson, JSONObject.class),
+					MappingJsonConstants.IDENTITY);
+			mappingJsonString = mappingJson;
+		}
+		mappingJsonLoadTime = System.currentTimeMillis();
+		return mappingJsonIdentity;
+	}
+
+	/**
+	 * Copies the parsed mapping json, so no caller can change the cached one.
+	 * The maps keep their type, as JsonUtil expects the nested objects to be
+	 * LinkedHashMaps.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object copyMappingJson(Object value) {
+		if (value instanceof Map) {
+			Map<Object, Object> copy = value instanceof JSONObject ? new JSONObject() : new LinkedHashMap<>();
+			((Map<Object, Object>) value).forEach((k, v) -> copy.put(k, copyMappingJson(v)));
+			return copy;
+		}
+		if (value instanceof List) {
+			List<Object> copy = value instanceof JSONArray ? new JSONArray() : new ArrayList<>();
+			((List<Object>) value).forEach(v -> copy.add(copyMappingJson(v)));
+			return copy;
+		}
+		return value;
 	}
 
 	public String getMappingJsonValue(String key) throws IOException {
@@ -28,6 +28,7 @@ import org.json.simple.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -36,6 +37,7 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 
 import io.mosip.kernel.core.dataaccess.exception.DataAccessLayerException;
 import io.mosip.kernel.dataaccess.hibernate.constant.HibernateErrorCode;
@@ -69,6 +71,7 @@ import io.mosip.registration.processor.packet.storage.entity.AbisApplicationPKEn
 import io.mosip.registration.processor.packet.storage.entity.AbisRequestEntity;
 import io.mosip.registration.processor.packet.storage.entity.AbisRequestPKEntity;
 import io.mosip.registration.processor.packet.storage.entity.IndividualDemographicDedupeEntity;
+import io.mosip.registration.processor.packet.storage.entity.IndividualDemographicDedupeKeyEntity;
 import io.mosip.registration.processor.packet.storage.entity.ManualVerificationEntity;
 import io.mosip.registration.processor.packet.storage.entity.RegAbisRefEntity;
 import io.mosip.registration.processor.packet.storage.entity.RegBioRefEntity;
@@ -108,6 +111,10 @@ public class PacketInfoManagerImplTest {
 	@Mock
 	private BasePacketRepository<IndividualDemographicDedupeEntity, String> demographicDedupeRepository;
 
+	/** The demographic dedupe blocking key repository. */
+	@Mock
+	private BasePacketRepository<IndividualDemographicDedupeKeyEntity, String> demographicDedupeKeyRepository;
+
 	/** The utility. */
 	@Mock
 	private Utilities utility;
@@ -1016,6 +1023,34 @@ public class PacketInfoManagerImplTest {
 
 	}
 
+	@Test
+	public void blockingKeysNotSavedWhenDisabledTest() {
+		PowerMockito.mockStatic(PacketInfoMapper.class);
+		Mockito.when(PacketInfoMapper.converDemographicDedupeDtoToEntity(any(), any())).thenReturn(new ArrayList<>());
+
+		packetInfoManagerImpl.saveIndividualDemographicDedupeUpdatePacket(new IndividualDemographicDedupe(), "1001",
+				"", "");
+
+		Mockito.verifyZeroInteractions(demographicDedupeKeyRepository);
+	}
+
+	@Test
+	public void blockingKeysReplacedForUpdatePacketTest() {
+		Whitebox.setInternalState(packetInfoManagerImpl, "blockingKeyEnabled", true);
+		List<IndividualDemographicDedupeKeyEntity> keyEntities = new ArrayList<>();
+		keyEntities.add(new IndividualDemographicDedupeKeyEntity());
+		PowerMockito.mockStatic(PacketInfoMapper.class);
+		Mockito.when(PacketInfoMapper.converDemographicDedupeDtoToEntity(any(), any())).thenReturn(new ArrayList<>());
+		Mockito.when(PacketInfoMapper.convertDemographicDedupeDtoToKeyEntity(any(), any())).thenReturn(keyEntities);
+
+		packetInfoManagerImpl.saveIndividualDemographicDedupeUpdatePacket(new IndividualDemographicDedupe(), "1001",
+				"", "");
+
+		InOrder inOrder = Mockito.inOrder(demographicDedupeKeyRepository);
+		inOrder.verify(demographicDedupeKeyRepository).deleteBlockingKeys("1001");
+		inOrder.verify(demographicDedupeKeyRepository).saveAll(keyEntities);
+	}
+
 	@Test(expected = UnableToInsertData.class)
 	public void testsaveIndividualDemographicDedupeException() {
 
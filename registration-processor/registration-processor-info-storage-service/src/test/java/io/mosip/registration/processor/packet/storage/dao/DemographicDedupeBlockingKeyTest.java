@@ -0,0 +1,318 @@
+package io.mosip.registration.processor.packet.storage.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.kernel.dataaccess.hibernate.config.HibernateDaoConfig;
+import io.mosip.kernel.dataaccess.hibernate.repository.impl.HibernateRepositoryImpl;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.packet.dto.demographicinfo.DemographicInfoDto;
+import io.mosip.registration.processor.packet.storage.mapper.PacketInfoMapper;
+import io.mosip.registration.processor.packet.storage.utils.DemographicBlockingKeys;
+import io.mosip.registration.processor.status.dao.RegistrationStatusDao;
+
+/**
+ * Runs the exact match and the blocking key demographic dedupe lookups against
+ * an in-memory H2 store of synthetic identities. Every query is a misspelt copy
+ * of a registered identity; recall is the share of queries which find it. The
+ * store holds 20000 identities by default; -Ddemodedupe.rows=1000000 runs the
+ * lookups at production scale.
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = DemographicDedupeBlockingKeyTest.BlockingKeyTestConfig.class)
+@TestPropertySource(properties = {
+		"javax.persistence.jdbc.url=jdbc:h2:mem:demodedupe;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS regprc",
+		"javax.persistence.jdbc.driver=org.h2.Driver", "javax.persistence.jdbc.user=sa",
+		"javax.persistence.jdbc.password=sa", "hibernate.hbm2ddl.auto=update", "hibernate.ddl-auto=update",
+		"hibernate.dialect=org.hibernate.dialect.H2Dialect", "hibernate.temp.use_jdbc_metadata_defaults=false" })
+public class DemographicDedupeBlockingKeyTest {
+
+	private static final int ROWS = Integer.getInteger("demodedupe.rows", 20000);
+
+	private static final int QUERIES = Integer.getInteger("demodedupe.queries", 200);
+
+	private static final String LANG_CODE = "eng";
+
+	private static final String[] FIRST_NAMES = { "JOHN", "MICHAEL", "PHILIP", "STEPHEN", "CATHERINE", "ELIZABETH",
+			"MOHAMMED", "AHMED", "FATIMA", "AISHA", "IBRAHIM", "YOUSSEF", "OMAR", "KHALID", "RACHID", "KARIM",
+			"SOPHIE", "CAMILLE", "LUCAS", "THOMAS", "NICOLAS", "JULIEN", "MATHIEU", "ANTOINE", "RAJESH", "PRIYA",
+			"ANIL", "SUNITA", "VIKRAM", "DEEPAK", "LAKSHMI", "GANESH", "PETER", "SARAH", "DANIEL", "MARIA",
+			"ANNA", "DAVID", "JAMES", "ROBERT", "WILLIAM", "RICHARD", "JOSEPH", "CHARLES", "CHRISTOPHER", "MATTHEW",
+			"ANDREW", "JOSHUA", "KEVIN", "BRIAN", "GEORGE", "EDWARD", "RONALD", "TIMOTHY", "JASON", "JEFFREY",
+			"RYAN", "JACOB", "GARY", "NICHOLAS" };
+
+	private static final String[] LAST_NAMES = { "SMITH", "JOHNSON", "WILLIAMS", "BROWN", "JONES", "MILLER", "DAVIS",
+			"WILSON", "ANDERSON", "TAYLOR", "THOMAS", "MOORE", "MARTIN", "JACKSON", "THOMPSON", "WHITE", "HARRIS",
+			"CLARK", "LEWIS", "ROBINSON", "WALKER", "YOUNG", "ALLEN", "KING", "WRIGHT", "SCOTT", "HILL", "GREEN",
+			"ADAMS", "BAKER", "NELSON", "CARTER", "MITCHELL", "PHILLIPS", "CAMPBELL", "PARKER", "EVANS", "EDWARDS",
+			"COLLINS", "STEWART", "MORRIS", "ROGERS", "REED", "COOK", "MORGAN", "BELL", "MURPHY", "BAILEY",
+			"COOPER", "RICHARDSON", "COX", "HOWARD", "WARD", "PETERSON", "GRAY", "RAMIREZ", "WATSON", "BROOKS",
+			"SANDERS", "PRICE", "BENNETT", "WOOD", "BARNES", "ROSS", "HENDERSON", "COLEMAN", "JENKINS", "PERRY",
+			"POWELL", "LONG", "PATTERSON", "HUGHES", "FLORES", "WASHINGTON", "BUTLER", "SIMMONS", "FOSTER",
+			"BRYANT", "ALEXANDER", "RUSSELL", "GRIFFIN", "HAYES", "MYERS", "FORD", "HAMILTON", "GRAHAM",
+			"SULLIVAN", "WALLACE", "WOODS", "COLE", "WEST", "JORDAN", "OWENS", "REYNOLDS", "FISHER", "ELLIS",
+			"HARRISON", "GIBSON", "MCDONALD", "CRUZ", "MARSHALL", "ORTIZ", "GOMEZ", "MURRAY", "FREEMAN", "WELLS",
+			"WEBB", "SIMPSON", "STEVENS", "TUCKER", "PORTER", "HUNTER", "HICKS", "CRAWFORD", "HENRY", "BOYD",
+			"MASON", "KENNEDY", "WARREN", "DIXON", "BURNS", "GORDON", "SHAW", "HOLMES", "RICE", "ROBERTSON", "HUNT",
+			"BLACK", "DANIELS", "PALMER", "MILLS", "NICHOLS", "GRANT", "KNIGHT", "FERGUSON", "STONE", "HAWKINS",
+			"DUNN", "PERKINS", "HUDSON", "SPENCER", "GARDNER", "STEPHENS", "PAYNE", "PIERCE", "BERRY", "MATTHEWS",
+			"ARNOLD", "WAGNER", "WILLIS", "RAY", "WATKINS", "OLSON", "CARROLL", "DUNCAN", "SNYDER", "HART",
+			"CUNNINGHAM", "BRADLEY", "LANE", "ANDREWS", "RUIZ", "HARPER", "FOX", "RILEY", "ARMSTRONG", "CARPENTER",
+			"WEAVER", "GREENE", "LAWRENCE", "ELLIOTT", "CHAVEZ", "SIMS", "AUSTIN", "PETERS", "KELLEY", "FRANKLIN",
+			"LAWSON", "FIELDS" };
+
+	private static final String[] GENDERS = { "MLE", "FLE" };
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(DemographicDedupeBlockingKeyTest.class);
+
+	private static boolean loaded;
+
+	@Autowired
+	private PacketInfoDao packetInfoDao;
+
+	@Autowired
+	private RegistrationStatusDao registrationStatusDao;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Configuration
+	@Import(HibernateDaoConfig.class)
+	@EnableJpaRepositories(basePackages = { "io.mosip.registration.processor.packet.storage.repository",
+			"io.mosip.registration.processor.status.repositary" }, repositoryBaseClass = HibernateRepositoryImpl.class)
+	static class BlockingKeyTestConfig {
+
+		@Bean
+		public PacketInfoDao getPacketInfoDao() {
+			return new PacketInfoDao();
+		}
+
+		@Bean
+		public RegistrationStatusDao getRegistrationStatusDao() {
+			return new RegistrationStatusDao();
+		}
+
+	}
+
+	@Before
+	public void setup() {
+		if (loaded)
+			return;
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS regprc.idx_idemogd_namegnddob ON "
+				+ "regprc.individual_demographic_dedup (name, gender, dob, lang_code)");
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> demographics = new ArrayList<>(10000);
+		List<Object[]> keys = new ArrayList<>(20000);
+		List<Object[]> registrations = new ArrayList<>(10000);
+		for (int i = 0; i < ROWS; i++) {
+			String regId = regId(i);
+			Identity identity = identity(i);
+			addIdentity(regId, identity, now, demographics, keys);
+			registrations.add(new Object[] { regId, "NEW", "PROCESSED", LANG_CODE, true, false, "PROCESSED", now, 0,
+					"UinGeneratorStage", now });
+			if (demographics.size() == 10000) {
+				insert(jdbcTemplate, demographics, keys, registrations);
+			}
+		}
+		insert(jdbcTemplate, demographics, keys, registrations);
+		loaded = true;
+	}
+
+	@Test
+	public void blockingKeyGenerationTest() {
+		assertEquals(DemographicBlockingKeys.generate("Jon Smyth", "1985/04/12", "MLE"),
+				DemographicBlockingKeys.generate("SMITH JOHN", "1985/11/30", "mle"));
+		assertTrue(DemographicBlockingKeys.generate(null, "1985/04/12", "MLE").isEmpty());
+		assertTrue(DemographicBlockingKeys.generate("Jon Smyth", "1985/04/12", "MLE").size() <= 2);
+	}
+
+	@Test
+	public void exactMatchVersusBlockingKeyTest() {
+		Random random = new Random(11);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> demographics = new ArrayList<>();
+		List<Object[]> keys = new ArrayList<>();
+		List<String> expected = new ArrayList<>();
+		for (int q = 0; q < QUERIES; q++) {
+			int original = random.nextInt(ROWS);
+			Identity identity = identity(original).misspelt(random);
+			addIdentity(queryId(q), identity, now, demographics, keys);
+			expected.add(regId(original));
+		}
+		insert(new JdbcTemplate(dataSource), demographics, keys, new ArrayList<>());
+
+		Result exact = run(expected, this::exactMatches);
+		Result blocking = run(expected, regId -> packetInfoDao.getDemographicInfoDtosByBlockingKeys(regId, LANG_CODE));
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format("%d identities, %d misspelt queries, exact match : %s, blocking key : %s", ROWS,
+						QUERIES, exact, blocking));
+		assertTrue(blocking.recall() > exact.recall());
+		assertTrue(blocking.recall() >= 0.95);
+	}
+
+	private List<DemographicInfoDto> exactMatches(String regId) {
+		List<DemographicInfoDto> candidates = new ArrayList<>();
+		for (DemographicInfoDto demoDto : packetInfoDao.findDemoById(regId)) {
+			candidates.addAll(packetInfoDao.getAllDemographicInfoDtos(demoDto.getName(), demoDto.getGenderCode(),
+					demoDto.getDob(), demoDto.getLangCode()));
+		}
+		return candidates;
+	}
+
+	private Result run(List<String> expected, Function<String, List<DemographicInfoDto>> lookup) {
+		Result result = new Result();
+		long start = System.nanoTime();
+		for (int q = 0; q < expected.size(); q++) {
+			Set<String> rids = new LinkedHashSet<>();
+			for (DemographicInfoDto candidate : lookup.apply(queryId(q)))
+				rids.add(candidate.getRegId());
+			result.candidates += rids.size();
+			List<String> ridsWithUin = rids.isEmpty() ? new ArrayList<>()
+					: registrationStatusDao.getRidsWithUinAvailable(new ArrayList<>(rids));
+			if (ridsWithUin.contains(expected.get(q)))
+				result.found++;
+		}
+		result.queries = expected.size();
+		result.nanos = System.nanoTime() - start;
+		return result;
+	}
+
+	private static Identity identity(int i) {
+		Random seeded = new Random(7 + i);
+		return new Identity(FIRST_NAMES[seeded.nextInt(FIRST_NAMES.length)] + " "
+				+ LAST_NAMES[seeded.nextInt(LAST_NAMES.length)],
+				String.format("%d/%02d/%02d", 1950 + seeded.nextInt(56), 1 + seeded.nextInt(12),
+						1 + seeded.nextInt(28)),
+				GENDERS[seeded.nextInt(GENDERS.length)]);
+	}
+
+	private static String regId(int i) {
+		return String.format("1000110001%019d", i);
+	}
+
+	private static String queryId(int q) {
+		return String.format("9000110001%019d", q);
+	}
+
+	private static void addIdentity(String regId, Identity identity, Timestamp now, List<Object[]> demographics,
+			List<Object[]> keys) {
+		demographics.add(new Object[] { regId, LANG_CODE, PacketInfoMapper.getHMACHashCode(identity.name),
+				PacketInfoMapper.getHMACHashCode(identity.dob), PacketInfoMapper.getHMACHashCode(identity.gender),
+				true, false, "SYSTEM", now });
+		for (String key : DemographicBlockingKeys.generate(identity.name, identity.dob, identity.gender))
+			keys.add(new Object[] { PacketInfoMapper.getHMACHashCode(key), LANG_CODE, regId, "SYSTEM", now });
+	}
+
+	private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> demographics, List<Object[]> keys,
+			List<Object[]> registrations) {
+		jdbcTemplate.batchUpdate("INSERT INTO regprc.individual_demographic_dedup (reg_id, lang_code, name, dob, "
+				+ "gender, is_active, is_deleted, cr_by, cr_dtimes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", demographics);
+		jdbcTemplate.batchUpdate("INSERT INTO regprc.individual_demographic_dedup_key (blocking_key, lang_code, "
+				+ "reg_id, cr_by, cr_dtimes) VALUES (?, ?, ?, ?, ?)", keys);
+		if (!registrations.isEmpty())
+			jdbcTemplate.batchUpdate("INSERT INTO regprc.registration (id, reg_type, status_code, lang_code, "
+					+ "is_active, is_deleted, latest_trn_status_code, latest_trn_dtimes, reg_process_retry_count, "
+					+ "reg_stage_name, cr_dtimes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", registrations);
+		demographics.clear();
+		keys.clear();
+		registrations.clear();
+	}
+
+	private static class Identity {
+
+		private final String name;
+
+		private final String dob;
+
+		private final String gender;
+
+		Identity(String name, String dob, String gender) {
+			this.name = name;
+			this.dob = dob;
+			this.gender = gender;
+		}
+
+		/**
+		 * Returns a copy with the kind of mistakes made at enrolment: a vowel
+		 * swapped inside a word, a doubled letter typed once or the other way
+		 * round, "PH" typed as "F" or "CK" as "K", and sometimes a wrong day of birth.
+		 */
+		Identity misspelt(Random random) {
+			char[] chars = name.toCharArray();
+			switch (random.nextInt(3)) {
+			case 0:
+				for (int i = chars.length - 1; i > 0; i--) {
+					if ("AEIOU".indexOf(chars[i]) >= 0 && chars[i - 1] != ' ') {
+						chars[i] = "AEIOU".charAt((("AEIOU".indexOf(chars[i])) + 1 + random.nextInt(4)) % 5);
+						break;
+					}
+				}
+				break;
+			case 1:
+				String doubled = new String(chars).replaceFirst("([BDFGLMNPRST])\\1", "$1");
+				chars = (doubled.length() < chars.length ? doubled
+						: new String(chars).replaceFirst("([LNRST])([AEIOUY])", "$1$1$2")).toCharArray();
+				break;
+			default:
+				chars = new String(chars).replace("PH", "F").replace("CK", "K").toCharArray();
+			}
+			String misspeltDob = random.nextInt(3) == 0
+					? dob.substring(0, 8) + String.format("%02d", 1 + (Integer.parseInt(dob.substring(8)) % 28))
+					: dob;
+			return new Identity(new String(chars), misspeltDob, gender);
+		}
+
+	}
+
+	private static class Result {
+
+		private int queries;
+
+		private int found;
+
+		private long candidates;
+
+		private long nanos;
+
+		double recall() {
+			return (double) found / queries;
+		}
+
+		@Override
+		public String toString() {
+			double seconds = nanos / 1e9;
+			return String.format("recall %.3f, %d candidates, %.0f candidates/sec, %.0f queries/sec", recall(),
+					candidates, candidates / seconds, queries / seconds);
+		}
+
+	}
+
+}
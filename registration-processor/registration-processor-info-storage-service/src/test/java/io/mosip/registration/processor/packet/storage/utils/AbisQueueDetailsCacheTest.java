@@ -0,0 +1,149 @@
+package io.mosip.registration.processor.packet.storage.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyString;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.mosip.registration.processor.abis.queue.dto.AbisQueueDetails;
+import io.mosip.registration.processor.core.queue.factory.MosipQueue;
+import io.mosip.registration.processor.core.spi.queue.MosipQueueConnectionFactory;
+
+/**
+ * Reads the abis queue json from a local config server and checks the queue
+ * details are fetched once per cache ttl, and their connections kept while the
+ * json does not change.
+ */
+public class AbisQueueDetailsCacheTest {
+
+	private static final String ABIS_JSON = "RegistrationProcessorAbis.json";
+
+	private HttpServer configServer;
+
+	private volatile String abisJson = abisJson("abis1");
+
+	private final AtomicInteger abisJsonFetches = new AtomicInteger();
+
+	private MosipQueueConnectionFactory<MosipQueue> mosipConnectionFactory;
+
+	private Utilities utilities;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() throws Exception {
+		configServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		configServer.createContext("/" + ABIS_JSON, exchange -> {
+			abisJsonFetches.incrementAndGet();
+			byte[] body = abisJson.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		configServer.start();
+
+		mosipConnectionFactory = Mockito.mock(MosipQueueConnectionFactory.class);
+		Mockito.when(mosipConnectionFactory.createConnection(anyString(), anyString(), anyString(), anyString()))
+				.thenAnswer(invocation -> Mockito.mock(MosipQueue.class));
+
+		utilities = new Utilities();
+		ReflectionTestUtils.setField(utilities, "configServerFileStorageURL",
+				"http://localhost:" + configServer.getAddress().getPort() + "/");
+		ReflectionTestUtils.setField(utilities, "registrationProcessorAbisJson", ABIS_JSON);
+		ReflectionTestUtils.setField(utilities, "mosipConnectionFactory", mosipConnectionFactory);
+		ReflectionTestUtils.setField(utilities, "abisQueueDetailsCacheTtl", 300L);
+	}
+
+	@After
+	public void tearDown() {
+		configServer.stop(0);
+	}
+
+	@Test
+	public void queueDetailsFetchedOnceWithinTtlTest() throws Exception {
+		List<AbisQueueDetails> first = utilities.getAbisQueueDetails();
+
+		assertSame(first, utilities.getAbisQueueDetails());
+		assertEquals("abis1", first.get(0).getName());
+		assertEquals(1, abisJsonFetches.get());
+	}
+
+	@Test
+	public void expiredQueueDetailsFetchedOnceByConcurrentCallersTest() throws Exception {
+		List<AbisQueueDetails> first = utilities.getAbisQueueDetails();
+		ReflectionTestUtils.setField(utilities, "abisQueueDetailsLoadTime", 0L);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<AbisQueueDetails>>> callers = new ArrayList<>();
+		try {
+			for (int i = 0; i < 8; i++)
+				callers.add(executor.submit(() -> {
+					start.await();
+					return utilities.getAbisQueueDetails();
+				}));
+			start.countDown();
+			for (Future<List<AbisQueueDetails>> caller : callers)
+				assertSame("an unchanged json keeps the queue connections", first, caller.get(30, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(2, abisJsonFetches.get());
+		Mockito.verify(mosipConnectionFactory, Mockito.times(1)).createConnection(anyString(), anyString(),
+				anyString(), anyString());
+	}
+
+	@Test
+	public void changedQueueDetailsRebuiltWhenExpiredTest() throws Exception {
+		List<AbisQueueDetails> first = utilities.getAbisQueueDetails();
+		abisJson = abisJson("abis2");
+
+		assertSame("the change is only seen once the ttl expires", first, utilities.getAbisQueueDetails());
+		ReflectionTestUtils.setField(utilities, "abisQueueDetailsLoadTime", 0L);
+		List<AbisQueueDetails> changed = utilities.getAbisQueueDetails();
+
+		assertNotSame(first, changed);
+		assertEquals("abis2", changed.get(0).getName());
+		assertEquals(2, abisJsonFetches.get());
+	}
+
+	@Test
+	public void noCacheWhenTtlIsZeroTest() throws Exception {
+		ReflectionTestUtils.setField(utilities, "abisQueueDetailsCacheTtl", 0L);
+
+		utilities.getAbisQueueDetails();
+		utilities.getAbisQueueDetails();
+
+		assertEquals(2, abisJsonFetches.get());
+	}
+
+	private static String abisJson(String name) {
+		return "{\"abis\":[{\"name\":\"" + name + "\",\"userName\":\"admin\",\"password\":\"admin\","
+				+ "\"brokerUrl\":\"tcp://localhost:61616\",\"typeOfQueue\":\"ACTIVEMQ\","
+				+ "\"inboundQueueName\":\"" + name + "-inbound\",\"outboundQueueName\":\"" + name
+				+ "-outbound\"}]}";
+	}
+
+}
@@ -0,0 +1,266 @@
+package io.mosip.registration.processor.packet.storage.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.constant.MappingJsonConstants;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.core.util.JsonUtil;
+
+/**
+ * Reads the identity mapping json from a local config server and the id schema
+ * from a stubbed master data service, checks they are fetched and parsed once,
+ * and logs the per call cost of parsing on every call against the cache. The
+ * number of calls per run can be set with -Dconfiguration.json.calls.
+ */
+public class ConfigurationJsonCacheTest {
+
+	private static final int CALLS = Integer.getInteger("configuration.json.calls", 20000);
+
+	private static final String MAPPING_JSON = "RegistrationProcessorIdentity.json";
+
+	private static final Double SCHEMA_VERSION = 0.1;
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(ConfigurationJsonCacheTest.class);
+
+	private HttpServer configServer;
+
+	private volatile String mappingJson;
+
+	private final AtomicInteger mappingJsonFetches = new AtomicInteger();
+
+	private volatile String idSchemaResponse;
+
+	private final AtomicInteger idSchemaFetches = new AtomicInteger();
+
+	private Utilities utilities;
+
+	private IdSchemaUtil idSchemaUtil;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() throws Exception {
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream(MAPPING_JSON)) {
+			mappingJson = IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+		configServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		configServer.createContext("/" + MAPPING_JSON, exchange -> {
+			mappingJsonFetches.incrementAndGet();
+			byte[] body = mappingJson.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		configServer.start();
+
+		utilities = new Utilities();
+		ReflectionTestUtils.setField(utilities, "configServerFileStorageURL",
+				"http://localhost:" + configServer.getAddress().getPort() + "/");
+		ReflectionTestUtils.setField(utilities, "getRegProcessorIdentityJson", MAPPING_JSON);
+		ReflectionTestUtils.setField(utilities, "mappingJsonCacheTtl", 300L);
+
+		idSchemaResponse = idSchemaResponse(40);
+		RegistrationProcessorRestClientService<Object> restClient = Mockito
+				.mock(RegistrationProcessorRestClientService.class);
+		Mockito.when(restClient.getApi(any(), any(), anyList(), anyList(), any())).thenAnswer(invocation -> {
+			idSchemaFetches.incrementAndGet();
+			return idSchemaResponse;
+		});
+		idSchemaUtil = new IdSchemaUtil();
+		ReflectionTestUtils.setField(idSchemaUtil, "registrationProcessorRestClientService", restClient);
+	}
+
+	@After
+	public void tearDown() {
+		configServer.stop(0);
+	}
+
+	@Test
+	public void mappingJsonIsParsedOnceTest() throws IOException {
+		JSONObject first = utilities.getRegistrationProcessorMappingJson();
+		JSONObject second = utilities.getRegistrationProcessorMappingJson();
+
+		assertEquals(first, second);
+		assertNotSame("each caller gets its own identity object", first, second);
+		assertNotSame("and its own mappings", first.get("name"), second.get("name"));
+		assertEquals("fullName", utilities.getMappingJsonValue("name"));
+		assertEquals(1, mappingJsonFetches.get());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void changedMappingIsNotSharedTest() throws IOException {
+		JSONObject first = utilities.getRegistrationProcessorMappingJson();
+		((Map<String, Object>) first.get("name")).put(MappingJsonConstants.VALUE, "changed");
+		first.remove("gender");
+
+		assertEquals("fullName", utilities.getMappingJsonValue("name"));
+		assertNotNull(utilities.getRegistrationProcessorMappingJson().get("gender"));
+	}
+
+	@Test
+	public void expiredMappingJsonIsFetchedOnceByConcurrentCallersTest() throws Exception {
+		utilities.getRegistrationProcessorMappingJson();
+		ReflectionTestUtils.setField(utilities, "mappingJsonLoadTime", 0L);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<JSONObject>> callers = new ArrayList<>();
+		try {
+			for (int i = 0; i < 8; i++)
+				callers.add(executor.submit(() -> {
+					start.await();
+					return utilities.getRegistrationProcessorMappingJson();
+				}));
+			start.countDown();
+			for (Future<JSONObject> caller : callers)
+				assertNotNull(caller.get(30, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(2, mappingJsonFetches.get());
+	}
+
+	@Test
+	public void mappingJsonChangeIsDetectedOnRefreshTest() throws IOException {
+		utilities.getRegistrationProcessorMappingJson();
+		Object parsed = ReflectionTestUtils.getField(utilities, "mappingJsonIdentity");
+
+		utilities.refreshRegistrationProcessorMappingJson();
+		assertSame("an unchanged json is not parsed again", parsed,
+				ReflectionTestUtils.getField(utilities, "mappingJsonIdentity"));
+
+		mappingJson = mappingJson.replace("\"fullName\"", "\"name\"");
+		utilities.refreshRegistrationProcessorMappingJson();
+		assertEquals("name", utilities.getMappingJsonValue("name"));
+		assertEquals(3, mappingJsonFetches.get());
+	}
+
+	@Test
+	public void expiredMappingJsonIsFetchedAgainTest() throws IOException {
+		utilities.getRegistrationProcessorMappingJson();
+		ReflectionTestUtils.setField(utilities, "mappingJsonLoadTime", 0L);
+
+		utilities.getRegistrationProcessorMappingJson();
+
+		assertEquals(2, mappingJsonFetches.get());
+	}
+
+	@Test
+	public void idSchemaIsFetchedAndParsedOnceTest() throws Exception {
+		List<Map<String, String>> first = idSchemaUtil.loadDefaultFields(SCHEMA_VERSION);
+		List<Map<String, String>> second = idSchemaUtil.loadDefaultFields(SCHEMA_VERSION);
+
+		assertSame(first, second);
+		assertEquals(40, idSchemaUtil.getDefaultFields(SCHEMA_VERSION).size());
+		assertEquals(1, idSchemaFetches.get());
+	}
+
+	@Test
+	public void idSchemaChangeIsDetectedOnRefreshTest() throws Exception {
+		List<Map<String, String>> first = idSchemaUtil.loadDefaultFields(SCHEMA_VERSION);
+
+		idSchemaUtil.refreshIdSchema(SCHEMA_VERSION);
+		assertSame(first, idSchemaUtil.loadDefaultFields(SCHEMA_VERSION));
+
+		idSchemaResponse = idSchemaResponse(41);
+		idSchemaUtil.refreshIdSchema(SCHEMA_VERSION);
+		assertEquals(41, idSchemaUtil.loadDefaultFields(SCHEMA_VERSION).size());
+
+		idSchemaUtil.invalidateIdSchemas();
+		idSchemaUtil.getIdSchema(SCHEMA_VERSION);
+		assertEquals(4, idSchemaFetches.get());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void defaultFieldsCannotBeModifiedTest() throws Exception {
+		idSchemaUtil.loadDefaultFields(SCHEMA_VERSION).clear();
+	}
+
+	@Test
+	public void perCallCostTest() throws Exception {
+		utilities.getRegistrationProcessorMappingJson();
+		idSchemaUtil.loadDefaultFields(SCHEMA_VERSION);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < CALLS; i++)
+			JsonUtil.getJSONObject(new ObjectMapper().readValue(mappingJson, JSONObject.class),
+					MappingJsonConstants.IDENTITY);
+		double mappingParsed = (System.nanoTime() - start) / (double) CALLS;
+		start = System.nanoTime();
+		for (int i = 0; i < CALLS; i++)
+			utilities.getRegistrationProcessorMappingJson();
+		double mappingCached = (System.nanoTime() - start) / (double) CALLS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < CALLS; i++)
+			ReflectionTestUtils.invokeMethod(idSchemaUtil, "parseDefaultFields", SCHEMA_VERSION);
+		double schemaParsed = (System.nanoTime() - start) / (double) CALLS;
+		start = System.nanoTime();
+		for (int i = 0; i < CALLS; i++)
+			idSchemaUtil.loadDefaultFields(SCHEMA_VERSION);
+		double schemaCached = (System.nanoTime() - start) / (double) CALLS;
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+				String.format(
+						"per call : mapping json parsed %.0f ns, cached %.0f ns; id schema fields parsed %.0f ns, cached %.0f ns",
+						mappingParsed, mappingCached, schemaParsed, schemaCached));
+		assertEquals(1, mappingJsonFetches.get());
+		assertEquals(1, idSchemaFetches.get());
+	}
+
+	private static String idSchemaResponse(int fields) {
+		org.json.JSONObject properties = new org.json.JSONObject();
+		for (int i = 0; i < fields; i++) {
+			org.json.JSONObject field = new org.json.JSONObject();
+			field.put("fieldCategory", i % 2 == 0 ? "pvt" : "none");
+			field.put("$ref", "#/definitions/simpleType");
+			properties.put("field" + i, field);
+		}
+		org.json.JSONObject evidence = new org.json.JSONObject();
+		evidence.put("fieldCategory", "evidence");
+		evidence.put("$ref", "#/definitions/documentType");
+		properties.put("proofOfAddress", evidence);
+		org.json.JSONObject schema = new org.json.JSONObject().put("properties",
+				new org.json.JSONObject().put("identity", new org.json.JSONObject().put("properties", properties)));
+		return new org.json.JSONObject().put("response", new org.json.JSONObject().put("schemaJson", schema.toString()))
+				.toString();
+	}
+
+}
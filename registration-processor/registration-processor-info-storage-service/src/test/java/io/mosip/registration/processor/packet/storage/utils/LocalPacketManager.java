@@ -0,0 +1,145 @@
+package io.mosip.registration.processor.packet.storage.utils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.mosip.registration.processor.core.code.ApiName;
+import io.mosip.registration.processor.core.http.RequestWrapper;
+import io.mosip.registration.processor.core.http.ResponseWrapper;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.packet.storage.dto.Document;
+import io.mosip.registration.processor.packet.storage.dto.DocumentDto;
+import io.mosip.registration.processor.packet.storage.dto.FieldDto;
+import io.mosip.registration.processor.packet.storage.dto.FieldDtos;
+import io.mosip.registration.processor.packet.storage.dto.FieldResponseDto;
+import io.mosip.registration.processor.packet.storage.dto.InfoDto;
+
+/**
+ * Packet manager kept in memory, served through the rest client the
+ * {@link PacketManagerService} posts its requests to. Only the field, fields,
+ * document, meta info and audits searches are served. Every request is counted
+ * against the registration id it is made for, so tests can count the remote
+ * calls made per packet.
+ */
+public class LocalPacketManager {
+
+	private final Map<String, Map<String, String>> fields = new ConcurrentHashMap<>();
+
+	private final Map<String, Map<String, String>> metaInfo = new ConcurrentHashMap<>();
+
+	private final Map<String, Map<String, Document>> documents = new ConcurrentHashMap<>();
+
+	private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+	public void putField(String id, String field, String value) {
+		fields.computeIfAbsent(id, k -> new ConcurrentHashMap<>()).put(field, value);
+	}
+
+	public void putMetaInfo(String id, String key, String value) {
+		metaInfo.computeIfAbsent(id, k -> new ConcurrentHashMap<>()).put(key, value);
+	}
+
+	public void putDocument(String id, String documentName, Document document) {
+		documents.computeIfAbsent(id, k -> new ConcurrentHashMap<>()).put(documentName, document);
+	}
+
+	/**
+	 * Gets the number of requests made for a packet.
+	 *
+	 * @param id
+	 *            the registration id
+	 * @return the number of requests
+	 */
+	public int getCalls(String id) {
+		AtomicInteger count = calls.get(id);
+		return count == null ? 0 : count.get();
+	}
+
+	public void resetCalls() {
+		calls.clear();
+	}
+
+	/**
+	 * Gets this packet manager as the rest client of the packet manager
+	 * service.
+	 *
+	 * @return the rest client
+	 */
+	@SuppressWarnings("unchecked")
+	public RegistrationProcessorRestClientService<Object> asRestClient() {
+		return (RegistrationProcessorRestClientService<Object>) Proxy.newProxyInstance(
+				RegistrationProcessorRestClientService.class.getClassLoader(),
+				new Class<?>[] { RegistrationProcessorRestClientService.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "postApi":
+						if (args.length == 5 && args[0] instanceof ApiName)
+							return post((ApiName) args[0], ((RequestWrapper<?>) args[3]).getRequest());
+						throw new UnsupportedOperationException(method.getName());
+					case "toString":
+						return "LocalPacketManager";
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private ResponseWrapper<Object> post(ApiName apiName, Object request) {
+		ResponseWrapper<Object> response = new ResponseWrapper<>();
+		switch (apiName) {
+		case PACKETMANAGER_SEARCH_FIELD:
+			FieldDto fieldDto = (FieldDto) request;
+			count(fieldDto.getId());
+			Map<String, String> field = new HashMap<>();
+			field.put(fieldDto.getField(), fields(fieldDto.getId()).get(fieldDto.getField()));
+			response.setResponse(new FieldResponseDto(field));
+			break;
+		case PACKETMANAGER_SEARCH_FIELDS:
+			FieldDtos fieldDtos = (FieldDtos) request;
+			count(fieldDtos.getId());
+			Map<String, String> searched = new HashMap<>();
+			for (String name : fieldDtos.getFields())
+				searched.put(name, fields(fieldDtos.getId()).get(name));
+			response.setResponse(new FieldResponseDto(searched));
+			break;
+		case PACKETMANAGER_SEARCH_DOCUMENT:
+			DocumentDto documentDto = (DocumentDto) request;
+			count(documentDto.getId());
+			response.setResponse(documents.getOrDefault(documentDto.getId(), new HashMap<>())
+					.get(documentDto.getDocumentName()));
+			break;
+		case PACKETMANAGER_SEARCH_METAINFO:
+			InfoDto infoDto = (InfoDto) request;
+			count(infoDto.getId());
+			response.setResponse(
+					new FieldResponseDto(new LinkedHashMap<>(metaInfo.getOrDefault(infoDto.getId(), new HashMap<>()))));
+			break;
+		case PACKETMANAGER_SEARCH_AUDITS:
+			count(((InfoDto) request).getId());
+			List<Object> audits = new ArrayList<>();
+			response.setResponse(audits);
+			break;
+		default:
+			throw new UnsupportedOperationException(apiName.name());
+		}
+		return response;
+	}
+
+	private Map<String, String> fields(String id) {
+		return fields.getOrDefault(id, new HashMap<>());
+	}
+
+	private void count(String id) {
+		calls.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+	}
+
+}
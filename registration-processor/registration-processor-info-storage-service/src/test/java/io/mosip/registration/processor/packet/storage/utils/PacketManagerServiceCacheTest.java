@@ -0,0 +1,148 @@
+package io.mosip.registration.processor.packet.storage.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.mosip.registration.processor.packet.storage.dto.Document;
+
+/**
+ * Reads packets through the packet manager service against a local packet
+ * manager and counts the remote calls made per packet.
+ */
+public class PacketManagerServiceCacheTest {
+
+	private static final String ID = "10001100010000000000000000001";
+
+	private static final String SOURCE = "REGISTRATION_CLIENT";
+
+	private static final String PROCESS = "NEW";
+
+	private LocalPacketManager packetManager;
+
+	private PacketManagerService packetManagerService;
+
+	@Before
+	public void setup() {
+		packetManager = new LocalPacketManager();
+		packetManager.putField(ID, "fullName", "[{\"language\":\"eng\",\"value\":\"Test\"}]");
+		packetManager.putField(ID, "gender", "[{\"language\":\"eng\",\"value\":\"Male\"}]");
+		packetManager.putField(ID, "dateOfBirth", "1990/01/01");
+		packetManager.putField(ID, "UIN", "null");
+		packetManager.putMetaInfo(ID, "creationDate", "2020-10-16T10:00:00.000Z");
+		Document document = new Document();
+		document.setValue("proofOfAddress");
+		document.setType("DOC001");
+		document.setFormat("pdf");
+		document.setDocument(new byte[] { 1, 2, 3 });
+		packetManager.putDocument(ID, "proofOfAddress", document);
+
+		packetManagerService = new PacketManagerService();
+		ReflectionTestUtils.setField(packetManagerService, "restApi", packetManager.asRestClient());
+		ReflectionTestUtils.setField(packetManagerService, "objectMapper",
+				new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+		ReflectionTestUtils.setField(packetManagerService, "cacheTtlSeconds", 60L);
+		ReflectionTestUtils.setField(packetManagerService, "cacheMaxPackets", 10);
+	}
+
+	@Test
+	public void prefetchedFieldsAreFetchedOnceTest() throws Exception {
+		packetManagerService.prefetchFields(ID, Arrays.asList("fullName", "gender", "dateOfBirth", "UIN", "gender"),
+				SOURCE, PROCESS);
+
+		assertEquals("1990/01/01", packetManagerService.getField(ID, "dateOfBirth", SOURCE, PROCESS));
+		assertEquals("[{\"language\":\"eng\",\"value\":\"Male\"}]",
+				packetManagerService.getField(ID, "gender", SOURCE, PROCESS));
+		assertNull(packetManagerService.getField(ID, "UIN", SOURCE, PROCESS));
+		Map<String, String> fields = packetManagerService.getFields(ID, Arrays.asList("fullName", "dateOfBirth"),
+				SOURCE, PROCESS);
+		assertEquals(2, fields.size());
+		assertEquals(1, packetManager.getCalls(ID));
+	}
+
+	@Test
+	public void repeatedReadsAreServedFromCacheTest() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			packetManagerService.getField(ID, "dateOfBirth", SOURCE, PROCESS);
+			packetManagerService.getMetaInfo(ID, SOURCE, PROCESS);
+			packetManagerService.getAudits(ID, SOURCE, PROCESS);
+		}
+		assertEquals(3, packetManager.getCalls(ID));
+
+		packetManagerService.getFields(ID, Arrays.asList("dateOfBirth", "gender"), SOURCE, PROCESS);
+		assertEquals("only the field not read yet is fetched", 4, packetManager.getCalls(ID));
+	}
+
+	@Test
+	public void documentsAreNotCachedTest() throws Exception {
+		Document document = packetManagerService.getDocument(ID, "proofOfAddress", SOURCE, PROCESS);
+		document.getDocument()[0] = 9;
+		Document readAgain = packetManagerService.getDocument(ID, "proofOfAddress", SOURCE, PROCESS);
+
+		assertEquals(2, packetManager.getCalls(ID));
+		assertEquals(1, readAgain.getDocument()[0]);
+	}
+
+	@Test
+	public void missingFieldsAreCachedTest() throws Exception {
+		Map<String, String> fields = packetManagerService.getFields(ID, Arrays.asList("dateOfBirth", "email"),
+				SOURCE, PROCESS);
+		Map<String, String> cachedFields = packetManagerService.getFields(ID, Arrays.asList("dateOfBirth", "email"),
+				SOURCE, PROCESS);
+
+		assertEquals(fields, cachedFields);
+		assertEquals(1, packetManager.getCalls(ID));
+	}
+
+	@Test
+	public void otherProcessIsFetchedAgainTest() throws Exception {
+		packetManagerService.getField(ID, "dateOfBirth", SOURCE, PROCESS);
+		packetManagerService.getField(ID, "dateOfBirth", SOURCE, "UPDATE");
+
+		assertEquals(2, packetManager.getCalls(ID));
+	}
+
+	@Test
+	public void evictedPacketIsFetchedAgainTest() throws Exception {
+		packetManagerService.getField(ID, "dateOfBirth", SOURCE, PROCESS);
+		packetManagerService.evictPacket(ID);
+		packetManagerService.getField(ID, "dateOfBirth", SOURCE, PROCESS);
+
+		assertEquals(2, packetManager.getCalls(ID));
+	}
+
+	@Test
+	public void disabledCacheTest() throws Exception {
+		ReflectionTestUtils.setField(packetManagerService, "cacheTtlSeconds", 0L);
+
+		packetManagerService.prefetchFields(ID, Arrays.asList("dateOfBirth"), SOURCE, PROCESS);
+		packetManagerService.getField(ID, "dateOfBirth", SOURCE, PROCESS);
+		packetManagerService.getField(ID, "dateOfBirth", SOURCE, PROCESS);
+
+		assertEquals(2, packetManager.getCalls(ID));
+	}
+
+	@Test
+	public void fullCacheFallsBackToRemoteCallsTest() throws Exception {
+		ReflectionTestUtils.setField(packetManagerService, "cacheMaxPackets", 1);
+		String otherId = "10001100010000000000000000002";
+		packetManager.putField(otherId, "dateOfBirth", "1980/01/01");
+
+		packetManagerService.getField(ID, "dateOfBirth", SOURCE, PROCESS);
+		packetManagerService.getField(otherId, "dateOfBirth", SOURCE, PROCESS);
+		packetManagerService.getField(otherId, "dateOfBirth", SOURCE, PROCESS);
+
+		assertEquals(2, packetManager.getCalls(otherId));
+		assertEquals(1, packetManager.getCalls(ID));
+	}
+
+}
@@ -1,5 +1,7 @@
 package io.mosip.registration.processor.message.sender.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.multipart.MultipartFile;
@@ -8,7 +10,9 @@ import io.mosip.registration.processor.core.notification.template.generator.dto.
 import io.mosip.registration.processor.core.notification.template.generator.dto.SmsResponseDto;
 import io.mosip.registration.processor.core.spi.message.sender.MessageNotificationService;
 import io.mosip.registration.processor.message.sender.service.impl.MessageNotificationServiceImpl;
+import io.mosip.registration.processor.message.sender.template.FileSystemTemplateSource;
 import io.mosip.registration.processor.message.sender.template.TemplateGenerator;
+import io.mosip.registration.processor.message.sender.template.TemplateSource;
 
 @Configuration
 public class MsgNotificationBeanCofig {
@@ -22,5 +26,12 @@ public class MsgNotificationBeanCofig {
 	public TemplateGenerator getTemplateGenerator() {
 		return new TemplateGenerator();
 	}
+
+	@Bean
+	@ConditionalOnProperty(name = "registration.processor.notification.template.directory")
+	public TemplateSource getFileSystemTemplateSource(
+			@Value("${registration.processor.notification.template.directory}") String directory) {
+		return new FileSystemTemplateSource(directory);
+	}
 	
 }
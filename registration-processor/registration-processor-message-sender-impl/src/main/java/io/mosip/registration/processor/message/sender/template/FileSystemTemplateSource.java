@@ -0,0 +1,38 @@
+package io.mosip.registration.processor.message.sender.template;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reads the templates from a local directory, laid out as
+ * {@code <directory>/<langCode>/<templateTypeCode>.vm}. Meant for tests and
+ * local runs without the master data templates service.
+ */
+public class FileSystemTemplateSource implements TemplateSource {
+
+	private static final String EXTENSION = ".vm";
+
+	private final Path directory;
+
+	/**
+	 * Instantiates a new file system template source.
+	 *
+	 * @param directory
+	 *            the template directory
+	 */
+	public FileSystemTemplateSource(String directory) {
+		this.directory = Paths.get(directory);
+	}
+
+	@Override
+	public String getTemplateText(String templateTypeCode, String langCode) throws IOException {
+		Path file = directory.resolve(langCode).resolve(templateTypeCode + EXTENSION);
+		if (!Files.isRegularFile(file))
+			return null;
+		return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+	}
+
+}
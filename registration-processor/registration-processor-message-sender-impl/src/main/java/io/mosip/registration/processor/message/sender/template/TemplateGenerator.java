@@ -3,19 +3,31 @@ package io.mosip.registration.processor.message.sender.template;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.MethodInvocationException;
+import org.apache.velocity.exception.ParseErrorException;
 import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.RuntimeInstance;
 import org.apache.velocity.runtime.log.NullLogChute;
+import org.apache.velocity.runtime.parser.ParseException;
 import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
 import org.apache.velocity.runtime.resource.loader.FileResourceLoader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -38,6 +50,11 @@ import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessor
 
 /**
  * The Class TemplateGenerator.
+ * <p>
+ * Templates are parsed once by a single velocity runtime and kept compiled per
+ * template type code and language. A cached template is used until its time to
+ * live runs out; the text is then fetched again and only parsed again if it
+ * has changed. {@link #invalidate(String, String)} drops a template at once.
  * 
  * @author M1048358 Alok
  */
@@ -66,6 +83,23 @@ public class TemplateGenerator {
 	@Autowired
 	private ObjectMapper mapper;
 
+	/** The template source, the master data templates service when not set. */
+	@Autowired(required = false)
+	private TemplateSource templateSource;
+
+	/** The time to live of a compiled template, 0 to fetch the text every time. */
+	@Value("${registration.processor.notification.template.cache.ttl-seconds:600}")
+	private long templateCacheTtlSeconds;
+
+	/** The compiled templates, by template type code and lang code. */
+	private final Map<String, CompiledTemplate> templateCache = new ConcurrentHashMap<>();
+
+	/** The velocity runtime which parses the templates. */
+	private volatile RuntimeInstance runtimeInstance;
+
+	/** The template manager. */
+	private volatile TemplateManager templateManager;
+
 	/**
 	 * Gets the template.
 	 *
@@ -84,32 +118,25 @@ public class TemplateGenerator {
 	public InputStream getTemplate(String templateTypeCode, Map<String, Object> attributes, String langCode)
 			throws IOException, ApisResourceAccessException {
 
-		ResponseWrapper<?> responseWrapper;
-		TemplateResponseDto template;
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
 				"TemplateGenerator::getTemplate()::entry");
 
 		try {
-			List<String> pathSegments = new ArrayList<>();
-			pathSegments.add(langCode);
-			pathSegments.add(templateTypeCode);
-
-			responseWrapper = (ResponseWrapper<?>) restClientService.getApi(ApiName.TEMPLATES, pathSegments, "", "",
-					ResponseWrapper.class);
-			template = mapper.readValue(mapper.writeValueAsString(responseWrapper.getResponse()),
-					TemplateResponseDto.class);
+			Template template = getCompiledTemplate(templateTypeCode, langCode);
 
 			InputStream fileTextStream = null;
 			if (template != null) {
-				InputStream stream = new ByteArrayInputStream(
-						template.getTemplates().iterator().next().getFileText().getBytes());
-				fileTextStream = getTemplateManager().merge(stream, attributes);
+				StringWriter writer = new StringWriter();
+				template.merge(new VelocityContext(attributes == null ? new HashMap<>() : new HashMap<>(attributes)),
+						writer);
+				fileTextStream = new ByteArrayInputStream(writer.toString().getBytes(defaultEncoding));
 			}
 			regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
 					"TemplateGenerator::getTemplate()::exit");
 			return fileTextStream;
 
-		} catch (TemplateResourceNotFoundException | TemplateParsingException | TemplateMethodInvocationException e) {
+		} catch (TemplateResourceNotFoundException | TemplateParsingException | TemplateMethodInvocationException
+				| ParseException | ParseErrorException | MethodInvocationException e) {
 			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 					null, PlatformErrorMessages.RPR_TEM_PROCESSING_FAILURE.name() + e.getMessage()
 							+ ExceptionUtils.getStackTrace(e));
@@ -117,12 +144,137 @@ public class TemplateGenerator {
 		}
 	}
 
+	/**
+	 * Drops the compiled template, the next notification fetches it again.
+	 *
+	 * @param templateTypeCode
+	 *            the template type code
+	 * @param langCode
+	 *            the lang code
+	 */
+	public void invalidate(String templateTypeCode, String langCode) {
+		templateCache.remove(cacheKey(templateTypeCode, langCode));
+	}
+
+	/**
+	 * Drops all the compiled templates.
+	 */
+	public void invalidateAll() {
+		templateCache.clear();
+	}
+
 	/**
 	 * Gets the template manager.
 	 *
 	 * @return the template manager
 	 */
 	public TemplateManager getTemplateManager() {
+		if (templateManager == null) {
+			synchronized (this) {
+				if (templateManager == null) {
+					VelocityEngine engine = new VelocityEngine(getVelocityProperties());
+					engine.init();
+					templateManager = new TemplateManagerImpl(engine);
+				}
+			}
+		}
+		return templateManager;
+	}
+
+	/**
+	 * Gets the compiled template, parsing it only when its text is new or has
+	 * changed.
+	 *
+	 * @param templateTypeCode
+	 *            the template type code
+	 * @param langCode
+	 *            the lang code
+	 * @return the compiled template, null if there is no such template
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ApisResourceAccessException
+	 *             the apis resource access exception
+	 * @throws ParseException
+	 *             if the template text is not valid
+	 */
+	private Template getCompiledTemplate(String templateTypeCode, String langCode)
+			throws IOException, ApisResourceAccessException, ParseException {
+		String key = cacheKey(templateTypeCode, langCode);
+		long now = System.nanoTime();
+		CompiledTemplate cached = templateCache.get(key);
+		if (cached != null && now < cached.expiresAt)
+			return cached.template;
+
+		String fileText = templateSource != null ? templateSource.getTemplateText(templateTypeCode, langCode)
+				: getTemplateText(templateTypeCode, langCode);
+		if (fileText == null) {
+			templateCache.remove(key);
+			return null;
+		}
+		Template template;
+		if (cached != null && cached.fileText.equals(fileText)) {
+			template = cached.template;
+		} else {
+			template = compile(key, fileText);
+		}
+		templateCache.put(key, new CompiledTemplate(fileText, template,
+				now + TimeUnit.SECONDS.toNanos(Math.max(templateCacheTtlSeconds, 0))));
+		return template;
+	}
+
+	/**
+	 * Fetches the template text from the master data templates service.
+	 *
+	 * @param templateTypeCode
+	 *            the template type code
+	 * @param langCode
+	 *            the lang code
+	 * @return the template text
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ApisResourceAccessException
+	 *             the apis resource access exception
+	 */
+	private String getTemplateText(String templateTypeCode, String langCode)
+			throws IOException, ApisResourceAccessException {
+		List<String> pathSegments = new ArrayList<>();
+		pathSegments.add(langCode);
+		pathSegments.add(templateTypeCode);
+
+		ResponseWrapper<?> responseWrapper = (ResponseWrapper<?>) restClientService.getApi(ApiName.TEMPLATES,
+				pathSegments, "", "", ResponseWrapper.class);
+		TemplateResponseDto template = mapper.readValue(mapper.writeValueAsString(responseWrapper.getResponse()),
+				TemplateResponseDto.class);
+		if (template == null)
+			return null;
+		return template.getTemplates().iterator().next().getFileText();
+	}
+
+	private Template compile(String name, String fileText) throws ParseException {
+		RuntimeInstance runtime = getRuntimeInstance();
+		Template template = new Template();
+		template.setName(name);
+		template.setEncoding(defaultEncoding);
+		template.setRuntimeServices(runtime);
+		template.setData(runtime.parse(new StringReader(fileText), name));
+		template.initDocument();
+		return template;
+	}
+
+	private RuntimeInstance getRuntimeInstance() {
+		if (runtimeInstance == null) {
+			synchronized (this) {
+				if (runtimeInstance == null) {
+					RuntimeInstance runtime = new RuntimeInstance();
+					runtime.init(getVelocityProperties());
+					runtimeInstance = runtime;
+				}
+			}
+		}
+		return runtimeInstance;
+	}
+
+	private Properties getVelocityProperties() {
 		final Properties properties = new Properties();
 		properties.put(RuntimeConstants.INPUT_ENCODING, defaultEncoding);
 		properties.put(RuntimeConstants.OUTPUT_ENCODING, defaultEncoding);
@@ -133,8 +285,29 @@ public class TemplateGenerator {
 		properties.put(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS, NullLogChute.class.getName());
 		properties.put("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
 		properties.put("file.resource.loader.class", FileResourceLoader.class.getName());
-		VelocityEngine engine = new VelocityEngine(properties);
-		engine.init();
-		return new TemplateManagerImpl(engine);
+		return properties;
+	}
+
+	private static String cacheKey(String templateTypeCode, String langCode) {
+		return templateTypeCode + "_" + langCode;
+	}
+
+	/**
+	 * A parsed template with the text it was parsed from.
+	 */
+	private static class CompiledTemplate {
+
+		private final String fileText;
+
+		private final Template template;
+
+		private final long expiresAt;
+
+		CompiledTemplate(String fileText, Template template, long expiresAt) {
+			this.fileText = fileText;
+			this.template = template;
+			this.expiresAt = expiresAt;
+		}
+
 	}
 }
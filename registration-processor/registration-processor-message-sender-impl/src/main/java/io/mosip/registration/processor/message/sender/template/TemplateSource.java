@@ -0,0 +1,29 @@
+package io.mosip.registration.processor.message.sender.template;
+
+import java.io.IOException;
+
+import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
+
+/**
+ * Source of the notification template texts used by {@link TemplateGenerator}.
+ * When no source is configured the templates are fetched from the master data
+ * templates service.
+ */
+public interface TemplateSource {
+
+	/**
+	 * Gets the template text.
+	 *
+	 * @param templateTypeCode
+	 *            the template type code
+	 * @param langCode
+	 *            the lang code
+	 * @return the template text, null if there is no such template
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ApisResourceAccessException
+	 *             the apis resource access exception
+	 */
+	String getTemplateText(String templateTypeCode, String langCode) throws IOException, ApisResourceAccessException;
+
+}
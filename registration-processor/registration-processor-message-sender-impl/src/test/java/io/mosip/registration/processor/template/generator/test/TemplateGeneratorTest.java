@@ -20,6 +20,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -30,6 +31,7 @@ import io.mosip.registration.processor.core.http.ResponseWrapper;
 import io.mosip.registration.processor.core.notification.template.generator.dto.TemplateDto;
 import io.mosip.registration.processor.core.notification.template.generator.dto.TemplateResponseDto;
 import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.message.sender.template.FileSystemTemplateSource;
 import io.mosip.registration.processor.message.sender.template.TemplateGenerator;
 
 /**
@@ -114,4 +116,51 @@ public class TemplateGeneratorTest {
 		templateGenerator.getTemplate(templateTypeCode, attributes, langCode);
 	}
 
+	@Test
+	public void testCompiledTemplateCache() throws IOException, ApisResourceAccessException {
+		ReflectionTestUtils.setField(templateGenerator, "templateCacheTtlSeconds", 600);
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("FirstName", "Alok");
+
+		for (int i = 0; i < 3; i++) {
+			InputStream result = templateGenerator.getTemplate("SMS", attributes, "eng");
+			Assert.assertEquals("Hi Alok, your UIN is generated", IOUtils.toString(result, "UTF-8"));
+		}
+		Mockito.verify(restClientService, Mockito.times(1)).getApi(any(), any(), anyString(), any(), any());
+
+		templateGenerator.invalidate("SMS", "eng");
+		templateDto.setFileText("Hello $FirstName");
+		InputStream result = templateGenerator.getTemplate("SMS", attributes, "eng");
+		Assert.assertEquals("Hello Alok", IOUtils.toString(result, "UTF-8"));
+		Mockito.verify(restClientService, Mockito.times(2)).getApi(any(), any(), anyString(), any(), any());
+	}
+
+	@Test
+	public void testExpiredTemplateIsFetchedAgain() throws IOException, ApisResourceAccessException {
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("FirstName", "Alok");
+
+		templateGenerator.getTemplate("SMS", attributes, "eng");
+		templateDto.setFileText("Hello $FirstName");
+		InputStream result = templateGenerator.getTemplate("SMS", attributes, "eng");
+
+		Assert.assertEquals("Hello Alok", IOUtils.toString(result, "UTF-8"));
+		Mockito.verify(restClientService, Mockito.times(2)).getApi(any(), any(), anyString(), any(), any());
+	}
+
+	@Test
+	public void testFileSystemTemplateSource() throws IOException, ApisResourceAccessException {
+		ReflectionTestUtils.setField(templateGenerator, "templateSource",
+				new FileSystemTemplateSource("src/test/resources/templates"));
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("RID", "10003100030001520190422074511");
+		attributes.put("UIN", "4215839851");
+
+		InputStream result = templateGenerator.getTemplate("RPR_UIN_GEN_SMS", attributes, "eng");
+
+		Assert.assertTrue(IOUtils.toString(result, "UTF-8").contains("4215839851"));
+		Assert.assertNull(templateGenerator.getTemplate("RPR_UNKNOWN", attributes, "eng"));
+		Mockito.verify(restClientService, Mockito.never()).getApi(any(), any(), anyString(), any(), any());
+	}
+
 }
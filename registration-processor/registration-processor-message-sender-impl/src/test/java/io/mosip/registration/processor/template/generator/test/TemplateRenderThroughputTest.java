@@ -0,0 +1,112 @@
+package io.mosip.registration.processor.template.generator.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.log.NullLogChute;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.kernel.templatemanager.velocity.impl.TemplateManagerImpl;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.message.sender.template.FileSystemTemplateSource;
+import io.mosip.registration.processor.message.sender.template.TemplateGenerator;
+
+/**
+ * Compares the render throughput of the sms and email templates with an engine
+ * built per notification and with the compiled template cache. The number of
+ * renders can be raised with -Dtemplate.renders.
+ */
+public class TemplateRenderThroughputTest {
+
+	private static final int RENDERS = Integer.getInteger("template.renders", 2000);
+
+	private static final String TEMPLATE_DIRECTORY = "src/test/resources/templates";
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(TemplateRenderThroughputTest.class);
+
+	private TemplateGenerator templateGenerator;
+
+	private FileSystemTemplateSource templateSource;
+
+	private Map<String, Object> attributes;
+
+	@Before
+	public void setup() {
+		templateSource = new FileSystemTemplateSource(TEMPLATE_DIRECTORY);
+		templateGenerator = new TemplateGenerator();
+		ReflectionTestUtils.setField(templateGenerator, "templateSource", templateSource);
+		ReflectionTestUtils.setField(templateGenerator, "templateCacheTtlSeconds", 600);
+
+		Map<String, String> details = new LinkedHashMap<>();
+		details.put("Center", "10003");
+		details.put("Machine", "10001");
+		attributes = new HashMap<>();
+		attributes.put("name", "Alok Ranjan");
+		attributes.put("RID", "10003100030001520190422074511");
+		attributes.put("UIN", "4215839851");
+		attributes.put("details", details);
+	}
+
+	@Test
+	public void smsRenderThroughputTest() throws IOException, ApisResourceAccessException {
+		renderThroughput("RPR_UIN_GEN_SMS");
+	}
+
+	@Test
+	public void emailRenderThroughputTest() throws IOException, ApisResourceAccessException {
+		renderThroughput("RPR_UIN_GEN_EMAIL");
+	}
+
+	private void renderThroughput(String templateTypeCode) throws IOException, ApisResourceAccessException {
+		String expected = renderWithNewEngine(templateTypeCode);
+		assertTrue(expected.contains("4215839851"));
+		assertEquals(expected, IOUtils.toString(templateGenerator.getTemplate(templateTypeCode, attributes, "eng"),
+				StandardCharsets.UTF_8.name()));
+
+		long start = System.nanoTime();
+		for (int i = 0; i < RENDERS; i++)
+			renderWithNewEngine(templateTypeCode);
+		double newEnginePerSecond = RENDERS / ((System.nanoTime() - start) / 1e9);
+
+		start = System.nanoTime();
+		for (int i = 0; i < RENDERS; i++)
+			templateGenerator.getTemplate(templateTypeCode, attributes, "eng");
+		double cachedPerSecond = RENDERS / ((System.nanoTime() - start) / 1e9);
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format("%s : engine per render %.0f renders/s, compiled template cache %.0f renders/s",
+						templateTypeCode, newEnginePerSecond, cachedPerSecond));
+		assertTrue(cachedPerSecond > newEnginePerSecond);
+	}
+
+	private String renderWithNewEngine(String templateTypeCode) throws IOException {
+		Properties properties = new Properties();
+		properties.put(RuntimeConstants.INPUT_ENCODING, StandardCharsets.UTF_8.name());
+		properties.put(RuntimeConstants.OUTPUT_ENCODING, StandardCharsets.UTF_8.name());
+		properties.put(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS, NullLogChute.class.getName());
+		VelocityEngine engine = new VelocityEngine(properties);
+		engine.init();
+		InputStream template = new ByteArrayInputStream(
+				templateSource.getTemplateText(templateTypeCode, "eng").getBytes(StandardCharsets.UTF_8));
+		return IOUtils.toString(new TemplateManagerImpl(engine).merge(template, attributes),
+				StandardCharsets.UTF_8.name());
+	}
+
+}
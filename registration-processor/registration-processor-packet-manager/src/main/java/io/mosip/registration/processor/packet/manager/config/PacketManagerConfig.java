@@ -1,18 +1,28 @@
 package io.mosip.registration.processor.packet.manager.config;
 
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 
 import io.mosip.registration.processor.core.spi.filesystem.manager.FileManager;
 import io.mosip.registration.processor.packet.manager.decryptor.Decryptor;
 import io.mosip.registration.processor.packet.manager.decryptor.DecryptorImpl;
+import io.mosip.registration.processor.packet.manager.decryptor.AesGcmCryptoProvider;
+import io.mosip.registration.processor.packet.manager.decryptor.PacketCryptoProvider;
 import io.mosip.registration.processor.packet.manager.dto.DirectoryPathDto;
 import io.mosip.registration.processor.packet.manager.idreposervice.IdRepoService;
 import io.mosip.registration.processor.packet.manager.idreposervice.impl.IdRepoServiceImpl;
 import io.mosip.registration.processor.packet.manager.service.impl.FileManagerImpl;
+import io.mosip.registration.processor.packet.manager.utils.ZipLimits;
+import io.mosip.registration.processor.packet.manager.utils.ZipUtils;
 
 /**
  * The Class PacketManagerConfig.
@@ -38,4 +48,38 @@ public class PacketManagerConfig {
         return new DecryptorImpl();
     }
 
+	@Bean
+	@ConditionalOnProperty(name = "registration.processor.decryptor.local.keystore-path")
+	public PacketCryptoProvider getPacketCryptoProvider(Environment env)
+			throws GeneralSecurityException, IOException {
+		char[] password = env.getProperty("registration.processor.decryptor.local.keystore-password", "")
+				.toCharArray();
+		KeyStore keyStore = KeyStore
+				.getInstance(env.getProperty("registration.processor.decryptor.local.keystore-type", "PKCS12"));
+		try (InputStream in = new FileInputStream(
+				env.getProperty("registration.processor.decryptor.local.keystore-path"))) {
+			keyStore.load(in, password);
+		}
+		return new AesGcmCryptoProvider(keyStore, password,
+				env.getProperty("registration.processor.decryptor.local.default-alias"),
+				env.getProperty("registration.processor.decryptor.local.buffer-size", Integer.class, 64 * 1024));
+	}
+
+	@Bean
+	public ZipLimits getZipLimits(Environment env) {
+		ZipLimits limits = new ZipLimits(
+				env.getProperty("registration.processor.zip.max-entries", Integer.class,
+						ZipLimits.DEFAULT.getMaxEntries()),
+				env.getProperty("registration.processor.zip.max-entry-size", Long.class,
+						ZipLimits.DEFAULT.getMaxEntrySize()),
+				env.getProperty("registration.processor.zip.max-total-size", Long.class,
+						ZipLimits.DEFAULT.getMaxTotalSize()),
+				env.getProperty("registration.processor.zip.max-compression-ratio", Integer.class,
+						ZipLimits.DEFAULT.getMaxCompressionRatio()),
+				env.getProperty("registration.processor.zip.buffer-size", Integer.class,
+						ZipLimits.DEFAULT.getBufferSize()));
+		ZipUtils.setLimits(limits);
+		return limits;
+	}
+
 }
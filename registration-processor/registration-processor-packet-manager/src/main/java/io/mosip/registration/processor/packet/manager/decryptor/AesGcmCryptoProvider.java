@@ -0,0 +1,108 @@
+package io.mosip.registration.processor.packet.manager.decryptor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.UnrecoverableKeyException;
+
+import javax.crypto.AEADBadTagException;
+
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+
+/**
+ * {@link PacketCryptoProvider} decrypting AES-GCM packets with symmetric keys
+ * held in a local key store. The key alias is the packet reference id, falling
+ * back to the configured default alias.
+ * <p>
+ * The BouncyCastle GCM cipher is used rather than the JDK one, which holds the
+ * whole ciphertext until the tag is verified: it writes the plaintext of every
+ * chunk as it is read, holding back only the tag, so the heap used is the
+ * chunk buffers whatever the packet size. The plaintext written is not
+ * authenticated until the end of the stream, the caller must discard it when
+ * decrypt fails.
+ *
+ * @since 1.1.2
+ */
+public class AesGcmCryptoProvider implements PacketCryptoProvider {
+
+	private static final int GCM_TAG_LENGTH_BITS = 128;
+
+	private final KeyStore keyStore;
+
+	private final char[] keyPassword;
+
+	private final String defaultAlias;
+
+	private final int bufferSize;
+
+	/**
+	 * Instantiates a new aes gcm crypto provider.
+	 *
+	 * @param keyStore
+	 *            the loaded key store
+	 * @param keyPassword
+	 *            the key password
+	 * @param defaultAlias
+	 *            the alias used when no key exists for the reference id
+	 * @param bufferSize
+	 *            the chunk size data is read and decrypted in
+	 */
+	public AesGcmCryptoProvider(KeyStore keyStore, char[] keyPassword, String defaultAlias, int bufferSize) {
+		this.keyStore = keyStore;
+		this.keyPassword = keyPassword;
+		this.defaultAlias = defaultAlias;
+		this.bufferSize = bufferSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see io.mosip.registration.processor.packet.manager.decryptor.
+	 * PacketCryptoProvider#decrypt(java.lang.String, byte[], byte[],
+	 * java.io.InputStream, java.io.OutputStream)
+	 */
+	@Override
+	public void decrypt(String referenceId, byte[] nonce, byte[] aad, InputStream encryptedData,
+			OutputStream decryptedData) throws GeneralSecurityException, IOException {
+		GCMBlockCipher cipher = new GCMBlockCipher(new AESEngine());
+		cipher.init(false, new AEADParameters(new KeyParameter(getKey(referenceId).getEncoded()),
+				GCM_TAG_LENGTH_BITS, nonce, aad));
+		byte[] buffer = new byte[bufferSize];
+		byte[] plain = new byte[cipher.getUpdateOutputSize(bufferSize)];
+		int read;
+		while ((read = encryptedData.read(buffer)) != -1) {
+			int size = cipher.getUpdateOutputSize(read);
+			if (plain.length < size)
+				plain = new byte[size];
+			int written = cipher.processBytes(buffer, 0, read, plain, 0);
+			if (written > 0)
+				decryptedData.write(plain, 0, written);
+		}
+		byte[] last = new byte[cipher.getOutputSize(0)];
+		try {
+			int written = cipher.doFinal(last, 0);
+			if (written > 0)
+				decryptedData.write(last, 0, written);
+		} catch (InvalidCipherTextException e) {
+			throw new AEADBadTagException(e.getMessage());
+		}
+		decryptedData.flush();
+	}
+
+	private Key getKey(String referenceId) throws GeneralSecurityException {
+		Key key = keyStore.containsAlias(referenceId) ? keyStore.getKey(referenceId, keyPassword) : null;
+		if (key == null && defaultAlias != null)
+			key = keyStore.getKey(defaultAlias, keyPassword);
+		if (key == null)
+			throw new UnrecoverableKeyException("No packet key found for reference id " + referenceId);
+		return key;
+	}
+
+}
@@ -1,8 +1,16 @@
 package io.mosip.registration.processor.packet.manager.decryptor;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -72,6 +80,10 @@ public class DecryptorImpl implements Decryptor {
 	@Autowired
 	private Environment env;
 
+	/** The local crypto provider, the crypto manager service is used when absent. */
+	@Autowired(required = false)
+	private PacketCryptoProvider packetCryptoProvider;
+
 	private static final String DECRYPT_SERVICE_ID = "mosip.registration.processor.crypto.decrypt.id";
 	private static final String REG_PROC_APPLICATION_VERSION = "mosip.registration.processor.application.version";
 	private static final String DATETIME_PATTERN = "mosip.registration.processor.datetime.pattern";
@@ -80,6 +92,7 @@ public class DecryptorImpl implements Decryptor {
 	private static final String DECRYPTION_FAILURE = "Virus scan decryption failed for registrationId ";
 	private static final String IO_EXCEPTION = "Exception while reading packet inputStream";
 	private static final String DATE_TIME_EXCEPTION = "Error while parsing packet timestamp";
+	private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
 
 	/*
 	 * (non-Javadoc)
@@ -97,64 +110,68 @@ public class DecryptorImpl implements Decryptor {
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 				registrationId, "Decryptor::decrypt()::entry");
 		try {
-			byte[] packet = IOUtils.toByteArray(packetStream);
 			String centerId = registrationId.substring(0, centerIdLength);
 			String machineId = registrationId.substring(centerIdLength, machineIdSubStringLength);
 			String refId = centerId + "_" + machineId;
-			CryptomanagerRequestDto cryptomanagerRequestDto = new CryptomanagerRequestDto();
-			io.mosip.kernel.core.http.RequestWrapper<CryptomanagerRequestDto> request = new RequestWrapper<>();
-			cryptomanagerRequestDto.setApplicationId(applicationId);
-			cryptomanagerRequestDto.setReferenceId(refId);
-			regProcLogger.info(LoggerFileConstant.SESSIONID.toString(),
-					LoggerFileConstant.REGISTRATIONID.toString(), registrationId,
-					"Size = " + packet.length);
-			byte[] nonce = Arrays.copyOfRange(packet, 0, CryptomanagerConstant.GCM_NONCE_LENGTH);
-			byte[] aad = Arrays.copyOfRange(packet, CryptomanagerConstant.GCM_NONCE_LENGTH,
-					CryptomanagerConstant.GCM_NONCE_LENGTH + CryptomanagerConstant.GCM_AAD_LENGTH);
-			byte[] encryptedData = Arrays.copyOfRange(packet, CryptomanagerConstant.GCM_NONCE_LENGTH + CryptomanagerConstant.GCM_AAD_LENGTH,
-					packet.length);
-			cryptomanagerRequestDto.setAad(CryptoUtil.encodeBase64String(aad));
-			cryptomanagerRequestDto.setSalt(CryptoUtil.encodeBase64String(nonce));
-			cryptomanagerRequestDto.setData(CryptoUtil.encodeBase64String(encryptedData));
-			// setLocal Date Time
-			if (registrationId.length() > 14) {
-				String packetCreatedDateTime = registrationId.substring(registrationId.length() - 14);
-				String formattedDate = packetCreatedDateTime.substring(0, 8) + "T"
-						+ packetCreatedDateTime.substring(packetCreatedDateTime.length() - 6);
-
-				cryptomanagerRequestDto.setTimeStamp(
-						LocalDateTime.parse(formattedDate, DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss")));
+			if (packetCryptoProvider != null) {
+				outstream = decryptLocally(packetStream, refId);
 			} else {
-				regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
+				byte[] packet = IOUtils.toByteArray(packetStream);
+				CryptomanagerRequestDto cryptomanagerRequestDto = new CryptomanagerRequestDto();
+				io.mosip.kernel.core.http.RequestWrapper<CryptomanagerRequestDto> request = new RequestWrapper<>();
+				cryptomanagerRequestDto.setApplicationId(applicationId);
+				cryptomanagerRequestDto.setReferenceId(refId);
+				regProcLogger.info(LoggerFileConstant.SESSIONID.toString(),
 						LoggerFileConstant.REGISTRATIONID.toString(), registrationId,
-						"Packet DecryptionFailed-Invalid Packet format");
+						"Size = " + packet.length);
+				byte[] nonce = Arrays.copyOfRange(packet, 0, CryptomanagerConstant.GCM_NONCE_LENGTH);
+				byte[] aad = Arrays.copyOfRange(packet, CryptomanagerConstant.GCM_NONCE_LENGTH,
+						CryptomanagerConstant.GCM_NONCE_LENGTH + CryptomanagerConstant.GCM_AAD_LENGTH);
+				byte[] encryptedData = Arrays.copyOfRange(packet, CryptomanagerConstant.GCM_NONCE_LENGTH + CryptomanagerConstant.GCM_AAD_LENGTH,
+						packet.length);
+				cryptomanagerRequestDto.setAad(CryptoUtil.encodeBase64String(aad));
+				cryptomanagerRequestDto.setSalt(CryptoUtil.encodeBase64String(nonce));
+				cryptomanagerRequestDto.setData(CryptoUtil.encodeBase64String(encryptedData));
+				// setLocal Date Time
+				if (registrationId.length() > 14) {
+					String packetCreatedDateTime = registrationId.substring(registrationId.length() - 14);
+					String formattedDate = packetCreatedDateTime.substring(0, 8) + "T"
+							+ packetCreatedDateTime.substring(packetCreatedDateTime.length() - 6);
 
-				throw new PacketDecryptionFailureException(
-						PacketDecryptionFailureExceptionConstant.MOSIP_PACKET_DECRYPTION_FAILURE_ERROR_CODE
-								.getErrorCode(),
-						"Packet DecryptionFailed-Invalid Packet format");
-			}
-			request.setId(env.getProperty(DECRYPT_SERVICE_ID));
-			request.setMetadata(null);
-			request.setRequest(cryptomanagerRequestDto);
-			DateTimeFormatter format = DateTimeFormatter.ofPattern(env.getProperty(DATETIME_PATTERN));
-			LocalDateTime localdatetime = LocalDateTime
-					.parse(DateUtils.getUTCCurrentDateTimeString(env.getProperty(DATETIME_PATTERN)), format);
-			request.setRequesttime(localdatetime);
-			request.setVersion(env.getProperty(REG_PROC_APPLICATION_VERSION));
-			CryptomanagerResponseDto response;
-			response = (CryptomanagerResponseDto) restClientService.postApi(ApiName.CRYPTOMANAGERDECRYPT, "", "",
-					request, CryptomanagerResponseDto.class);
-			if (response.getErrors() != null && !response.getErrors().isEmpty()) {
-				ServiceError error = response.getErrors().get(0);
-				regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
-						LoggerFileConstant.REGISTRATIONID.toString(), registrationId, DECRYPTION_FAILURE);
-				description.setMessage(PlatformErrorMessages.RPR_PDS_PACKET_DECRYPTION_FAILURE.getMessage());
-				description.setCode(PlatformErrorMessages.RPR_PDS_PACKET_DECRYPTION_FAILURE.getCode());
-				throw new PacketDecryptionFailureException(error.getErrorCode(), error.getMessage());
+					cryptomanagerRequestDto.setTimeStamp(
+							LocalDateTime.parse(formattedDate, DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss")));
+				} else {
+					regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
+							LoggerFileConstant.REGISTRATIONID.toString(), registrationId,
+							"Packet DecryptionFailed-Invalid Packet format");
+
+					throw new PacketDecryptionFailureException(
+							PacketDecryptionFailureExceptionConstant.MOSIP_PACKET_DECRYPTION_FAILURE_ERROR_CODE
+									.getErrorCode(),
+							"Packet DecryptionFailed-Invalid Packet format");
+				}
+				request.setId(env.getProperty(DECRYPT_SERVICE_ID));
+				request.setMetadata(null);
+				request.setRequest(cryptomanagerRequestDto);
+				DateTimeFormatter format = DateTimeFormatter.ofPattern(env.getProperty(DATETIME_PATTERN));
+				LocalDateTime localdatetime = LocalDateTime
+						.parse(DateUtils.getUTCCurrentDateTimeString(env.getProperty(DATETIME_PATTERN)), format);
+				request.setRequesttime(localdatetime);
+				request.setVersion(env.getProperty(REG_PROC_APPLICATION_VERSION));
+				CryptomanagerResponseDto response;
+				response = (CryptomanagerResponseDto) restClientService.postApi(ApiName.CRYPTOMANAGERDECRYPT, "", "",
+						request, CryptomanagerResponseDto.class);
+				if (response.getErrors() != null && !response.getErrors().isEmpty()) {
+					ServiceError error = response.getErrors().get(0);
+					regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
+							LoggerFileConstant.REGISTRATIONID.toString(), registrationId, DECRYPTION_FAILURE);
+					description.setMessage(PlatformErrorMessages.RPR_PDS_PACKET_DECRYPTION_FAILURE.getMessage());
+					description.setCode(PlatformErrorMessages.RPR_PDS_PACKET_DECRYPTION_FAILURE.getCode());
+					throw new PacketDecryptionFailureException(error.getErrorCode(), error.getMessage());
+				}
+				byte[] decryptedPacket = CryptoUtil.decodeBase64(response.getResponse().getData());
+				outstream = new ByteArrayInputStream(decryptedPacket);
 			}
-			byte[] decryptedPacket = CryptoUtil.decodeBase64(response.getResponse().getData());
-			outstream = new ByteArrayInputStream(decryptedPacket);
 			isTransactionSuccessful = true;
 			description.setMessage(PlatformSuccessMessages.RPR_DECRYPTION_SUCCESS.getMessage());
 			description.setCode(PlatformSuccessMessages.RPR_DECRYPTION_SUCCESS.getCode());
@@ -172,6 +189,15 @@ public class DecryptorImpl implements Decryptor {
 			throw new PacketDecryptionFailureException(
 					PacketDecryptionFailureExceptionConstant.MOSIP_PACKET_DECRYPTION_FAILURE_ERROR_CODE.getErrorCode(),
 					IO_EXCEPTION, e);
+		} catch (GeneralSecurityException e) {
+			description.setMessage(PlatformErrorMessages.RPR_PDS_PACKET_DECRYPTION_FAILURE.getMessage());
+			description.setCode(PlatformErrorMessages.RPR_PDS_PACKET_DECRYPTION_FAILURE.getCode());
+
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					registrationId, description.getMessage() + e.getMessage());
+			throw new PacketDecryptionFailureException(
+					PacketDecryptionFailureExceptionConstant.MOSIP_PACKET_DECRYPTION_FAILURE_ERROR_CODE.getErrorCode(),
+					DECRYPTION_FAILURE + registrationId, e);
 		} catch (DateTimeParseException e) {
 			description.setMessage(PlatformErrorMessages.RPR_PDS_DATE_TIME_EXCEPTION.getMessage());
 			description.setCode(PlatformErrorMessages.RPR_PDS_DATE_TIME_EXCEPTION.getCode());
@@ -235,4 +261,52 @@ public class DecryptorImpl implements Decryptor {
 		return outstream;
 	}
 
+	/**
+	 * Decrypts the packet with the local crypto provider. The header is read off
+	 * the stream and the encrypted data is decrypted chunk by chunk into a spool
+	 * file, so the packet is never held in memory. The plaintext is returned only
+	 * once the packet is authenticated, the spool file is deleted on any
+	 * failure. Once opened, the spool file is unlinked, so it is freed with the
+	 * returned stream even if the caller never closes it; where an open file
+	 * cannot be deleted it is deleted when the stream is closed.
+	 *
+	 * @param packetStream
+	 *            the encrypted packet stream
+	 * @param refId
+	 *            the key reference id
+	 * @return the decrypted packet stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws GeneralSecurityException
+	 *             if the packet cannot be decrypted
+	 */
+	private InputStream decryptLocally(InputStream packetStream, String refId)
+			throws IOException, GeneralSecurityException {
+		byte[] nonce = new byte[CryptomanagerConstant.GCM_NONCE_LENGTH];
+		byte[] aad = new byte[CryptomanagerConstant.GCM_AAD_LENGTH];
+		IOUtils.readFully(packetStream, nonce);
+		IOUtils.readFully(packetStream, aad);
+		File decryptedFile = File.createTempFile(refId, ".zip");
+		InputStream decrypted;
+		try {
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(decryptedFile),
+					SPOOL_BUFFER_SIZE)) {
+				packetCryptoProvider.decrypt(refId, nonce, aad, packetStream, out);
+			}
+			decrypted = new FileInputStream(decryptedFile);
+		} catch (IOException | GeneralSecurityException | RuntimeException e) {
+			Files.deleteIfExists(decryptedFile.toPath());
+			throw e;
+		}
+		if (decryptedFile.delete())
+			return decrypted;
+		return new FilterInputStream(decrypted) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				Files.deleteIfExists(decryptedFile.toPath());
+			}
+		};
+	}
+
 }
\ No newline at end of file
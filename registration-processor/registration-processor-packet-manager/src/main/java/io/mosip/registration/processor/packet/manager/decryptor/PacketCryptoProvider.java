@@ -0,0 +1,38 @@
+package io.mosip.registration.processor.packet.manager.decryptor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+
+/**
+ * Local packet decryption, used by {@link DecryptorImpl} in place of the
+ * crypto manager service when configured. Implementations must work on the
+ * encrypted data as a stream and must not buffer the whole packet.
+ *
+ * @since 1.1.2
+ */
+public interface PacketCryptoProvider {
+
+	/**
+	 * Decrypts the packet data into the given output stream.
+	 *
+	 * @param referenceId
+	 *            the key reference id (centerId_machineId)
+	 * @param nonce
+	 *            the GCM nonce read from the packet header
+	 * @param aad
+	 *            the additional authenticated data read from the packet header
+	 * @param encryptedData
+	 *            the encrypted data following the header
+	 * @param decryptedData
+	 *            the stream the decrypted packet is written to
+	 * @throws GeneralSecurityException
+	 *             if the key is not found or the packet fails authentication
+	 * @throws IOException
+	 *             if the streams cannot be read or written
+	 */
+	public void decrypt(String referenceId, byte[] nonce, byte[] aad, InputStream encryptedData,
+			OutputStream decryptedData) throws GeneralSecurityException, IOException;
+
+}
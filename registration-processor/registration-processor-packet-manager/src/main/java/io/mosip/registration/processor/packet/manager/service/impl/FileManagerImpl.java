@@ -1,10 +1,10 @@
 package io.mosip.registration.processor.packet.manager.service.impl;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -34,6 +34,7 @@ import io.mosip.registration.processor.packet.manager.exception.FileNotFoundInDe
 import io.mosip.registration.processor.packet.manager.exception.FileNotFoundInSourceException;
 import io.mosip.registration.processor.packet.manager.exception.FilePathNotAccessibleException;
 import io.mosip.registration.processor.packet.manager.utils.SftpSessionPool;
+import io.mosip.registration.processor.packet.manager.utils.SftpStreamingTransfer;
 
 /**
  * The implementation Class for FileManager.
@@ -68,7 +69,31 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 
 	private String REGPROC_PPK = "registration.processor.vm.ppk";
 
+	private static final int DEFAULT_TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+	private static final int DEFAULT_SESSION_BORROW_ATTEMPTS = 3;
+
 	private final String CREATING_NEW_CONNECTION = "creating new channelSftp connection";
+
+	/** The read buffer size of the sftp copies. */
+	@Value("${registration.processor.sftp.transfer.buffer-size:65536}")
+	private int transferBufferSize;
+
+	/** The max wait of a sftp session borrow when every session is in use. */
+	@Value("${registration.processor.sftp.connection.pool.max.wait.millis:30000}")
+	private long sessionPoolMaxWaitMillis;
+
+	/** The interval of the sftp session validation and idle eviction. */
+	@Value("${registration.processor.sftp.connection.pool.eviction.interval.millis:60000}")
+	private long sessionPoolEvictionIntervalMillis;
+
+	/** The idle time after which a pooled sftp session is closed. */
+	@Value("${registration.processor.sftp.connection.pool.min.idle.millis:300000}")
+	private long sessionPoolMinIdleMillis;
+
+	/** The borrows of a sftp session tried before a copy fails. */
+	@Value("${registration.processor.sftp.connection.pool.borrow.attempts:3}")
+	private int sessionBorrowAttempts;
 	/*
 	 * (non-Javadoc)
 	 *
@@ -96,6 +121,21 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 				"FileManagerImpl::put()::exit");
 	}
 
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see io.mosip.registration.processor.core.spi.filesystem.manager.FileManager#
+	 * putSidecar(java.lang.String, java.lang.String, long, java.lang.Object)
+	 */
+	@Override
+	public void putSidecar(String fileName, String digest, long size, DirectoryPathDto workingDirectory)
+			throws IOException {
+		String filepath = env.getProperty(workingDirectory.toString());
+		FileUtils.writeStringToFile(
+				FileUtils.getFile(filepath, getFileName(fileName) + SftpStreamingTransfer.SIDECAR_EXTENSION),
+				SftpStreamingTransfer.sidecar(digest, size), StandardCharsets.UTF_8);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -173,6 +213,7 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 		File filePath = FileUtils.getFile(filepath, getFileName(fileName));
 
 		FileUtils.forceDelete(filePath);
+		FileUtils.deleteQuietly(FileUtils.getFile(filepath, getFileName(fileName) + SftpStreamingTransfer.SIDECAR_EXTENSION));
 	}
 
 	/**
@@ -336,16 +377,16 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 				"FileManagerImpl::getFile(DirectoryPathDto workingDirectory, String fileName,SftpJschConnectionDto sftpConnectionDto)::entry");
 
 		byte[] bytedata = null;
+		Session session = null;
+		ChannelSftp channelSftp = null;
 		try {
-			Session session = getSession(sftpConnectionDto);
-			ChannelSftp channelSftp = getSftpConnection(sftpConnectionDto, session);
+			session = getSession(sftpConnectionDto);
+			channelSftp = getSftpConnection(sftpConnectionDto, session);
 			try (InputStream is = channelSftp
 					.get(env.getProperty(workingDirectory.toString()) + "/" + getFileName(fileName))) {
 				bytedata = IOUtils.toByteArray(is);
 			}
 
-			disconnectConnection(channelSftp, session, sftpConnectionDto);
-
 		} catch (SftpException e) {
 			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 					fileName, e.getMessage() + ExceptionUtils.getStackTrace(e));
@@ -356,6 +397,8 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 					fileName, e.getMessage() + ExceptionUtils.getStackTrace(e));
 
+		} finally {
+			disconnectConnection(channelSftp, session, sftpConnectionDto);
 		}
 
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
@@ -366,23 +409,49 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 
 	}
 
-	public Session getSession(SftpJschConnectionDto sftpConnectionDto) throws IOException {
-		Session session = null;
+	/**
+	 * Borrows a session of the pool, trying again a bounded number of times.
+	 *
+	 * @param sftpConnectionDto
+	 *            the connection
+	 * @return the session, to be given back with disconnectConnection
+	 * @throws IOException
+	 *             if the ppk could not be fetched
+	 * @throws JschConnectionException
+	 *             if no session could be borrowed
+	 */
+	public Session getSession(SftpJschConnectionDto sftpConnectionDto) throws IOException, JschConnectionException {
 		sftpConnectionDto.setDmzServerPwd(env.getProperty(DMZ_SERVER_PASSWORD));
 		if (sftpConnectionDto.getDmzServerPwd() == null) {
 			sftpConnectionDto.setRegProcPPK(getPPKPath());
 		}
 
-		String maxSession = env.getProperty(SFTP_CONNECTION_POOL_MAX_SESSION);
-		try {
-			session = SftpSessionPool.getInstance(Integer.valueOf(maxSession)).getPool()
-					.borrowObject(sftpConnectionDto);
-		} catch (Exception e) {
-			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
-					"Failed to get session from sftp connection pool. Will retry.", e.getMessage() + ExceptionUtils.getStackTrace(e));
-			getSession(sftpConnectionDto);
+		int attempts = sessionBorrowAttempts > 0 ? sessionBorrowAttempts : DEFAULT_SESSION_BORROW_ATTEMPTS;
+		Exception failure = null;
+		for (int attempt = 1; attempt <= attempts; attempt++) {
+			try {
+				return getSessionPool().borrowSession(sftpConnectionDto);
+			} catch (Exception e) {
+				failure = e;
+				regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
+						LoggerFileConstant.REGISTRATIONID.toString(), "",
+						"Failed to get session from sftp connection pool, attempt " + attempt + " of " + attempts
+								+ " : " + e.getMessage() + ExceptionUtils.getStackTrace(e));
+			}
 		}
-		return session;
+		throw new JschConnectionException(PlatformErrorMessages.RPR_PKM_JSCH_NOT_CONNECTED.getMessage(), failure);
+	}
+
+	/**
+	 * Gets the sftp session pool, which validates its sessions and evicts the
+	 * idle ones.
+	 *
+	 * @return the session pool
+	 */
+	public SftpSessionPool getSessionPool() {
+		String maxSession = env.getProperty(SFTP_CONNECTION_POOL_MAX_SESSION);
+		return SftpSessionPool.getInstance(Integer.valueOf(maxSession), sessionPoolMaxWaitMillis,
+				sessionPoolEvictionIntervalMillis, sessionPoolMinIdleMillis);
 	}
 
 	public ChannelSftp getSftpConnection(SftpJschConnectionDto sftpConnectionDto, Session session) throws JschConnectionException {
@@ -408,25 +477,25 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 				"FileManagerImpl::copy(String fileName, DirectoryPathDto sourceWorkingDirectory,DirectoryPathDto destinationWorkingDirectory, SftpJschConnectionDto sftpConnectionDto)::entry");
 
 		boolean status = false;
-		byte[] bytedata = null;
 		String sourceFilePath = env.getProperty(sourceWorkingDirectory.toString()) + "/" + getFileName(fileName);
 		String destinationFilePath = env.getProperty(destinationWorkingDirectory.toString()) + "/"
 				+ getFileName(fileName);
+		Session session = null;
+		ChannelSftp channelSftp = null;
+		ChannelSftp destinationChannelSftp = null;
 		try {
-			Session session = getSession(sftpConnectionDto);
-			ChannelSftp channelSftp = getSftpConnection(sftpConnectionDto, session);
-
-			try (InputStream is = channelSftp.get(sourceFilePath)) {
-				bytedata = IOUtils.toByteArray(is);
-			}
-
-			channelSftp.put(new ByteArrayInputStream(bytedata), destinationFilePath);
-
-			if (channelSftp.get(destinationFilePath) != null) {
-				status = true;
-			}
-
-			disconnectConnection(channelSftp, session, sftpConnectionDto);
+			session = getSession(sftpConnectionDto);
+			channelSftp = getSftpConnection(sftpConnectionDto, session);
+			// the packet is piped from one channel into the other, never held in memory
+			destinationChannelSftp = getSftpConnection(sftpConnectionDto, session);
+			SftpStreamingTransfer.Result result = new SftpStreamingTransfer(
+					transferBufferSize > 0 ? transferBufferSize : DEFAULT_TRANSFER_BUFFER_SIZE).transfer(channelSftp,
+							sourceFilePath, destinationChannelSftp, destinationFilePath);
+			status = result.isVerified();
+			if (!status)
+				regProcLogger.error(LoggerFileConstant.SESSIONID.toString(),
+						LoggerFileConstant.REGISTRATIONID.toString(), fileName,
+						"FileManagerImpl::copy()::copy removed, it does not match its source");
 
 		} catch (SftpException e) {
 
@@ -445,6 +514,10 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 
 			}
 
+		} finally {
+			if (destinationChannelSftp != null && destinationChannelSftp.isConnected())
+				destinationChannelSftp.disconnect();
+			disconnectConnection(channelSftp, session, sftpConnectionDto);
 		}
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 				fileName,
@@ -466,20 +539,21 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 		String sourceFilePath = env.getProperty(sourceWorkingDirectory.toString()) + "/" + getFileName(fileName);
 		String destinationFilePath = env.getProperty(destinationWorkingDirectory.toString()) + "/"
 				+ getFileName(fileName);
+		Session session = null;
+		ChannelSftp channelSftp = null;
 		try {
-			Session session = getSession(sftpConnectionDto);
-			ChannelSftp channelSftp = getSftpConnection(sftpConnectionDto, session);
+			session = getSession(sftpConnectionDto);
+			channelSftp = getSftpConnection(sftpConnectionDto, session);
 			if (channelSftp.get(destinationFilePath) != null) {
 
 				if (channelSftp.get(sourceFilePath) != null) {
 					channelSftp.rm(sourceFilePath);
+					SftpStreamingTransfer.removeSidecar(channelSftp, sourceFilePath);
 					status = true;
 				}
 
 			}
 
-			disconnectConnection(channelSftp, session, sftpConnectionDto);
-
 		} catch (SftpException e) {
 
 			if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
@@ -498,6 +572,8 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 
 			}
 
+		} finally {
+			disconnectConnection(channelSftp, session, sftpConnectionDto);
 		}
 
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
@@ -508,14 +584,12 @@ public class FileManagerImpl implements FileManager<DirectoryPathDto, InputStrea
 	}
 
 	public void disconnectConnection(ChannelSftp channel, Session session, SftpJschConnectionDto sftpConnectionDto) {
-		String maxSession = env.getProperty(SFTP_CONNECTION_POOL_MAX_SESSION);
 		if (null != channel && channel.isConnected()) {
 			channel.disconnect();
 		}
 		if (null != session) {
 			try {
-				SftpSessionPool.getInstance(Integer.valueOf(maxSession)).getPool()
-						.returnObject(sftpConnectionDto, session);
+				getSessionPool().returnSession(sftpConnectionDto, session);
 			} catch (Exception e) {
 				regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
 						"Failed to disconnect sftp channel", e.getMessage() + ExceptionUtils.getStackTrace(e));
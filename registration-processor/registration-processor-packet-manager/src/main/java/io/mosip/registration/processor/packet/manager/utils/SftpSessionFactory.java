@@ -10,6 +10,7 @@ import io.mosip.registration.processor.core.packet.dto.SftpJschConnectionDto;
 import org.apache.commons.pool.BaseKeyedPoolableObjectFactory;
 
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is used to obtain session for sftp connection
@@ -19,6 +20,9 @@ public class SftpSessionFactory extends BaseKeyedPoolableObjectFactory<SftpJschC
     /** The reg proc logger. */
     private static Logger regProcLogger = RegProcessorLogger.getLogger(SftpSessionFactory.class);
 
+    /** The sessions found dead by a validation. */
+    private final AtomicLong invalidSessions = new AtomicLong();
+
     /**
      * Method to create a new session.
      */
@@ -48,6 +52,33 @@ public class SftpSessionFactory extends BaseKeyedPoolableObjectFactory<SftpJschC
         return session != null && session.isConnected() ? session : makeObject(sftpConnectionDto);
     }
 
+    /**
+     * Checks that a session is still usable, on borrow and while idle. A session
+     * closed by the server is seen as disconnected, and a half open one fails to
+     * send a keep alive.
+     */
+    @Override
+    public boolean validateObject(SftpJschConnectionDto sftpJschConnectionDto, Session session) {
+        boolean valid = session.isConnected();
+        if (valid) {
+            try {
+                session.sendKeepAliveMsg();
+            } catch (Exception e) {
+                valid = false;
+            }
+        }
+        if (!valid) {
+            invalidSessions.incrementAndGet();
+            regProcLogger.warn(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+                    sftpJschConnectionDto.getHost(), "Dead sftp session removed from the pool");
+        }
+        return valid;
+    }
+
+    public long getInvalidSessions() {
+        return invalidSessions.get();
+    }
+
     /**
      * This is called when closing the pool object
      */
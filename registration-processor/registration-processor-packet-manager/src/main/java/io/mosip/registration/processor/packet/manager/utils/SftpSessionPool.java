@@ -3,24 +3,84 @@ package io.mosip.registration.processor.packet.manager.utils;
 import com.jcraft.jsch.Session;
 import io.mosip.registration.processor.core.packet.dto.SftpJschConnectionDto;
 import org.apache.commons.pool.KeyedObjectPool;
-import org.apache.commons.pool.impl.StackKeyedObjectPool;
+import org.apache.commons.pool.impl.GenericKeyedObjectPool;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is used to create sftp session pool.
+ * <p>
+ * A session is validated when borrowed and, along with the idle eviction, in
+ * the background, so a session closed by the server is replaced instead of
+ * failing a packet. A borrow waits at most the max wait when every session is
+ * in use. The borrow latency and the active and idle sessions are exposed as
+ * gauges.
  */
 public class SftpSessionPool {
 
-    private KeyedObjectPool<SftpJschConnectionDto, Session> pool;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 30000;
+
+    public static final long DEFAULT_EVICTION_INTERVAL_MILLIS = 60000;
+
+    public static final long DEFAULT_MIN_IDLE_MILLIS = 300000;
+
+    private final GenericKeyedObjectPool<SftpJschConnectionDto, Session> pool;
+
+    private final SftpSessionFactory factory;
+
+    private final AtomicLong borrows = new AtomicLong();
+
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+
+    private final AtomicLong borrowNanos = new AtomicLong();
+
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
 
     private static SftpSessionPool SINGLETON_INSTANCE = null;
 
-    private SftpSessionPool(int maxSession) {
-        getSftpSessionPool(maxSession);
+    SftpSessionPool(SftpSessionFactory factory, int maxSession, long maxWaitMillis, long evictionIntervalMillis,
+            long minIdleMillis) {
+        this.factory = factory;
+        GenericKeyedObjectPool.Config config = new GenericKeyedObjectPool.Config();
+        config.maxActive = maxSession;
+        config.maxIdle = maxSession;
+        config.whenExhaustedAction = GenericKeyedObjectPool.WHEN_EXHAUSTED_BLOCK;
+        config.maxWait = maxWaitMillis;
+        config.testOnBorrow = true;
+        config.testWhileIdle = true;
+        config.timeBetweenEvictionRunsMillis = evictionIntervalMillis;
+        config.minEvictableIdleTimeMillis = minIdleMillis;
+        // every idle session is checked on each run
+        config.numTestsPerEvictionRun = Integer.MAX_VALUE;
+        pool = new GenericKeyedObjectPool<SftpJschConnectionDto, Session>(factory, config);
     }
 
     public static SftpSessionPool getInstance(int maxSession) {
+        return getInstance(maxSession, DEFAULT_MAX_WAIT_MILLIS, DEFAULT_EVICTION_INTERVAL_MILLIS,
+                DEFAULT_MIN_IDLE_MILLIS);
+    }
+
+    /**
+     * Gets the pool, created with the given settings on the first call.
+     *
+     * @param maxSession
+     *            the max sessions per connection
+     * @param maxWaitMillis
+     *            the max wait of a borrow when every session is in use
+     * @param evictionIntervalMillis
+     *            the interval of the background validation and eviction, none
+     *            if not positive
+     * @param minIdleMillis
+     *            the idle time after which a session is evicted
+     * @return the pool
+     */
+    public static synchronized SftpSessionPool getInstance(int maxSession, long maxWaitMillis,
+            long evictionIntervalMillis, long minIdleMillis) {
         if (SINGLETON_INSTANCE == null) {
-            SINGLETON_INSTANCE = new SftpSessionPool(maxSession);
+            SINGLETON_INSTANCE = new SftpSessionPool(new SftpSessionFactory(), maxSession, maxWaitMillis,
+                    evictionIntervalMillis, minIdleMillis);
         }
         return SINGLETON_INSTANCE;
     }
@@ -34,11 +94,94 @@ public class SftpSessionPool {
     }
 
     /**
+     * Borrows a live session, recording how long the borrow took.
      *
-     * @return the org.apache.commons.pool.KeyedObjectPool class
+     * @param sftpConnectionDto
+     *            the connection
+     * @return the session
+     * @throws Exception
+     *             if no session could be made, or none was free within the max
+     *             wait
      */
-    private void getSftpSessionPool(int maxSession) {
-        pool = new StackKeyedObjectPool<SftpJschConnectionDto, Session>(new SftpSessionFactory(), maxSession);
+    public Session borrowSession(SftpJschConnectionDto sftpConnectionDto) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return pool.borrowObject(sftpConnectionDto);
+        } catch (NoSuchElementException e) {
+            borrowTimeouts.incrementAndGet();
+            throw e;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            borrows.incrementAndGet();
+            borrowNanos.addAndGet(nanos);
+            maxBorrowNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /**
+     * Returns a session to the pool, or drops it if it was disconnected while in
+     * use.
+     *
+     * @param sftpConnectionDto
+     *            the connection
+     * @param session
+     *            the session
+     * @throws Exception
+     *             the exception
+     */
+    public void returnSession(SftpJschConnectionDto sftpConnectionDto, Session session) throws Exception {
+        if (session.isConnected())
+            pool.returnObject(sftpConnectionDto, session);
+        else
+            pool.invalidateObject(sftpConnectionDto, session);
+    }
+
+    public int getNumActive() {
+        return pool.getNumActive();
     }
-}
 
+    public int getNumIdle() {
+        return pool.getNumIdle();
+    }
+
+    public long getBorrows() {
+        return borrows.get();
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    /**
+     * Gets the mean borrow latency.
+     *
+     * @return the mean latency in millis
+     */
+    public double getMeanBorrowMillis() {
+        long count = borrows.get();
+        return count == 0 ? 0 : borrowNanos.get() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxBorrowMillis() {
+        return maxBorrowNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Gets the sessions found dead on borrow or while idle.
+     *
+     * @return the count
+     */
+    public long getInvalidSessions() {
+        return factory.getInvalidSessions();
+    }
+
+    /**
+     * Closes the pool and its idle sessions.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    public void close() throws Exception {
+        pool.close();
+    }
+}
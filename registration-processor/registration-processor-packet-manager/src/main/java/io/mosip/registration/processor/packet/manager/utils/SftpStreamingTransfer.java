@@ -0,0 +1,201 @@
+package io.mosip.registration.processor.packet.manager.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpException;
+
+/**
+ * Copies a file between two sftp channels without holding it in memory. The
+ * source stream is piped into the destination as it is read, and its SHA-256
+ * digest and size are computed on the way.
+ * <p>
+ * The copy is verified without downloading it again: the size of the
+ * destination is checked with a remote stat, and if the source has a sidecar
+ * file, its digest and size must match what was read. A sidecar is written next
+ * to the destination, so the next copy of the file can be verified the same
+ * way. A copy failing the verification is removed.
+ * <p>
+ * A sidecar is named after its file with the {@value #SIDECAR_EXTENSION}
+ * extension, and holds the hex digest and the size separated by a space.
+ */
+public class SftpStreamingTransfer {
+
+	public static final String SIDECAR_EXTENSION = ".sha256";
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private final int bufferSize;
+
+	/**
+	 * Instantiates a new sftp streaming transfer.
+	 *
+	 * @param bufferSize
+	 *            the read buffer size
+	 */
+	public SftpStreamingTransfer(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Copies a file. The source and the destination channels may be of the same
+	 * session, but must be distinct as both are used at once.
+	 *
+	 * @param source
+	 *            the channel the file is read from
+	 * @param sourcePath
+	 *            the path of the file
+	 * @param destination
+	 *            the channel the file is written to
+	 * @param destinationPath
+	 *            the path of the copy
+	 * @return the result
+	 * @throws SftpException
+	 *             the sftp exception
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public Result transfer(ChannelSftp source, String sourcePath, ChannelSftp destination, String destinationPath)
+			throws SftpException, IOException {
+		String expected = readSidecar(source, sourcePath);
+
+		MessageDigest digest = newDigest();
+		long size;
+		try (CountingInputStream in = new CountingInputStream(
+				new DigestInputStream(new BufferedInputStream(source.get(sourcePath), bufferSize), digest))) {
+			destination.put(in, destinationPath);
+			size = in.getByteCount();
+		}
+		String sidecar = sidecar(String.format("%064x", new BigInteger(1, digest.digest())), size);
+
+		boolean verified = destination.stat(destinationPath).getSize() == size
+				&& (expected == null || expected.equals(sidecar));
+		if (verified)
+			destination.put(new ByteArrayInputStream(sidecar.getBytes(StandardCharsets.UTF_8)),
+					destinationPath + SIDECAR_EXTENSION);
+		else {
+			destination.rm(destinationPath);
+			removeSidecar(destination, destinationPath);
+		}
+		return new Result(size, sidecar.substring(0, sidecar.indexOf(' ')), expected != null, verified);
+	}
+
+	/**
+	 * Gets the content of the sidecar of a file.
+	 *
+	 * @param digest
+	 *            the hex SHA-256 digest of the file, in either case
+	 * @param size
+	 *            the size of the file
+	 * @return the sidecar content
+	 */
+	public static String sidecar(String digest, long size) {
+		return digest.toLowerCase(Locale.ROOT) + " " + size;
+	}
+
+	/**
+	 * Reads the sidecar of a file.
+	 *
+	 * @param channel
+	 *            the channel
+	 * @param path
+	 *            the path of the file
+	 * @return the digest and size, null if the file has no sidecar
+	 * @throws SftpException
+	 *             the sftp exception
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static String readSidecar(ChannelSftp channel, String path) throws SftpException, IOException {
+		try (InputStream in = channel.get(path + SIDECAR_EXTENSION)) {
+			return IOUtils.toString(in, StandardCharsets.UTF_8).trim();
+		} catch (SftpException e) {
+			if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE)
+				return null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Removes the sidecar of a file, if any.
+	 *
+	 * @param channel
+	 *            the channel
+	 * @param path
+	 *            the path of the file
+	 * @throws SftpException
+	 *             the sftp exception
+	 */
+	public static void removeSidecar(ChannelSftp channel, String path) throws SftpException {
+		try {
+			channel.rm(path + SIDECAR_EXTENSION);
+		} catch (SftpException e) {
+			if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE)
+				throw e;
+		}
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The result of a copy.
+	 */
+	public static class Result {
+
+		private final long size;
+
+		private final String digest;
+
+		private final boolean sidecarChecked;
+
+		private final boolean verified;
+
+		Result(long size, String digest, boolean sidecarChecked, boolean verified) {
+			this.size = size;
+			this.digest = digest;
+			this.sidecarChecked = sidecarChecked;
+			this.verified = verified;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public String getDigest() {
+			return digest;
+		}
+
+		/**
+		 * Checks if the digest was checked against the sidecar of the source.
+		 *
+		 * @return true, if checked
+		 */
+		public boolean isSidecarChecked() {
+			return sidecarChecked;
+		}
+
+		public boolean isVerified() {
+			return verified;
+		}
+
+	}
+
+}
@@ -0,0 +1,425 @@
+package io.mosip.registration.processor.packet.manager.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOCase;
+
+/**
+ * Index of the entries of a zip archive held in memory. The central directory
+ * is read once, giving the offset and the sizes of every entry, and an entry is
+ * only inflated when its stream is read. Nothing is copied, so an indexed
+ * packet costs the archive bytes and one small buffer per open entry, instead
+ * of a second copy of every entry.
+ * <p>
+ * The entry count, the declared sizes and the compression ratios are checked
+ * against the {@link ZipLimits} when the index is built, and the inflated
+ * bytes are checked again while an entry is read since the declared sizes can
+ * not be trusted.
+ */
+public class ZipEntryIndex {
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+	private static final int END_HEADER_SIGNATURE = 0x06054b50;
+
+	private static final int LOCAL_HEADER_SIZE = 30;
+
+	private static final int CENTRAL_HEADER_SIZE = 46;
+
+	private static final int END_HEADER_SIZE = 22;
+
+	private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+	private static final int ENCRYPTED_FLAG = 1;
+
+	private final byte[] archive;
+
+	private final ZipLimits limits;
+
+	private final Map<String, Entry> entries;
+
+	/**
+	 * Indexes the archive with the default limits.
+	 *
+	 * @param archive
+	 *            the zip archive
+	 * @throws IOException
+	 *             if the archive is not a valid zip or breaks the limits
+	 */
+	public ZipEntryIndex(byte[] archive) throws IOException {
+		this(archive, ZipLimits.DEFAULT);
+	}
+
+	/**
+	 * Indexes the archive.
+	 *
+	 * @param archive
+	 *            the zip archive
+	 * @param limits
+	 *            the limits
+	 * @throws IOException
+	 *             if the archive is not a valid zip or breaks the limits
+	 */
+	public ZipEntryIndex(byte[] archive, ZipLimits limits) throws IOException {
+		this.archive = archive;
+		this.limits = limits;
+		this.entries = Collections.unmodifiableMap(readCentralDirectory());
+	}
+
+	/**
+	 * Gets the entry names, in archive order.
+	 *
+	 * @return the entry names
+	 */
+	public List<String> getEntryNames() {
+		return new ArrayList<>(entries.keySet());
+	}
+
+	/**
+	 * Checks if the archive has the entry.
+	 *
+	 * @param name
+	 *            the entry name
+	 * @return true if the entry exists
+	 */
+	public boolean contains(String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * Finds the first entry whose name without extension matches the file name,
+	 * ignoring case, the way {@link ZipUtils#unzipAndGetFile} does.
+	 *
+	 * @param file
+	 *            the file name without extension
+	 * @return the entry name, null if not found
+	 */
+	public String find(String file) {
+		for (String name : entries.keySet()) {
+			if (FilenameUtils.equals(FilenameUtils.removeExtension(name), file, true, IOCase.INSENSITIVE))
+				return name;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the uncompressed size of an entry.
+	 *
+	 * @param name
+	 *            the entry name
+	 * @return the uncompressed size, -1 if there is no such entry
+	 */
+	public long getSize(String name) {
+		Entry entry = entries.get(name);
+		return entry == null ? -1 : entry.size;
+	}
+
+	/**
+	 * Opens a stream on an entry. Every call returns a new stream.
+	 *
+	 * @param name
+	 *            the entry name
+	 * @return the entry stream, null if there is no such entry
+	 * @throws IOException
+	 *             if the entry can not be read
+	 */
+	public InputStream getInputStream(String name) throws IOException {
+		Entry entry = entries.get(name);
+		if (entry == null)
+			return null;
+		return openEntry(entry, dataOffset(entry));
+	}
+
+	/**
+	 * Gets a stream on every file entry, in archive order. A stream opens its
+	 * entry, and its inflater, on the first read and releases it at the end of
+	 * the entry, so the streams not read hold nothing but their entry offset
+	 * and need not be closed.
+	 *
+	 * @return the entry streams by entry name
+	 * @throws IOException
+	 *             if the local header of an entry is invalid
+	 */
+	public Map<String, InputStream> getInputStreams() throws IOException {
+		Map<String, InputStream> streams = new LinkedHashMap<>();
+		for (Entry entry : entries.values()) {
+			if (!entry.name.endsWith("/"))
+				streams.put(entry.name, new LazyEntryInputStream(entry, dataOffset(entry)));
+		}
+		return streams;
+	}
+
+	private InputStream openEntry(Entry entry, int offset) {
+		InputStream raw = new ByteArrayInputStream(archive, offset, (int) entry.compressedSize);
+		if (entry.method == ZipEntry.STORED)
+			return raw;
+		return new EntryInputStream(raw, entry, limits.getBufferSize());
+	}
+
+	private Map<String, Entry> readCentralDirectory() throws IOException {
+		int end = findEndHeader();
+		int entryCount = readShort(end + 10);
+		long directoryOffset = readInt(end + 16);
+		if (entryCount == 0xFFFF || directoryOffset == ZIP64_MAGIC)
+			throw new ZipException("zip64 archives are not supported");
+		if (entryCount > limits.getMaxEntries())
+			throw new ZipException("zip has " + entryCount + " entries, more than " + limits.getMaxEntries());
+
+		Map<String, Entry> index = new LinkedHashMap<>(entryCount * 2);
+		long totalSize = 0;
+		int position = (int) directoryOffset;
+		for (int i = 0; i < entryCount; i++) {
+			checkBounds(position, CENTRAL_HEADER_SIZE);
+			if (readInt(position) != CENTRAL_HEADER_SIGNATURE)
+				throw new ZipException("invalid central directory header at " + position);
+			int flags = readShort(position + 8);
+			int method = readShort(position + 10);
+			long compressedSize = readInt(position + 20);
+			long size = readInt(position + 24);
+			int nameLength = readShort(position + 28);
+			int extraLength = readShort(position + 30);
+			int commentLength = readShort(position + 32);
+			long localHeaderOffset = readInt(position + 42);
+			checkBounds(position + CENTRAL_HEADER_SIZE, nameLength);
+			String name = new String(archive, position + CENTRAL_HEADER_SIZE, nameLength, StandardCharsets.UTF_8);
+			position += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+
+			if ((flags & ENCRYPTED_FLAG) != 0)
+				throw new ZipException("encrypted entry " + name);
+			if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED)
+				throw new ZipException("unsupported compression method " + method + " for entry " + name);
+			if (compressedSize == ZIP64_MAGIC || size == ZIP64_MAGIC || localHeaderOffset == ZIP64_MAGIC)
+				throw new ZipException("zip64 entry " + name + " is not supported");
+			if (method == ZipEntry.STORED && compressedSize != size)
+				throw new ZipException("invalid size of stored entry " + name);
+			checkEntrySize(name, size, compressedSize);
+			totalSize += size;
+			if (totalSize > limits.getMaxTotalSize())
+				throw new ZipException("zip uncompressed size exceeds " + limits.getMaxTotalSize());
+			checkBounds(localHeaderOffset, LOCAL_HEADER_SIZE);
+			checkBounds(localHeaderOffset + LOCAL_HEADER_SIZE, compressedSize);
+			index.put(name, new Entry(name, method, compressedSize, size, localHeaderOffset));
+		}
+		return index;
+	}
+
+	private void checkEntrySize(String name, long size, long compressedSize) throws ZipException {
+		if (size > limits.getMaxEntrySize())
+			throw new ZipException("entry " + name + " of " + size + " bytes exceeds " + limits.getMaxEntrySize());
+		if (size > ZipLimits.RATIO_CHECK_THRESHOLD
+				&& (compressedSize == 0 || size / compressedSize > limits.getMaxCompressionRatio()))
+			throw new ZipException("entry " + name + " exceeds the compression ratio "
+					+ limits.getMaxCompressionRatio());
+	}
+
+	private int findEndHeader() throws ZipException {
+		int lowest = Math.max(0, archive.length - END_HEADER_SIZE - MAX_COMMENT_SIZE);
+		for (int position = archive.length - END_HEADER_SIZE; position >= lowest; position--) {
+			if (readInt(position) == END_HEADER_SIGNATURE
+					&& position + END_HEADER_SIZE + readShort(position + 20) == archive.length)
+				return position;
+		}
+		throw new ZipException("zip end of central directory not found");
+	}
+
+	private int dataOffset(Entry entry) throws ZipException {
+		int position = (int) entry.localHeaderOffset;
+		if (readInt(position) != LOCAL_HEADER_SIGNATURE)
+			throw new ZipException("invalid local header for entry " + entry.name);
+		long offset = position + LOCAL_HEADER_SIZE + (long) readShort(position + 26) + readShort(position + 28);
+		checkBounds(offset, entry.compressedSize);
+		return (int) offset;
+	}
+
+	private void checkBounds(long offset, long length) throws ZipException {
+		if (offset < 0 || length < 0 || offset + length > archive.length)
+			throw new ZipException("zip entry data is out of the archive bounds");
+	}
+
+	private int readShort(int position) {
+		return (archive[position] & 0xFF) | (archive[position + 1] & 0xFF) << 8;
+	}
+
+	private long readInt(int position) {
+		return (readShort(position) | (long) readShort(position + 2) << 16) & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * An indexed entry.
+	 */
+	private static class Entry {
+
+		private final String name;
+
+		private final int method;
+
+		private final long compressedSize;
+
+		private final long size;
+
+		private final long localHeaderOffset;
+
+		Entry(String name, int method, long compressedSize, long size, long localHeaderOffset) {
+			this.name = name;
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+
+	}
+
+	/**
+	 * Opens its entry on the first read, and closes it at the end of the entry.
+	 */
+	private class LazyEntryInputStream extends InputStream {
+
+		private final Entry entry;
+
+		private final int offset;
+
+		private InputStream in;
+
+		private boolean ended;
+
+		private boolean closed;
+
+		LazyEntryInputStream(Entry entry, int offset) {
+			this.entry = entry;
+			this.offset = offset;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (ensureOpen())
+				return -1;
+			int read = in.read();
+			if (read == -1)
+				end();
+			return read;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (ensureOpen())
+				return -1;
+			int read = in.read(b, off, len);
+			if (read == -1)
+				end();
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			return ensureOpen() ? 0 : in.skip(n);
+		}
+
+		@Override
+		public int available() throws IOException {
+			return ensureOpen() ? 0 : in.available();
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			end();
+		}
+
+		/**
+		 * Opens the entry if not open yet.
+		 *
+		 * @return true if the end of the entry was reached
+		 */
+		private boolean ensureOpen() throws IOException {
+			if (closed)
+				throw new IOException("zip entry " + entry.name + " stream closed");
+			if (!ended && in == null)
+				in = openEntry(entry, offset);
+			return ended;
+		}
+
+		private void end() throws IOException {
+			ended = true;
+			if (in != null) {
+				InputStream opened = in;
+				in = null;
+				opened.close();
+			}
+		}
+
+	}
+
+	/**
+	 * Inflates an entry and fails once more bytes come out than the entry
+	 * declared.
+	 */
+	private static class EntryInputStream extends InflaterInputStream {
+
+		private final Entry entry;
+
+		private long inflated;
+
+		private boolean eof;
+
+		private boolean closed;
+
+		EntryInputStream(InputStream in, Entry entry, int bufferSize) {
+			super(in, new Inflater(true), bufferSize);
+			this.entry = entry;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				inflated += read;
+				if (inflated > entry.size)
+					throw new ZipException("entry " + entry.name + " inflates past its declared size " + entry.size);
+			}
+			return read;
+		}
+
+		@Override
+		protected void fill() throws IOException {
+			if (eof)
+				throw new EOFException("unexpected end of zip entry " + entry.name);
+			len = in.read(buf, 0, buf.length);
+			if (len == -1) {
+				// the raw inflater may need one byte past the deflated data
+				buf[0] = 0;
+				len = 1;
+				eof = true;
+			}
+			inf.setInput(buf, 0, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				inf.end();
+				super.close();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,70 @@
+package io.mosip.registration.processor.packet.manager.utils;
+
+/**
+ * Limits applied while a packet is unzipped, so that a crafted archive (a zip
+ * bomb) can not exhaust the heap or the disk, and the copy buffer size used for
+ * the entries.
+ */
+public class ZipLimits {
+
+	/** The default limits. */
+	public static final ZipLimits DEFAULT = new ZipLimits(10000, 1024L * 1024 * 1024, 2048L * 1024 * 1024, 100,
+			64 * 1024);
+
+	/** Entries smaller than this are not checked for their compression ratio. */
+	static final long RATIO_CHECK_THRESHOLD = 1024L * 1024;
+
+	private final int maxEntries;
+
+	private final long maxEntrySize;
+
+	private final long maxTotalSize;
+
+	private final int maxCompressionRatio;
+
+	private final int bufferSize;
+
+	/**
+	 * Instantiates new zip limits.
+	 *
+	 * @param maxEntries
+	 *            the maximum number of entries in an archive
+	 * @param maxEntrySize
+	 *            the maximum uncompressed size of an entry
+	 * @param maxTotalSize
+	 *            the maximum uncompressed size of all the entries
+	 * @param maxCompressionRatio
+	 *            the maximum ratio between the uncompressed and the compressed
+	 *            size of an entry
+	 * @param bufferSize
+	 *            the copy buffer size
+	 */
+	public ZipLimits(int maxEntries, long maxEntrySize, long maxTotalSize, int maxCompressionRatio, int bufferSize) {
+		this.maxEntries = maxEntries;
+		this.maxEntrySize = maxEntrySize;
+		this.maxTotalSize = maxTotalSize;
+		this.maxCompressionRatio = maxCompressionRatio;
+		this.bufferSize = bufferSize;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getMaxEntrySize() {
+		return maxEntrySize;
+	}
+
+	public long getMaxTotalSize() {
+		return maxTotalSize;
+	}
+
+	public int getMaxCompressionRatio() {
+		return maxCompressionRatio;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+}
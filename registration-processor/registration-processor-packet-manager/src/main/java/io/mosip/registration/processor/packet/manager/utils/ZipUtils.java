@@ -6,21 +6,25 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.io.OutputStream;
 import java.util.Map;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOCase;
+import org.apache.commons.io.IOUtils;
 
 import io.mosip.kernel.core.logger.spi.Logger;
 import io.mosip.registration.processor.core.constant.LoggerFileConstant;
 import io.mosip.registration.processor.core.logger.RegProcessorLogger;
 
 /**
- * Class to unzip the packets
+ * Class to unzip the packets. The archives are read as a stream, or indexed
+ * with {@link ZipEntryIndex} when all the entries are needed, and every method
+ * applies the {@link ZipLimits} set with {@link #setLimits(ZipLimits)}.
  * 
  * @author Abhishek Kumar
  * @since 1.0.0
@@ -30,10 +34,47 @@ public class ZipUtils {
 	/** The reg proc logger. */
 	private static Logger regProcLogger = RegProcessorLogger.getLogger(ZipUtils.class);
 
+	/** The limits applied while unzipping. */
+	private static volatile ZipLimits limits = ZipLimits.DEFAULT;
+
 	private ZipUtils() {
 		// DONOT DELETE
 	}
 
+	/**
+	 * Sets the limits applied while unzipping.
+	 *
+	 * @param zipLimits
+	 *            the zip limits
+	 */
+	public static void setLimits(ZipLimits zipLimits) {
+		limits = zipLimits;
+	}
+
+	/**
+	 * Gets the limits applied while unzipping.
+	 *
+	 * @return the zip limits
+	 */
+	public static ZipLimits getLimits() {
+		return limits;
+	}
+
+	/**
+	 * Indexes the entries of an archive held in memory. The entries are inflated
+	 * only when their streams are read, and the streams can be opened as many
+	 * times as needed.
+	 *
+	 * @param packet
+	 *            the zip archive
+	 * @return the entry index
+	 * @throws IOException
+	 *             if the archive is not a valid zip or breaks the limits
+	 */
+	public static ZipEntryIndex indexZip(byte[] packet) throws IOException {
+		return new ZipEntryIndex(packet, limits);
+	}
+
 	/**
 	 * Method to unzip the file in-memeory and search the required file and return
 	 * it
@@ -49,20 +90,19 @@ public class ZipUtils {
 	public static InputStream unzipAndGetFile(InputStream packetStream, String file) throws IOException {
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
 				"ZipUtils::unzipAndGetFile()::entry");
+		ZipLimits zipLimits = limits;
 		ByteArrayOutputStream out = new ByteArrayOutputStream();
 		boolean flag = false;
-		byte[] buffer = new byte[2048];
 		try (ZipInputStream zis = new ZipInputStream(packetStream)) {
 			ZipEntry ze = zis.getNextEntry();
+			int entries = 0;
 			while (ze != null) {
+				checkEntryCount(++entries, zipLimits);
 				String fileName = ze.getName();
 				String fileNameWithOutExt = FilenameUtils.removeExtension(fileName);
 				if (FilenameUtils.equals(fileNameWithOutExt, file, true, IOCase.INSENSITIVE)) {
-					int len;
 					flag = true;
-					while ((len = zis.read(buffer)) > 0) {
-						out.write(buffer, 0, len);
-					}
+					copyEntry(zis, out, fileName, 0, zipLimits);
 					break;
 				}
 				zis.closeEntry();
@@ -99,9 +139,12 @@ public class ZipUtils {
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
 				"ZipUtils::unzipAndCheckIsFileExist()::entry");
 
+		ZipLimits zipLimits = limits;
 		try (ZipInputStream zis = new ZipInputStream(packetStream)) {
 			ZipEntry ze = zis.getNextEntry();
+			int entries = 0;
 			while (ze != null) {
+				checkEntryCount(++entries, zipLimits);
 				String fileName = ze.getName();
 				String fileNameWithOutExt = FilenameUtils.removeExtension(fileName);
 				if (FilenameUtils.equals(fileNameWithOutExt, file, true, IOCase.INSENSITIVE)) {
@@ -132,9 +175,9 @@ public class ZipUtils {
 	 *             if any error occurred while unzipping
 	 */
 	public static void unZipFromInputStream(InputStream input, String desDir) throws IOException {
-		byte[] buffer = new byte[1024];
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
 				"ZipUtils::unZipFromInputStream()::entry");
+		ZipLimits zipLimits = limits;
 
 		try (ZipInputStream zis = new ZipInputStream(input)) {
 			File folder = FileUtils.getFile(desDir);
@@ -145,25 +188,27 @@ public class ZipUtils {
 
 				}
 			}
+			String destination = folder.getCanonicalPath() + File.separator;
 			ZipEntry ze = zis.getNextEntry();
+			int entries = 0;
+			long totalSize = 0;
 			while (ze != null) {
+				checkEntryCount(++entries, zipLimits);
+				File newFile = FileUtils.getFile(desDir + File.separator + ze.getName());
+				if (!newFile.getCanonicalPath().startsWith(destination))
+					throw new ZipException("entry " + ze.getName() + " is outside of " + desDir);
 				if (ze.isDirectory()) {
-					File file = FileUtils.getFile(desDir + ze.getName());
-					if (file.mkdir()) {
+					if (newFile.mkdirs()) {
 						regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(),
-								LoggerFileConstant.REGISTRATIONID.toString(), "", file + "created");
+								LoggerFileConstant.REGISTRATIONID.toString(), "", newFile + "created");
 
 					}
 				} else {
-					String fileName = ze.getName();
-					File newFile = FileUtils.getFile(desDir + File.separator + fileName);
-					if (FileUtils.getFile(newFile.getParent()).mkdirs()) {
-						FileOutputStream fos = new FileOutputStream(newFile);
-						int len;
-						while ((len = zis.read(buffer)) > 0) {
-							fos.write(buffer, 0, len);
+					File parent = newFile.getParentFile();
+					if (parent.isDirectory() || parent.mkdirs()) {
+						try (FileOutputStream fos = new FileOutputStream(newFile)) {
+							totalSize += copyEntry(zis, fos, ze.getName(), totalSize, zipLimits);
 						}
-						fos.close();
 					}
 				}
 				ze = zis.getNextEntry();
@@ -178,35 +223,51 @@ public class ZipUtils {
 	}
 
 	/**
-	 * Get all files from inside zip
+	 * Get all files from inside zip. The archive is read into memory once and
+	 * indexed; the returned streams open and inflate their entry only when read,
+	 * and release it at the end of the entry, so the streams left unread or not
+	 * closed hold no inflater.
 	 *
 	 * @param packetStream
-	 * @return
+	 *            zip file to be unzipped
+	 * @return the entry streams by entry name
 	 * @throws IOException
+	 *             if any error occurred while unzipping the file
 	 */
 	public static Map<String, InputStream> unzipAndGetFiles(InputStream packetStream) throws IOException {
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
 				"ZipUtils::unzipAndGetFiles()::entry");
-		Map<String, InputStream> outList = new HashMap<>();
-		try (ZipInputStream zis = new ZipInputStream(packetStream)) {
-			ZipEntry ze = zis.getNextEntry();
-			while (ze != null) {
-				ByteArrayOutputStream out = new ByteArrayOutputStream();
-				int len;
-				byte[] buffer = new byte[2048];
-				while ((len = zis.read(buffer)) > 0) {
-					out.write(buffer, 0, len);
-				}
-				outList.put(ze.getName(), new ByteArrayInputStream(out.toByteArray()));
-				zis.closeEntry();
-				ze = zis.getNextEntry();
-
-				out.close();
-			}
+		try {
+			return indexZip(IOUtils.toByteArray(packetStream)).getInputStreams();
 		} finally {
 			packetStream.close();
 		}
+	}
+
+	/**
+	 * Copies the current entry of a zip stream, failing once the entry or the
+	 * archive grows past the limits.
+	 *
+	 * @return the bytes copied
+	 */
+	private static long copyEntry(ZipInputStream zis, OutputStream out, String name, long totalSize,
+			ZipLimits zipLimits) throws IOException {
+		byte[] buffer = new byte[zipLimits.getBufferSize()];
+		long copied = 0;
+		int len;
+		while ((len = zis.read(buffer)) > 0) {
+			copied += len;
+			if (copied > zipLimits.getMaxEntrySize())
+				throw new ZipException("entry " + name + " exceeds " + zipLimits.getMaxEntrySize() + " bytes");
+			if (totalSize + copied > zipLimits.getMaxTotalSize())
+				throw new ZipException("zip uncompressed size exceeds " + zipLimits.getMaxTotalSize());
+			out.write(buffer, 0, len);
+		}
+		return copied;
+	}
 
-		return outList;
+	private static void checkEntryCount(int entries, ZipLimits zipLimits) throws ZipException {
+		if (entries > zipLimits.getMaxEntries())
+			throw new ZipException("zip has more than " + zipLimits.getMaxEntries() + " entries");
 	}
 }
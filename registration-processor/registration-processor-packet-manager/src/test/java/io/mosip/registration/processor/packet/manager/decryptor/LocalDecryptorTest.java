@@ -0,0 +1,248 @@
+package io.mosip.registration.processor.packet.manager.decryptor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.security.DigestInputStream;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.exception.PacketDecryptionFailureException;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.packet.manager.constant.CryptomanagerConstant;
+import io.mosip.registration.processor.rest.client.audit.builder.AuditLogRequestBuilder;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LocalDecryptorTest {
+
+	private static final String REGISTRATION_ID = "84071493960000320190110145452";
+
+	private static final String REFERENCE_ID = "84071_49396";
+
+	private static final char[] PASSWORD = "mosip".toCharArray();
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(LocalDecryptorTest.class);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Mock
+	private AuditLogRequestBuilder auditLogRequestBuilder;
+
+	@Mock
+	private Environment env;
+
+	@Mock
+	private RegistrationProcessorRestClientService<Object> restClientService;
+
+	@InjectMocks
+	private DecryptorImpl decryptor;
+
+	private SecretKey key;
+
+	private KeyStore keyStore;
+
+	@Before
+	public void setup() throws Exception {
+		KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+		keyGenerator.init(256);
+		key = keyGenerator.generateKey();
+		keyStore = KeyStore.getInstance("PKCS12");
+		keyStore.load(null, PASSWORD);
+		keyStore.setEntry(REFERENCE_ID, new KeyStore.SecretKeyEntry(key), new KeyStore.PasswordProtection(PASSWORD));
+
+		ReflectionTestUtils.setField(decryptor, "centerIdLength", 5);
+		ReflectionTestUtils.setField(decryptor, "machineIdSubStringLength", 10);
+		ReflectionTestUtils.setField(decryptor, "packetCryptoProvider",
+				new AesGcmCryptoProvider(keyStore, PASSWORD, null, 64 * 1024));
+	}
+
+	@Test
+	public void decryptLocallyTest() throws Exception {
+		byte[] packet = new byte[1024 * 1024];
+		new Random(7).nextBytes(packet);
+		File encrypted = encrypt(packet, 1);
+
+		try (InputStream in = new FileInputStream(encrypted);
+				InputStream decrypted = decryptor.decrypt(in, REGISTRATION_ID)) {
+			assertArrayEquals(packet, IOUtils.toByteArray(decrypted));
+		}
+	}
+
+	@Test(expected = PacketDecryptionFailureException.class)
+	public void tamperedPacketTest() throws Exception {
+		byte[] packet = new byte[64 * 1024];
+		new Random(7).nextBytes(packet);
+		File encrypted = encrypt(packet, 1);
+		byte[] bytes = IOUtils.toByteArray(new FileInputStream(encrypted));
+		bytes[bytes.length - 100] ^= 1;
+
+		decryptor.decrypt(new ByteArrayInputStream(bytes), REGISTRATION_ID);
+	}
+
+	@Test(expected = PacketDecryptionFailureException.class)
+	public void unknownKeyTest() throws Exception {
+		byte[] packet = new byte[1024];
+		File encrypted = encrypt(packet, 1);
+
+		decryptor.decrypt(new FileInputStream(encrypted), "10001100010000320190110145452");
+	}
+
+	/**
+	 * The plaintext is written as the encrypted data is read, not once the
+	 * whole packet is read: the data read before the first write stays within a
+	 * few chunks whatever the packet size.
+	 */
+	@Test
+	public void boundedBufferingTest() throws Exception {
+		int chunk = 64 * 1024;
+		byte[] block = new byte[1024 * 1024];
+		new Random(7).nextBytes(block);
+		File encrypted = encrypt(block, 8);
+		AtomicLong consumed = new AtomicLong();
+		AtomicLong consumedAtFirstWrite = new AtomicLong(-1);
+
+		try (InputStream in = new FileInputStream(encrypted)) {
+			byte[] nonce = new byte[CryptomanagerConstant.GCM_NONCE_LENGTH];
+			byte[] aad = new byte[CryptomanagerConstant.GCM_AAD_LENGTH];
+			IOUtils.readFully(in, nonce);
+			IOUtils.readFully(in, aad);
+			InputStream counting = new FilterInputStream(in) {
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					int read = super.read(b, off, len);
+					if (read > 0)
+						consumed.addAndGet(read);
+					return read;
+				}
+			};
+			OutputStream out = new OutputStream() {
+				@Override
+				public void write(int b) {
+					write(new byte[] { (byte) b }, 0, 1);
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+					consumedAtFirstWrite.compareAndSet(-1, consumed.get());
+				}
+			};
+			new AesGcmCryptoProvider(keyStore, PASSWORD, null, chunk).decrypt(REFERENCE_ID, nonce, aad, counting,
+					out);
+		}
+
+		assertTrue(consumedAtFirstWrite.get() > 0);
+		assertTrue(consumedAtFirstWrite.get() <= 2 * chunk);
+	}
+
+	/**
+	 * Decrypts packets of the sizes in MB set with
+	 * -Ddecrypt.benchmark.sizes=10,50,200, and logs the throughput and the heap
+	 * used at peak. Skipped when the property is not set.
+	 */
+	@Test
+	public void largePacketBenchmarkTest() throws Exception {
+		String sizes = System.getProperty("decrypt.benchmark.sizes");
+		Assume.assumeNotNull(sizes);
+		byte[] block = new byte[1024 * 1024];
+		new Random(7).nextBytes(block);
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+		for (String size : sizes.split(",")) {
+			int sizeInMb = Integer.parseInt(size.trim());
+			File encrypted = encrypt(block, sizeInMb);
+			System.gc();
+			long heapBefore = memory.getHeapMemoryUsage().getUsed();
+			AtomicLong heapPeak = new AtomicLong(heapBefore);
+			AtomicBoolean decrypting = new AtomicBoolean(true);
+			Thread sampler = new Thread(() -> {
+				while (decrypting.get()) {
+					heapPeak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+					LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+				}
+			});
+			sampler.start();
+			long start = System.nanoTime();
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			try (InputStream in = new FileInputStream(encrypted);
+					InputStream decrypted = new DigestInputStream(decryptor.decrypt(in, REGISTRATION_ID), digest)) {
+				IOUtils.copy(decrypted, NullOutputStream.NULL_OUTPUT_STREAM);
+			} finally {
+				decrypting.set(false);
+				sampler.join();
+			}
+			long elapsed = System.nanoTime() - start;
+			encrypted.delete();
+
+			MessageDigest expected = MessageDigest.getInstance("SHA-256");
+			for (int i = 0; i < sizeInMb; i++)
+				expected.update(block);
+			assertArrayEquals(expected.digest(), digest.digest());
+			regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					REGISTRATION_ID, String.format("local decrypt %d MB : %.1f MB/s, heap peak %d MB over baseline",
+							sizeInMb, sizeInMb / (elapsed / 1e9), (heapPeak.get() - heapBefore) >> 20));
+		}
+	}
+
+	private File encrypt(byte[] block, int repeat) throws Exception {
+		byte[] nonce = new byte[CryptomanagerConstant.GCM_NONCE_LENGTH];
+		byte[] aad = new byte[CryptomanagerConstant.GCM_AAD_LENGTH];
+		SecureRandom random = new SecureRandom();
+		random.nextBytes(nonce);
+		random.nextBytes(aad);
+		Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+		cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, nonce));
+		cipher.updateAAD(aad);
+
+		File file = folder.newFile();
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(nonce);
+			out.write(aad);
+			try (OutputStream cipherOut = new CipherOutputStream(out, cipher)) {
+				for (int i = 0; i < repeat; i++)
+					cipherOut.write(block);
+			}
+		}
+		return file;
+	}
+
+}
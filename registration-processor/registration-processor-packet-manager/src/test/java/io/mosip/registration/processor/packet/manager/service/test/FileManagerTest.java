@@ -1,6 +1,7 @@
 package io.mosip.registration.processor.packet.manager.service.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
@@ -11,6 +12,8 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -28,6 +31,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import com.jcraft.jsch.ChannelSftp;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpATTRS;
 import com.jcraft.jsch.SftpException;
 
 import io.mosip.registration.processor.core.exception.JschConnectionException;
@@ -37,6 +41,7 @@ import io.mosip.registration.processor.core.spi.filesystem.manager.FileManager;
 import io.mosip.registration.processor.packet.manager.config.PacketManagerConfigTest;
 import io.mosip.registration.processor.packet.manager.dto.DirectoryPathDto;
 import io.mosip.registration.processor.packet.manager.service.impl.FileManagerImpl;
+import io.mosip.registration.processor.packet.manager.utils.SftpStreamingTransfer;
 
 /**
  * The Class FileManagerTest.
@@ -189,10 +194,37 @@ public class FileManagerTest {
 		Mockito.when(session.openChannel(Mockito.any())).thenReturn(sftp);
 		Mockito.doNothing().when(sftp).connect();
 		Mockito.when(sftp.get(Mockito.any())).thenReturn(is);
+		Mockito.when(sftp.get(Mockito.endsWith(SftpStreamingTransfer.SIDECAR_EXTENSION)))
+				.thenThrow(new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "no sidecar"));
+		Mockito.doAnswer(invocation -> IOUtils.copy(invocation.<InputStream> getArgument(0), NullOutputStream.NULL_OUTPUT_STREAM))
+				.when(sftp).put(Mockito.any(InputStream.class), Mockito.anyString());
+		SftpATTRS attrs = Mockito.mock(SftpATTRS.class);
+		Mockito.when(attrs.getSize()).thenReturn(file.length());
+		Mockito.when(sftp.stat(Mockito.any())).thenReturn(attrs);
 		boolean status = impl.copy(fileNameWithoutExtn,
 				DirectoryPathDto.ARCHIVE_LOCATION, DirectoryPathDto.LANDING_ZONE, sftpDto);
 
 		assertTrue("Expected copy status as true", status);
+		Mockito.verify(sftp).put(Mockito.any(InputStream.class), Mockito.endsWith(SftpStreamingTransfer.SIDECAR_EXTENSION));
+	}
+
+	@Test
+	public void testCopyFileSizeMismatch() throws Exception {
+		String fileNameWithoutExtn = FilenameUtils.removeExtension(new File("1001.zip").getName());
+		Mockito.when(sftp.get(Mockito.any())).thenReturn(is);
+		Mockito.when(sftp.get(Mockito.endsWith(SftpStreamingTransfer.SIDECAR_EXTENSION)))
+				.thenThrow(new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "no sidecar"));
+		Mockito.doAnswer(invocation -> IOUtils.copy(invocation.<InputStream> getArgument(0), NullOutputStream.NULL_OUTPUT_STREAM))
+				.when(sftp).put(Mockito.any(InputStream.class), Mockito.anyString());
+		SftpATTRS attrs = Mockito.mock(SftpATTRS.class);
+		Mockito.when(attrs.getSize()).thenReturn(file.length() - 1);
+		Mockito.when(sftp.stat(Mockito.any())).thenReturn(attrs);
+
+		boolean status = impl.copy(fileNameWithoutExtn, DirectoryPathDto.ARCHIVE_LOCATION,
+				DirectoryPathDto.LANDING_ZONE, sftpDto);
+
+		assertFalse("a truncated copy is not reported as copied", status);
+		Mockito.verify(sftp).rm(Mockito.endsWith(".zip"));
 	}
 
 	@Test
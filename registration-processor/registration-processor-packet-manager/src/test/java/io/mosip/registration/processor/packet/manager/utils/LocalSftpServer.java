@@ -0,0 +1,103 @@
+package io.mosip.registration.processor.packet.manager.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.common.session.helpers.AbstractSession;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.subsystem.sftp.SftpSubsystemFactory;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+/**
+ * Sftp server embedded on a local port, serving a local folder as its root and
+ * accepting one user and password.
+ */
+public class LocalSftpServer {
+
+	public static final String USER = "regproc";
+
+	public static final String PASSWORD = "regproc";
+
+	private final Path root;
+
+	private SshServer server;
+
+	public LocalSftpServer(Path root) {
+		this.root = root;
+	}
+
+	/**
+	 * Starts the server on a free port.
+	 *
+	 * @return the port
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public int start() throws IOException {
+		SimpleGeneratorHostKeyProvider hostKeys = new SimpleGeneratorHostKeyProvider();
+		hostKeys.setAlgorithm("RSA");
+		server = SshServer.setUpDefaultServer();
+		server.setHost("localhost");
+		server.setPort(0);
+		server.setKeyPairProvider(hostKeys);
+		server.setPasswordAuthenticator((user, password, session) -> USER.equals(user) && PASSWORD.equals(password));
+		server.setSubsystemFactories(Collections.singletonList(new SftpSubsystemFactory()));
+		server.setFileSystemFactory(new VirtualFileSystemFactory(root));
+		server.start();
+		return server.getPort();
+	}
+
+	/**
+	 * Closes every session from the server side, as a firewall or a restart of
+	 * the server would.
+	 *
+	 * @return the sessions closed
+	 */
+	public int killSessions() {
+		List<AbstractSession> sessions = server.getActiveSessions();
+		sessions.forEach(session -> session.close(true));
+		return sessions.size();
+	}
+
+	public int getPort() {
+		return server.getPort();
+	}
+
+	public void stop() throws IOException {
+		if (server != null)
+			server.stop(true);
+	}
+
+	/**
+	 * Opens a session, the way the sftp session factory does.
+	 *
+	 * @return the session
+	 * @throws JSchException
+	 *             the j sch exception
+	 */
+	public Session openSession() throws JSchException {
+		Session session = new JSch().getSession(USER, "localhost", server.getPort());
+		session.setPassword(PASSWORD);
+		Properties config = new Properties();
+		config.put("StrictHostKeyChecking", "no");
+		session.setConfig(config);
+		session.connect();
+		return session;
+	}
+
+	public static ChannelSftp openChannel(Session session) throws JSchException {
+		ChannelSftp channel = (ChannelSftp) session.openChannel("sftp");
+		channel.connect();
+		return channel;
+	}
+
+}
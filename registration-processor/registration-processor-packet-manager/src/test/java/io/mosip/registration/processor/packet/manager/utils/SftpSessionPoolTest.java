@@ -0,0 +1,300 @@
+package io.mosip.registration.processor.packet.manager.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.Session;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.exception.JschConnectionException;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.packet.dto.SftpJschConnectionDto;
+import io.mosip.registration.processor.packet.manager.dto.DirectoryPathDto;
+import io.mosip.registration.processor.packet.manager.service.impl.FileManagerImpl;
+
+/**
+ * Borrows sessions of an embedded sftp server whose connections are closed
+ * from the server side while the pool is in use.
+ */
+public class SftpSessionPoolTest {
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(SftpSessionPoolTest.class);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private LocalSftpServer server;
+
+	private SftpJschConnectionDto sftpConnectionDto;
+
+	private SftpSessionPool pool;
+
+	@Before
+	public void setup() throws Exception {
+		Path root = folder.newFolder("sftp").toPath();
+		Files.createDirectories(root.resolve("archive"));
+		Files.createDirectories(root.resolve("landing"));
+		server = new LocalSftpServer(root);
+		sftpConnectionDto = new SftpJschConnectionDto();
+		sftpConnectionDto.setHost("localhost");
+		sftpConnectionDto.setPort(server.start());
+		sftpConnectionDto.setUser(LocalSftpServer.USER);
+		sftpConnectionDto.setDmzServerPwd(LocalSftpServer.PASSWORD);
+		sftpConnectionDto.setProtocal("sftp");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (pool != null)
+			pool.close();
+		server.stop();
+	}
+
+	@Test
+	public void deadSessionIsReplacedOnBorrowTest() throws Exception {
+		pool = new SftpSessionPool(new SftpSessionFactory(), 2, 1000, 0, 60000);
+		Session session = pool.borrowSession(sftpConnectionDto);
+		pool.returnSession(sftpConnectionDto, session);
+
+		assertEquals(1, server.killSessions());
+		await(() -> !session.isConnected());
+
+		Session replacement = pool.borrowSession(sftpConnectionDto);
+		assertNotSame(session, replacement);
+		assertTrue(replacement.isConnected());
+		assertEquals(1, pool.getInvalidSessions());
+		assertTrue(roundTrip(replacement, "/replacement.txt"));
+	}
+
+	@Test
+	public void deadSessionIsEvictedInTheBackgroundTest() throws Exception {
+		pool = new SftpSessionPool(new SftpSessionFactory(), 2, 1000, 50, 60000);
+		Session first = pool.borrowSession(sftpConnectionDto);
+		Session second = pool.borrowSession(sftpConnectionDto);
+		pool.returnSession(sftpConnectionDto, first);
+		pool.returnSession(sftpConnectionDto, second);
+		assertEquals(2, pool.getNumIdle());
+
+		server.killSessions();
+
+		await(() -> pool.getNumIdle() == 0);
+		assertEquals(2, pool.getInvalidSessions());
+	}
+
+	@Test
+	public void idleSessionIsEvictedTest() throws Exception {
+		pool = new SftpSessionPool(new SftpSessionFactory(), 2, 1000, 50, 200);
+		Session session = pool.borrowSession(sftpConnectionDto);
+		pool.returnSession(sftpConnectionDto, session);
+
+		await(() -> pool.getNumIdle() == 0);
+		assertFalse("an evicted session is disconnected", session.isConnected());
+		assertEquals(0, pool.getInvalidSessions());
+	}
+
+	@Test
+	public void sessionDisconnectedInUseIsNotReturnedTest() throws Exception {
+		pool = new SftpSessionPool(new SftpSessionFactory(), 2, 1000, 0, 60000);
+		Session session = pool.borrowSession(sftpConnectionDto);
+		session.disconnect();
+
+		pool.returnSession(sftpConnectionDto, session);
+
+		assertEquals(0, pool.getNumActive());
+		assertEquals(0, pool.getNumIdle());
+	}
+
+	@Test
+	public void maxWaitTest() throws Exception {
+		pool = new SftpSessionPool(new SftpSessionFactory(), 1, 200, 0, 60000);
+		Session session = pool.borrowSession(sftpConnectionDto);
+
+		long start = System.nanoTime();
+		try {
+			pool.borrowSession(sftpConnectionDto);
+			fail("the pool has one session, in use");
+		} catch (NoSuchElementException e) {
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+		}
+		assertEquals(1, pool.getBorrowTimeouts());
+		assertEquals(2, pool.getBorrows());
+		assertTrue(pool.getMaxBorrowMillis() >= 200);
+		assertEquals(1, pool.getNumActive());
+
+		pool.returnSession(sftpConnectionDto, session);
+		assertEquals(0, pool.getNumActive());
+		assertEquals(1, pool.getNumIdle());
+	}
+
+	@Test
+	public void sessionReturnedWhenPacketMissingTest() throws Exception {
+		pool = new SftpSessionPool(new SftpSessionFactory(), 2, 1000, 0, 60000);
+		FileManagerImpl fileManager = fileManager();
+
+		assertFalse(fileManager.copy("10001", DirectoryPathDto.ARCHIVE_LOCATION, DirectoryPathDto.LANDING_ZONE,
+				sftpConnectionDto));
+		assertFalse(fileManager.cleanUp("10001", DirectoryPathDto.LANDING_ZONE, DirectoryPathDto.ARCHIVE_LOCATION,
+				sftpConnectionDto));
+
+		assertEquals(0, pool.getNumActive());
+		assertEquals(1, pool.getNumIdle());
+	}
+
+	@Test
+	public void sessionBorrowAttemptsAreBoundedTest() throws Exception {
+		pool = new SftpSessionPool(new SftpSessionFactory(), 1, 100, 0, 60000);
+		Session session = pool.borrowSession(sftpConnectionDto);
+		FileManagerImpl fileManager = fileManager();
+
+		try {
+			fileManager.copy("10001", DirectoryPathDto.ARCHIVE_LOCATION, DirectoryPathDto.LANDING_ZONE,
+					sftpConnectionDto);
+			fail("the pool has one session, in use");
+		} catch (JschConnectionException e) {
+			assertEquals(3, pool.getBorrowTimeouts());
+		}
+
+		pool.returnSession(sftpConnectionDto, session);
+		assertEquals(0, pool.getNumActive());
+	}
+
+	/**
+	 * Four workers copy files while every session is killed every 50 ms. Only the
+	 * copies caught by a kill fail, and once the kills stop every copy succeeds
+	 * with the sessions left in the pool.
+	 */
+	@Test
+	public void sessionsKilledMidRunTest() throws Exception {
+		pool = new SftpSessionPool(new SftpSessionFactory(), 4, 5000, 50, 60000);
+		AtomicInteger copies = new AtomicInteger();
+		AtomicInteger failures = new AtomicInteger();
+		AtomicInteger kills = new AtomicInteger();
+
+		ExecutorService workers = Executors.newFixedThreadPool(5);
+		for (int worker = 0; worker < 4; worker++) {
+			int id = worker;
+			workers.execute(() -> {
+				for (int i = 0; i < 50; i++)
+					if (copy("/" + id + "-" + i + ".txt"))
+						copies.incrementAndGet();
+					else
+						failures.incrementAndGet();
+			});
+		}
+		workers.execute(() -> {
+			for (int i = 0; i < 10; i++) {
+				sleep(50);
+				if (server.killSessions() > 0)
+					kills.incrementAndGet();
+			}
+		});
+		workers.shutdown();
+		assertTrue(workers.awaitTermination(60, TimeUnit.SECONDS));
+
+		assertEquals(200, copies.get() + failures.get());
+		assertTrue("at most the copies in progress fail on a kill", failures.get() <= 4 * kills.get());
+
+		for (int i = 0; i < 20; i++)
+			assertTrue(copy("/after-" + i + ".txt"));
+		assertEquals(0, pool.getNumActive());
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format(
+						"%d copies, %d failed over %d kills; %d dead sessions replaced; borrow mean %.2f ms, max %.2f ms",
+						copies.get(), failures.get(), kills.get(), pool.getInvalidSessions(),
+						pool.getMeanBorrowMillis(), pool.getMaxBorrowMillis()));
+	}
+
+	private FileManagerImpl fileManager() {
+		Environment env = Mockito.mock(Environment.class);
+		Mockito.when(env.getProperty("registration.processor.dmz.server.password"))
+				.thenReturn(LocalSftpServer.PASSWORD);
+		Mockito.when(env.getProperty(DirectoryPathDto.ARCHIVE_LOCATION.toString())).thenReturn("/archive");
+		Mockito.when(env.getProperty(DirectoryPathDto.LANDING_ZONE.toString())).thenReturn("/landing");
+		FileManagerImpl fileManager = new FileManagerImpl() {
+			@Override
+			public SftpSessionPool getSessionPool() {
+				return pool;
+			}
+		};
+		ReflectionTestUtils.setField(fileManager, "env", env);
+		ReflectionTestUtils.setField(fileManager, "extension", ".zip");
+		return fileManager;
+	}
+
+	private boolean copy(String path) {
+		Session session;
+		try {
+			session = pool.borrowSession(sftpConnectionDto);
+		} catch (Exception e) {
+			return false;
+		}
+		try {
+			return roundTrip(session, path);
+		} catch (Exception e) {
+			return false;
+		} finally {
+			try {
+				pool.returnSession(sftpConnectionDto, session);
+			} catch (Exception e) {
+				// the session is dropped
+			}
+		}
+	}
+
+	private static boolean roundTrip(Session session, String path) throws Exception {
+		ChannelSftp channel = LocalSftpServer.openChannel(session);
+		try {
+			byte[] content = path.getBytes(StandardCharsets.UTF_8);
+			channel.put(new ByteArrayInputStream(content), path);
+			try (InputStream in = channel.get(path)) {
+				assertArrayEquals(content, IOUtils.toByteArray(in));
+			}
+			return true;
+		} finally {
+			channel.disconnect();
+		}
+	}
+
+	private static void await(BooleanSupplier condition) {
+		for (int i = 0; i < 100 && !condition.getAsBoolean(); i++)
+			sleep(50);
+		assertTrue(condition.getAsBoolean());
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,257 @@
+package io.mosip.registration.processor.packet.manager.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.Session;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.core.packet.dto.SftpJschConnectionDto;
+import io.mosip.registration.processor.packet.manager.dto.DirectoryPathDto;
+import io.mosip.registration.processor.packet.manager.service.impl.FileManagerImpl;
+
+/**
+ * Copies packets over an embedded sftp server, and logs the heap and
+ * throughput against the former copy, which read the packet into memory, wrote it
+ * and read the copy back. The packet size of the comparison, in MB, can be set
+ * with -Dsftp.benchmark.size.
+ */
+public class SftpStreamingTransferTest {
+
+	private static final int BENCHMARK_SIZE = Integer.getInteger("sftp.benchmark.size", 16);
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(SftpStreamingTransferTest.class);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path root;
+
+	private LocalSftpServer server;
+
+	private Session session;
+
+	private ChannelSftp source;
+
+	private ChannelSftp destination;
+
+	private final SftpStreamingTransfer transfer = new SftpStreamingTransfer(64 * 1024);
+
+	@Before
+	public void setup() throws Exception {
+		root = folder.newFolder("sftp").toPath();
+		Files.createDirectories(root.resolve("archive"));
+		Files.createDirectories(root.resolve("landing"));
+		server = new LocalSftpServer(root);
+		server.start();
+		session = server.openSession();
+		source = LocalSftpServer.openChannel(session);
+		destination = LocalSftpServer.openChannel(session);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		source.disconnect();
+		destination.disconnect();
+		session.disconnect();
+		server.stop();
+	}
+
+	@Test
+	public void transferTest() throws Exception {
+		byte[] packet = random(1024 * 1024 + 17, 1);
+		Files.write(root.resolve("archive/10001.zip"), packet);
+
+		SftpStreamingTransfer.Result result = transfer.transfer(source, "/archive/10001.zip", destination,
+				"/landing/10001.zip");
+
+		assertTrue(result.isVerified());
+		assertFalse(result.isSidecarChecked());
+		assertEquals(packet.length, result.getSize());
+		assertEquals(sha256(packet), result.getDigest());
+		assertArrayEquals(packet, Files.readAllBytes(root.resolve("landing/10001.zip")));
+		assertEquals(sha256(packet) + " " + packet.length, new String(
+				Files.readAllBytes(root.resolve("landing/10001.zip.sha256")), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void sourceSidecarTest() throws Exception {
+		byte[] packet = random(300000, 2);
+		Files.write(root.resolve("archive/10002.zip"), packet);
+		Files.write(root.resolve("archive/10002.zip.sha256"),
+				(sha256(packet) + " " + packet.length + "\n").getBytes(StandardCharsets.UTF_8));
+
+		SftpStreamingTransfer.Result result = transfer.transfer(source, "/archive/10002.zip", destination,
+				"/landing/10002.zip");
+
+		assertTrue(result.isSidecarChecked());
+		assertTrue(result.isVerified());
+	}
+
+	@Test
+	public void sidecarMismatchTest() throws Exception {
+		byte[] packet = random(300000, 3);
+		Files.write(root.resolve("archive/10003.zip"), packet);
+		Files.write(root.resolve("archive/10003.zip.sha256"),
+				(sha256(random(300000, 4)) + " " + packet.length).getBytes(StandardCharsets.UTF_8));
+
+		SftpStreamingTransfer.Result result = transfer.transfer(source, "/archive/10003.zip", destination,
+				"/landing/10003.zip");
+
+		assertFalse(result.isVerified());
+		assertFalse("a copy not matching its source is removed", Files.exists(root.resolve("landing/10003.zip")));
+		assertFalse(Files.exists(root.resolve("landing/10003.zip.sha256")));
+	}
+
+	@Test
+	public void receivedPacketSidecarTest() throws Exception {
+		byte[] packet = random(400000, 7);
+		Environment env = Mockito.mock(Environment.class);
+		Mockito.when(env.getProperty(DirectoryPathDto.LANDING_ZONE.toString()))
+				.thenReturn(root.resolve("landing").toString());
+		FileManagerImpl fileManager = new FileManagerImpl();
+		ReflectionTestUtils.setField(fileManager, "env", env);
+		ReflectionTestUtils.setField(fileManager, "extension", ".zip");
+
+		// as the packet receiver stores a packet, with the upper case hash of the sync
+		fileManager.put("10007", new ByteArrayInputStream(packet), DirectoryPathDto.LANDING_ZONE);
+		fileManager.putSidecar("10007", sha256(packet).toUpperCase(), packet.length, DirectoryPathDto.LANDING_ZONE);
+		SftpStreamingTransfer.Result result = transfer.transfer(source, "/landing/10007.zip", destination,
+				"/archive/10007.zip");
+
+		assertTrue(result.isSidecarChecked());
+		assertTrue(result.isVerified());
+
+		fileManager.deletePacket(DirectoryPathDto.LANDING_ZONE, "10007");
+		assertFalse(Files.exists(root.resolve("landing/10007.zip.sha256")));
+	}
+
+	@Test
+	public void fileManagerCopyAndCleanUpTest() throws Exception {
+		byte[] packet = random(500000, 5);
+		Files.write(root.resolve("archive/10005.zip"), packet);
+		Environment env = Mockito.mock(Environment.class);
+		Mockito.when(env.getProperty(DirectoryPathDto.ARCHIVE_LOCATION.toString())).thenReturn("/archive");
+		Mockito.when(env.getProperty(DirectoryPathDto.LANDING_ZONE.toString())).thenReturn("/landing");
+		FileManagerImpl fileManager = new FileManagerImpl() {
+			@Override
+			public Session getSession(SftpJschConnectionDto sftpConnectionDto) {
+				return session;
+			}
+
+			@Override
+			public void disconnectConnection(ChannelSftp channel, Session session,
+					SftpJschConnectionDto sftpConnectionDto) {
+				channel.disconnect();
+			}
+		};
+		ReflectionTestUtils.setField(fileManager, "env", env);
+		ReflectionTestUtils.setField(fileManager, "extension", ".zip");
+		SftpJschConnectionDto sftpConnectionDto = new SftpJschConnectionDto();
+		sftpConnectionDto.setProtocal("sftp");
+
+		assertTrue(fileManager.copy("10005", DirectoryPathDto.ARCHIVE_LOCATION, DirectoryPathDto.LANDING_ZONE,
+				sftpConnectionDto));
+		assertArrayEquals(packet, Files.readAllBytes(root.resolve("landing/10005.zip")));
+
+		// the copy back is verified against the sidecar of the first copy
+		Files.delete(root.resolve("archive/10005.zip"));
+		assertTrue(fileManager.copy("10005", DirectoryPathDto.LANDING_ZONE, DirectoryPathDto.ARCHIVE_LOCATION,
+				sftpConnectionDto));
+
+		assertTrue(fileManager.cleanUp("10005", DirectoryPathDto.LANDING_ZONE, DirectoryPathDto.ARCHIVE_LOCATION,
+				sftpConnectionDto));
+		assertFalse(Files.exists(root.resolve("landing/10005.zip")));
+		assertFalse(Files.exists(root.resolve("landing/10005.zip.sha256")));
+	}
+
+	@Test
+	public void streamingVersusInMemoryCopyBenchmark() throws Exception {
+		byte[] packet = random(BENCHMARK_SIZE * 1024 * 1024, 6);
+		Files.write(root.resolve("archive/benchmark.zip"), packet);
+		double megabytes = packet.length / (1024d * 1024);
+		packet = null;
+
+		long allocated = allocatedBytes();
+		long start = System.nanoTime();
+		legacyCopy(source, "/archive/benchmark.zip", "/landing/legacy.zip");
+		double legacySeconds = (System.nanoTime() - start) / 1_000_000_000d;
+		long legacyAllocated = allocatedBytes() - allocated;
+
+		allocated = allocatedBytes();
+		start = System.nanoTime();
+		assertTrue(transfer.transfer(source, "/archive/benchmark.zip", destination, "/landing/streamed.zip")
+				.isVerified());
+		double streamingSeconds = (System.nanoTime() - start) / 1_000_000_000d;
+		long streamingAllocated = allocatedBytes() - allocated;
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format(
+						"%.0f MB packet : in memory %.1f MB/s, %d MB allocated; streamed %.1f MB/s, %d MB allocated",
+						megabytes, megabytes / legacySeconds, legacyAllocated / (1024 * 1024),
+						megabytes / streamingSeconds, streamingAllocated / (1024 * 1024)));
+		if (legacyAllocated > 0)
+			assertTrue(streamingAllocated < legacyAllocated);
+	}
+
+	/**
+	 * The former FileManagerImpl copy: the packet read into memory, written, and
+	 * the copy read back.
+	 */
+	private static void legacyCopy(ChannelSftp channelSftp, String sourcePath, String destinationPath)
+			throws Exception {
+		byte[] bytedata;
+		try (InputStream is = channelSftp.get(sourcePath)) {
+			bytedata = IOUtils.toByteArray(is);
+		}
+		channelSftp.put(new ByteArrayInputStream(bytedata), destinationPath);
+		try (InputStream is = channelSftp.get(destinationPath)) {
+			IOUtils.toByteArray(is);
+		}
+	}
+
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threadMXBean)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+
+	private static String sha256(byte[] bytes) throws Exception {
+		return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(bytes)));
+	}
+
+	private static byte[] random(int size, long seed) {
+		byte[] bytes = new byte[size];
+		new Random(seed).nextBytes(bytes);
+		return bytes;
+	}
+
+}
@@ -0,0 +1,324 @@
+package io.mosip.registration.processor.packet.manager.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+
+/**
+ * Checks the zip entry index and the zip limits against java.util.zip, and
+ * compares heap and throughput with the former copy of every entry on
+ * synthetic packets. The comparison only runs when its packet sizes, in MB,
+ * are set with -Dzip.benchmark.sizes=50,200,500.
+ */
+public class ZipEntryIndexTest {
+
+	private static final String BENCHMARK_SIZES = System.getProperty("zip.benchmark.sizes");
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(ZipEntryIndexTest.class);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		ZipUtils.setLimits(ZipLimits.DEFAULT);
+	}
+
+	@Test
+	public void indexMatchesZipInputStreamTest() throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("id.zip", random(200000, 1));
+		files.put("id.json", "{\"id\":\"10001\",\"email\":\"mono@mono.com\"}".getBytes(StandardCharsets.UTF_8));
+		files.put("evidence.zip", random(50000, 2));
+		files.put("evidence.json", new byte[0]);
+		byte[] packet = zip(files, true);
+
+		ZipEntryIndex index = ZipUtils.indexZip(packet);
+
+		assertEquals(4, index.getEntryNames().size());
+		assertEquals("id.json", index.getEntryNames().get(1));
+		assertEquals(200000, index.getSize("id.zip"));
+		assertEquals(-1, index.getSize("optional.zip"));
+		assertEquals("evidence.json", index.find("EVIDENCE"));
+		assertNull(index.getInputStream("optional.zip"));
+		for (Map.Entry<String, byte[]> file : files.entrySet()) {
+			assertArrayEquals(file.getValue(), IOUtils.toByteArray(index.getInputStream(file.getKey())));
+			assertArrayEquals(file.getValue(), IOUtils.toByteArray(index.getInputStream(file.getKey())));
+		}
+		Map<String, InputStream> streams = ZipUtils.unzipAndGetFiles(new ByteArrayInputStream(packet));
+		assertEquals(files.keySet(), streams.keySet());
+		assertArrayEquals(files.get("id.zip"), IOUtils.toByteArray(streams.get("id.zip")));
+	}
+
+	@Test
+	public void entryStreamsOpenedLazilyTest() throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("id.zip", random(100000, 4));
+		files.put("evidence.zip", random(100000, 5));
+		Map<String, InputStream> streams = ZipUtils.unzipAndGetFiles(new ByteArrayInputStream(zip(files, true)));
+
+		for (InputStream stream : streams.values())
+			assertNull("no entry is opened before it is read", ReflectionTestUtils.getField(stream, "in"));
+
+		InputStream id = streams.get("id.zip");
+		assertArrayEquals(files.get("id.zip"), IOUtils.toByteArray(id));
+		assertNull("the entry is released at its end", ReflectionTestUtils.getField(id, "in"));
+		assertEquals(-1, id.read());
+		assertNull(ReflectionTestUtils.getField(streams.get("evidence.zip"), "in"));
+	}
+
+	@Test
+	public void storedEntriesTest() throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("packet_meta_info.json", "{}".getBytes(StandardCharsets.UTF_8));
+		files.put("id.zip", random(10000, 3));
+		ZipEntryIndex index = ZipUtils.indexZip(zip(files, false));
+
+		assertArrayEquals(files.get("id.zip"), IOUtils.toByteArray(index.getInputStream("id.zip")));
+		assertArrayEquals(files.get("packet_meta_info.json"),
+				IOUtils.toByteArray(index.getInputStream("packet_meta_info.json")));
+	}
+
+	@Test
+	public void unzipAndGetFileTest() throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("id.json", "{\"id\":\"10001\"}".getBytes(StandardCharsets.UTF_8));
+		files.put("packet_meta_info.json", "{}".getBytes(StandardCharsets.UTF_8));
+		byte[] packet = zip(files, true);
+
+		assertArrayEquals(files.get("packet_meta_info.json"), IOUtils.toByteArray(
+				ZipUtils.unzipAndGetFile(new ByteArrayInputStream(packet), "PACKET_META_INFO")));
+		assertNull(ZipUtils.unzipAndGetFile(new ByteArrayInputStream(packet), "evidence"));
+		assertTrue(ZipUtils.unzipAndCheckIsFileExist(new ByteArrayInputStream(packet), "id"));
+		assertFalse(ZipUtils.unzipAndCheckIsFileExist(new ByteArrayInputStream(packet), "evidence"));
+	}
+
+	@Test
+	public void unZipFromInputStreamTest() throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("id.json", "{}".getBytes(StandardCharsets.UTF_8));
+		files.put("biometric/face.jp2", random(5000, 4));
+		File destination = folder.newFolder("packet");
+
+		ZipUtils.unZipFromInputStream(new ByteArrayInputStream(zip(files, true)), destination.getPath());
+
+		assertArrayEquals(files.get("id.json"), Files.readAllBytes(new File(destination, "id.json").toPath()));
+		assertArrayEquals(files.get("biometric/face.jp2"),
+				Files.readAllBytes(new File(destination, "biometric/face.jp2").toPath()));
+	}
+
+	@Test(expected = ZipException.class)
+	public void entryOutsideOfDestinationTest() throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("../evil.sh", "rm -rf /".getBytes(StandardCharsets.UTF_8));
+
+		ZipUtils.unZipFromInputStream(new ByteArrayInputStream(zip(files, true)),
+				folder.newFolder("packet").getPath());
+	}
+
+	@Test(expected = ZipException.class)
+	public void compressionRatioTest() throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("id.zip", new byte[20 * 1024 * 1024]);
+
+		ZipUtils.indexZip(zip(files, true));
+	}
+
+	@Test(expected = ZipException.class)
+	public void maxEntriesTest() throws IOException {
+		ZipUtils.setLimits(new ZipLimits(2, 1024, 1024, 100, 1024));
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		for (int i = 0; i < 3; i++)
+			files.put(i + ".json", "{}".getBytes(StandardCharsets.UTF_8));
+
+		ZipUtils.unzipAndGetFile(new ByteArrayInputStream(zip(files, true)), "missing");
+	}
+
+	@Test(expected = ZipException.class)
+	public void maxTotalSizeTest() throws IOException {
+		ZipUtils.setLimits(new ZipLimits(10, 1000, 1500, 100, 1024));
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("id.zip", random(1000, 5));
+		files.put("evidence.zip", random(1000, 6));
+
+		ZipUtils.indexZip(zip(files, true));
+	}
+
+	@Test(expected = ZipException.class)
+	public void declaredSizeTest() throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("id.zip", random(10000, 7));
+		byte[] packet = zip(files, true);
+		// declare 100 bytes in the central directory for an entry inflating to 10000
+		for (int i = packet.length - 4; i >= 0; i--) {
+			if (packet[i] == 0x50 && packet[i + 1] == 0x4b && packet[i + 2] == 0x01 && packet[i + 3] == 0x02) {
+				packet[i + 24] = 100;
+				packet[i + 25] = 0;
+				packet[i + 26] = 0;
+				packet[i + 27] = 0;
+				break;
+			}
+		}
+
+		IOUtils.toByteArray(ZipUtils.indexZip(packet).getInputStream("id.zip"));
+	}
+
+	@Test
+	public void packetHeapAndThroughputTest() throws IOException {
+		Assume.assumeNotNull(BENCHMARK_SIZES);
+		for (String size : BENCHMARK_SIZES.split(",")) {
+			int megabytes = Integer.parseInt(size.trim());
+			byte[] packet = syntheticPacket(megabytes);
+
+			long allocated = allocatedBytes();
+			long start = System.nanoTime();
+			// the uploader unzipped the packet twice, once for the virus scan and once to upload
+			drain(legacyUnzipAndGetFiles(new ByteArrayInputStream(packet)));
+			drain(legacyUnzipAndGetFiles(new ByteArrayInputStream(packet)));
+			long legacyMillis = (System.nanoTime() - start) / 1000000;
+			long legacyAllocated = allocatedBytes() - allocated;
+
+			allocated = allocatedBytes();
+			start = System.nanoTime();
+			ZipEntryIndex index = ZipUtils.indexZip(packet);
+			drain(index.getInputStreams());
+			drain(index.getInputStreams());
+			long indexMillis = (System.nanoTime() - start) / 1000000;
+			long indexAllocated = allocatedBytes() - allocated;
+
+			regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					"", String.format(
+							"%d MB packet, unzipped twice : copy per entry %d ms %d MB allocated, entry index %d ms %d MB allocated",
+							megabytes, legacyMillis, legacyAllocated / (1024 * 1024), indexMillis,
+							indexAllocated / (1024 * 1024)));
+			if (legacyAllocated > 0)
+				assertTrue(indexAllocated < legacyAllocated);
+		}
+	}
+
+	/**
+	 * The former ZipUtils.unzipAndGetFiles, which copied every entry.
+	 */
+	private static Map<String, InputStream> legacyUnzipAndGetFiles(InputStream packetStream) throws IOException {
+		Map<String, InputStream> outList = new HashMap<>();
+		try (ZipInputStream zis = new ZipInputStream(packetStream)) {
+			ZipEntry ze = zis.getNextEntry();
+			while (ze != null) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				int len;
+				byte[] buffer = new byte[2048];
+				while ((len = zis.read(buffer)) > 0) {
+					out.write(buffer, 0, len);
+				}
+				outList.put(ze.getName(), new ByteArrayInputStream(out.toByteArray()));
+				zis.closeEntry();
+				ze = zis.getNextEntry();
+			}
+		}
+		return outList;
+	}
+
+	private static void drain(Map<String, InputStream> streams) throws IOException {
+		for (InputStream stream : streams.values()) {
+			try (InputStream in = stream) {
+				IOUtils.copyLarge(in, NullOutputStream.NULL_OUTPUT_STREAM);
+			}
+		}
+	}
+
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threadMXBean)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+
+	/**
+	 * Builds a packet shaped like a registration packet: encrypted, so
+	 * incompressible, id / evidence / optional packets and their json metadata.
+	 */
+	private static byte[] syntheticPacket(int megabytes) throws IOException {
+		long total = megabytes * 1024L * 1024;
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("id.zip", random((int) (total * 6 / 10), 11));
+		files.put("id.json", json(12));
+		files.put("evidence.zip", random((int) (total * 3 / 10), 13));
+		files.put("evidence.json", json(14));
+		files.put("optional.zip", random((int) (total / 10), 15));
+		files.put("optional.json", json(16));
+		return zip(files, true);
+	}
+
+	private static byte[] json(int seed) {
+		StringBuilder json = new StringBuilder("{");
+		Random random = new Random(seed);
+		for (int i = 0; i < 200; i++)
+			json.append(i == 0 ? "" : ",").append("\"field").append(i).append("\":\"").append(random.nextLong())
+					.append('"');
+		return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] random(int size, long seed) {
+		byte[] bytes = new byte[size];
+		new Random(seed).nextBytes(bytes);
+		return bytes;
+	}
+
+	private static byte[] zip(Map<String, byte[]> files, boolean deflate) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zos = new ZipOutputStream(out)) {
+			zos.setLevel(Deflater.BEST_SPEED);
+			for (Map.Entry<String, byte[]> file : files.entrySet()) {
+				ZipEntry entry = new ZipEntry(file.getKey());
+				if (!deflate) {
+					CRC32 crc = new CRC32();
+					crc.update(file.getValue());
+					entry.setMethod(ZipEntry.STORED);
+					entry.setSize(file.getValue().length);
+					entry.setCompressedSize(file.getValue().length);
+					entry.setCrc(crc.getValue());
+				}
+				zos.putNextEntry(entry);
+				zos.write(file.getValue());
+				zos.closeEntry();
+			}
+		}
+		return out.toByteArray();
+	}
+
+}
@@ -1,11 +1,13 @@
 package io.mosip.registration.processor.status.dao;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import io.mosip.registration.processor.status.entity.RegistrationStatusEntity;
@@ -58,6 +60,9 @@ public class RegistrationStatusDao {
 
 	public static final String ORDER_BY = "order by ";
 
+	/** The maximum number of ids bound to a single IN clause. */
+	private static final int IN_CLAUSE_SIZE = 1000;
+
 	public static final String CREATED_DATE_TIME = "createDateTime";
 
 	/**
@@ -191,26 +196,59 @@ public class RegistrationStatusDao {
 		return registrationStatusRepositary.createQuerySelect(queryStr, params, fetchSize);
 	}
 
+	/**
+	 * Gets the un processed packets count with a count query.
+	 *
+	 * @param elapseTime
+	 *            the elapse time
+	 * @param reprocessCount
+	 *            the reprocess count
+	 * @param status
+	 *            the status
+	 * @return the un processed packets count
+	 */
 	public Integer getUnProcessedPacketsCount(long elapseTime, Integer reprocessCount, List<String> status) {
-
-		Map<String, Object> params = new HashMap<>();
-		String className = RegistrationStatusEntity.class.getSimpleName();
-		String alias = RegistrationStatusEntity.class.getName().toLowerCase().substring(0, 1);
 		LocalDateTime timeDifference = LocalDateTime.now().minusSeconds(elapseTime);
+		Long count = registrationStatusRepositary.countUnProcessedPackets(status, reprocessCount, timeDifference);
 
-		String queryStr = SELECT_DISTINCT + alias + FROM + className + EMPTY_STRING + alias + WHERE + alias
-				+ ".latestTransactionStatusCode IN :status" + EMPTY_STRING + AND + EMPTY_STRING + alias
-				+ ".regProcessRetryCount<=" + ":reprocessCount" + EMPTY_STRING + AND + EMPTY_STRING + alias
-				+ ".latestTransactionTimes<" + ":timeDifference";
-
-		params.put("status", status);
-		params.put("reprocessCount", reprocessCount);
-		params.put("timeDifference", timeDifference);
-		List<RegistrationStatusEntity> unprocessedPackets = registrationStatusRepositary.createQuerySelect(queryStr,
-				params);
+		return count != null ? count.intValue() : 0;
+	}
 
-		return unprocessedPackets.size();
+	/**
+	 * Gets the next page of un processed packets ordered by registration id,
+	 * starting after the last registration id of the previous page. Unlike
+	 * offset paging the cost of a page does not grow with its position, and
+	 * rows updated by earlier pages are never skipped or read twice.
+	 *
+	 * @param lastRegistrationId
+	 *            the last registration id of the previous page, empty for the
+	 *            first page
+	 * @param fetchSize
+	 *            the fetch size
+	 * @param timeDifference
+	 *            the latest transaction time cutoff, fixed for the whole scan
+	 * @param reprocessCount
+	 *            the reprocess count
+	 * @param status
+	 *            the status
+	 * @return the un processed packets
+	 */
+	public List<RegistrationStatusEntity> getUnProcessedPackets(String lastRegistrationId, Integer fetchSize,
+			LocalDateTime timeDifference, Integer reprocessCount, List<String> status) {
+		return registrationStatusRepositary.getUnProcessedPacketsAfter(
+				lastRegistrationId != null ? lastRegistrationId : "", status, reprocessCount, timeDifference,
+				PageRequest.of(0, fetchSize));
+	}
 
+	/**
+	 * Saves all the entities in one batch.
+	 *
+	 * @param registrationStatusEntities
+	 *            the registration status entities
+	 * @return the saved entities
+	 */
+	public List<RegistrationStatusEntity> saveAll(List<RegistrationStatusEntity> registrationStatusEntities) {
+		return registrationStatusRepositary.saveAll(registrationStatusEntities);
 	}
 
 	public Boolean checkUinAvailabilityForRid(String rid) {
@@ -232,6 +270,24 @@ public class RegistrationStatusDao {
 
 	}
 
+	/**
+	 * Returns the rids, out of the given ones, for which a uin is already
+	 * available. The lookup is done with one IN query per
+	 * {@value #IN_CLAUSE_SIZE} rids instead of one query per rid.
+	 *
+	 * @param rids
+	 *            the rids
+	 * @return the rids with uin
+	 */
+	public List<String> getRidsWithUinAvailable(List<String> rids) {
+		List<String> ridsWithUin = new ArrayList<>();
+		for (int from = 0; from < rids.size(); from += IN_CLAUSE_SIZE) {
+			List<String> chunk = rids.subList(from, Math.min(from + IN_CLAUSE_SIZE, rids.size()));
+			ridsWithUin.addAll(registrationStatusRepositary.getRegIdsByStatusCode(chunk, "PROCESSED"));
+		}
+		return ridsWithUin;
+	}
+
 	/**
 	 * Gets the by ids.
 	 *
@@ -3,14 +3,17 @@
  */
 package io.mosip.registration.processor.status.repositary;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import io.mosip.kernel.core.dataaccess.spi.repository.BaseRepository;
 import io.mosip.registration.processor.status.entity.BaseRegistrationEntity;
+import io.mosip.registration.processor.status.entity.RegistrationStatusEntity;
 import io.mosip.registration.processor.status.entity.SyncRegistrationEntity;
 
 /**
@@ -35,8 +38,21 @@ public interface RegistrationRepositary<T extends BaseRegistrationEntity, E> ext
 	public List<String> getProcessedOrProcessingRegIds(@Param("regIds") List<String> regIds,
 			@Param("statusCode") String statusCode);
 	
+	@Query("SELECT registration.id FROM RegistrationStatusEntity registration WHERE registration.id in :regIds and registration.statusCode =:statusCode")
+	public List<String> getRegIdsByStatusCode(@Param("regIds") List<String> regIds,
+			@Param("statusCode") String statusCode);
+
 	@Query("SELECT registrationList FROM SyncRegistrationEntity registrationList WHERE registrationList.registrationId =:regId and registrationList.registrationType =:regType")
 	public List<SyncRegistrationEntity> getSyncRecordsByRegIdAndRegType(@Param("regId") String regId,
 			@Param("regType") String regType);
 
+	@Query("SELECT COUNT(registration) FROM RegistrationStatusEntity registration WHERE registration.latestTransactionStatusCode IN :status and registration.regProcessRetryCount<=:reprocessCount and registration.latestTransactionTimes<:timeDifference")
+	public Long countUnProcessedPackets(@Param("status") List<String> status,
+			@Param("reprocessCount") Integer reprocessCount, @Param("timeDifference") LocalDateTime timeDifference);
+
+	@Query("SELECT registration FROM RegistrationStatusEntity registration WHERE registration.id>:lastId and registration.latestTransactionStatusCode IN :status and registration.regProcessRetryCount<=:reprocessCount and registration.latestTransactionTimes<:timeDifference ORDER BY registration.id")
+	public List<RegistrationStatusEntity> getUnProcessedPacketsAfter(@Param("lastId") String lastId,
+			@Param("status") List<String> status, @Param("reprocessCount") Integer reprocessCount,
+			@Param("timeDifference") LocalDateTime timeDifference, Pageable pageable);
+
 }
@@ -1,5 +1,6 @@
 package io.mosip.registration.processor.status.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.stereotype.Service;
@@ -105,6 +106,38 @@ public interface RegistrationStatusService<T, U, D> {
 	 */
 	public Integer getUnProcessedPacketsCount(long elapseTime, Integer reprocessCount, List<String> status);
 
+	/**
+	 * Gets the next keyset page of un processed packets, ordered by registration
+	 * id.
+	 *
+	 * @param lastRegistrationId
+	 *            the last registration id of the previous page, empty for the
+	 *            first page
+	 * @param fetchSize
+	 *            the fetch size
+	 * @param timeDifference
+	 *            the latest transaction time cutoff, fixed for the whole scan
+	 * @param reprocessCount
+	 *            the reprocess count
+	 * @param status
+	 *            the status
+	 * @return the un processed packets
+	 */
+	public List<U> getUnProcessedPackets(String lastRegistrationId, Integer fetchSize, LocalDateTime timeDifference,
+			Integer reprocessCount, List<String> status);
+
+	/**
+	 * Updates the registration status of all the dtos in a single transaction.
+	 *
+	 * @param registrationStatusDtos
+	 *            the registration status dtos
+	 * @param moduleId
+	 *            the module id
+	 * @param moduleName
+	 *            the module name
+	 */
+	public void updateRegistrationStatuses(List<U> registrationStatusDtos, String moduleId, String moduleName);
+
 	/**
 	 * Check Rid if uin is available.
 	 *
@@ -114,6 +147,15 @@ public interface RegistrationStatusService<T, U, D> {
 	 */
 	public Boolean checkUinAvailabilityForRid(String rid);
 
+	/**
+	 * Gets the rids, out of the given ones, for which uin is available.
+	 *
+	 * @param rids
+	 *            the rids
+	 * @return the rids with uin
+	 */
+	public List<String> getRidsWithUinAvailable(List<String> rids);
+
 	/**
 	 * Gets the by ids and timestamp.
 	 *
@@ -9,6 +9,7 @@ import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import io.mosip.kernel.core.dataaccess.exception.DataAccessLayerException;
 import io.mosip.kernel.core.exception.ExceptionUtils;
@@ -361,6 +362,7 @@ public class RegistrationStatusServiceImpl
 		registrationStatusDto.setLatestTransactionTypeCode(entity.getLatestTransactionTypeCode());
 		registrationStatusDto.setRegistrationStageName(entity.getRegistrationStageName());
 		registrationStatusDto.setUpdateDateTime(entity.getUpdateDateTime());
+		registrationStatusDto.setLatestTransactionTimes(entity.getLatestTransactionTimes());
 		return registrationStatusDto;
 	}
 
@@ -494,6 +496,98 @@ public class RegistrationStatusServiceImpl
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * io.mosip.registration.processor.status.service.RegistrationStatusService#
+	 * getUnProcessedPackets(java.lang.String, java.lang.Integer,
+	 * java.time.LocalDateTime, java.lang.Integer, java.util.List)
+	 */
+	@Override
+	public List<InternalRegistrationStatusDto> getUnProcessedPackets(String lastRegistrationId, Integer fetchSize,
+			LocalDateTime timeDifference, Integer reprocessCount, List<String> status) {
+
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+				"RegistrationStatusServiceImpl::getUnProcessedPackets()::entry");
+		try {
+			List<RegistrationStatusEntity> entityList = registrationStatusDao.getUnProcessedPackets(lastRegistrationId,
+					fetchSize, timeDifference, reprocessCount, status);
+
+			regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+					"RegistrationStatusServiceImpl::getUnProcessedPackets()::exit");
+
+			return convertEntityListToDtoList(entityList);
+
+		} catch (DataAccessException | DataAccessLayerException e) {
+
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					"", e.getMessage() + ExceptionUtils.getStackTrace(e));
+			throw new TablenotAccessibleException(
+					PlatformErrorMessages.RPR_RGS_REGISTRATION_TABLE_NOT_ACCESSIBLE.getMessage(), e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * io.mosip.registration.processor.status.service.RegistrationStatusService#
+	 * updateRegistrationStatuses(java.util.List, java.lang.String,
+	 * java.lang.String)
+	 */
+	@Override
+	@Transactional
+	public void updateRegistrationStatuses(List<InternalRegistrationStatusDto> registrationStatusDtos,
+			String moduleId, String moduleName) {
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+				"RegistrationStatusServiceImpl::updateRegistrationStatuses()::entry");
+		if (registrationStatusDtos.isEmpty())
+			return;
+		boolean isTransactionSuccessful = false;
+		LogDescription description = new LogDescription();
+		try {
+			List<RegistrationStatusEntity> entities = new ArrayList<>(registrationStatusDtos.size());
+			for (InternalRegistrationStatusDto registrationStatusDto : registrationStatusDtos) {
+				String transactionId = generateId();
+				TransactionDto transactionDto = new TransactionDto(transactionId,
+						registrationStatusDto.getRegistrationId(),
+						registrationStatusDto.getLatestRegistrationTransactionId(),
+						registrationStatusDto.getLatestTransactionTypeCode(), "updated registration status record",
+						registrationStatusDto.getLatestTransactionStatusCode(), registrationStatusDto.getStatusComment(),
+						registrationStatusDto.getSubStatusCode());
+				transactionDto.setReferenceId(registrationStatusDto.getRegistrationId());
+				transactionDto.setReferenceIdType("updated registration record");
+				transcationStatusService.addRegistrationTransaction(transactionDto);
+				registrationStatusDto.setLatestRegistrationTransactionId(transactionId);
+				entities.add(convertDtoToEntity(registrationStatusDto));
+			}
+			registrationStatusDao.saveAll(entities);
+			isTransactionSuccessful = true;
+			description.setMessage("Updated registration status of " + entities.size() + " packets successfully");
+		} catch (DataAccessException | DataAccessLayerException e) {
+			description.setMessage("DataAccessLayerException while Updating registration status of "
+					+ registrationStatusDtos.size() + " packets::" + e.getMessage());
+
+			regProcLogger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
+					"", e.getMessage() + ExceptionUtils.getStackTrace(e));
+			throw new TablenotAccessibleException(
+					PlatformErrorMessages.RPR_RGS_REGISTRATION_TABLE_NOT_ACCESSIBLE.getMessage(), e);
+		} finally {
+
+			String eventId = isTransactionSuccessful ? EventId.RPR_407.toString() : EventId.RPR_405.toString();
+			String eventName = eventId.equalsIgnoreCase(EventId.RPR_407.toString()) ? EventName.UPDATE.toString()
+					: EventName.EXCEPTION.toString();
+			String eventType = eventId.equalsIgnoreCase(EventId.RPR_407.toString()) ? EventType.BUSINESS.toString()
+					: EventType.SYSTEM.toString();
+
+			auditLogRequestBuilder.createAuditRequestBuilder(description.getMessage(), eventId, eventName, eventType,
+					moduleId, moduleName, "");
+		}
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.USERID.toString(), "",
+				"RegistrationStatusServiceImpl::updateRegistrationStatuses()::exit");
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -506,6 +600,20 @@ public class RegistrationStatusServiceImpl
 		return registrationStatusDao.checkUinAvailabilityForRid(rid);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * io.mosip.registration.processor.status.service.RegistrationStatusService#
+	 * getRidsWithUinAvailable(java.util.List)
+	 */
+	@Override
+	public List<String> getRidsWithUinAvailable(List<String> rids) {
+		if (rids.isEmpty())
+			return new ArrayList<>();
+		return registrationStatusDao.getRidsWithUinAvailable(rids);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
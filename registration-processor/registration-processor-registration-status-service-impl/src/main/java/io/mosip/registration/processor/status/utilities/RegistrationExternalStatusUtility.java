@@ -12,6 +12,7 @@ import io.mosip.registration.processor.core.code.RegistrationTransactionTypeCode
 import io.mosip.registration.processor.core.constant.LoggerFileConstant;
 import io.mosip.registration.processor.core.logger.RegProcessorLogger;
 import io.mosip.registration.processor.status.code.RegistrationExternalStatusCode;
+import io.mosip.registration.processor.status.dto.InternalRegistrationStatusDto;
 import io.mosip.registration.processor.status.entity.RegistrationStatusEntity;
 
 /**
@@ -66,6 +67,25 @@ public class RegistrationExternalStatusUtility {
 		return mappedValue;
 	}
 
+	/**
+	 * Gets the external status of an already loaded registration status, without
+	 * reading the registration table again.
+	 *
+	 * @param dto
+	 *            the registration status
+	 * @return the external status
+	 */
+	public RegistrationExternalStatusCode getExternalStatus(InternalRegistrationStatusDto dto) {
+		RegistrationStatusEntity entity = new RegistrationStatusEntity();
+		entity.setId(dto.getRegistrationId());
+		entity.setReferenceRegistrationId(dto.getReferenceRegistrationId());
+		entity.setStatusCode(dto.getStatusCode());
+		entity.setLatestTransactionTypeCode(dto.getLatestTransactionTypeCode());
+		entity.setLatestTransactionTimes(dto.getLatestTransactionTimes());
+		entity.setRetryCount(dto.getRetryCount());
+		return getExternalStatus(entity);
+	}
+
 	/**
 	 * Check statusfor packet receiver.
 	 *
@@ -0,0 +1,188 @@
+package io.mosip.registration.processor.status.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.kernel.dataaccess.hibernate.config.HibernateDaoConfig;
+import io.mosip.kernel.dataaccess.hibernate.repository.impl.HibernateRepositoryImpl;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+import io.mosip.registration.processor.status.entity.RegistrationStatusEntity;
+
+/**
+ * Runs the reprocessor count and keyset scan queries against an in-memory H2
+ * registration table. The timed scan over a large table only runs when
+ * -Dreprocess.scan.rows is set, e.g. to 1000000.
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = RegistrationStatusDaoScanTest.ScanTestConfig.class)
+@TestPropertySource(properties = {
+		"javax.persistence.jdbc.url=jdbc:h2:mem:reprocess;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS regprc",
+		"javax.persistence.jdbc.driver=org.h2.Driver", "javax.persistence.jdbc.user=sa",
+		"javax.persistence.jdbc.password=sa", "hibernate.hbm2ddl.auto=update", "hibernate.ddl-auto=update",
+		"hibernate.dialect=org.hibernate.dialect.H2Dialect", "hibernate.temp.use_jdbc_metadata_defaults=false" })
+public class RegistrationStatusDaoScanTest {
+
+	private static final String ROWS_PROPERTY = "reprocess.scan.rows";
+
+	private static final int ROWS = Integer.getInteger(ROWS_PROPERTY, 20000);
+
+	private static final int FETCH_SIZE = 1000;
+
+	private static final int REPROCESS_COUNT = 3;
+
+	private static final List<String> STATUS = Arrays.asList("SUCCESS", "REPROCESS", "IN_PROGRESS");
+
+	private static final Logger regProcLogger = RegProcessorLogger.getLogger(RegistrationStatusDaoScanTest.class);
+
+	private static boolean loaded;
+
+	@Autowired
+	private RegistrationStatusDao registrationStatusDao;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Configuration
+	@Import(HibernateDaoConfig.class)
+	@EnableJpaRepositories(basePackages = "io.mosip.registration.processor.status.repositary", repositoryBaseClass = HibernateRepositoryImpl.class)
+	static class ScanTestConfig {
+
+		@Bean
+		public RegistrationStatusDao getRegistrationStatusDao() {
+			return new RegistrationStatusDao();
+		}
+
+	}
+
+	@Before
+	public void setup() {
+		if (loaded)
+			return;
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusDays(2));
+		List<Object[]> batch = new ArrayList<>(10000);
+		for (int i = 0; i < ROWS; i++) {
+			String status = i % 10 == 0 ? "PROCESSED" : STATUS.get(i % STATUS.size());
+			batch.add(new Object[] { String.format("1000110001%019d", i), "NEW", "PROCESSING", "eng", true, false,
+					status, old, i % 5, "PacketValidatorStage", old });
+			if (batch.size() == 10000) {
+				insert(jdbcTemplate, batch);
+				batch.clear();
+			}
+		}
+		insert(jdbcTemplate, batch);
+		loaded = true;
+	}
+
+	@Test
+	public void countAndKeysetScanTest() {
+		int count = registrationStatusDao.getUnProcessedPacketsCount(3600, REPROCESS_COUNT, STATUS);
+		assertEquals(expectedCount(), count);
+
+		assertEquals(count, scan(FETCH_SIZE, null));
+	}
+
+	@Test
+	public void keysetScanBenchmarkTest() {
+		Assume.assumeNotNull(System.getProperty(ROWS_PROPERTY));
+		long start = System.nanoTime();
+		int count = registrationStatusDao.getUnProcessedPacketsCount(3600, REPROCESS_COUNT, STATUS);
+		long countMillis = (System.nanoTime() - start) / 1000000;
+
+		long[] slowestPageMillis = new long[1];
+		start = System.nanoTime();
+		int scanned = scan(FETCH_SIZE, slowestPageMillis);
+		long scanMillis = (System.nanoTime() - start) / 1000000;
+
+		assertEquals(count, scanned);
+		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(), "",
+				String.format("%d rows : count %d ms, keyset scan of %d packets %d ms, slowest page %d ms", ROWS,
+						countMillis, scanned, scanMillis, slowestPageMillis[0]));
+	}
+
+	@Test
+	public void keysetScanWithUpdatesTest() {
+		LocalDateTime timeDifference = LocalDateTime.now().minusSeconds(3600);
+		String lastRegistrationId = "";
+		int scanned = 0;
+		List<RegistrationStatusEntity> page;
+		do {
+			page = registrationStatusDao.getUnProcessedPackets(lastRegistrationId, 500, timeDifference,
+					REPROCESS_COUNT, STATUS);
+			for (RegistrationStatusEntity entity : page) {
+				entity.setLatestTransactionTimes(LocalDateTime.now());
+				entity.setRegProcessRetryCount(entity.getRegProcessRetryCount() + 1);
+			}
+			registrationStatusDao.saveAll(page);
+			if (!page.isEmpty())
+				lastRegistrationId = page.get(page.size() - 1).getId();
+			scanned += page.size();
+		} while (page.size() == 500 && scanned < 5000);
+
+		assertEquals(5000, scanned);
+		assertEquals(expectedCount() - 5000, registrationStatusDao.getUnProcessedPacketsCount(3600,
+				REPROCESS_COUNT, STATUS).intValue());
+		loaded = false;
+		new JdbcTemplate(dataSource).update("DELETE FROM regprc.registration");
+	}
+
+	private int scan(int fetchSize, long[] slowestPageMillis) {
+		LocalDateTime timeDifference = LocalDateTime.now().minusSeconds(3600);
+		String lastRegistrationId = "";
+		int scanned = 0;
+		List<RegistrationStatusEntity> page;
+		do {
+			long pageStart = System.nanoTime();
+			page = registrationStatusDao.getUnProcessedPackets(lastRegistrationId, fetchSize, timeDifference,
+					REPROCESS_COUNT, STATUS);
+			if (slowestPageMillis != null)
+				slowestPageMillis[0] = Math.max(slowestPageMillis[0], (System.nanoTime() - pageStart) / 1000000);
+			for (RegistrationStatusEntity entity : page) {
+				assertTrue(entity.getId().compareTo(lastRegistrationId) > 0);
+				lastRegistrationId = entity.getId();
+			}
+			scanned += page.size();
+		} while (page.size() == fetchSize);
+		return scanned;
+	}
+
+	private int expectedCount() {
+		int count = 0;
+		for (int i = 0; i < ROWS; i++) {
+			if (i % 10 != 0 && i % 5 <= REPROCESS_COUNT)
+				count++;
+		}
+		return count;
+	}
+
+	private void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+		jdbcTemplate.batchUpdate("INSERT INTO regprc.registration (id, reg_type, status_code, lang_code, is_active, "
+				+ "is_deleted, latest_trn_status_code, latest_trn_dtimes, reg_process_retry_count, reg_stage_name, "
+				+ "cr_dtimes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+	}
+
+}
@@ -2,6 +2,7 @@ package io.mosip.registration.processor.status.dao;
 
 import static org.junit.Assert.assertEquals;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -93,12 +94,38 @@ public class RegistrationStatusDaoTest {
 		List<String> statusList = new ArrayList<>();
 		statusList.add("SUCCESS");
 		int entityCount = list.size();
-		Mockito.when(registrationStatusRepositary.createQuerySelect(Matchers.anyString(), Matchers.anyMap()))
-				.thenReturn(list);
+		Mockito.when(registrationStatusRepositary.countUnProcessedPackets(Matchers.anyList(), Matchers.anyInt(),
+				Matchers.any())).thenReturn((long) entityCount);
 		int count = registrationStatusDao.getUnProcessedPacketsCount(6000, 4, statusList);
 		assertEquals(count, entityCount);
 	}
 
+	@Test
+	public void testgetUnProcessedPacketsAfter() {
+		List<String> statusList = new ArrayList<>();
+		statusList.add("SUCCESS");
+		Mockito.when(registrationStatusRepositary.getUnProcessedPacketsAfter(Matchers.eq("1000"), Matchers.anyList(),
+				Matchers.anyInt(), Matchers.any(), Matchers.any())).thenReturn(list);
+		List<RegistrationStatusEntity> rEntityList = registrationStatusDao.getUnProcessedPackets("1000", 2,
+				LocalDateTime.now(), 4, statusList);
+		assertEquals(list, rEntityList);
+	}
+
+	@Test
+	public void testGetRidsWithUinAvailable() {
+		List<String> rids = new ArrayList<>();
+		for (int i = 0; i < 1500; i++)
+			rids.add(String.valueOf(i));
+		List<String> processed = new ArrayList<>();
+		processed.add("7");
+		Mockito.when(registrationStatusRepositary.getRegIdsByStatusCode(Matchers.anyList(), Matchers.eq("PROCESSED")))
+				.thenReturn(processed);
+		List<String> ridsWithUin = registrationStatusDao.getRidsWithUinAvailable(rids);
+		assertEquals(2, ridsWithUin.size());
+		Mockito.verify(registrationStatusRepositary, Mockito.times(2)).getRegIdsByStatusCode(Matchers.anyList(),
+				Matchers.eq("PROCESSED"));
+	}
+
 	@Test
 	public void getByIdsAndTimestamp() {
 		List<String> idList = new ArrayList<>();
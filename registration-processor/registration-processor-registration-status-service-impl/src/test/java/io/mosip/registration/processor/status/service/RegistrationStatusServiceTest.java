@@ -173,7 +173,7 @@ public class RegistrationStatusServiceTest {
 	public void testGetByIdsSuccess() {
 
 		Mockito.when(registrationStatusDao.getByIds(any())).thenReturn(entities);
-		Mockito.when(regexternalstatusUtil.getExternalStatus(any()))
+		Mockito.when(regexternalstatusUtil.getExternalStatus(any(RegistrationStatusEntity.class)))
 				.thenReturn(RegistrationExternalStatusCode.PROCESSED);
 		RegistrationStatusSubRequestDto registrationId = new RegistrationStatusSubRequestDto();
 		registrationId.setRegistrationId("1001");
@@ -0,0 +1,501 @@
+package io.mosip.registration.processor.rest.client.audit.builder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.mosip.registration.processor.core.code.ApiName;
+import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
+import io.mosip.registration.processor.core.http.ResponseWrapper;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.rest.client.audit.dto.AuditLogEvent;
+
+/**
+ * Posts audit requests to the audit service from a background thread so the
+ * stage thread that raised the event does not wait on the audit service.
+ * <p>
+ * Every event is first appended to a local journal file, then queued in a
+ * bounded in-memory buffer. The events are flushed in batches, in journal
+ * order, and the journal position of the last event posted is committed to an
+ * offset file next to the journal. Events dropped from the buffer because it
+ * is full, or left after a failed batch, are read back from the journal, so an
+ * event is lost neither on overflow nor when the stage stops or crashes: the
+ * events past the committed offset are posted again on the next start. The
+ * journal is truncated once every event in it is posted.
+ */
+public class AsyncAuditLogPublisher {
+
+	/** The logger. */
+	private final Logger regProcLogger = LoggerFactory.getLogger(AsyncAuditLogPublisher.class);
+
+	private static final String OFFSET_SUFFIX = ".offset";
+
+	private static final int READ_CHUNK = 64 * 1024;
+
+	/**
+	 * The journals opened by the publishers of this process. A journal is
+	 * checked here before a channel is opened on it, as closing a second
+	 * channel on a locked file would release the lock of the first.
+	 */
+	private static final Set<Path> OPEN_JOURNALS = ConcurrentHashMap.newKeySet();
+
+	private final RegistrationProcessorRestClientService<Object> registrationProcessorRestService;
+
+	private final BlockingDeque<JournalEntry> buffer;
+
+	private final Path journalFile;
+
+	private final Path journalKey;
+
+	private final Path offsetFile;
+
+	private final int batchSize;
+
+	private final long flushIntervalMillis;
+
+	private final int maxRetries;
+
+	private final long backoffMillis;
+
+	private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private final Object journalLock = new Object();
+
+	private final FileChannel journal;
+
+	private final FileLock journalFileLock;
+
+	private final Writer journalWriter;
+
+	/** The length of the journal, every event before it fully written. */
+	private long journalLength;
+
+	/** The journal position of the first event not posted yet. */
+	private volatile long committed;
+
+	private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "audit-log-flusher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final AtomicLong publishedCount = new AtomicLong();
+
+	private final AtomicLong journalReadCount = new AtomicLong();
+
+	private final AtomicLong failedAttemptCount = new AtomicLong();
+
+	private final AtomicLong batchCount = new AtomicLong();
+
+	/**
+	 * Instantiates a new async audit log publisher, and recovers the events of
+	 * the journal not posted before the last stop.
+	 *
+	 * @param registrationProcessorRestService
+	 *            the rest service used to post the audits
+	 * @param capacity
+	 *            the in-memory buffer capacity
+	 * @param batchSize
+	 *            the max events posted per flush batch
+	 * @param flushIntervalMillis
+	 *            the delay between two flushes
+	 * @param maxRetries
+	 *            the retries of a failed post before the flush stops
+	 * @param backoffMillis
+	 *            the initial retry backoff, doubled on every retry
+	 * @param journalFile
+	 *            the local journal file, used by this stage only
+	 * @throws IOException
+	 *             if the journal cannot be opened, or is used by another
+	 *             publisher or process
+	 */
+	public AsyncAuditLogPublisher(RegistrationProcessorRestClientService<Object> registrationProcessorRestService,
+			int capacity, int batchSize, long flushIntervalMillis, int maxRetries, long backoffMillis,
+			Path journalFile) throws IOException {
+		this.registrationProcessorRestService = registrationProcessorRestService;
+		this.buffer = new LinkedBlockingDeque<>(capacity);
+		this.batchSize = batchSize;
+		this.flushIntervalMillis = flushIntervalMillis;
+		this.maxRetries = maxRetries;
+		this.backoffMillis = backoffMillis;
+		this.journalFile = journalFile;
+		this.offsetFile = Paths.get(journalFile + OFFSET_SUFFIX);
+		this.journalKey = journalFile.toAbsolutePath().normalize();
+
+		if (!OPEN_JOURNALS.add(journalKey))
+			throw new IOException("Audit log journal " + journalFile + " is used by another publisher");
+		try {
+			journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			FileLock lock;
+			try {
+				lock = journal.tryLock();
+			} catch (OverlappingFileLockException e) {
+				// locked by another channel of this process, which closing this one would unlock
+				throw new IOException("Audit log journal " + journalFile + " is locked in this process", e);
+			}
+			journalFileLock = lock;
+			if (journalFileLock == null) {
+				journal.close();
+				throw new IOException("Audit log journal " + journalFile + " is used by another process");
+			}
+			journalLength = lastCompleteLine(journal);
+			journal.truncate(journalLength);
+			journal.position(journalLength);
+			committed = Math.min(readOffset(), journalLength);
+			journalWriter = Channels.newWriter(journal, StandardCharsets.UTF_8.newEncoder(), -1);
+		} catch (IOException | RuntimeException e) {
+			OPEN_JOURNALS.remove(journalKey);
+			throw e;
+		}
+	}
+
+	/**
+	 * Starts the periodic flush.
+	 */
+	public void start() {
+		flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Appends an audit event to the journal and queues it. Never blocks on the
+	 * audit service: when the buffer is full the event is only in the journal,
+	 * from where it is read by the flush.
+	 *
+	 * @param event
+	 *            the audit event
+	 */
+	public void submit(AuditLogEvent event) {
+		synchronized (journalLock) {
+			long start = journalLength;
+			try {
+				String line = mapper.writeValueAsString(event) + '\n';
+				journalWriter.write(line);
+				journalWriter.flush();
+				journalLength += line.getBytes(StandardCharsets.UTF_8).length;
+			} catch (IOException e) {
+				regProcLogger.error("Audit log journal write failed, event kept in memory only : {}", e.getMessage());
+				rollback(start);
+				if (!buffer.offer(new JournalEntry(event, -1, -1)))
+					regProcLogger.error("Audit log buffer full, event of {} dropped", event.getApiName());
+				return;
+			}
+			buffer.offer(new JournalEntry(event, start, journalLength));
+		}
+	}
+
+	/**
+	 * Flushes the events not posted yet, in journal order, until none is left
+	 * or a post still fails after its retries.
+	 */
+	public synchronized void flush() {
+		while (true) {
+			List<JournalEntry> batch = nextBatch();
+			if (batch.isEmpty()) {
+				compact();
+				return;
+			}
+			batchCount.incrementAndGet();
+			long position = committed;
+			try {
+				for (JournalEntry entry : batch) {
+					if (!post(entry.event)) {
+						// an event missing from the journal is only in memory, it is kept first
+						if (entry.end < 0 && !buffer.offerFirst(entry))
+							regProcLogger.error("Audit log buffer full, event of {} dropped", entry.event.getApiName());
+						return;
+					}
+					publishedCount.incrementAndGet();
+					if (entry.end >= 0)
+						position = entry.end;
+				}
+			} finally {
+				if (position != committed)
+					commit(position);
+			}
+		}
+	}
+
+	/**
+	 * Stops the flusher and closes the journal. The events not posted yet are
+	 * posted on the next start.
+	 */
+	public void shutdown() {
+		flusher.shutdown();
+		try {
+			flusher.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (journalLock) {
+			try {
+				journalFileLock.release();
+				journal.close();
+			} catch (IOException e) {
+				regProcLogger.error("Audit log journal could not be closed : {}", e.getMessage());
+			} finally {
+				OPEN_JOURNALS.remove(journalKey);
+			}
+		}
+	}
+
+	/**
+	 * Takes the next events after the committed position: from the buffer
+	 * while it holds them in order, otherwise from the journal.
+	 */
+	private List<JournalEntry> nextBatch() {
+		List<JournalEntry> batch = new ArrayList<>();
+		long position = committed;
+		while (batch.size() < batchSize) {
+			JournalEntry head = buffer.peek();
+			while (head != null && head.end >= 0 && head.end <= position) {
+				buffer.poll();
+				head = buffer.peek();
+			}
+			if (head != null && (head.start == position || head.end < 0)) {
+				batch.add(buffer.poll());
+				if (head.end >= 0)
+					position = head.end;
+				continue;
+			}
+			List<JournalEntry> read = readJournal(position, batchSize - batch.size());
+			if (read.isEmpty())
+				break;
+			journalReadCount.addAndGet(read.size());
+			batch.addAll(read);
+			position = read.get(read.size() - 1).end;
+		}
+		return batch;
+	}
+
+	/**
+	 * Reads the events of the journal from a position. The journal channel is
+	 * read at a position, without being reopened, as closing another channel
+	 * on the file would release its lock.
+	 */
+	private List<JournalEntry> readJournal(long position, int max) {
+		List<JournalEntry> entries = new ArrayList<>();
+		long end;
+		synchronized (journalLock) {
+			end = journalLength;
+		}
+		int chunk = READ_CHUNK;
+		try {
+			while (entries.size() < max && position < end) {
+				ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(chunk, end - position));
+				while (bytes.hasRemaining() && journal.read(bytes, position + bytes.position()) > 0)
+					;
+				int lineStart = 0;
+				int read = bytes.position();
+				for (int i = 0; i < read && entries.size() < max; i++) {
+					if (bytes.get(i) != '\n')
+						continue;
+					long start = position + lineStart;
+					String line = new String(bytes.array(), lineStart, i - lineStart, StandardCharsets.UTF_8);
+					lineStart = i + 1;
+					try {
+						entries.add(new JournalEntry(mapper.readValue(line, AuditLogEvent.class), start,
+								position + lineStart));
+					} catch (IOException e) {
+						regProcLogger.error("Corrupt audit log journal entry skipped : {}", e.getMessage());
+						commitIfNext(start, position + lineStart);
+					}
+				}
+				if (lineStart == 0) {
+					if (read >= end - position)
+						break;
+					// a line longer than the chunk
+					chunk *= 2;
+					continue;
+				}
+				position += lineStart;
+			}
+		} catch (IOException e) {
+			regProcLogger.error("Audit log journal could not be read : {}", e.getMessage());
+		}
+		return entries;
+	}
+
+	private void commitIfNext(long start, long end) {
+		if (committed == start)
+			commit(end);
+	}
+
+	private void commit(long position) {
+		committed = position;
+		try {
+			Files.write(offsetFile, Long.toString(position).getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			regProcLogger.error("Audit log journal offset could not be written : {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Truncates the journal once every event in it is posted, so it does not
+	 * grow while the audit service keeps up.
+	 */
+	private void compact() {
+		synchronized (journalLock) {
+			if (committed == 0 || committed != journalLength)
+				return;
+			try {
+				journal.truncate(0);
+				journal.position(0);
+				journalLength = 0;
+				buffer.removeIf(entry -> entry.end >= 0);
+				commit(0);
+			} catch (IOException e) {
+				regProcLogger.error("Audit log journal could not be truncated : {}", e.getMessage());
+			}
+		}
+	}
+
+	private void rollback(long length) {
+		try {
+			journal.truncate(length);
+			journal.position(length);
+		} catch (IOException e) {
+			regProcLogger.error("Audit log journal could not be rolled back : {}", e.getMessage());
+		}
+	}
+
+	private long readOffset() {
+		try {
+			if (Files.exists(offsetFile))
+				return Long.parseLong(new String(Files.readAllBytes(offsetFile), StandardCharsets.UTF_8).trim());
+		} catch (IOException | NumberFormatException e) {
+			regProcLogger.error("Audit log journal offset unreadable, journal replayed : {}", e.getMessage());
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the length of the journal up to its last complete line, the end of
+	 * a line partly written when the stage stopped is dropped.
+	 */
+	private static long lastCompleteLine(FileChannel channel) throws IOException {
+		long length = channel.size();
+		ByteBuffer one = ByteBuffer.allocate(1);
+		while (length > 0) {
+			one.clear();
+			channel.read(one, length - 1);
+			if (one.get(0) == '\n')
+				break;
+			length--;
+		}
+		return length;
+	}
+
+	private boolean post(AuditLogEvent event) {
+		long backoff = backoffMillis;
+		for (int attempt = 0; attempt <= maxRetries; attempt++) {
+			try {
+				registrationProcessorRestService.postApi(ApiName.valueOf(event.getApiName()), "", "",
+						event.getRequest(), ResponseWrapper.class);
+				return true;
+			} catch (ApisResourceAccessException | RuntimeException e) {
+				failedAttemptCount.incrementAndGet();
+				regProcLogger.error("Audit log post failed : {}", e.getMessage());
+				if (attempt < maxRetries && !sleep(backoff))
+					return false;
+				backoff *= 2;
+			}
+		}
+		return false;
+	}
+
+	private boolean sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	public int getBufferedCount() {
+		return buffer.size();
+	}
+
+	public long getPublishedCount() {
+		return publishedCount.get();
+	}
+
+	/**
+	 * Gets the events read back from the journal, because the buffer was full
+	 * or a previous flush failed.
+	 *
+	 * @return the journal read count
+	 */
+	public long getJournalReadCount() {
+		return journalReadCount.get();
+	}
+
+	/**
+	 * Gets the bytes of the journal not posted yet.
+	 *
+	 * @return the pending bytes
+	 */
+	public long getPendingBytes() {
+		synchronized (journalLock) {
+			return journalLength - committed;
+		}
+	}
+
+	public long getFailedAttemptCount() {
+		return failedAttemptCount.get();
+	}
+
+	public long getBatchCount() {
+		return batchCount.get();
+	}
+
+	/**
+	 * An event and its position in the journal, -1 when it could not be
+	 * written to the journal.
+	 */
+	private static class JournalEntry {
+
+		private final AuditLogEvent event;
+
+		private final long start;
+
+		private final long end;
+
+		JournalEntry(AuditLogEvent event, long start, long end) {
+			this.event = event;
+			this.start = start;
+			this.end = end;
+		}
+
+	}
+
+}
@@ -1,8 +1,13 @@
 package io.mosip.registration.processor.rest.client.audit.builder;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+import javax.annotation.PreDestroy;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +22,7 @@ import io.mosip.registration.processor.core.http.RequestWrapper;
 import io.mosip.registration.processor.core.http.ResponseWrapper;
 import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
 import io.mosip.registration.processor.core.util.ServerUtil;
+import io.mosip.registration.processor.rest.client.audit.dto.AuditLogEvent;
 import io.mosip.registration.processor.rest.client.audit.dto.AuditRequestDto;
 import io.mosip.registration.processor.rest.client.audit.dto.AuditResponseDto;
 
@@ -41,6 +47,17 @@ public class AuditLogRequestBuilder {
 	private static final String AUDIT_SERVICE_ID = "mosip.registration.processor.audit.id";
 	private static final String REG_PROC_APPLICATION_VERSION = "mosip.registration.processor.application.version";
 	private static final String DATETIME_PATTERN = "mosip.registration.processor.datetime.pattern";
+	private static final String AUDIT_ASYNC_ENABLED = "registration.processor.audit.async.enabled";
+	private static final String AUDIT_ASYNC_BUFFER_CAPACITY = "registration.processor.audit.async.buffer-capacity";
+	private static final String AUDIT_ASYNC_BATCH_SIZE = "registration.processor.audit.async.batch-size";
+	private static final String AUDIT_ASYNC_FLUSH_INTERVAL = "registration.processor.audit.async.flush-interval-millis";
+	private static final String AUDIT_ASYNC_MAX_RETRIES = "registration.processor.audit.async.max-retries";
+	private static final String AUDIT_ASYNC_BACKOFF = "registration.processor.audit.async.backoff-millis";
+	private static final String AUDIT_ASYNC_JOURNAL_FILE = "registration.processor.audit.async.journal-file";
+	private static final String SERVER_PORT = "server.port";
+
+	/** The asynchronous publisher, created on first use when enabled. */
+	private volatile AsyncAuditLogPublisher asyncPublisher;
 
 	/**
 	 * Creates the audit request builder.
@@ -57,7 +74,6 @@ public class AuditLogRequestBuilder {
 	 *            the registration id
 	 * @return the audit response dto
 	 */
-	@SuppressWarnings("unchecked")
 	public ResponseWrapper<AuditResponseDto> createAuditRequestBuilder(String description, String eventId,
 			String eventName, String eventType, String registrationId, ApiName apiname) {
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
@@ -93,8 +109,7 @@ public class AuditLogRequestBuilder {
 					.parse(DateUtils.getUTCCurrentDateTimeString(env.getProperty(DATETIME_PATTERN)), format);
 			requestWrapper.setRequesttime(localdatetime);
 			requestWrapper.setVersion(env.getProperty(REG_PROC_APPLICATION_VERSION));
-			responseWrapper = (ResponseWrapper<AuditResponseDto>) registrationProcessorRestService.postApi(apiname, "",
-					"", requestWrapper, ResponseWrapper.class);
+			responseWrapper = postAudit(apiname, requestWrapper);
 		} catch (ApisResourceAccessException arae) {
 
 			regProcLogger.error(arae.getMessage());
@@ -108,7 +123,80 @@ public class AuditLogRequestBuilder {
 		return responseWrapper;
 	}
 
+	/**
+	 * Posts the audit request, or hands it to the asynchronous publisher when
+	 * async audit is enabled. In async mode an empty response is returned as
+	 * the audit service is not called on the caller thread.
+	 *
+	 * @param apiname
+	 *            the api name
+	 * @param requestWrapper
+	 *            the request wrapper
+	 * @return the response wrapper
+	 * @throws ApisResourceAccessException
+	 *             the apis resource access exception
+	 */
 	@SuppressWarnings("unchecked")
+	private ResponseWrapper<AuditResponseDto> postAudit(ApiName apiname,
+			RequestWrapper<AuditRequestDto> requestWrapper) throws ApisResourceAccessException {
+		if (Boolean.parseBoolean(env.getProperty(AUDIT_ASYNC_ENABLED))) {
+			AsyncAuditLogPublisher publisher = getAsyncPublisher();
+			if (publisher != null) {
+				publisher.submit(new AuditLogEvent(apiname.name(), requestWrapper));
+				return new ResponseWrapper<>();
+			}
+		}
+		return (ResponseWrapper<AuditResponseDto>) registrationProcessorRestService.postApi(apiname, "", "",
+				requestWrapper, ResponseWrapper.class);
+	}
+
+	private AsyncAuditLogPublisher getAsyncPublisher() {
+		AsyncAuditLogPublisher publisher = asyncPublisher;
+		if (publisher == null) {
+			synchronized (this) {
+				publisher = asyncPublisher;
+				if (publisher == null) {
+					Path journalFile = Paths.get(env.getProperty(AUDIT_ASYNC_JOURNAL_FILE, defaultJournalFile()));
+					try {
+						publisher = new AsyncAuditLogPublisher(registrationProcessorRestService,
+								env.getProperty(AUDIT_ASYNC_BUFFER_CAPACITY, Integer.class, 10000),
+								env.getProperty(AUDIT_ASYNC_BATCH_SIZE, Integer.class, 100),
+								env.getProperty(AUDIT_ASYNC_FLUSH_INTERVAL, Long.class, 1000L),
+								env.getProperty(AUDIT_ASYNC_MAX_RETRIES, Integer.class, 3),
+								env.getProperty(AUDIT_ASYNC_BACKOFF, Long.class, 500L), journalFile);
+					} catch (IOException e) {
+						// audits are posted on the caller thread rather than unjournaled
+						regProcLogger.error("Audit log journal {} unavailable, audits posted synchronously : {}",
+								journalFile, e.getMessage());
+						return null;
+					}
+					publisher.start();
+					asyncPublisher = publisher;
+				}
+			}
+		}
+		return publisher;
+	}
+
+	/**
+	 * Gets the default journal of this stage, named after its server port so
+	 * the stages, and the instances of a stage, on a host do not share one.
+	 */
+	private String defaultJournalFile() {
+		return Paths.get(System.getProperty("java.io.tmpdir"),
+				"regproc-audit-" + env.getProperty(SERVER_PORT, "default") + ".journal").toString();
+	}
+
+	/**
+	 * Stops the asynchronous publisher on context shutdown, the audits not
+	 * posted yet stay in its journal.
+	 */
+	@PreDestroy
+	public void shutdownAsyncPublisher() {
+		if (asyncPublisher != null)
+			asyncPublisher.shutdown();
+	}
+
 	public ResponseWrapper<AuditResponseDto> createAuditRequestBuilder(String description, String eventId,
 			String eventName, String eventType, String moduleId, String moduleName, String registrationId) {
 		regProcLogger.debug(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.REGISTRATIONID.toString(),
@@ -147,8 +235,7 @@ public class AuditLogRequestBuilder {
 					.parse(DateUtils.getUTCCurrentDateTimeString(env.getProperty(DATETIME_PATTERN)), format);
 			requestWrapper.setRequesttime(localdatetime);
 			requestWrapper.setVersion(env.getProperty(REG_PROC_APPLICATION_VERSION));
-			responseWrapper = (ResponseWrapper<AuditResponseDto>) registrationProcessorRestService
-					.postApi(ApiName.AUDIT, "", "", requestWrapper, ResponseWrapper.class);
+			responseWrapper = postAudit(ApiName.AUDIT, requestWrapper);
 
 		} catch (ApisResourceAccessException arae) {
 
@@ -0,0 +1,23 @@
+package io.mosip.registration.processor.rest.client.audit.dto;
+
+import io.mosip.registration.processor.core.http.RequestWrapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An audit request waiting in the asynchronous audit pipeline, together with
+ * the api it has to be posted to. Also the line format of the journal file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogEvent {
+
+	/** The api name. */
+	private String apiName;
+
+	/** The audit request. */
+	private RequestWrapper<AuditRequestDto> request;
+
+}
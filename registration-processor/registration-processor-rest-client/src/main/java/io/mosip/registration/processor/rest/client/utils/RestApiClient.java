@@ -5,23 +5,18 @@ import java.net.URI;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
-import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.Iterator;
 
-import javax.net.ssl.SSLContext;
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.ssl.TrustStrategy;
 import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -71,6 +66,24 @@ public class RestApiClient {
 
 	private static final String AUTHORIZATION = "Authorization=";
 
+	private static final String HTTP_POOL_MAX_TOTAL = "registration.processor.httpclient.pool.max-total";
+	private static final String HTTP_POOL_MAX_PER_ROUTE = "registration.processor.httpclient.pool.max-per-route";
+	private static final String HTTP_POOL_IDLE_TIMEOUT = "registration.processor.httpclient.pool.idle-timeout-seconds";
+	private static final String HTTP_POOL_KEEP_ALIVE = "registration.processor.httpclient.pool.keep-alive-seconds";
+	private static final String HTTP_POOL_CONNECTION_TTL = "registration.processor.httpclient.pool.connection-ttl-seconds";
+
+	private static final int DEFAULT_MAX_TOTAL = 100;
+	private static final int DEFAULT_MAX_PER_ROUTE = 20;
+	private static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 30;
+	private static final long DEFAULT_KEEP_ALIVE_SECONDS = 30;
+	private static final long DEFAULT_CONNECTION_TTL_SECONDS = 300;
+
+	/** The shared rest template, built once on first use. */
+	private volatile RestTemplate restTemplate;
+
+	/** The connection pool backing the shared rest template. */
+	private volatile RestClientConnectionPool connectionPool;
+
 
 	/**
 	 * Gets the api. *
@@ -83,10 +96,9 @@ public class RestApiClient {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> T getApi(URI uri, Class<?> responseType) throws Exception {
-		RestTemplate restTemplate;
 		T result = null;
 		try {
-			restTemplate = getRestTemplate();
+			RestTemplate restTemplate = getRestTemplate();
 			result = (T) restTemplate.exchange(uri, HttpMethod.GET, setRequestHeader(null, null), responseType)
 					.getBody();
 		} catch (Exception e) {
@@ -113,10 +125,9 @@ public class RestApiClient {
 	@SuppressWarnings("unchecked")
 	public <T> T postApi(String uri, MediaType mediaType, Object requestType, Class<?> responseClass) throws Exception {
 
-		RestTemplate restTemplate;
 		T result = null;
 		try {
-			restTemplate = getRestTemplate();
+			RestTemplate restTemplate = getRestTemplate();
 			logger.info(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(),
 					LoggerFileConstant.APPLICATIONID.toString(), uri);
 			result = (T) restTemplate.postForObject(uri, setRequestHeader(requestType, mediaType), responseClass);
@@ -147,10 +158,9 @@ public class RestApiClient {
 	public <T> T patchApi(String uri, MediaType mediaType, Object requestType, Class<?> responseClass)
 			throws Exception {
 
-		RestTemplate restTemplate;
 		T result = null;
 		try {
-			restTemplate = getRestTemplate();
+			RestTemplate restTemplate = getRestTemplate();
 			logger.info(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(),
 					LoggerFileConstant.APPLICATIONID.toString(), uri);
 			result = (T) restTemplate.patchForObject(uri, setRequestHeader(requestType, mediaType), responseClass);
@@ -188,11 +198,10 @@ public class RestApiClient {
 	@SuppressWarnings("unchecked")
 	public <T> T putApi(String uri, Object requestType, Class<?> responseClass, MediaType mediaType) throws Exception {
 
-		RestTemplate restTemplate;
 		T result = null;
 		ResponseEntity<T> response = null;
 		try {
-			restTemplate = getRestTemplate();
+			RestTemplate restTemplate = getRestTemplate();
 			logger.info(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(),
 					LoggerFileConstant.APPLICATIONID.toString(), uri);
 
@@ -210,6 +219,31 @@ public class RestApiClient {
 	}
 
 	public RestTemplate getRestTemplate() throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
+		RestTemplate template = restTemplate;
+		if (template == null) {
+			synchronized (this) {
+				template = restTemplate;
+				if (template == null) {
+					template = createRestTemplate();
+					restTemplate = template;
+				}
+			}
+		}
+		return template;
+	}
+
+	/**
+	 * Gets the shared connection pool, null when running with the dev-k8
+	 * profile or before the first call.
+	 *
+	 * @return the connection pool
+	 */
+	public RestClientConnectionPool getConnectionPool() {
+		return connectionPool;
+	}
+
+	private RestTemplate createRestTemplate()
+			throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
 		logger.info(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(),
 				LoggerFileConstant.APPLICATIONID.toString(), Arrays.asList(environment.getActiveProfiles()).toString());
 		if (Arrays.stream(environment.getActiveProfiles()).anyMatch("dev-k8"::equals)) {
@@ -218,23 +252,30 @@ public class RestApiClient {
 					Arrays.asList(environment.getActiveProfiles()).toString());
 			return new RestTemplate();
 		} else {
-			TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
-
-			SSLContext sslContext = org.apache.http.ssl.SSLContexts.custom()
-					.loadTrustMaterial(null, acceptingTrustStrategy).build();
-
-			SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext);
-
-			CloseableHttpClient httpClient = HttpClients.custom().setSSLSocketFactory(csf).build();
+			connectionPool = new RestClientConnectionPool(
+					environment.getProperty(HTTP_POOL_MAX_TOTAL, Integer.class, DEFAULT_MAX_TOTAL),
+					environment.getProperty(HTTP_POOL_MAX_PER_ROUTE, Integer.class, DEFAULT_MAX_PER_ROUTE),
+					environment.getProperty(HTTP_POOL_IDLE_TIMEOUT, Long.class, DEFAULT_IDLE_TIMEOUT_SECONDS),
+					environment.getProperty(HTTP_POOL_KEEP_ALIVE, Long.class, DEFAULT_KEEP_ALIVE_SECONDS),
+					environment.getProperty(HTTP_POOL_CONNECTION_TTL, Long.class, DEFAULT_CONNECTION_TTL_SECONDS));
 
 			HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
 
-			requestFactory.setHttpClient(httpClient);
+			requestFactory.setHttpClient(connectionPool.getHttpClient());
 			return new RestTemplate(requestFactory);
 		}
 
 	}
 
+	/**
+	 * Releases the pooled connections on context shutdown.
+	 */
+	@PreDestroy
+	public void closeConnectionPool() {
+		if (connectionPool != null)
+			connectionPool.close();
+	}
+
 	/**
 	 * this method sets token to header of the request
 	 *
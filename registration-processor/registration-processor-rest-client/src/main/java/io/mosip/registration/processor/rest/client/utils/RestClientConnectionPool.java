@@ -0,0 +1,167 @@
+package io.mosip.registration.processor.rest.client.utils;
+
+import java.io.IOException;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.TrustStrategy;
+
+import io.mosip.kernel.core.logger.spi.Logger;
+import io.mosip.registration.processor.core.constant.LoggerFileConstant;
+import io.mosip.registration.processor.core.logger.RegProcessorLogger;
+
+/**
+ * Shared keep-alive connection pool used by {@link RestApiClient}. One
+ * instance owns one {@link PoolingHttpClientConnectionManager} and one
+ * {@link CloseableHttpClient}, so repeated calls to the same service reuse the
+ * already negotiated TLS connection instead of opening a new one per request.
+ */
+public class RestClientConnectionPool {
+
+	/** The logger. */
+	private final Logger logger = RegProcessorLogger.getLogger(RestClientConnectionPool.class);
+
+	/** The connection manager. */
+	private final PoolingHttpClientConnectionManager connectionManager;
+
+	/** The http client. */
+	private final CloseableHttpClient httpClient;
+
+	/**
+	 * Instantiates a new connection pool.
+	 *
+	 * @param maxTotal
+	 *            the max connections across all routes
+	 * @param maxPerRoute
+	 *            the max connections per route
+	 * @param idleTimeoutSeconds
+	 *            the idle time after which a pooled connection is evicted
+	 * @param keepAliveSeconds
+	 *            the keep alive used when the server does not send one
+	 * @param connectionTtlSeconds
+	 *            the max life of a pooled connection
+	 * @throws KeyManagementException
+	 *             the key management exception
+	 * @throws NoSuchAlgorithmException
+	 *             the no such algorithm exception
+	 * @throws KeyStoreException
+	 *             the key store exception
+	 */
+	public RestClientConnectionPool(int maxTotal, int maxPerRoute, long idleTimeoutSeconds, long keepAliveSeconds,
+			long connectionTtlSeconds) throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
+		TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
+		SSLContext sslContext = org.apache.http.ssl.SSLContexts.custom().loadTrustMaterial(null, acceptingTrustStrategy)
+				.build();
+
+		Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory())
+				.register("https", new SSLConnectionSocketFactory(sslContext)).build();
+
+		connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry, null, null, null,
+				connectionTtlSeconds, TimeUnit.SECONDS);
+		connectionManager.setMaxTotal(maxTotal);
+		connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+		httpClient = HttpClients.custom().setConnectionManager(connectionManager)
+				.setKeepAliveStrategy(keepAliveStrategy(keepAliveSeconds * 1000))
+				.evictExpiredConnections().evictIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS).build();
+	}
+
+	/**
+	 * Keep alive strategy honouring the server Keep-Alive header and falling
+	 * back to the configured default.
+	 *
+	 * @param defaultKeepAliveMillis
+	 *            the default keep alive in millis
+	 * @return the connection keep alive strategy
+	 */
+	private ConnectionKeepAliveStrategy keepAliveStrategy(long defaultKeepAliveMillis) {
+		return (HttpResponse response, HttpContext context) -> {
+			long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return keepAlive > 0 ? keepAlive : defaultKeepAliveMillis;
+		};
+	}
+
+	/**
+	 * Gets the shared http client.
+	 *
+	 * @return the http client
+	 */
+	public CloseableHttpClient getHttpClient() {
+		return httpClient;
+	}
+
+	/**
+	 * Gets the connection manager.
+	 *
+	 * @return the connection manager
+	 */
+	public HttpClientConnectionManager getConnectionManager() {
+		return connectionManager;
+	}
+
+	/**
+	 * Gets the pool statistics across all routes.
+	 *
+	 * @return the total stats
+	 */
+	public PoolStats getTotalStats() {
+		return connectionManager.getTotalStats();
+	}
+
+	/**
+	 * Gets the pool statistics of one route.
+	 *
+	 * @param route
+	 *            the route
+	 * @return the route stats
+	 */
+	public PoolStats getStats(HttpRoute route) {
+		return connectionManager.getStats(route);
+	}
+
+	/**
+	 * Checks whether callers are currently waiting for a connection because
+	 * every connection of the pool is leased.
+	 *
+	 * @return true, if the pool is saturated
+	 */
+	public boolean isSaturated() {
+		PoolStats stats = connectionManager.getTotalStats();
+		return stats.getPending() > 0 && stats.getLeased() >= stats.getMax();
+	}
+
+	/**
+	 * Closes the client and all pooled connections.
+	 */
+	public void close() {
+		try {
+			httpClient.close();
+		} catch (IOException e) {
+			logger.error(LoggerFileConstant.SESSIONID.toString(), LoggerFileConstant.APPLICATIONID.toString(),
+					LoggerFileConstant.APPLICATIONID.toString(), e.getMessage());
+		}
+		connectionManager.shutdown();
+	}
+
+}
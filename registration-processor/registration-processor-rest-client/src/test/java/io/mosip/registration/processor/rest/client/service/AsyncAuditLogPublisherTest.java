@@ -0,0 +1,239 @@
+package io.mosip.registration.processor.rest.client.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import io.mosip.registration.processor.core.code.ApiName;
+import io.mosip.registration.processor.core.exception.ApisResourceAccessException;
+import io.mosip.registration.processor.core.http.RequestWrapper;
+import io.mosip.registration.processor.core.http.ResponseWrapper;
+import io.mosip.registration.processor.core.spi.restclient.RegistrationProcessorRestClientService;
+import io.mosip.registration.processor.rest.client.audit.builder.AsyncAuditLogPublisher;
+import io.mosip.registration.processor.rest.client.audit.dto.AuditLogEvent;
+import io.mosip.registration.processor.rest.client.audit.dto.AuditRequestDto;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncAuditLogPublisherTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Mock
+	private RegistrationProcessorRestClientService<Object> registrationProcessorRestService;
+
+	private List<String> posted = Collections.synchronizedList(new ArrayList<>());
+
+	private AtomicBoolean failing = new AtomicBoolean();
+
+	/** The posts accepted before the audit service fails, -1 for all. */
+	private AtomicInteger failAfter = new AtomicInteger(-1);
+
+	private Path journalFile;
+
+	private AsyncAuditLogPublisher publisher;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setup() throws Exception {
+		journalFile = folder.getRoot().toPath().resolve("audit.journal");
+		Mockito.when(registrationProcessorRestService.postApi(any(), any(), any(), any(), any())).thenAnswer(i -> {
+			if (failing.get() || failAfter.get() == 0)
+				throw new ApisResourceAccessException("audit service down");
+			failAfter.decrementAndGet();
+			posted.add(((RequestWrapper<AuditRequestDto>) i.getArgument(3)).getRequest().getId());
+			return new ResponseWrapper<>();
+		});
+	}
+
+	@After
+	public void tearDown() {
+		if (publisher != null)
+			publisher.shutdown();
+	}
+
+	@Test
+	public void flushInBatchesTest() throws Exception {
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 100, 60000, 0, 1, journalFile);
+		submit(250);
+
+		publisher.flush();
+
+		assertEquals(rids(250), posted);
+		assertEquals(250, publisher.getPublishedCount());
+		assertEquals(3, publisher.getBatchCount());
+		assertEquals(0, publisher.getBufferedCount());
+		assertEquals(0, publisher.getJournalReadCount());
+		assertEquals("the journal is truncated once posted", 0, Files.size(journalFile));
+	}
+
+	@Test
+	public void failedBatchReplayedFromJournalTest() throws Exception {
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 10, 60000, 2, 1, journalFile);
+		submit(25);
+
+		failing.set(true);
+		publisher.flush();
+
+		assertEquals(0, posted.size());
+		assertEquals(3, publisher.getFailedAttemptCount());
+		assertTrue(publisher.getPendingBytes() > 0);
+
+		failing.set(false);
+		publisher.flush();
+
+		assertEquals(rids(25), posted);
+		assertEquals(10, publisher.getJournalReadCount());
+		assertEquals(0, publisher.getPendingBytes());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void runtimeExceptionLosesNoEventTest() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		Mockito.when(registrationProcessorRestService.postApi(any(), any(), any(), any(), any())).thenAnswer(i -> {
+			if (calls.incrementAndGet() == 2)
+				throw new IllegalStateException("connection reset");
+			posted.add(((RequestWrapper<AuditRequestDto>) i.getArgument(3)).getRequest().getId());
+			return new ResponseWrapper<>();
+		});
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 10, 60000, 0, 1, journalFile);
+		submit(3);
+
+		publisher.flush();
+
+		assertEquals(rids(1), posted);
+		assertEquals(1, publisher.getFailedAttemptCount());
+		assertTrue("the events not posted stay in the journal", publisher.getPendingBytes() > 0);
+
+		publisher.flush();
+
+		assertEquals(rids(3), posted);
+		assertEquals(0, publisher.getPendingBytes());
+	}
+
+	@Test
+	public void bufferFullReadsJournalTest() throws Exception {
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 2, 10, 60000, 0, 1, journalFile);
+		submit(5);
+
+		assertEquals(2, publisher.getBufferedCount());
+
+		publisher.flush();
+
+		assertEquals(rids(5), posted);
+		assertEquals(3, publisher.getJournalReadCount());
+	}
+
+	@Test
+	public void restartPostsEventsNotPostedTest() throws Exception {
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 3, 60000, 0, 1, journalFile);
+		submit(10);
+		failAfter.set(4);
+		publisher.flush();
+		publisher.shutdown();
+		assertEquals(rids(4), posted);
+
+		failAfter.set(-1);
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 3, 60000, 0, 1, journalFile);
+		publisher.flush();
+
+		assertEquals("every event is posted once", rids(10), posted);
+		assertEquals(6, publisher.getJournalReadCount());
+	}
+
+	@Test
+	public void partlyWrittenLineDroppedOnRestartTest() throws Exception {
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 10, 60000, 0, 1, journalFile);
+		submit(3);
+		publisher.shutdown();
+		Files.write(journalFile, "{\"apiName\":\"AUD".getBytes(), StandardOpenOption.APPEND);
+
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 10, 60000, 0, 1, journalFile);
+		publisher.flush();
+
+		assertEquals(rids(3), posted);
+	}
+
+	@Test(expected = IOException.class)
+	public void journalOfOneStageOnlyTest() throws Exception {
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 10, 60000, 0, 1, journalFile);
+
+		new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 10, 60000, 0, 1, journalFile);
+	}
+
+	@Test
+	public void journalKeptByItsPublisherTest() throws Exception {
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 10, 60000, 0, 1, journalFile);
+		try {
+			new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 10, 60000, 0, 1,
+					journalFile.getParent().resolve(".").resolve(journalFile.getFileName()));
+			fail("the journal is used by the first publisher");
+		} catch (IOException e) {
+			// expected
+		}
+		submit(3);
+		publisher.flush();
+		assertEquals(rids(3), posted);
+
+		publisher.shutdown();
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 10, 60000, 0, 1, journalFile);
+		submit(2);
+		publisher.flush();
+		assertEquals(5, posted.size());
+	}
+
+	@Test
+	public void backgroundFlushTest() throws Exception {
+		publisher = new AsyncAuditLogPublisher(registrationProcessorRestService, 1000, 50, 10, 0, 1, journalFile);
+		publisher.start();
+		submit(100);
+
+		for (int i = 0; i < 200 && posted.size() < 100; i++)
+			Thread.sleep(10);
+
+		assertEquals(100, posted.size());
+	}
+
+	private void submit(int count) {
+		for (int i = 0; i < count; i++)
+			publisher.submit(event("rid" + i));
+	}
+
+	private static List<String> rids(int count) {
+		return IntStream.range(0, count).mapToObj(i -> "rid" + i).collect(Collectors.toList());
+	}
+
+	private AuditLogEvent event(String registrationId) {
+		AuditRequestDto auditRequestDto = new AuditRequestDto();
+		auditRequestDto.setId(registrationId);
+		auditRequestDto.setEventId("RPR_405");
+		RequestWrapper<AuditRequestDto> requestWrapper = new RequestWrapper<>();
+		requestWrapper.setRequest(auditRequestDto);
+		return new AuditLogEvent(ApiName.AUDIT.name(), requestWrapper);
+	}
+
+}
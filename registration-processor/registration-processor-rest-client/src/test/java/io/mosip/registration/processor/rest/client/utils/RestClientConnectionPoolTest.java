@@ -0,0 +1,102 @@
+package io.mosip.registration.processor.rest.client.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class RestClientConnectionPoolTest {
+
+	private static final int CALLS = 200;
+
+	private HttpServer server;
+
+	private String url;
+
+	private Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+	private RestClientConnectionPool pool;
+
+	@Before
+	public void setup() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/ping", exchange -> {
+			clientPorts.add(exchange.getRemoteAddress().getPort());
+			byte[] body = "pong".getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(body);
+			}
+		});
+		server.start();
+		url = "http://127.0.0.1:" + server.getAddress().getPort() + "/ping";
+		pool = new RestClientConnectionPool(10, 5, 30, 30, 300);
+	}
+
+	@After
+	public void tearDown() {
+		pool.close();
+		server.stop(0);
+	}
+
+	@Test
+	public void pooledRestTemplateReusesConnectionTest() {
+		HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+		requestFactory.setHttpClient(pool.getHttpClient());
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+
+		for (int i = 0; i < CALLS; i++) {
+			assertEquals("pong", restTemplate.getForObject(url, String.class));
+		}
+
+		assertEquals(1, clientPorts.size());
+		PoolStats stats = pool.getTotalStats();
+		assertEquals(0, stats.getLeased());
+		assertEquals(1, stats.getAvailable());
+		assertEquals(10, stats.getMax());
+		assertFalse(pool.isSaturated());
+	}
+
+	@Test
+	public void pooledClientOpensOneConnectionTest() throws IOException {
+		for (int i = 0; i < CALLS; i++) {
+			try (CloseableHttpClient client = HttpClients.custom().build();
+					CloseableHttpResponse response = client.execute(new HttpGet(url))) {
+				EntityUtils.consume(response.getEntity());
+			}
+		}
+		int unpooledConnections = clientPorts.size();
+		clientPorts.clear();
+
+		for (int i = 0; i < CALLS; i++) {
+			try (CloseableHttpResponse response = pool.getHttpClient().execute(new HttpGet(url))) {
+				EntityUtils.consume(response.getEntity());
+			}
+		}
+
+		assertEquals(CALLS, unpooledConnections);
+		assertEquals(1, clientPorts.size());
+		assertTrue(pool.getTotalStats().getAvailable() <= 5);
+	}
+
+}